@@ -0,0 +1,97 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a configuration from a local {@link AWSAppConfigAgentStub} through the agent transport with calling
+ * an AppConfigData stub through the SDK transports, both over HTTP on localhost with the same added latency: polls of
+ * an unchanged configuration, which the agent answers with a bodiless {@code 304}, and the first configuration of a
+ * new session, which costs the SDK an extra session request. {@code SDK_V2_ASYNC} needs
+ * {@code software.amazon.awssdk:appconfigdata} on the classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgentTransportBenchmark {
+
+    @Param({"AGENT", "SDK_V1", "SDK_V2_ASYNC"})
+    public String transport;
+
+    @Param({"0"})
+    public int latencyMillis;
+
+    @Param({"1000"})
+    public int keys;
+
+    private AWSAppConfigAgentStub agent;
+
+    private HttpServer appConfigData;
+
+    private AWSAppConfigClientRegistry clientRegistry;
+
+    private AWSAppConfigResource resource;
+
+    private AWSAppConfigSession session;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] payload = SyntheticPayloads.yaml(this.keys, 3);
+        System.setProperty("aws.accessKeyId", "benchmark");
+        System.setProperty("aws.secretKey", "benchmark");
+        System.setProperty("aws.secretAccessKey", "benchmark");
+        // the stubs would otherwise add delayed ACK stalls to responses written in several packets
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.agent = AWSAppConfigAgentStub.start();
+        this.agent.setLatency(Duration.ofMillis(this.latencyMillis));
+        this.agent.publish("app", "env", "profile", "application/x-yaml", payload);
+        this.appConfigData = TransportFootprint.startStub(payload, this.latencyMillis);
+        AWSAppConfigProperties properties = new AWSAppConfigProperties();
+        properties.getClient().setRegion("us-east-1");
+        properties.getClient().setEndpoint("http://localhost:" + this.appConfigData.getAddress().getPort());
+        properties.getClient().setAgentEndpoint(this.agent.getEndpoint());
+        this.clientRegistry = new AWSAppConfigClientRegistry();
+        StartConfigurationSessionRequest request = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+                .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("profile");
+        this.resource = new AWSAppConfigResource(request, properties, this.clientRegistry);
+        this.resource.setTransportType(AWSAppConfigProperties.Transport.valueOf(this.transport));
+        this.session = new AWSAppConfigSession(this.resource);
+        this.session.poll();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.clientRegistry.close();
+        this.agent.close();
+        this.appConfigData.stop(0);
+    }
+
+    @Benchmark
+    public GetLatestConfigurationResult pollUnchanged() {
+        return this.session.poll();
+    }
+
+    @Benchmark
+    public GetLatestConfigurationResult firstConfiguration() {
+        return new AWSAppConfigSession(this.resource).poll();
+    }
+}
@@ -0,0 +1,72 @@
+package org.springframework.boot.context.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachingPropertyResolverBenchmark {
+
+    @Param({"24"})
+    public int propertySources;
+
+    @Param({"1000"})
+    public int keys;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private PropertyResolver resolver;
+
+    private String lastSourceKey;
+
+    private String placeholder;
+
+    @Setup
+    public void setup() {
+        StandardEnvironment environment = new StandardEnvironment();
+        for (int i = 0; i < this.propertySources; i++) {
+            Map<String, Object> properties = SyntheticPayloads.flattened(this.keys, 4);
+            properties.put("source" + i + ".name", "source-" + i);
+            environment.getPropertySources().addLast(AWSAppConfigDataLoader.createPropertySource("appconfig-" + i, properties, 1000));
+        }
+        ConfigurationPropertySources.attach(environment);
+        this.lastSourceKey = "source" + (this.propertySources - 1) + ".name";
+        this.placeholder = "${" + this.lastSourceKey + "}/${app.missing.key:default}";
+        this.resolver = this.cached ? new AWSAppConfigCachingPropertyResolver(environment, new AWSAppConfigGeneration(), 10000) : environment;
+    }
+
+    @Benchmark
+    public String getPropertyFromLastSource() {
+        return this.resolver.getProperty(this.lastSourceKey);
+    }
+
+    @Benchmark
+    public String getMissingProperty() {
+        return this.resolver.getProperty("app.missing.key");
+    }
+
+    @Benchmark
+    public String resolvePlaceholders() {
+        return this.resolver.resolvePlaceholders(this.placeholder);
+    }
+}
@@ -0,0 +1,54 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.DefaultBootstrapContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataLoaderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int keys;
+
+    @Param({"2", "6"})
+    public int depth;
+
+    @Param({"0"})
+    public int latencyMillis;
+
+    private AWSAppConfigResource resource;
+
+    private final AWSAppConfigDataLoader loader = new AWSAppConfigDataLoader();
+
+    @Setup
+    public void setup() {
+        FakeAWSAppConfigData client = new FakeAWSAppConfigData("application/x-yaml", SyntheticPayloads.yaml(this.keys, this.depth),
+                this.latencyMillis, TimeUnit.MILLISECONDS);
+        StartConfigurationSessionRequest request = new StartConfigurationSessionRequest().withApplicationIdentifier("benchmark")
+                .withEnvironmentIdentifier("jmh").withConfigurationProfileIdentifier("synthetic");
+        this.resource = new AWSAppConfigResource(client, request);
+    }
+
+    @Benchmark
+    public ConfigData load() {
+        DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+        return this.loader.load(() -> bootstrapContext, this.resource);
+    }
+}
@@ -0,0 +1,62 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.AbstractAWSAppConfigData;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationRequest;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionResult;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process AppConfigData stand-in serving a canned payload on the first poll of every session and empty
+ * "unchanged" responses afterwards, optionally after a fixed latency.
+ */
+public class FakeAWSAppConfigData extends AbstractAWSAppConfigData {
+
+    private final AtomicLong sessions = new AtomicLong();
+
+    private final String contentType;
+
+    private final ByteBuffer payload;
+
+    private final long latencyNanos;
+
+    public FakeAWSAppConfigData(String contentType, byte[] payload, long latency, TimeUnit unit) {
+        this.contentType = contentType;
+        this.payload = ByteBuffer.wrap(payload).asReadOnlyBuffer();
+        this.latencyNanos = unit.toNanos(latency);
+    }
+
+    @Override
+    public StartConfigurationSessionResult startConfigurationSession(StartConfigurationSessionRequest request) {
+        pause();
+        return new StartConfigurationSessionResult().withInitialConfigurationToken("initial-" + this.sessions.incrementAndGet());
+    }
+
+    @Override
+    public GetLatestConfigurationResult getLatestConfiguration(GetLatestConfigurationRequest request) {
+        pause();
+        GetLatestConfigurationResult result = new GetLatestConfigurationResult().withContentType(this.contentType)
+                .withNextPollConfigurationToken("next-" + request.getConfigurationToken()).withNextPollIntervalInSeconds(15)
+                .withVersionLabel("1");
+        boolean initial = request.getConfigurationToken().startsWith("initial-");
+        return result.withConfiguration(initial ? this.payload.duplicate() : ByteBuffer.allocate(0));
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    private void pause() {
+        if (this.latencyNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(this.latencyNanos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
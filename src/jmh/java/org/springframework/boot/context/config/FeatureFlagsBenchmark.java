@@ -0,0 +1,67 @@
+package org.springframework.boot.context.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeatureFlagsBenchmark {
+
+    @Param({"10", "1000"})
+    public int flags;
+
+    private AWSAppConfigFeatureFlags featureFlags;
+
+    private String flag;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < this.flags; i++) {
+            json.append((i > 0) ? "," : "").append("\"flag-").append(i).append("\":{\"enabled\":").append(i % 2 == 0)
+                    .append(",\"limit\":").append(i).append(",\"ratio\":0.").append(i).append(",\"variant\":\"v").append(i)
+                    .append("\",\"regions\":[\"eu-west-1\",\"us-east-1\"]}");
+        }
+        json.append("}");
+        this.featureFlags = new AWSAppConfigFeatureFlags(AWSAppConfigFeatureFlagsSnapshot
+                .compile(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)), "1"));
+        this.flag = "flag-" + (this.flags / 2);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean isEnabled() {
+        return this.featureFlags.isEnabled(this.flag);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long getLong() {
+        return this.featureFlags.getLong(this.flag, "limit", -1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getString() {
+        return this.featureFlags.getString(this.flag, "variant", null);
+    }
+}
@@ -0,0 +1,123 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves every placeholder-bearing value of a configuration, as binding all of it does, with the binder's
+ * {@link PropertySourcesPlaceholdersResolver} and with an {@link AWSAppConfigPlaceholderGraph}, before and after
+ * changing the most referenced key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaceholderResolutionBenchmark {
+
+    private static final String NAME = "appconfig";
+
+    @Param({"20000"})
+    public int keys;
+
+    @Param({"0.3"})
+    public double ratio;
+
+    private StandardEnvironment environment;
+
+    private AWSAppConfigSessions sessions;
+
+    private Map<String, Object> properties;
+
+    private List<Object> values;
+
+    private PropertySourcesPlaceholdersResolver resolver;
+
+    private AWSAppConfigPlaceholderGraph graph;
+
+    private String changedKey;
+
+    private int change;
+
+    @Setup
+    public void setup() {
+        this.properties = new HashMap<>(SyntheticPayloads.withPlaceholders(this.keys, 4, this.ratio));
+        this.environment = new StandardEnvironment();
+        this.environment.getPropertySources().addLast(new MapPropertySource(NAME, this.properties));
+        ConfigurationPropertySources.attach(this.environment);
+        AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(new AWSAppConfigInMemoryTransport(),
+                new StartConfigurationSessionRequest()));
+        session.setPropertySourceNames(Collections.singletonList(NAME));
+        this.sessions = new AWSAppConfigSessions();
+        this.sessions.register(session);
+        this.values = new ArrayList<>();
+        Map<String, Integer> references = new HashMap<>();
+        this.properties.values().forEach((value) -> {
+            if (value instanceof String text && text.startsWith("${")) {
+                this.values.add(text);
+                references.merge(text.substring(2, text.indexOf('}')).split(":")[0], 1, Integer::sum);
+            }
+        });
+        this.changedKey = Collections.max(references.entrySet(), Map.Entry.comparingByValue()).getKey();
+        this.resolver = new PropertySourcesPlaceholdersResolver(this.environment);
+        this.graph = new AWSAppConfigPlaceholderGraph(this.environment, this.sessions);
+        this.graph.build();
+    }
+
+    @Benchmark
+    public void resolveWithBinderResolver(Blackhole blackhole) {
+        for (Object value : this.values) {
+            blackhole.consume(this.resolver.resolvePlaceholders(value));
+        }
+    }
+
+    @Benchmark
+    public void resolveWithGraph(Blackhole blackhole) {
+        for (Object value : this.values) {
+            blackhole.consume(this.graph.resolvePlaceholders(value));
+        }
+    }
+
+    @Benchmark
+    public void changeKeyAndResolveWithBinderResolver(Blackhole blackhole) {
+        this.properties.put(this.changedKey, "changed-" + this.change++);
+        resolveWithBinderResolver(blackhole);
+    }
+
+    @Benchmark
+    public void changeKeyAndResolveWithGraph(Blackhole blackhole) {
+        this.properties.put(this.changedKey, "changed-" + this.change++);
+        this.graph.update(Collections.singleton(this.changedKey));
+        resolveWithGraph(blackhole);
+    }
+
+    @Benchmark
+    public AWSAppConfigPlaceholderGraph build() {
+        AWSAppConfigPlaceholderGraph graph = new AWSAppConfigPlaceholderGraph(this.environment, this.sessions);
+        graph.build();
+        return graph;
+    }
+}
@@ -0,0 +1,79 @@
+package org.springframework.boot.context.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffs two versions of a configuration differing by a single key, by flattening both versions and by descending
+ * their {@link AWSAppConfigPropertyHashes}, and measures the one-off cost of hashing a version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyDiffBenchmark {
+
+    @Param({"100000"})
+    public int keys;
+
+    private List<PropertySource<?>> previous;
+
+    private List<PropertySource<?>> current;
+
+    private AWSAppConfigPropertyHashes previousHashes;
+
+    private AWSAppConfigPropertyHashes currentHashes;
+
+    private String[] names;
+
+    private Object[] values;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> properties = SyntheticPayloads.flattened(this.keys, 4);
+        Map<String, Object> changed = new HashMap<>(properties);
+        changed.put(SyntheticPayloads.key(this.keys / 2, 4), "changed");
+        this.previous = List.of(new MapPropertySource("previous", properties));
+        this.current = List.of(new MapPropertySource("current", changed));
+        this.previousHashes = new AWSAppConfigIndexedPropertySource("previous", properties).getHashes();
+        AWSAppConfigIndexedPropertySource indexed = new AWSAppConfigIndexedPropertySource("current", changed);
+        this.currentHashes = indexed.getHashes();
+        this.names = indexed.getPropertyNames();
+        this.values = new Object[this.names.length];
+        Arrays.setAll(this.values, (index) -> indexed.getProperty(this.names[index]));
+    }
+
+    @Benchmark
+    public Map<String, AWSAppConfigChangedEvent.Change> diffFlattened() {
+        return AWSAppConfigPropertyDiff.diff(this.previous, this.current);
+    }
+
+    @Benchmark
+    public Map<String, AWSAppConfigChangedEvent.Change> diffHashes() {
+        return AWSAppConfigPropertyHashes.diff(this.previousHashes, this.currentHashes);
+    }
+
+    @Benchmark
+    public AWSAppConfigPropertyHashes hash() {
+        return AWSAppConfigPropertyHashes.of(this.names, this.values);
+    }
+}
@@ -0,0 +1,74 @@
+package org.springframework.boot.context.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyResolutionBenchmark {
+
+    private static final Bindable<Map<String, String>> STRING_MAP = Bindable.mapOf(String.class, String.class);
+
+    @Param({"1000", "10000", "100000"})
+    public int keys;
+
+    @Param({"2", "6"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private StandardEnvironment environment;
+
+    private Binder binder;
+
+    private String presentKey;
+
+    private String bindPrefix;
+
+    @Setup
+    public void setup() {
+        this.environment = new StandardEnvironment();
+        this.environment.getPropertySources().addLast(AWSAppConfigDataLoader.createPropertySource("appconfig",
+                SyntheticPayloads.flattened(this.keys, this.depth), this.indexed ? 0 : -1));
+        ConfigurationPropertySources.attach(this.environment);
+        this.binder = Binder.get(this.environment);
+        this.presentKey = SyntheticPayloads.key(this.keys / 2, this.depth);
+        this.bindPrefix = this.presentKey.substring(0, this.presentKey.lastIndexOf('.'));
+    }
+
+    @Benchmark
+    public String getPresentProperty() {
+        return this.environment.getProperty(this.presentKey);
+    }
+
+    @Benchmark
+    public String getMissingProperty() {
+        return this.environment.getProperty("app.missing.key");
+    }
+
+    @Benchmark
+    public Map<String, String> bindMap() {
+        return this.binder.bind(this.bindPrefix, STRING_MAP).orElse(null);
+    }
+}
@@ -0,0 +1,54 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Prints the structural heap overhead of the map based and the indexed property sources for a synthetic
+ * configuration. Key and value strings are shared between the measured copies, so only the structure is counted.
+ * Run with {@code java -cp <jmh runtime classpath> org.springframework.boot.context.config.PropertySourceFootprint [keys]}.
+ */
+public final class PropertySourceFootprint {
+
+    private static final int COPIES = 5;
+
+    private PropertySourceFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int keys = (args.length > 0) ? Integer.parseInt(args[0]) : 50_000;
+        Map<String, Object> properties = SyntheticPayloads.flattened(keys, 4);
+        long map = measure(() -> new OriginTrackedMapPropertySource("map", Collections.unmodifiableMap(new LinkedHashMap<>(properties)), true));
+        long indexed = measure(() -> new AWSAppConfigIndexedPropertySource("indexed", properties));
+        System.out.printf("%d keys: OriginTrackedMapPropertySource %d KiB, AWSAppConfigIndexedPropertySource %d KiB%n", keys,
+                map / 1024, indexed / 1024);
+    }
+
+    private static long measure(Supplier<PropertySource<?>> factory) {
+        long before = usedMemory();
+        List<PropertySource<?>> copies = new ArrayList<>(COPIES);
+        for (int i = 0; i < COPIES; i++) {
+            copies.add(factory.get());
+        }
+        long used = usedMemory() - before;
+        if (copies.size() != COPIES) {
+            throw new IllegalStateException();
+        }
+        return used / COPIES;
+    }
+
+    private static long usedMemory() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
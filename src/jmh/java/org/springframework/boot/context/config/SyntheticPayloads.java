@@ -0,0 +1,99 @@
+package org.springframework.boot.context.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates configurations with a given number of leaf keys spread over a given nesting depth.
+ */
+public final class SyntheticPayloads {
+
+    private static final int FAN_OUT = 10;
+
+    private SyntheticPayloads() {
+    }
+
+    public static String key(int index, int depth) {
+        StringBuilder key = new StringBuilder("app");
+        int remainder = index;
+        for (int level = 1; level < depth; level++) {
+            key.append(".level").append(level).append("-").append(remainder % FAN_OUT);
+            remainder /= FAN_OUT;
+        }
+        return key.append(".key").append(index).toString();
+    }
+
+    public static Map<String, Object> flattened(int keys, int depth) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < keys; i++) {
+            properties.put(key(i, depth), value(i));
+        }
+        return properties;
+    }
+
+    /**
+     * Like {@link #flattened} with the given share of values referencing an earlier key, a tenth of them with a
+     * default value, so that references form chains.
+     */
+    public static Map<String, Object> withPlaceholders(int keys, int depth, double ratio) {
+        Map<String, Object> properties = flattened(keys, depth);
+        int percent = (int) Math.round(ratio * 100);
+        for (int i = 1; i < keys; i++) {
+            if ((i * 37) % 100 < percent) {
+                String reference = key((int) (((i * 2654435761L) >>> 8) % i), depth);
+                properties.put(key(i, depth), (i % 10 == 0) ? "${" + reference + ":default-" + i + "}" : "${" + reference + "}/v" + i);
+            }
+        }
+        return properties;
+    }
+
+    public static byte[] yaml(int keys, int depth) {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        flattened(keys, depth).forEach((key, value) -> put(tree, key.split("\\."), value));
+        StringBuilder yaml = new StringBuilder();
+        write(yaml, tree, 0);
+        return yaml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] properties(int keys, int depth) {
+        StringBuilder properties = new StringBuilder();
+        flattened(keys, depth).forEach((key, value) -> properties.append(key).append('=').append(value).append('\n'));
+        return properties.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Object value(int index) {
+        switch (index % 4) {
+            case 0:
+                return "value-" + index;
+            case 1:
+                return index;
+            case 2:
+                return (index % 8 == 2);
+            default:
+                return "http://service-" + (index % 100) + ".internal:8080/path";
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void put(Map<String, Object> tree, String[] path, Object value) {
+        Map<String, Object> node = tree;
+        for (int i = 0; i < path.length - 1; i++) {
+            node = (Map<String, Object>) node.computeIfAbsent(path[i], (key) -> new LinkedHashMap<String, Object>());
+        }
+        node.put(path[path.length - 1], value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void write(StringBuilder yaml, Map<String, Object> node, int indent) {
+        node.forEach((key, value) -> {
+            yaml.append("  ".repeat(indent)).append(key).append(':');
+            if (value instanceof Map) {
+                yaml.append('\n');
+                write(yaml, (Map<String, Object>) value, indent + 1);
+            } else {
+                yaml.append(' ').append(value).append('\n');
+            }
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.DefaultBootstrapContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prints the cold start time, retained heap and threads of each {@link AWSAppConfigTransport} when fetching a number of
+ * configuration profiles in parallel, against an AppConfigData stub served over HTTP on localhost with a fixed latency.
+ * Run one transport per JVM so that class loading is part of the measurement, with
+ * {@code java -cp <jmh runtime classpath> org.springframework.boot.context.config.TransportFootprint SDK_V1|SDK_V2_ASYNC|IN_MEMORY [profiles] [latency ms]}.
+ * {@code SDK_V2_ASYNC} needs {@code software.amazon.awssdk:appconfigdata} on the classpath.
+ */
+public final class TransportFootprint {
+
+    private static final String IN_MEMORY = "IN_MEMORY";
+
+    private static final String STUB_THREAD_PREFIX = "appconfig-stub-";
+
+    private TransportFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String transport = (args.length > 0) ? args[0] : AWSAppConfigProperties.Transport.SDK_V1.name();
+        int profiles = (args.length > 1) ? Integer.parseInt(args[1]) : 32;
+        long latency = (args.length > 2) ? Long.parseLong(args[2]) : 20;
+        byte[] payload = SyntheticPayloads.yaml(200, 3);
+        System.setProperty("aws.accessKeyId", "footprint");
+        System.setProperty("aws.secretKey", "footprint");
+        System.setProperty("aws.secretAccessKey", "footprint");
+        HttpServer server = startStub(payload, latency);
+        try {
+            long heapBefore = usedMemory();
+            long threadsBefore = clientThreadCount();
+            long start = System.nanoTime();
+            AWSAppConfigProperties properties = new AWSAppConfigProperties();
+            properties.getClient().setRegion("us-east-1");
+            properties.getClient().setEndpoint("http://localhost:" + server.getAddress().getPort());
+            AWSAppConfigClientRegistry clientRegistry = new AWSAppConfigClientRegistry();
+            if (transport.equals(IN_MEMORY)) {
+                AWSAppConfigInMemoryTransport inMemory = new AWSAppConfigInMemoryTransport();
+                for (int i = 0; i < profiles; i++) {
+                    inMemory.publish("app", "env", "profile-" + i, "application/x-yaml", payload);
+                }
+                clientRegistry.register(new AWSAppConfigClientRegistry.ClientKey("us-east-1", properties.getClient().getEndpoint(), null), inMemory);
+            } else {
+                properties.getClient().setTransport(AWSAppConfigProperties.Transport.valueOf(transport));
+            }
+            List<AWSAppConfigResource> resources = new ArrayList<>(profiles);
+            for (int i = 0; i < profiles; i++) {
+                StartConfigurationSessionRequest request = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+                        .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("profile-" + i);
+                resources.add(new AWSAppConfigResource(request, properties, clientRegistry));
+            }
+            DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+            AWSAppConfigDataLoader loader = new AWSAppConfigDataLoader();
+            AWSAppConfigFetchCache cache = new AWSAppConfigFetchCache(LogFactory.getLog(TransportFootprint.class));
+            cache.prefetch(bootstrapContext, loader, resources, properties.getFetch().getParallelism());
+            List<AWSAppConfigDataLoader.Fetched> fetched = new ArrayList<>(profiles);
+            for (AWSAppConfigResource resource : resources) {
+                fetched.add(cache.fetch(bootstrapContext, loader, resource));
+            }
+            long elapsed = System.nanoTime() - start;
+            long threads = clientThreadCount() - threadsBefore;
+            long heap = usedMemory() - heapBefore;
+            if (fetched.size() != profiles) {
+                throw new IllegalStateException();
+            }
+            System.out.printf("%s, %d profiles at %d ms latency: first configurations in %d ms, %d KiB retained, %d thread(s) started%n",
+                    transport, profiles, latency, TimeUnit.NANOSECONDS.toMillis(elapsed), heap / 1024, threads);
+            clientRegistry.close();
+        } finally {
+            server.stop(0);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Serve the two AppConfigData operations: every session gets the payload on its first poll.
+     */
+    static HttpServer startStub(byte[] payload, long latency) throws IOException {
+        AtomicLong tokens = new AtomicLong();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        AtomicLong threads = new AtomicLong();
+        server.setExecutor(Executors.newCachedThreadPool((runnable) -> new Thread(runnable, STUB_THREAD_PREFIX + threads.incrementAndGet())));
+        server.createContext("/configurationsessions", (exchange) -> {
+            pause(latency);
+            byte[] body = ("{\"InitialConfigurationToken\":\"initial-" + tokens.incrementAndGet() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            respond(exchange, 201, body);
+        });
+        server.createContext("/configuration", (exchange) -> {
+            pause(latency);
+            boolean initial = exchange.getRequestURI().getQuery().contains("initial-");
+            exchange.getResponseHeaders().add("Content-Type", "application/x-yaml");
+            exchange.getResponseHeaders().add("Next-Poll-Configuration-Token", "next-" + tokens.incrementAndGet());
+            exchange.getResponseHeaders().add("Next-Poll-Interval-In-Seconds", "15");
+            exchange.getResponseHeaders().add("Version-Label", "1");
+            respond(exchange, 200, initial ? payload : new byte[0]);
+        });
+        server.start();
+        return server;
+    }
+
+    private static long clientThreadCount() {
+        return Thread.getAllStackTraces().keySet().stream().filter((thread) -> !thread.getName().startsWith(STUB_THREAD_PREFIX)).count();
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, (body.length > 0) ? body.length : -1);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static void pause(long latency) {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long usedMemory() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
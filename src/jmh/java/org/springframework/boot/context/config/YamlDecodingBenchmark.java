@@ -0,0 +1,73 @@
+package org.springframework.boot.context.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlDecodingBenchmark {
+
+    private static final MimeType YAML = MimeType.valueOf("application/x-yaml");
+
+    private static final MimeType PROPERTIES = MimeType.valueOf("text/x-java-properties");
+
+    @Param({"1000", "10000", "100000"})
+    public int keys;
+
+    @Param({"2", "6"})
+    public int depth;
+
+    private byte[] yaml;
+
+    private ByteBuffer yamlBuffer;
+
+    private ByteBuffer propertiesBuffer;
+
+    private final YamlPayloadDecoder yamlDecoder = new YamlPayloadDecoder();
+
+    private final PropertiesPayloadDecoder propertiesDecoder = new PropertiesPayloadDecoder();
+
+    @Setup
+    public void setup() {
+        this.yaml = SyntheticPayloads.yaml(this.keys, this.depth);
+        this.yamlBuffer = ByteBuffer.allocateDirect(this.yaml.length).put(this.yaml).flip().asReadOnlyBuffer();
+        byte[] properties = SyntheticPayloads.properties(this.keys, this.depth);
+        this.propertiesBuffer = ByteBuffer.wrap(properties).asReadOnlyBuffer();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> yamlLoader() {
+        return new YamlLoader(new ByteArrayResource(this.yaml)).load();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> yamlPayloadDecoder() throws IOException {
+        return this.yamlDecoder.decode(new ByteBufferInputStream(this.yamlBuffer), YAML);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> propertiesPayloadDecoder() throws IOException {
+        return this.propertiesDecoder.decode(new ByteBufferInputStream(this.propertiesBuffer), PROPERTIES);
+    }
+}
@@ -0,0 +1,196 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.appconfigdata.model.BadRequestException;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.InternalServerException;
+import com.amazonaws.services.appconfigdata.model.ResourceNotFoundException;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.amazonaws.services.appconfigdata.model.ThrottlingException;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AWSAppConfigTransport} reading configurations from a node-local AWS AppConfig Agent over HTTP, e.g.
+ * {@code GET http://localhost:2772/applications/app/environments/env/configurations/profile}, instead of calling
+ * AppConfigData from every instance. Sessions are local: starting one costs no request, and every poll is a
+ * conditional request on the {@code ETag} (or {@code Configuration-Version}) of the last configuration received, so that
+ * an unchanged configuration is a bodiless {@code 304} returned as an empty configuration, like AppConfigData does.
+ * Responses carrying the version already received are not read either, for agents ignoring conditional requests.
+ * Requests share the keep-alive connections of a single HTTP/1.1 {@link HttpClient}.
+ */
+public class AWSAppConfigAgentTransport implements AWSAppConfigTransport {
+
+    static final String DEFAULT_ENDPOINT = "http://localhost:2772";
+
+    private static final String VERSION_HEADER = "Configuration-Version";
+
+    private static final String ETAG_HEADER = "ETag";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(1);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final byte[] UNCHANGED = new byte[0];
+
+    private final HttpClient client;
+
+    private final String endpoint;
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    public AWSAppConfigAgentTransport(HttpClient client, String endpoint) {
+        this.client = client;
+        this.endpoint = StringUtils.trimTrailingCharacter(endpoint, '/');
+    }
+
+    static AWSAppConfigTransport create(AWSAppConfigClientRegistry.ClientKey key, Executor executor) {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(CONNECT_TIMEOUT)
+                .executor(executor).build();
+        return new AWSAppConfigAgentTransport(client, StringUtils.hasText(key.endpoint()) ? key.endpoint() : DEFAULT_ENDPOINT);
+    }
+
+    @Override
+    public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+        URI uri = URI.create(this.endpoint + "/applications/" + encode(request.getApplicationIdentifier()) + "/environments/"
+                + encode(request.getEnvironmentIdentifier()) + "/configurations/" + encode(request.getConfigurationProfileIdentifier()));
+        return CompletableFuture.completedFuture(issueToken(new Cursor(uri, null)));
+    }
+
+    /**
+     * Fetch the configuration of a session. A throttled poll keeps its token so that it can be retried with it, any
+     * other failure consumes it like an answer since the session starts over with a new token.
+     */
+    @Override
+    public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+        Cursor cursor = (configurationToken != null) ? this.cursors.get(configurationToken) : null;
+        if (cursor == null) {
+            return CompletableFuture.failedFuture(new BadRequestException("Invalid or already used configuration token"));
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(cursor.uri()).timeout(REQUEST_TIMEOUT).GET();
+        if (cursor.validator() != null) {
+            request.header("If-None-Match", cursor.validator());
+        }
+        HttpResponse.BodyHandler<byte[]> bodyHandler = (response) -> isUnchanged(cursor, response.statusCode(), response.headers())
+                ? HttpResponse.BodySubscribers.replacing(UNCHANGED) : HttpResponse.BodySubscribers.ofByteArray();
+        CompletableFuture<GetLatestConfigurationResult> result = new CompletableFuture<>();
+        this.client.sendAsync(request.build(), bodyHandler).whenComplete((response, ex) -> {
+            Throwable failure = (ex != null) ? translate(cursor, ex) : null;
+            GetLatestConfigurationResult configurationResult = null;
+            if (failure == null) {
+                try {
+                    configurationResult = toConfigurationResult(cursor, response);
+                } catch (RuntimeException conversionFailure) {
+                    failure = conversionFailure;
+                }
+            }
+            if (failure == null || !AWSAppConfigPollScheduler.isThrottling(failure)) {
+                this.cursors.remove(configurationToken);
+            }
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(configurationResult);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        this.cursors.clear();
+    }
+
+    int getTokenCount() {
+        return this.cursors.size();
+    }
+
+    private GetLatestConfigurationResult toConfigurationResult(Cursor cursor, HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status == 304 || (status == 200 && response.body() == UNCHANGED)) {
+            return new GetLatestConfigurationResult().withConfiguration(ByteBuffer.allocate(0))
+                    .withNextPollConfigurationToken(issueToken(cursor));
+        }
+        if (status != 200) {
+            throw toServiceException(cursor, status, new String(response.body(), StandardCharsets.UTF_8));
+        }
+        HttpHeaders headers = response.headers();
+        String version = headers.firstValue(VERSION_HEADER).orElse(null);
+        Cursor next = new Cursor(cursor.uri(), getValidator(headers));
+        return new GetLatestConfigurationResult().withConfiguration(ByteBuffer.wrap(response.body()))
+                .withContentType(headers.firstValue("Content-Type").orElse(null))
+                .withVersionLabel((version != null) ? version : headers.firstValue(ETAG_HEADER).orElse(null))
+                .withNextPollConfigurationToken(issueToken(next));
+    }
+
+    private static boolean isUnchanged(Cursor cursor, int status, HttpHeaders headers) {
+        return status == 304 || (status == 200 && cursor.validator() != null && cursor.validator().equals(getValidator(headers)));
+    }
+
+    /**
+     * Return the value identifying the version of a configuration, the version being quoted to be sent back as an
+     * entity tag when the agent doesn't send one.
+     */
+    private static String getValidator(HttpHeaders headers) {
+        return headers.firstValue(ETAG_HEADER).orElseGet(() -> headers.firstValue(VERSION_HEADER).map((version) -> '"' + version + '"').orElse(null));
+    }
+
+    private static AmazonServiceException toServiceException(Cursor cursor, int status, String body) {
+        String message = "AWS AppConfig Agent returned " + status + " for " + cursor.uri() + (StringUtils.hasText(body) ? ": " + body.trim() : "");
+        AmazonServiceException exception = switch (status) {
+            case 400 -> new BadRequestException(message);
+            case 404 -> new ResourceNotFoundException(message);
+            case 429 -> new ThrottlingException(message);
+            default -> (status >= 500) ? new InternalServerException(message) : new AmazonServiceException(message);
+        };
+        exception.setStatusCode(status);
+        exception.setServiceName("AWSAppConfigAgent");
+        return exception;
+    }
+
+    /**
+     * Translate connection failures to the {@link SdkClientException} the SDK v1 client would throw.
+     */
+    private static Throwable translate(Cursor cursor, Throwable ex) {
+        Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        return (cause instanceof IOException) ? new SdkClientException("Unable to reach the AWS AppConfig Agent at " + cursor.uri(), cause) : cause;
+    }
+
+    private String issueToken(Cursor cursor) {
+        String token = "agent-" + this.tokens.incrementAndGet();
+        this.cursors.put(token, cursor);
+        return token;
+    }
+
+    private static String encode(String identifier) {
+        return URLEncoder.encode(Objects.requireNonNull(identifier, "identifier"), StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private record Cursor(URI uri, String validator) {
+    }
+}
@@ -0,0 +1,206 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.core.env.PropertyResolver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PropertyResolver} memoizing the values resolved by the environment, placeholders included. Entries are stamped
+ * with the {@link AWSAppConfigGeneration} they were resolved in and ignored once AppConfig property sources change, so
+ * reads never lock and invalidation is a single counter increment. Property sources changed outside this library are
+ * not tracked.
+ * <p>
+ * Once the cache is full, the entries of older generations and then the least recently used ones are evicted in
+ * batches. Recency is tracked per eviction round rather than per read, so that a hit only writes to its entry the first
+ * time it is read after an eviction.
+ * <p>
+ * When {@code aws.appconfig.cache.enabled} is set the resolver is registered as the {@code awsAppConfigPropertyResolver}
+ * bean, to be injected where the {@code Environment} would be, and resolves the placeholders of {@code @Value}
+ * annotations ahead of the placeholder configurer unless {@code aws.appconfig.cache.embedded-value-resolver} is unset.
+ */
+public class AWSAppConfigCachingPropertyResolver implements PropertyResolver {
+
+    private static final Object NULL = new Object();
+
+    private static final Object MISS = new Object();
+
+    private final PropertyResolver delegate;
+
+    private final AWSAppConfigGeneration generation;
+
+    private final int maxSize;
+
+    private final Map<Object, Entry> cache = new ConcurrentHashMap<>();
+
+    private final Object evictionLock = new Object();
+
+    private volatile int round;
+
+    public AWSAppConfigCachingPropertyResolver(PropertyResolver delegate, AWSAppConfigGeneration generation, int maxSize) {
+        this.delegate = delegate;
+        this.generation = generation;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public boolean containsProperty(String key) {
+        Key cacheKey = new Key(Kind.CONTAINS, key, null);
+        long generation = this.generation.get();
+        Object cached = get(cacheKey, generation);
+        if (cached != MISS) {
+            return (Boolean) cached;
+        }
+        return (Boolean) put(cacheKey, generation, this.delegate.containsProperty(key));
+    }
+
+    @Override
+    public String getProperty(String key) {
+        long generation = this.generation.get();
+        Object cached = get(key, generation);
+        if (cached != MISS) {
+            return (String) cached;
+        }
+        return (String) put(key, generation, this.delegate.getProperty(key));
+    }
+
+    @Override
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return (value != null) ? value : defaultValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getProperty(String key, Class<T> targetType) {
+        Key cacheKey = new Key(Kind.PROPERTY, key, targetType);
+        long generation = this.generation.get();
+        Object cached = get(cacheKey, generation);
+        if (cached != MISS) {
+            return (T) cached;
+        }
+        return (T) put(cacheKey, generation, this.delegate.getProperty(key, targetType));
+    }
+
+    @Override
+    public <T> T getProperty(String key, Class<T> targetType, T defaultValue) {
+        T value = getProperty(key, targetType);
+        return (value != null) ? value : defaultValue;
+    }
+
+    @Override
+    public String getRequiredProperty(String key) throws IllegalStateException {
+        String value = getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Required key '" + key + "' not found");
+        }
+        return value;
+    }
+
+    @Override
+    public <T> T getRequiredProperty(String key, Class<T> targetType) throws IllegalStateException {
+        T value = getProperty(key, targetType);
+        if (value == null) {
+            throw new IllegalStateException("Required key '" + key + "' not found");
+        }
+        return value;
+    }
+
+    @Override
+    public String resolvePlaceholders(String text) {
+        Key cacheKey = new Key(Kind.PLACEHOLDERS, text, null);
+        long generation = this.generation.get();
+        Object cached = get(cacheKey, generation);
+        if (cached != MISS) {
+            return (String) cached;
+        }
+        return (String) put(cacheKey, generation, this.delegate.resolvePlaceholders(text));
+    }
+
+    @Override
+    public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+        Key cacheKey = new Key(Kind.REQUIRED_PLACEHOLDERS, text, null);
+        long generation = this.generation.get();
+        Object cached = get(cacheKey, generation);
+        if (cached != MISS) {
+            return (String) cached;
+        }
+        return (String) put(cacheKey, generation, this.delegate.resolveRequiredPlaceholders(text));
+    }
+
+    public int size() {
+        return this.cache.size();
+    }
+
+    private Object get(Object key, long generation) {
+        Entry entry = this.cache.get(key);
+        if (entry == null || entry.generation != generation) {
+            return MISS;
+        }
+        int round = this.round;
+        if (entry.round != round) {
+            entry.round = round;
+        }
+        return (entry.value != NULL) ? entry.value : null;
+    }
+
+    private Object put(Object key, long generation, Object value) {
+        if (this.cache.size() >= this.maxSize) {
+            evict(generation);
+        }
+        this.cache.put(key, new Entry(generation, this.round, (value != null) ? value : NULL));
+        return value;
+    }
+
+    /**
+     * Evict the entries of older generations, then the entries read in the oldest rounds, until a tenth of the cache is
+     * free, and start a new round.
+     */
+    private void evict(long generation) {
+        synchronized (this.evictionLock) {
+            int target = this.maxSize - Math.max(this.maxSize / 10, 1);
+            if (this.cache.size() <= target) {
+                return;
+            }
+            List<Map.Entry<Object, Entry>> entries = new ArrayList<>(this.cache.entrySet());
+            entries.sort(Comparator.comparing((Map.Entry<Object, Entry> entry) -> entry.getValue().generation == generation)
+                    .thenComparingInt((entry) -> entry.getValue().round));
+            for (int i = 0; i < entries.size() && this.cache.size() > target; i++) {
+                this.cache.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+            this.round++;
+        }
+    }
+
+    private enum Kind {
+
+        PROPERTY,
+
+        CONTAINS,
+
+        PLACEHOLDERS,
+
+        REQUIRED_PLACEHOLDERS
+    }
+
+    private record Key(Kind kind, String key, Class<?> targetType) {
+    }
+
+    private static final class Entry {
+
+        private final long generation;
+
+        private final Object value;
+
+        private volatile int round;
+
+        Entry(long generation, int round, Object value) {
+            this.generation = generation;
+            this.round = round;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published once the AppConfig property sources have been refreshed, carrying every property whose value changed.
+ * Changes arriving within the coalescing window are merged into one event.
+ */
+public class AWSAppConfigChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Change> changes;
+
+    public AWSAppConfigChangedEvent(Object source, Map<String, Change> changes) {
+        super(source);
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+    }
+
+    public Map<String, Change> getChanges() {
+        return this.changes;
+    }
+
+    public Set<String> getChangedKeys() {
+        return this.changes.keySet();
+    }
+
+    public record Change(Object previousValue, Object value) {
+
+        public boolean isAdded() {
+            return this.previousValue == null;
+        }
+
+        public boolean isRemoved() {
+            return this.value == null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.auth.profile.ProfileCredentialsProvider;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.appconfigdata.AWSAppConfigData;
+import com.amazonaws.services.appconfigdata.AWSAppConfigDataClientBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AWSAppConfigClientRegistry {
+
+    private static final Log logger = LogFactory.getLog(AWSAppConfigClientRegistry.class);
+
+    private static final String BEAN_NAME = "awsAppConfigClientRegistry";
+
+    private static final String SDK_V2_CLIENT_CLASS = "software.amazon.awssdk.services.appconfigdata.AppConfigDataAsyncClient";
+
+    private final Map<ClientKey, AWSAppConfigTransport> transports = new ConcurrentHashMap<>();
+
+    public AWSAppConfigTransport getTransport(AWSAppConfigProperties.Client properties) {
+        return getTransport(properties, properties.getTransport());
+    }
+
+    /**
+     * Return the transport of the given kind, the {@code agent} transport only using the agent endpoint.
+     */
+    public AWSAppConfigTransport getTransport(AWSAppConfigProperties.Client properties, AWSAppConfigProperties.Transport transport) {
+        if (transport == AWSAppConfigProperties.Transport.AGENT) {
+            return getTransport(new ClientKey(null, properties.getAgentEndpoint(), null, transport));
+        }
+        return getTransport(new ClientKey(properties.getRegion(), properties.getEndpoint(), properties.getProfileName(), transport));
+    }
+
+    public AWSAppConfigTransport getTransport(ClientKey key) {
+        return this.transports.computeIfAbsent(key, this::createTransport);
+    }
+
+    private AWSAppConfigTransport createTransport(ClientKey key) {
+        long start = System.nanoTime();
+        AWSAppConfigTransport transport;
+        if (key.transport() == AWSAppConfigProperties.Transport.SDK_V2_ASYNC) {
+            if (!ClassUtils.isPresent(SDK_V2_CLIENT_CLASS, getClass().getClassLoader())) {
+                throw new IllegalStateException("The " + key.transport() + " AWS AppConfig transport requires software.amazon.awssdk:appconfigdata");
+            }
+            transport = AWSAppConfigSdkV2Transport.create(key, AWSAppConfigPollScheduler.getShared().getExecutor());
+        } else if (key.transport() == AWSAppConfigProperties.Transport.AGENT) {
+            transport = AWSAppConfigAgentTransport.create(key, AWSAppConfigPollScheduler.getShared().getExecutor());
+        } else {
+            transport = new AWSAppConfigSdkV1Transport(createClient(key));
+        }
+        logger.debug(LogMessage.format("Created AWS AppConfigData %s transport for %s in %d ms", key.transport(), key,
+                (System.nanoTime() - start) / 1_000_000));
+        return transport;
+    }
+
+    private static AWSAppConfigData createClient(ClientKey key) {
+        AWSAppConfigDataClientBuilder builder = AWSAppConfigDataClientBuilder.standard();
+        if (StringUtils.hasText(key.endpoint())) {
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(key.endpoint(), key.region()));
+        } else if (StringUtils.hasText(key.region())) {
+            builder.withRegion(key.region());
+        }
+        if (StringUtils.hasText(key.profileName())) {
+            builder.withCredentials(new ProfileCredentialsProvider(key.profileName()));
+        }
+        return builder.build();
+    }
+
+    public void register(ClientKey key, AWSAppConfigData client) {
+        register(key, new AWSAppConfigSdkV1Transport(client));
+    }
+
+    public void register(ClientKey key, AWSAppConfigTransport transport) {
+        this.transports.put(key, transport);
+    }
+
+    public void close() {
+        for (AWSAppConfigTransport transport : this.transports.values()) {
+            try {
+                transport.close();
+            } catch (RuntimeException ex) {
+                logger.debug("Unable to close AWS AppConfigData transport", ex);
+            }
+        }
+        this.transports.clear();
+    }
+
+    static AWSAppConfigClientRegistry get(ConfigurableBootstrapContext bootstrapContext) {
+        if (!bootstrapContext.isRegistered(AWSAppConfigClientRegistry.class)) {
+            AWSAppConfigClientRegistry registry = new AWSAppConfigClientRegistry();
+            bootstrapContext.register(AWSAppConfigClientRegistry.class, BootstrapRegistry.InstanceSupplier.of(registry));
+            bootstrapContext.addCloseListener((event) -> {
+                ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+                if (!beanFactory.containsSingleton(BEAN_NAME)) {
+                    beanFactory.registerSingleton(BEAN_NAME, registry);
+                    if (beanFactory instanceof DefaultSingletonBeanRegistry) {
+                        ((DefaultSingletonBeanRegistry) beanFactory).registerDisposableBean(BEAN_NAME, registry::close);
+                    }
+                }
+            });
+        }
+        return bootstrapContext.get(AWSAppConfigClientRegistry.class);
+    }
+
+    public record ClientKey(String region, String endpoint, String profileName, AWSAppConfigProperties.Transport transport) {
+
+        public ClientKey(String region, String endpoint, String profileName) {
+            this(region, endpoint, profileName, AWSAppConfigProperties.Transport.SDK_V1);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.List;
+
+/**
+ * Publishes the documents of a refreshed multi-document payload as a single entry of the environment, so that they
+ * are swapped in one step. Earlier documents take precedence, as they did as separate entries, and the origins of
+ * their properties are kept.
+ */
+class AWSAppConfigCompositePropertySource extends CompositePropertySource implements OriginLookup<String> {
+
+    AWSAppConfigCompositePropertySource(String name, List<PropertySource<?>> propertySources) {
+        super(name);
+        propertySources.forEach(this::addPropertySource);
+    }
+
+    @Override
+    public Origin getOrigin(String name) {
+        for (PropertySource<?> propertySource : getPropertySources()) {
+            if (propertySource.containsProperty(name)) {
+                return OriginLookup.getOrigin(propertySource, name);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+}
@@ -0,0 +1,398 @@
+package org.springframework.boot.context.config;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.context.config.ConfigDataEnvironmentContributor.ImportPhase;
+import org.springframework.boot.context.config.ConfigDataEnvironmentContributor.Kind;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Processes the imports of the config data contributors like {@link ConfigDataEnvironmentContributors} does, on a
+ * mutable copy of the contributor tree. Each node counts the unbound or unprocessed contributors below it, so a phase
+ * only visits the subtrees whose activation or imports still depend on it, and only the path from a processed
+ * contributor to the root is marked for rebuilding instead of rescanning and copying the whole tree for every import.
+ * Once {@link #release() released}, the processor only keeps the tree, whose property sources are those of the
+ * environment, and the final activation context, so that the property sources of a refreshed AppConfig resource can
+ * be bound again in place of its contributors.
+ */
+final class AWSAppConfigContributorProcessor {
+
+    private static final ImportPhase[] ITERATION_ORDER = {ImportPhase.AFTER_PROFILE_ACTIVATION, ImportPhase.BEFORE_PROFILE_ACTIVATION};
+
+    private final Log logger;
+
+    private ConfigurableBootstrapContext bootstrapContext;
+
+    private ConfigDataImporter importer;
+
+    private final Node root;
+
+    private final Iterable<ConfigDataEnvironmentContributor> contributors = this::iterator;
+
+    private ConfigDataActivationContext activationContext;
+
+    private Binder binder;
+
+    private int processed;
+
+    private int visited;
+
+    AWSAppConfigContributorProcessor(Log logger, ConfigurableBootstrapContext bootstrapContext, ConfigDataImporter importer,
+                                     ConfigDataEnvironmentContributors contributors) {
+        this.logger = logger;
+        this.bootstrapContext = bootstrapContext;
+        this.importer = importer;
+        this.root = new Node(contributors.getRoot(), null);
+    }
+
+    /**
+     * Bind the unbound contributors and process the imports of the active contributors for the phase of the given
+     * activation context, in the order {@link ConfigDataEnvironmentContributors#withProcessedImports} would.
+     */
+    synchronized void process(ConfigDataActivationContext activationContext) {
+        Assert.state(this.importer != null, "Contributor processor has been released");
+        ImportPhase importPhase = ImportPhase.get(activationContext);
+        this.activationContext = activationContext;
+        this.binder = null;
+        this.processed = 0;
+        this.visited = 0;
+        process(this.root, importPhase);
+        this.logger.trace(LogMessage.format("Processed imports of %d contributor(s) for phase %s, visiting %d of them",
+                this.processed, importPhase, this.visited));
+    }
+
+    /**
+     * Drop the importer, the bootstrap context and the binder once the imports of the last phase are processed.
+     */
+    synchronized void release() {
+        this.importer = null;
+        this.bootstrapContext = null;
+        this.binder = null;
+    }
+
+    /**
+     * Return the top-level contributors, rebuilding only the subtrees that changed since the last call.
+     */
+    synchronized List<ConfigDataEnvironmentContributor> getContributors() {
+        return materialize(this.root).getChildren(ImportPhase.BEFORE_PROFILE_ACTIVATION);
+    }
+
+    /**
+     * Bind the property sources refreshed for an imported resource against the last activation context, replacing the
+     * contributors of the resource, and return the active ones. Imports declared by the refreshed property sources
+     * are not processed. Property sources of a resource that isn't in the tree are only bound.
+     */
+    synchronized List<PropertySource<?>> reapply(ConfigDataResource resource, List<PropertySource<?>> propertySources) {
+        Node parent = null;
+        List<Node> siblings = null;
+        int index = -1;
+        for (Node node : nodes()) {
+            if (resource.equals(node.contributor.getResource())) {
+                parent = node.parent;
+                siblings = parent.children.get(node.phase);
+                index = siblings.indexOf(node);
+                break;
+            }
+        }
+        if (parent == null) {
+            return getActive(resource, propertySources);
+        }
+        ImportPhase phase = siblings.get(index).phase;
+        ConfigDataEnvironmentContributor previous = siblings.get(index).contributor;
+        Set<ConfigDataLocation> previousImports = new HashSet<>();
+        int[] removed = new int[ImportPhase.values().length];
+        int count = 0;
+        while (index + count < siblings.size() && resource.equals(siblings.get(index + count).contributor.getResource())) {
+            Node node = siblings.get(index + count++);
+            previousImports.addAll(node.contributor.getImports());
+            for (int i = 0; i < removed.length; i++) {
+                removed[i] += node.pending[i];
+            }
+        }
+        ConfigData configData = new ConfigData(propertySources, ConfigData.PropertySourceOptions.ALWAYS_NONE);
+        List<Node> replacements = new ArrayList<>(propertySources.size());
+        for (int i = propertySources.size() - 1; i >= 0; i--) {
+            Node node = new Node(ConfigDataEnvironmentContributor.ofUnboundImport(previous.getLocation(), resource,
+                    previous.isFromProfileSpecificImport(), configData, i), parent, phase);
+            replacements.add(node);
+            for (int j = 0; j < removed.length; j++) {
+                removed[j] -= node.pending[j];
+            }
+        }
+        List<Node> updated = new ArrayList<>(siblings);
+        updated.subList(index, index + count).clear();
+        updated.addAll(index, replacements);
+        parent.children.put(phase, updated);
+        for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            for (int i = 0; i < removed.length; i++) {
+                ancestor.pending[i] -= removed[i];
+            }
+        }
+        markChanged(parent);
+        List<PropertySource<?>> active = new ArrayList<>(propertySources.size());
+        for (int i = replacements.size() - 1; i >= 0; i--) {
+            Node node = replacements.get(i);
+            replace(node, node.contributor.withBoundProperties(this.contributors, this.activationContext));
+            if (!previousImports.containsAll(node.contributor.getImports())) {
+                this.logger.warn(LogMessage.format("Ignoring imports %s of refreshed %s until restart", node.contributor.getImports(),
+                        node.contributor.getPropertySource().getName()));
+            }
+            if (node.contributor.isActive(this.activationContext)) {
+                active.add(node.contributor.getPropertySource());
+            }
+        }
+        return active;
+    }
+
+    private List<PropertySource<?>> getActive(ConfigDataResource resource, List<PropertySource<?>> propertySources) {
+        ConfigData configData = new ConfigData(propertySources, ConfigData.PropertySourceOptions.ALWAYS_NONE);
+        List<PropertySource<?>> active = new ArrayList<>(propertySources.size());
+        for (int i = 0; i < propertySources.size(); i++) {
+            ConfigDataEnvironmentContributor contributor = ConfigDataEnvironmentContributor.ofUnboundImport(null, resource, false, configData, i)
+                    .withBoundProperties(this.contributors, this.activationContext);
+            if (contributor.isActive(this.activationContext)) {
+                active.add(contributor.getPropertySource());
+            }
+        }
+        return active;
+    }
+
+    private void process(Node node, ImportPhase importPhase) {
+        if (node.pending[importPhase.ordinal()] == 0) {
+            return;
+        }
+        this.visited++;
+        processChildren(node, importPhase);
+        ConfigDataEnvironmentContributor contributor = node.contributor;
+        if (contributor.getKind() == Kind.UNBOUND_IMPORT) {
+            replace(node, contributor.withBoundProperties(this.contributors, this.activationContext));
+            contributor = node.contributor;
+        }
+        if (contributor.isActive(this.activationContext) && contributor.hasUnprocessedImports(importPhase)) {
+            List<ConfigDataLocation> imports = contributor.getImports();
+            this.logger.trace(LogMessage.format("Processing imports %s", imports));
+            Map<ConfigDataResolutionResult, ConfigData> imported = this.importer.resolveAndLoad(this.activationContext,
+                    new ResolverContext(contributor.getResource()), this::getBootstrapContext, imports);
+            replace(node, materialize(node).withChildren(importPhase, asContributors(imported)));
+            this.processed++;
+            processChildren(node, importPhase);
+        }
+    }
+
+    private void processChildren(Node node, ImportPhase importPhase) {
+        for (ImportPhase phase : ITERATION_ORDER) {
+            List<Node> children = node.children.get(phase);
+            if (children != null) {
+                for (Node child : children) {
+                    process(child, importPhase);
+                }
+            }
+        }
+    }
+
+    private void replace(Node node, ConfigDataEnvironmentContributor contributor) {
+        int[] previous = node.pending.clone();
+        node.setContributor(contributor);
+        for (Node parent = node.parent; parent != null; parent = parent.parent) {
+            for (int i = 0; i < previous.length; i++) {
+                parent.pending[i] += node.pending[i] - previous[i];
+            }
+        }
+        markChanged(node.parent);
+    }
+
+    private void markChanged(Node node) {
+        for (Node parent = node; parent != null && !parent.changed; parent = parent.parent) {
+            parent.changed = true;
+        }
+    }
+
+    /**
+     * Rebuild the contributor of a node whose children changed. Profile specific children were already moved when
+     * the node was processed after profile activation, so setting its children again doesn't move anything.
+     */
+    private ConfigDataEnvironmentContributor materialize(Node node) {
+        if (node.changed) {
+            ConfigDataEnvironmentContributor contributor = node.contributor;
+            for (ImportPhase phase : ImportPhase.values()) {
+                List<Node> children = node.children.get(phase);
+                if (children != null) {
+                    List<ConfigDataEnvironmentContributor> contributors = new ArrayList<>(children.size());
+                    for (Node child : children) {
+                        contributors.add(materialize(child));
+                    }
+                    contributor = contributor.withChildren(phase, Collections.unmodifiableList(contributors));
+                }
+            }
+            node.contributor = contributor;
+            node.changed = false;
+        }
+        return node.contributor;
+    }
+
+    private List<ConfigDataEnvironmentContributor> asContributors(Map<ConfigDataResolutionResult, ConfigData> imported) {
+        List<ConfigDataEnvironmentContributor> contributors = new ArrayList<>(imported.size() * 5);
+        imported.forEach((resolutionResult, data) -> {
+            ConfigDataLocation location = resolutionResult.getLocation();
+            ConfigDataResource resource = resolutionResult.getResource();
+            boolean profileSpecific = resolutionResult.isProfileSpecific();
+            if (data.getPropertySources().isEmpty()) {
+                contributors.add(ConfigDataEnvironmentContributor.ofEmptyLocation(location, profileSpecific));
+            } else {
+                for (int i = data.getPropertySources().size() - 1; i >= 0; i--) {
+                    contributors.add(ConfigDataEnvironmentContributor.ofUnboundImport(location, resource, profileSpecific, data, i));
+                }
+            }
+        });
+        return Collections.unmodifiableList(contributors);
+    }
+
+    /**
+     * Return the binder of the current phase, backed by the live tree like the one of
+     * {@link ConfigDataEnvironmentContributors#getBinder} is backed by the contributors of an import step.
+     */
+    private Binder getBinder() {
+        if (this.binder == null) {
+            ConfigDataActivationContext activationContext = this.activationContext;
+            Iterable<ConfigurationPropertySource> sources = () -> {
+                List<ConfigurationPropertySource> active = new ArrayList<>();
+                for (ConfigDataEnvironmentContributor contributor : this.contributors) {
+                    if (contributor.getConfigurationPropertySource() != null && contributor.isActive(activationContext)) {
+                        active.add(contributor.getConfigurationPropertySource());
+                    }
+                }
+                return active.iterator();
+            };
+            this.binder = new Binder(sources, new ConfigDataEnvironmentContributorPlaceholdersResolver(this.contributors,
+                    activationContext, null, false), null, null, null);
+        }
+        return this.binder;
+    }
+
+    private ConfigurableBootstrapContext getBootstrapContext() {
+        return this.bootstrapContext;
+    }
+
+    private Iterator<ConfigDataEnvironmentContributor> iterator() {
+        List<ConfigDataEnvironmentContributor> contributors = new ArrayList<>();
+        for (Node node : nodes()) {
+            contributors.add(node.contributor);
+        }
+        return contributors.iterator();
+    }
+
+    /**
+     * Return the nodes in priority order, the order of {@link ConfigDataEnvironmentContributor#iterator()}.
+     */
+    private List<Node> nodes() {
+        List<Node> nodes = new ArrayList<>();
+        collect(this.root, nodes);
+        return nodes;
+    }
+
+    private void collect(Node node, List<Node> nodes) {
+        for (ImportPhase phase : ITERATION_ORDER) {
+            List<Node> children = node.children.get(phase);
+            if (children != null) {
+                for (Node child : children) {
+                    collect(child, nodes);
+                }
+            }
+        }
+        nodes.add(node);
+    }
+
+    private static final class Node {
+
+        private final Node parent;
+
+        private final ImportPhase phase;
+
+        private final Map<ImportPhase, List<Node>> children = new EnumMap<>(ImportPhase.class);
+
+        private final int[] pending = new int[ImportPhase.values().length];
+
+        private ConfigDataEnvironmentContributor contributor;
+
+        private boolean changed;
+
+        private Node(ConfigDataEnvironmentContributor contributor, Node parent) {
+            this(contributor, parent, null);
+        }
+
+        private Node(ConfigDataEnvironmentContributor contributor, Node parent, ImportPhase phase) {
+            this.parent = parent;
+            this.phase = phase;
+            setContributor(contributor);
+        }
+
+        /**
+         * Set the contributor of this node and wrap its children, counting the contributors of the subtree that are
+         * still unbound or have imports left to process in each phase.
+         */
+        private void setContributor(ConfigDataEnvironmentContributor contributor) {
+            this.contributor = contributor;
+            this.changed = false;
+            this.children.clear();
+            Arrays.fill(this.pending, 0);
+            for (ImportPhase phase : ImportPhase.values()) {
+                List<ConfigDataEnvironmentContributor> contributors = contributor.getChildren(phase);
+                if (!contributors.isEmpty() || (!contributor.getImports().isEmpty() && !contributor.hasUnprocessedImports(phase))) {
+                    List<Node> children = new ArrayList<>(contributors.size());
+                    for (ConfigDataEnvironmentContributor child : contributors) {
+                        Node node = new Node(child, this, phase);
+                        children.add(node);
+                        for (int i = 0; i < this.pending.length; i++) {
+                            this.pending[i] += node.pending[i];
+                        }
+                    }
+                    this.children.put(phase, children);
+                }
+                if (contributor.getKind() == Kind.UNBOUND_IMPORT || contributor.hasUnprocessedImports(phase)) {
+                    this.pending[phase.ordinal()]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link ConfigDataLocationResolverContext} of the imports of a contributor.
+     */
+    private final class ResolverContext implements ConfigDataLocationResolverContext {
+
+        private final ConfigDataResource parent;
+
+        private ResolverContext(ConfigDataResource parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public Binder getBinder() {
+            return AWSAppConfigContributorProcessor.this.getBinder();
+        }
+
+        @Override
+        public ConfigDataResource getParent() {
+            return this.parent;
+        }
+
+        @Override
+        public ConfigurableBootstrapContext getBootstrapContext() {
+            return AWSAppConfigContributorProcessor.this.bootstrapContext;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.springframework.boot.context.config;
 
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
 import org.apache.commons.logging.Log;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.BootstrapRegistry;
 import org.springframework.boot.ConfigurableBootstrapContext;
 import org.springframework.boot.DefaultPropertiesPropertySource;
@@ -9,17 +11,25 @@ import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.context.properties.bind.PlaceholdersResolver;
 import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyState;
 import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.log.LogMessage;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.util.function.SingletonSupplier;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,6 +39,9 @@ public class AWSAppConfigDataEnvironment {
     static final String ON_NOT_FOUND_PROPERTY = "spring.config.on-not-found";
 
     static final ConfigDataLocation[] DEFAULT_SEARCH_LOCATIONS;
+    private static final String METER_BINDER_CLASS = "io.micrometer.core.instrument.binder.MeterBinder";
+
+    private static final String ENDPOINT_CLASS = "org.springframework.boot.actuate.endpoint.annotation.Endpoint";
     private static final Bindable<List<String>> STRING_LIST = Bindable.listOf(String.class);
     private static final ConfigDataEnvironmentContributors.BinderOption[] ALLOW_INACTIVE_BINDING = {};
     private static final ConfigDataEnvironmentContributors.BinderOption[] DENY_INACTIVE_BINDING = {ConfigDataEnvironmentContributors.BinderOption.FAIL_ON_BIND_TO_INACTIVE_SOURCE};
@@ -59,6 +72,12 @@ public class AWSAppConfigDataEnvironment {
 
     private final ConfigDataEnvironmentContributors contributors;
 
+    private final AWSAppConfigProperties properties;
+
+    private final ApplicationStartup applicationStartup;
+
+    private final AWSAppConfigGeneration generation;
+
     AWSAppConfigDataEnvironment(DeferredLogFactory logFactory, ConfigurableBootstrapContext bootstrapContext,
                                 ConfigurableEnvironment environment, ResourceLoader resourceLoader, Collection<String> additionalProfiles,
                                 ConfigDataEnvironmentUpdateListener environmentUpdateListener) {
@@ -75,6 +94,9 @@ public class AWSAppConfigDataEnvironment {
         this.environmentUpdateListener = (environmentUpdateListener != null) ? environmentUpdateListener
                 : ConfigDataEnvironmentUpdateListener.NONE;
         this.loaders = new ConfigDataLoaders(logFactory, bootstrapContext, resourceLoader.getClassLoader());
+        this.properties = AWSAppConfigProperties.get(binder);
+        this.applicationStartup = AWSAppConfigDataLoader.getApplicationStartup(bootstrapContext);
+        this.generation = AWSAppConfigGeneration.get(bootstrapContext);
         this.contributors = createContributors();
     }
 
@@ -112,7 +134,9 @@ public class AWSAppConfigDataEnvironment {
 
     private List<ConfigDataEnvironmentContributor> getInitialImportContributors() {
         List<ConfigDataEnvironmentContributor> initialContributors = new ArrayList<>();
-        addInitialImportContributors(initialContributors, DEFAULT_SEARCH_LOCATIONS);
+        String location = this.properties.getLocation();
+        addInitialImportContributors(initialContributors, StringUtils.hasText(location)
+                ? new ConfigDataLocation[] {ConfigDataLocation.of(location)} : DEFAULT_SEARCH_LOCATIONS);
         return initialContributors;
     }
 
@@ -129,20 +153,57 @@ public class AWSAppConfigDataEnvironment {
 
   void processAndApply() {
     ConfigDataImporter importer = new ConfigDataImporter(this.logFactory, this.notFoundAction, this.resolvers, this.loaders);
+    AWSAppConfigContributorProcessor processor = new AWSAppConfigContributorProcessor(this.logFactory.getLog(ConfigDataEnvironmentContributors.class),
+        this.bootstrapContext, importer, this.contributors);
     registerBootstrapBinder(this.contributors, null, DENY_INACTIVE_BINDING);
-    ConfigDataEnvironmentContributors contributors = processInitial(this.contributors, importer);
+    ConfigDataEnvironmentContributors contributors;
+    PhaseStep step = startPhase("aws.appconfig.config-data.process-initial");
+    try {
+      contributors = processInitial(processor);
+    } finally {
+      step.end();
+    }
     ConfigDataActivationContext activationContext = createActivationContext(contributors.getBinder(null, ConfigDataEnvironmentContributors.BinderOption.FAIL_ON_BIND_TO_INACTIVE_SOURCE));
-    contributors = processWithoutProfiles(contributors, importer, activationContext);
-    activationContext = withProfiles(contributors, activationContext);
-    contributors = processWithProfiles(contributors, importer, activationContext);
+    step = startPhase("aws.appconfig.config-data.process-without-profiles");
+    try {
+      contributors = processWithoutProfiles(processor, activationContext);
+    } finally {
+      step.end();
+    }
+    step = startPhase("aws.appconfig.config-data.with-profiles");
+    try {
+      activationContext = withProfiles(contributors, activationContext);
+    } finally {
+      step.end();
+    }
+    step = startPhase("aws.appconfig.config-data.process-with-profiles");
+    try {
+      contributors = processWithProfiles(processor, activationContext);
+    } finally {
+      step.end();
+    }
+    processor.release();
     this.logger.info(LogMessage.format("Set application properties for profile '%s' from AWS AppConfig", activationContext.getProfiles().getActive().get(0)));
-    applyToEnvironment(contributors, activationContext, importer.getLoadedLocations(), importer.getOptionalLocations());
+    step = startPhase("aws.appconfig.config-data.apply");
+    try {
+      applyToEnvironment(contributors, activationContext, importer.getLoadedLocations(), importer.getOptionalLocations());
+    } finally {
+      step.end();
+    }
+    step = startPhase("aws.appconfig.feature-flags");
+    try {
+      loadFeatureFlags();
+    } finally {
+      step.end();
+    }
+    registerRefresher(processor);
+    registerMeterBinder(registerRepository());
+    registerCachingPropertyResolver();
   }
 
-    private ConfigDataEnvironmentContributors processInitial(ConfigDataEnvironmentContributors contributors,
-                                                             ConfigDataImporter importer) {
+    private ConfigDataEnvironmentContributors processInitial(AWSAppConfigContributorProcessor processor) {
         this.logger.info("Processing initial config data environment contributors without activation context");
-        contributors = contributors.withProcessedImports(importer, null);
+        ConfigDataEnvironmentContributors contributors = processImports(processor, null);
         registerBootstrapBinder(contributors, null, DENY_INACTIVE_BINDING);
         return contributors;
     }
@@ -159,10 +220,10 @@ public class AWSAppConfigDataEnvironment {
         }
     }
 
-    private ConfigDataEnvironmentContributors processWithoutProfiles(ConfigDataEnvironmentContributors contributors,
-                                                                     ConfigDataImporter importer, ConfigDataActivationContext activationContext) {
+    private ConfigDataEnvironmentContributors processWithoutProfiles(AWSAppConfigContributorProcessor processor,
+                                                                     ConfigDataActivationContext activationContext) {
         this.logger.info("Processing config data environment contributors with initial activation context");
-        contributors = contributors.withProcessedImports(importer, activationContext);
+        ConfigDataEnvironmentContributors contributors = processImports(processor, activationContext);
         registerBootstrapBinder(contributors, activationContext, DENY_INACTIVE_BINDING);
         return contributors;
     }
@@ -193,7 +254,7 @@ public class AWSAppConfigDataEnvironment {
         Set<String> result = new LinkedHashSet<>();
         for (ConfigDataEnvironmentContributor contributor : contributors) {
             ConfigurationPropertySource source = contributor.getConfigurationPropertySource();
-            if (source != null && !contributor.hasConfigDataOption(ConfigData.Option.IGNORE_PROFILES)) {
+            if (source != null && !contributor.hasConfigDataOption(ConfigData.Option.IGNORE_PROFILES) && mayIncludeProfiles(source)) {
                 Binder binder = new Binder(Collections.singleton(source), placeholdersResolver);
                 binder.bind(Profiles.INCLUDE_PROFILES, STRING_LIST).ifBound((includes) -> {
                     if (!contributor.isActive(activationContext)) {
@@ -208,25 +269,36 @@ public class AWSAppConfigDataEnvironment {
         return result;
     }
 
-    private ConfigDataEnvironmentContributors processWithProfiles(ConfigDataEnvironmentContributors contributors,
-                                                                  ConfigDataImporter importer, ConfigDataActivationContext activationContext) {
+    private static boolean mayIncludeProfiles(ConfigurationPropertySource source) {
+        return source.getConfigurationProperty(Profiles.INCLUDE_PROFILES) != null
+                || source.containsDescendantOf(Profiles.INCLUDE_PROFILES) != ConfigurationPropertyState.ABSENT;
+    }
+
+    private ConfigDataEnvironmentContributors processWithProfiles(AWSAppConfigContributorProcessor processor,
+                                                                  ConfigDataActivationContext activationContext) {
         this.logger.info("Processing config data environment contributors with profile activation context");
-        contributors = contributors.withProcessedImports(importer, activationContext);
+        ConfigDataEnvironmentContributors contributors = processImports(processor, activationContext);
         registerBootstrapBinder(contributors, activationContext, ALLOW_INACTIVE_BINDING);
         return contributors;
     }
 
+    private ConfigDataEnvironmentContributors processImports(AWSAppConfigContributorProcessor processor,
+                                                             ConfigDataActivationContext activationContext) {
+        processor.process(activationContext);
+        return createContributors(processor.getContributors());
+    }
+
     private void registerBootstrapBinder(ConfigDataEnvironmentContributors contributors,
                                          ConfigDataActivationContext activationContext, ConfigDataEnvironmentContributors.BinderOption... binderOptions) {
+        SingletonSupplier<Binder> binder = SingletonSupplier.of(() -> contributors.getBinder(activationContext, binderOptions));
         this.bootstrapContext.register(Binder.class, BootstrapRegistry.InstanceSupplier
-                .from(() -> contributors.getBinder(activationContext, binderOptions)).withScope(BootstrapRegistry.Scope.PROTOTYPE));
+                .from(binder::obtain).withScope(BootstrapRegistry.Scope.PROTOTYPE));
     }
 
     private void applyToEnvironment(ConfigDataEnvironmentContributors contributors,
                                     ConfigDataActivationContext activationContext, Set<ConfigDataLocation> loadedLocations,
                                     Set<ConfigDataLocation> optionalLocations) {
-        checkForInvalidProperties(contributors);
-        checkMandatoryLocations(contributors, activationContext, loadedLocations, optionalLocations);
+        checkContributors(contributors, activationContext, loadedLocations, optionalLocations);
         MutablePropertySources propertySources = this.environment.getPropertySources();
         applyContributor(contributors, activationContext, propertySources);
         DefaultPropertiesPropertySource.moveToEnd(propertySources);
@@ -251,6 +323,7 @@ public class AWSAppConfigDataEnvironment {
                     this.logger
                             .trace(LogMessage.format("Adding imported property source '%s'", propertySource.getName()));
                     propertySources.addLast(propertySource);
+                    this.generation.increment();
                     this.environmentUpdateListener.onPropertySourceAdded(propertySource, contributor.getLocation(),
                             contributor.getResource());
                 }
@@ -258,26 +331,133 @@ public class AWSAppConfigDataEnvironment {
         }
     }
 
-    private void checkForInvalidProperties(ConfigDataEnvironmentContributors contributors) {
-        for (ConfigDataEnvironmentContributor contributor : contributors) {
-            InvalidConfigDataPropertyException.throwOrWarn(this.logger, contributor);
+    private void loadFeatureFlags() {
+        AWSAppConfigProperties.FeatureFlags featureFlags = this.properties.getFeatureFlags();
+        if (!StringUtils.hasText(featureFlags.getProfile())) {
+            return;
+        }
+        StartConfigurationSessionRequest request = AWSAppConfigDataLocationResolver.createConfigurationRequest(
+                StringUtils.hasText(featureFlags.getApplication()) ? featureFlags.getApplication() : this.properties.getApplication(),
+                StringUtils.hasText(featureFlags.getEnvironment()) ? featureFlags.getEnvironment() : this.properties.getEnvironment(),
+                featureFlags.getProfile());
+        AWSAppConfigResource resource = new AWSAppConfigResource(request, this.properties, AWSAppConfigClientRegistry.get(this.bootstrapContext));
+        AWSAppConfigFeatureFlags flags = new AWSAppConfigDataLoader(this.logFactory.getLog(AWSAppConfigDataLoader.class))
+                .loadFeatureFlags(this.bootstrapContext, resource);
+        this.bootstrapContext.addCloseListener((event) -> {
+            ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+            if (!beanFactory.containsSingleton("awsAppConfigFeatureFlags")) {
+                beanFactory.registerSingleton("awsAppConfigFeatureFlags", flags);
+            }
+        });
+    }
+
+    private void registerRefresher(AWSAppConfigContributorProcessor processor) {
+        AWSAppConfigSessions sessions = AWSAppConfigSessions.get(this.bootstrapContext);
+        if (sessions.isEmpty()) {
+            return;
+        }
+        AWSAppConfigRefresher refresher = new AWSAppConfigRefresher(this.environment, sessions, new AWSAppConfigDataLoader(), this.generation,
+                this.properties.getRefresh());
+        int historySize = this.properties.getHistory().getSize();
+        AWSAppConfigVersionHistory versionHistory = (historySize > 0) ? new AWSAppConfigVersionHistory(historySize) : null;
+        refresher.setVersionHistory(versionHistory);
+        AWSAppConfigPlaceholderGraph placeholders = this.properties.getPlaceholders().isEnabled()
+                ? new AWSAppConfigPlaceholderGraph(this.environment, sessions) : null;
+        refresher.setPlaceholders(placeholders);
+        refresher.setContributorProcessor(processor);
+        this.bootstrapContext.addCloseListener((event) -> {
+            ConfigurableApplicationContext applicationContext = event.getApplicationContext();
+            ConfigurableListableBeanFactory beanFactory = applicationContext.getBeanFactory();
+            if (!beanFactory.containsSingleton("awsAppConfigRefresher")) {
+                refresher.setApplicationEventPublisher(applicationContext);
+                beanFactory.registerSingleton("awsAppConfigRefresher", refresher);
+                applicationContext.addApplicationListener(new AWSAppConfigRebinder(applicationContext));
+                if (placeholders != null) {
+                    beanFactory.registerSingleton("awsAppConfigPlaceholders", placeholders);
+                }
+                if (versionHistory != null) {
+                    beanFactory.registerSingleton("awsAppConfigVersionHistory", versionHistory);
+                    if (ClassUtils.isPresent(ENDPOINT_CLASS, getClass().getClassLoader())) {
+                        beanFactory.registerSingleton("awsAppConfigEndpoint", new AWSAppConfigEndpoint(versionHistory, refresher));
+                    }
+                }
+            }
+        });
+    }
+
+    private AWSAppConfigRepository registerRepository() {
+        if (!this.properties.getRepository().isEnabled()) {
+            return null;
+        }
+        String[] activeProfiles = this.environment.getActiveProfiles();
+        List<String> acceptedProfiles = Arrays.asList((activeProfiles.length > 0) ? activeProfiles : this.environment.getDefaultProfiles());
+        AWSAppConfigProperties.Refresh refresh = this.properties.getRefresh();
+        AWSAppConfigRepository repository = new AWSAppConfigRepository(new AWSAppConfigDataLoader(), this.properties,
+                AWSAppConfigClientRegistry.get(this.bootstrapContext), acceptedProfiles,
+                AWSAppConfigPollScheduler.getShared(refresh.getRateLimit(), refresh.getRateLimitBurst()));
+        this.bootstrapContext.addCloseListener((event) -> {
+            ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+            if (!beanFactory.containsSingleton("awsAppConfigRepository")) {
+                beanFactory.registerSingleton("awsAppConfigRepository", repository);
+            }
+        });
+        return repository;
+    }
+
+    private void registerMeterBinder(AWSAppConfigRepository repository) {
+        if (!ClassUtils.isPresent(METER_BINDER_CLASS, getClass().getClassLoader())) {
+            return;
+        }
+        AWSAppConfigSessions sessions = AWSAppConfigSessions.get(this.bootstrapContext);
+        AWSAppConfigStartupMetrics metrics = AWSAppConfigStartupMetrics.get(this.bootstrapContext);
+        this.bootstrapContext.addCloseListener((event) -> {
+            ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+            if (!beanFactory.containsSingleton("awsAppConfigMeterBinder")) {
+                beanFactory.registerSingleton("awsAppConfigMeterBinder", new AWSAppConfigMeterBinder(sessions, metrics, repository));
+            }
+        });
+    }
+
+    private void registerCachingPropertyResolver() {
+        AWSAppConfigProperties.Cache cache = this.properties.getCache();
+        if (!cache.isEnabled()) {
+            return;
         }
+        AWSAppConfigCachingPropertyResolver resolver = new AWSAppConfigCachingPropertyResolver(this.environment, this.generation, cache.getMaxSize());
+        this.bootstrapContext.addCloseListener((event) -> {
+            ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+            if (!beanFactory.containsSingleton("awsAppConfigPropertyResolver")) {
+                beanFactory.registerSingleton("awsAppConfigPropertyResolver", resolver);
+                if (cache.isEmbeddedValueResolver()) {
+                    // Resolved ahead of the placeholder configurer, which still handles what the environment cannot
+                    beanFactory.addEmbeddedValueResolver((value) -> value.contains("${") ? resolver.resolvePlaceholders(value) : value);
+                }
+            }
+        });
     }
 
-    private void checkMandatoryLocations(ConfigDataEnvironmentContributors contributors,
-                                         ConfigDataActivationContext activationContext, Set<ConfigDataLocation> loadedLocations,
-                                         Set<ConfigDataLocation> optionalLocations) {
+    private PhaseStep startPhase(String name) {
+        return new PhaseStep(this.applicationStartup.start(name), AWSAppConfigStartupMetrics.get(this.bootstrapContext));
+    }
+
+    /**
+     * Check for invalid properties and missing mandatory locations in a single pass over the contributors.
+     */
+    private void checkContributors(ConfigDataEnvironmentContributors contributors,
+                                   ConfigDataActivationContext activationContext, Set<ConfigDataLocation> loadedLocations,
+                                   Set<ConfigDataLocation> optionalLocations) {
         Set<ConfigDataLocation> mandatoryLocations = new LinkedHashSet<>();
+        Set<ConfigDataLocation> contributedLocations = new HashSet<>();
         for (ConfigDataEnvironmentContributor contributor : contributors) {
+            InvalidConfigDataPropertyException.throwOrWarn(this.logger, contributor);
             if (contributor.isActive(activationContext)) {
                 mandatoryLocations.addAll(getMandatoryImports(contributor));
             }
-        }
-        for (ConfigDataEnvironmentContributor contributor : contributors) {
             if (contributor.getLocation() != null) {
-                mandatoryLocations.remove(contributor.getLocation());
+                contributedLocations.add(contributor.getLocation());
             }
         }
+        mandatoryLocations.removeAll(contributedLocations);
         mandatoryLocations.removeAll(loadedLocations);
         mandatoryLocations.removeAll(optionalLocations);
         if (!mandatoryLocations.isEmpty()) {
@@ -297,4 +477,32 @@ public class AWSAppConfigDataEnvironment {
         }
         return mandatoryLocations;
     }
+
+    private static final class PhaseStep {
+
+        private final StartupStep step;
+
+        private final AWSAppConfigStartupMetrics metrics;
+
+        private final long payloadBytes;
+
+        private final long keyCount;
+
+        private final int retries;
+
+        PhaseStep(StartupStep step, AWSAppConfigStartupMetrics metrics) {
+            this.step = step;
+            this.metrics = metrics;
+            this.payloadBytes = metrics.getTotalPayloadBytes();
+            this.keyCount = metrics.getTotalKeyCount();
+            this.retries = metrics.getTotalRetries();
+        }
+
+        void end() {
+            this.step.tag("payload.bytes", String.valueOf(this.metrics.getTotalPayloadBytes() - this.payloadBytes));
+            this.step.tag("key.count", String.valueOf(this.metrics.getTotalKeyCount() - this.keyCount));
+            this.step.tag("retry.count", String.valueOf(this.metrics.getTotalRetries() - this.retries));
+            this.step.end();
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package org.springframework.boot.context.config;
 
 import org.apache.commons.logging.Log;
+import org.springframework.boot.BootstrapRegistry;
 import org.springframework.boot.ConfigurableBootstrapContext;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.env.EnvironmentPostProcessor;
@@ -10,6 +11,7 @@ import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.log.LogMessage;
+import org.springframework.core.metrics.ApplicationStartup;
 
 import java.util.Collection;
 
@@ -38,6 +40,7 @@ public class AWSAppConfigDataEnvironmentPostProcessor implements EnvironmentPost
 
     @Override
     public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        this.bootstrapContext.registerIfAbsent(ApplicationStartup.class, BootstrapRegistry.InstanceSupplier.of(application.getApplicationStartup()));
         postProcessEnvironment(environment, application.getResourceLoader(), application.getAdditionalProfiles());
     }
 
@@ -1,68 +1,342 @@
 package org.springframework.boot.context.config;
 
-import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationRequest;
 import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ConfigurableBootstrapContext;
 import org.springframework.boot.env.OriginTrackedMapPropertySource;
 import org.springframework.core.env.PropertySource;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class AWSAppConfigDataLoader implements ConfigDataLoader<AWSAppConfigResource> {
 
+  private final Log logger;
+
+  private final AWSAppConfigPayloadDecoders decoders;
+
+  public AWSAppConfigDataLoader() {
+    this(LogFactory.getLog(AWSAppConfigDataLoader.class));
+  }
+
+  public AWSAppConfigDataLoader(Log logger) {
+    this(logger, new AWSAppConfigPayloadDecoders(AWSAppConfigDataLoader.class.getClassLoader()));
+  }
+
+  public AWSAppConfigDataLoader(Log logger, AWSAppConfigPayloadDecoders decoders) {
+    this.logger = logger;
+    this.decoders = decoders;
+  }
+
   @Override
   public ConfigData load(ConfigDataLoaderContext context, AWSAppConfigResource resource) {
     try {
-      GetLatestConfigurationResult configurationResult = getApplicationPropertiesFromAWSAppConfig(resource);
-
-      List<Map<String, Object>> yamlResource = getApplicationPropertiesInYaml(configurationResult);
+      ConfigurableBootstrapContext bootstrapContext = context.getBootstrapContext();
+      ApplicationStartup applicationStartup = getApplicationStartup(bootstrapContext);
+      AWSAppConfigStartupMetrics metrics = AWSAppConfigStartupMetrics.get(bootstrapContext);
+      AWSAppConfigFetchCache cache = AWSAppConfigFetchCache.get(bootstrapContext, this.logger);
+      StartupStep fetchStep = applicationStartup.start("aws.appconfig.fetch");
+      Fetched fetched;
+      try {
+        fetched = cache.fetch(bootstrapContext, this, resource);
+        AWSAppConfigStartupFetcher.Result result = metrics.getResult(resource.getRequest());
+        fetchStep.tag("retry.count", String.valueOf((result != null) ? result.getAttempts() - 1 : 0));
+      } finally {
+        fetchStep.end();
+      }
+      AWSAppConfigSession session = fetched.session();
+      GetLatestConfigurationResult configurationResult = fetched.configurationResult();
+      if (configurationResult == null) {
+        return onTimeout(resource);
+      }
 
-      List<PropertySource<?>> propertySources = new ArrayList<>(yamlResource.size());
-      for (Map<String, Object> property : yamlResource) {
-        propertySources.add(new OriginTrackedMapPropertySource(resource.getRequest().toString(), Collections.unmodifiableMap(property), true));
+      int payloadBytes = AWSAppConfigSession.getPayloadBytes(configurationResult);
+      String checksum = AWSAppConfigSnapshotStore.checksum(configurationResult.getConfiguration());
+      StartupStep decodeStep = applicationStartup.start("aws.appconfig.decode");
+      List<Map<String, Object>> documents;
+      try {
+        decodeStep.tag("payload.bytes", String.valueOf(payloadBytes));
+        documents = cache.getDocuments(resource.getRequest(), checksum, () -> getApplicationProperties(configurationResult));
+        decodeStep.tag("key.count", String.valueOf(getKeyCount(documents)));
+      } finally {
+        decodeStep.end();
       }
+      metrics.recordDocuments(resource.getRequest(), payloadBytes, getKeyCount(documents));
+      StartupStep propertySourcesStep = applicationStartup.start("aws.appconfig.property-sources");
+      List<PropertySource<?>> propertySources;
+      try {
+        propertySources = createPropertySources(resource, documents);
+        propertySourcesStep.tag("key.count", String.valueOf(getKeyCount(documents)));
+        propertySourcesStep.tag("property-source.count", String.valueOf(propertySources.size()));
+      } finally {
+        propertySourcesStep.end();
+      }
+      session.setPropertySourceNames(getPropertySourceNames(propertySources));
+      registerSession(bootstrapContext, session, configurationResult, checksum);
       ConfigData.PropertySourceOptions options = ConfigData.PropertySourceOptions.ALWAYS_NONE;
 
       return new ConfigData(propertySources, options);
 
+    } catch (ConfigDataNotFoundException e) {
+      throw e;
     } catch (Exception e) {
       String errorMessage = e.getMessage() + " for " + resource.getRequest().toString();
       throw new RuntimeException(errorMessage);
     }
   }
 
-  private List<Map<String, Object>> getApplicationPropertiesInYaml(GetLatestConfigurationResult configurationResult) throws Exception {
-    ByteArrayResource byteArrayResource = new ByteArrayResource(configurationResult.getConfiguration().array());
-    List<Map<String, Object>> yamlResource = new YamlLoader(byteArrayResource).load();
+  AWSAppConfigFeatureFlags loadFeatureFlags(ConfigurableBootstrapContext bootstrapContext, AWSAppConfigResource resource) {
+    try {
+      Fetched fetched = fetch(bootstrapContext, resource);
+      AWSAppConfigSession session = fetched.session();
+      GetLatestConfigurationResult configurationResult = fetched.configurationResult();
+      AWSAppConfigFeatureFlags featureFlags;
+      if (configurationResult == null) {
+        onTimeout(resource);
+        // Left empty until a refresh delivers the flags
+        featureFlags = new AWSAppConfigFeatureFlags(AWSAppConfigFeatureFlagsSnapshot.EMPTY);
+      } else {
+        featureFlags = new AWSAppConfigFeatureFlags(compileFeatureFlags(configurationResult));
+      }
+      session.setConfigurationHandler((result) -> featureFlags.update(compileFeatureFlags(result)));
+      registerSession(bootstrapContext, session, configurationResult,
+          (configurationResult != null) ? AWSAppConfigSnapshotStore.checksum(configurationResult.getConfiguration()) : null);
+      if (configurationResult != null) {
+        this.logger.info(LogMessage.format("Loaded %d AWS AppConfig feature flag(s) from %s", featureFlags.getFlagNames().size(), resource.getRequest()));
+      }
+      return featureFlags;
+    } catch (ConfigDataNotFoundException e) {
+      throw e;
+    } catch (Exception e) {
+      String errorMessage = e.getMessage() + " for " + resource.getRequest().toString();
+      throw new RuntimeException(errorMessage);
+    }
+  }
 
-    if (yamlResource.isEmpty()) {
-      throw new Exception("AWS AppConfig Property response is empty");
+  /**
+   * Record the configuration a session was loaded with and register the session to be refreshed, or revalidated when
+   * it was loaded from a snapshot. A session loaded without configuration is left to its first refresh.
+   */
+  private static void registerSession(ConfigurableBootstrapContext bootstrapContext, AWSAppConfigSession session,
+                                      GetLatestConfigurationResult configurationResult, String checksum) {
+    if (configurationResult != null) {
+      session.setChecksum(checksum);
+      session.setVersionLabel(configurationResult.getVersionLabel());
+      if (!session.isRevalidate()) {
+        session.setLastRefreshTime(System.currentTimeMillis());
+      }
+    }
+    if (session.getResource().getProperties().getRefresh().isEnabled() || session.isRevalidate()) {
+      AWSAppConfigSessions.get(bootstrapContext).register(session);
     }
-    return yamlResource;
   }
 
-  private GetLatestConfigurationResult getApplicationPropertiesFromAWSAppConfig(AWSAppConfigResource resource) throws Exception, InterruptedException {
+  private static AWSAppConfigFeatureFlagsSnapshot compileFeatureFlags(GetLatestConfigurationResult configurationResult) throws IOException {
+    try (InputStream input = new ByteBufferInputStream(configurationResult.getConfiguration())) {
+      return AWSAppConfigFeatureFlagsSnapshot.compile(input, configurationResult.getVersionLabel());
+    }
+  }
 
-    String sessionToken = resource.getAppConfig().startConfigurationSession(resource.getRequest()).getInitialConfigurationToken();
-    while (true) {
-      GetLatestConfigurationRequest configurationRequest = new GetLatestConfigurationRequest();
-      configurationRequest.setConfigurationToken(sessionToken);
-      GetLatestConfigurationResult configurationResult = resource.getAppConfig().getLatestConfiguration(configurationRequest);
+  Fetched fetch(ConfigurableBootstrapContext bootstrapContext, AWSAppConfigResource resource) throws Exception {
+    return fetch(bootstrapContext, resource, getApplicationStartup(bootstrapContext));
+  }
 
-      if (!Objects.equals("application/x-yaml", configurationResult.getContentType())) {
-        throw new Exception("AWS AppConfig Response is expected to be YAML");
+  Fetched fetch(ConfigurableBootstrapContext bootstrapContext, AWSAppConfigResource resource, ApplicationStartup applicationStartup) throws Exception {
+    AWSAppConfigSession session = new AWSAppConfigSession(resource);
+    return new Fetched(session, getConfiguration(AWSAppConfigStartupMetrics.get(bootstrapContext), session, applicationStartup));
+  }
+
+  /**
+   * Fetch the configuration of a resource once the application has started, outside of the bootstrap context.
+   */
+  Fetched fetch(AWSAppConfigResource resource) throws Exception {
+    AWSAppConfigSession session = new AWSAppConfigSession(resource);
+    return new Fetched(session, getConfiguration(null, session, ApplicationStartup.DEFAULT));
+  }
+
+  /**
+   * Fetch the configuration through an asynchronous transport, the waits between polls being scheduled on the given
+   * executor rather than holding a thread.
+   */
+  CompletableFuture<Fetched> fetchAsync(ConfigurableBootstrapContext bootstrapContext, AWSAppConfigResource resource, ScheduledExecutorService executor) {
+    AWSAppConfigSession session = new AWSAppConfigSession(resource);
+    AWSAppConfigStartupMetrics metrics = AWSAppConfigStartupMetrics.get(bootstrapContext);
+    AWSAppConfigSnapshotStore.Snapshot snapshot = readSnapshot(resource);
+    if (isSnapshotFirst(session, snapshot)) {
+      return CompletableFuture.completedFuture(new Fetched(session, snapshot.toConfigurationResult()));
+    }
+    return new AWSAppConfigStartupFetcher(resource.getProperties().getStartup()).fetchAsync(session, executor).handle((result, ex) -> {
+      try {
+        return new Fetched(session, (ex != null) ? onFetchFailure(session, snapshot, ex) : onFetched(metrics, session, snapshot, result));
+      } catch (Exception failure) {
+        throw new CompletionException(failure);
       }
+    });
+  }
+
+  private GetLatestConfigurationResult getConfiguration(AWSAppConfigStartupMetrics metrics, AWSAppConfigSession session,
+                                                        ApplicationStartup applicationStartup) throws Exception {
+    AWSAppConfigResource resource = session.getResource();
+    AWSAppConfigSnapshotStore.Snapshot snapshot = readSnapshot(resource);
+    if (isSnapshotFirst(session, snapshot)) {
+      return snapshot.toConfigurationResult();
+    }
+    AWSAppConfigStartupFetcher.Result result;
+    try {
+      result = new AWSAppConfigStartupFetcher(resource.getProperties().getStartup(), applicationStartup).fetch(session);
+    } catch (Exception ex) {
+      return onFetchFailure(session, snapshot, ex);
+    }
+    return onFetched(metrics, session, snapshot, result);
+  }
+
+  private boolean isSnapshotFirst(AWSAppConfigSession session, AWSAppConfigSnapshotStore.Snapshot snapshot) {
+    AWSAppConfigResource resource = session.getResource();
+    if (snapshot == null || resource.getProperties().getSnapshot().getMode() != AWSAppConfigProperties.SnapshotMode.SNAPSHOT_FIRST) {
+      return false;
+    }
+    this.logger.info(LogMessage.format("Using AWS AppConfig snapshot version '%s' for %s, revalidating in the background",
+            snapshot.getVersionLabel(), resource.getRequest()));
+    session.setRevalidate(true);
+    return true;
+  }
+
+  private GetLatestConfigurationResult onFetchFailure(AWSAppConfigSession session, AWSAppConfigSnapshotStore.Snapshot snapshot, Throwable ex) throws Exception {
+    Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+    if (snapshot == null) {
+      throw (cause instanceof Exception exception) ? exception : new IllegalStateException(cause);
+    }
+    this.logger.warn(LogMessage.format("Unable to fetch AWS AppConfig configuration for %s, falling back to snapshot version '%s': %s",
+            session.getResource().getRequest(), snapshot.getVersionLabel(), cause.getMessage()));
+    session.setRevalidate(true);
+    return snapshot.toConfigurationResult();
+  }
 
-      if (configurationResult.getConfiguration().array().length > 0) {
-        return configurationResult;
+  private GetLatestConfigurationResult onFetched(AWSAppConfigStartupMetrics metrics, AWSAppConfigSession session,
+                                                 AWSAppConfigSnapshotStore.Snapshot snapshot, AWSAppConfigStartupFetcher.Result result) {
+    AWSAppConfigResource resource = session.getResource();
+    if (metrics != null) {
+      metrics.record(resource.getRequest(), result);
+    }
+    this.logger.info(LogMessage.format("Fetched AWS AppConfig configuration for %s in %d ms (%d ms waiting, %d attempt(s))",
+            resource.getRequest(), result.getElapsedTime().toMillis(), result.getWaitTime().toMillis(), result.getAttempts()));
+    if (result.isTimedOut()) {
+      if (snapshot == null) {
+        return null;
       }
+      this.logger.warn(LogMessage.format("Falling back to AWS AppConfig snapshot version '%s' for %s", snapshot.getVersionLabel(), resource.getRequest()));
+      session.setRevalidate(true);
+      return snapshot.toConfigurationResult();
+    }
+    saveSnapshot(resource, result.getConfigurationResult());
+    return result.getConfigurationResult();
+  }
+
+  private AWSAppConfigSnapshotStore.Snapshot readSnapshot(AWSAppConfigResource resource) {
+    if (!resource.getProperties().getSnapshot().isEnabled()) {
+      return null;
+    }
+    try {
+      return getSnapshotStore(resource).read(resource.getRequest()).orElse(null);
+    } catch (IOException ex) {
+      this.logger.warn(LogMessage.format("Unable to read AWS AppConfig snapshot for %s: %s", resource.getRequest(), ex.getMessage()));
+      return null;
+    }
+  }
+
+  void saveSnapshot(AWSAppConfigResource resource, GetLatestConfigurationResult configurationResult) {
+    if (!resource.getProperties().getSnapshot().isEnabled()) {
+      return;
+    }
+    try {
+      getSnapshotStore(resource).write(resource.getRequest(), configurationResult);
+    } catch (IOException ex) {
+      this.logger.warn(LogMessage.format("Unable to write AWS AppConfig snapshot for %s: %s", resource.getRequest(), ex.getMessage()));
+    }
+  }
+
+  private static AWSAppConfigSnapshotStore getSnapshotStore(AWSAppConfigResource resource) {
+    return new AWSAppConfigSnapshotStore(Paths.get(resource.getProperties().getSnapshot().getDirectory()));
+  }
+
+  List<PropertySource<?>> getPropertySources(AWSAppConfigResource resource, GetLatestConfigurationResult configurationResult) throws Exception {
+    return createPropertySources(resource, getApplicationProperties(configurationResult));
+  }
+
+  private List<PropertySource<?>> createPropertySources(AWSAppConfigResource resource, List<Map<String, Object>> documents) {
+    Map<String, Object> merged = AWSAppConfigDocuments.merge(resource.getRequest().toString(), documents, resource.getAcceptedProfiles());
+    if (merged != null) {
+      return Collections.singletonList(createPropertySource(getPropertySourceName(resource, 0), merged, resource.getProperties().getIndexThreshold()));
+    }
+    List<PropertySource<?>> propertySources = new ArrayList<>(documents.size());
+    for (int i = 0; i < documents.size(); i++) {
+      propertySources.add(createPropertySource(getPropertySourceName(resource, i), documents.get(i), resource.getProperties().getIndexThreshold()));
+    }
+    return propertySources;
+  }
+
+  static PropertySource<?> createPropertySource(String name, Map<String, Object> properties, int indexThreshold) {
+    if (indexThreshold >= 0 && properties.size() >= indexThreshold) {
+      return new AWSAppConfigIndexedPropertySource(name, properties);
+    }
+    return new OriginTrackedMapPropertySource(name, Collections.unmodifiableMap(properties), true);
+  }
+
+  static String getPropertySourceName(AWSAppConfigResource resource, int document) {
+    String name = resource.getRequest().toString();
+    return (document != 0) ? name + " (document #" + document + ")" : name;
+  }
 
-      sessionToken = configurationResult.getNextPollConfigurationToken();
-      Thread.sleep(10_000);
+  private static List<String> getPropertySourceNames(List<PropertySource<?>> propertySources) {
+    List<String> names = new ArrayList<>(propertySources.size());
+    for (PropertySource<?> propertySource : propertySources) {
+      names.add(propertySource.getName());
     }
+    return names;
+  }
+
+  private static int getKeyCount(List<Map<String, Object>> documents) {
+    int keyCount = 0;
+    for (Map<String, Object> document : documents) {
+      keyCount += document.size();
+    }
+    return keyCount;
+  }
+
+  static ApplicationStartup getApplicationStartup(ConfigurableBootstrapContext bootstrapContext) {
+    return bootstrapContext.getOrElse(ApplicationStartup.class, ApplicationStartup.DEFAULT);
+  }
+
+  private List<Map<String, Object>> getApplicationProperties(GetLatestConfigurationResult configurationResult) throws Exception {
+    List<Map<String, Object>> documents = this.decoders.decode(configurationResult.getContentType(), configurationResult.getConfiguration());
+
+    if (documents.isEmpty()) {
+      throw new Exception("AWS AppConfig Property response is empty");
+    }
+    return documents;
+  }
+
+  private ConfigData onTimeout(AWSAppConfigResource resource) {
+    String message = "AWS AppConfig returned no configuration within " + resource.getProperties().getStartup().getTimeout();
+    if (resource.getProperties().getStartup().getOnTimeout() == ConfigDataNotFoundAction.IGNORE) {
+      this.logger.warn(LogMessage.format("Ignoring missing AWS AppConfig configuration for %s: %s", resource.getRequest(), message));
+      return ConfigData.EMPTY;
+    }
+    throw new ConfigDataResourceNotFoundException(resource, new IllegalStateException(message));
+  }
+
+  record Fetched(AWSAppConfigSession session, GetLatestConfigurationResult configurationResult) {
   }
 }
@@ -1,18 +1,40 @@
 package org.springframework.boot.context.config;
 
 import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.logging.DeferredLogFactory;
 import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class AWSAppConfigDataLocationResolver implements ConfigDataLocationResolver<AWSAppConfigResource>, Ordered {
 
     private static final String AWS_APP_CONFIG_LOCATION = "aws-app-config";
 
+    private static final String AWS_APP_CONFIG_PREFIX = AWS_APP_CONFIG_LOCATION + ":";
+
+    private static final String AWS_APP_CONFIG_AGENT_LOCATION = "aws-app-config-agent";
+
+    private static final String AWS_APP_CONFIG_AGENT_PREFIX = AWS_APP_CONFIG_AGENT_LOCATION + ":";
+
+    private final DeferredLogFactory logFactory;
+
+    public AWSAppConfigDataLocationResolver() {
+        this(Supplier::get);
+    }
+
+    public AWSAppConfigDataLocationResolver(DeferredLogFactory logFactory) {
+        this.logFactory = logFactory;
+    }
+
     @Override
     public boolean isResolvable(ConfigDataLocationResolverContext context, ConfigDataLocation location) {
-        return location.getValue().equals(AWS_APP_CONFIG_LOCATION);
+        return location.getValue().equals(AWS_APP_CONFIG_LOCATION) || location.hasPrefix(AWS_APP_CONFIG_PREFIX)
+                || location.getValue().equals(AWS_APP_CONFIG_AGENT_LOCATION) || location.hasPrefix(AWS_APP_CONFIG_AGENT_PREFIX);
     }
 
     @Override
@@ -28,11 +50,56 @@ public class AWSAppConfigDataLocationResolver implements ConfigDataLocationResol
 
     @Override
     public List<AWSAppConfigResource> resolveProfileSpecific(ConfigDataLocationResolverContext context, ConfigDataLocation location, Profiles profiles) {
+        AWSAppConfigProperties properties = AWSAppConfigProperties.get(context.getBinder());
+        AWSAppConfigClientRegistry clientRegistry = AWSAppConfigClientRegistry.get(context.getBootstrapContext());
+        List<AWSAppConfigResource> resources = new ArrayList<>();
+        for (StartConfigurationSessionRequest configurationRequest : getConfigurationRequests(location, properties)) {
+            AWSAppConfigResource resource = new AWSAppConfigResource(configurationRequest, properties, clientRegistry);
+            if (isAgentLocation(location)) {
+                resource.setTransportType(AWSAppConfigProperties.Transport.AGENT);
+            }
+            if (profiles != null) {
+                resource.setAcceptedProfiles(profiles.getAccepted());
+            }
+            resources.add(resource);
+        }
+        if (resources.size() > 1) {
+            Log logger = this.logFactory.getLog(AWSAppConfigDataLoader.class);
+            AWSAppConfigFetchCache.get(context.getBootstrapContext(), logger).prefetch(context.getBootstrapContext(),
+                    new AWSAppConfigDataLoader(logger), resources, properties.getFetch().getParallelism());
+        }
+        return resources;
+    }
+
+    /**
+     * Return whether the location reads from a local AppConfig Agent rather than through the configured client.
+     */
+    private static boolean isAgentLocation(ConfigDataLocation location) {
+        return location.getValue().equals(AWS_APP_CONFIG_AGENT_LOCATION) || location.hasPrefix(AWS_APP_CONFIG_AGENT_PREFIX);
+    }
+
+    private List<StartConfigurationSessionRequest> getConfigurationRequests(ConfigDataLocation location, AWSAppConfigProperties properties) {
+        String prefix = isAgentLocation(location) ? AWS_APP_CONFIG_AGENT_PREFIX : AWS_APP_CONFIG_PREFIX;
+        if (!location.hasPrefix(prefix)) {
+            return Collections.singletonList(createConfigurationRequest(properties.getApplication(), properties.getEnvironment(), properties.getProfile()));
+        }
+        List<StartConfigurationSessionRequest> configurationRequests = new ArrayList<>();
+        for (String triple : StringUtils.tokenizeToStringArray(location.getNonPrefixedValue(prefix), ";")) {
+            String[] identifiers = StringUtils.tokenizeToStringArray(triple, "/");
+            if (identifiers.length != 3) {
+                throw new IllegalArgumentException("Invalid AWS AppConfig location '" + triple + "' in " + location
+                        + ", expected 'application/environment/profile'");
+            }
+            configurationRequests.add(createConfigurationRequest(identifiers[0], identifiers[1], identifiers[2]));
+        }
+        return configurationRequests;
+    }
+
+    static StartConfigurationSessionRequest createConfigurationRequest(String application, String environment, String profile) {
         StartConfigurationSessionRequest configurationRequest = new StartConfigurationSessionRequest();
-        configurationRequest.withApplicationIdentifier("Sample Application");
-        configurationRequest.withConfigurationProfileIdentifier("Sample profile");
-        configurationRequest.withEnvironmentIdentifier("Sample Environment");
-        AWSAppConfigResource awsAppConfigResource = new AWSAppConfigResource(configurationRequest);
-        return Collections.singletonList(awsAppConfigResource);
+        configurationRequest.withApplicationIdentifier(application);
+        configurationRequest.withConfigurationProfileIdentifier(profile);
+        configurationRequest.withEnvironmentIdentifier(environment);
+        return configurationRequest;
     }
 }
@@ -0,0 +1,131 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.core.env.Profiles;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates the {@code spring.config.activate.*} conditions of the documents of a configuration profile against the
+ * accepted profiles and merges the active ones, later documents taking precedence, into a single map whose values
+ * remember the document they came from.
+ */
+final class AWSAppConfigDocuments {
+
+    private static final String ACTIVATE = "spring.config.activate.";
+
+    private static final String ON_PROFILE = ACTIVATE + "on-profile";
+
+    private static final String ON_CLOUD_PLATFORM = ACTIVATE + "on-cloud-platform";
+
+    private AWSAppConfigDocuments() {
+    }
+
+    /**
+     * Return the merged properties, or {@code null} if a document depends on a condition that can only be evaluated
+     * by Spring Boot once the documents are contributed separately.
+     */
+    static Map<String, Object> merge(String request, List<Map<String, Object>> documents, Collection<String> acceptedProfiles) {
+        for (Map<String, Object> document : documents) {
+            if (document.containsKey(ON_CLOUD_PLATFORM)) {
+                return null;
+            }
+        }
+        Map<String, Object> merged = new LinkedHashMap<>();
+        for (int i = 0; i < documents.size(); i++) {
+            Map<String, Object> document = documents.get(i);
+            if (!isActive(document, acceptedProfiles)) {
+                continue;
+            }
+            removeReplacedLists(merged, document);
+            AWSAppConfigOrigin origin = new AWSAppConfigOrigin(request, i);
+            document.forEach((name, value) -> {
+                if (!name.startsWith(ACTIVATE)) {
+                    merged.put(name, OriginTrackedValue.of(unwrap(value), origin));
+                }
+            });
+        }
+        return merged;
+    }
+
+    static boolean isActive(Map<String, Object> document, Collection<String> acceptedProfiles) {
+        List<String> expressions = getProfileExpressions(document);
+        return expressions.isEmpty() || Profiles.of(expressions.toArray(new String[0])).matches(acceptedProfiles::contains);
+    }
+
+    private static List<String> getProfileExpressions(Map<String, Object> document) {
+        List<String> expressions = new ArrayList<>();
+        document.forEach((name, value) -> {
+            if (value != null && (name.equals(ON_PROFILE) || (name.startsWith(ON_PROFILE + "[") && name.endsWith("]")))) {
+                for (String expression : StringUtils.commaDelimitedListToStringArray(unwrap(value).toString())) {
+                    if (StringUtils.hasText(expression)) {
+                        expressions.add(expression.trim());
+                    }
+                }
+            }
+        });
+        return expressions;
+    }
+
+    /**
+     * A list is bound from the highest precedence source that defines it, so a document redefining {@code a[0]}
+     * replaces the whole {@code a} list of the earlier documents rather than only its first element. Brackets also
+     * hold map keys such as {@code codes[404]}, whose entries are merged: only the brackets of a document whose indexes
+     * run from {@code 0} without gaps are taken for a list.
+     */
+    private static void removeReplacedLists(Map<String, Object> merged, Map<String, Object> document) {
+        if (merged.isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> indexes = new HashMap<>();
+        for (String name : document.keySet()) {
+            for (int open = name.indexOf('['); open > 0; open = name.indexOf('[', open + 1)) {
+                int close = name.indexOf(']', open);
+                if (close < 0) {
+                    break;
+                }
+                indexes.computeIfAbsent(name.substring(0, open + 1), (prefix) -> new HashSet<>()).add(name.substring(open + 1, close));
+            }
+        }
+        List<String> lists = new ArrayList<>();
+        indexes.forEach((prefix, listIndexes) -> {
+            if (isList(listIndexes)) {
+                lists.add(prefix);
+            }
+        });
+        if (!lists.isEmpty()) {
+            merged.keySet().removeIf((name) -> {
+                for (String prefix : lists) {
+                    if (name.startsWith(prefix)) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+        }
+    }
+
+    private static boolean isList(Set<String> indexes) {
+        for (String index : indexes) {
+            if (index.isEmpty() || index.length() > 9 || !index.chars().allMatch(Character::isDigit)) {
+                return false;
+            }
+            if (Integer.parseInt(index) >= indexes.size() || (index.length() > 1 && index.charAt(0) == '0')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object unwrap(Object value) {
+        return (value instanceof OriginTrackedValue originTrackedValue) ? originTrackedValue.getValue() : value;
+    }
+}
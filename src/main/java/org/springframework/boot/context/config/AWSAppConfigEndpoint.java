@@ -0,0 +1,116 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.actuate.endpoint.SanitizableData;
+import org.springframework.boot.actuate.endpoint.Sanitizer;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.env.PropertySource;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint listing the versions retained by the {@link AWSAppConfigVersionHistory} with the properties changed
+ * by each of them, and rolling a configuration profile back to one of them. Profiles are selected with their
+ * {@code application/environment/profile} path, e.g. {@code POST /actuator/awsappconfig/app/env/profile} with
+ * {@code {"version": 3}} to roll back and {@code DELETE} on the same path to unpin. Values are sanitized like the
+ * {@code env} endpoint does. Every version carries the {@link AWSAppConfigPropertyHashes hash} of its properties and a
+ * profile lists the hashes of the prefixes below {@code ?prefix=} in its published version, so that instances can be
+ * compared prefix by prefix.
+ */
+@Endpoint(id = "awsappconfig")
+public class AWSAppConfigEndpoint {
+
+    private final AWSAppConfigVersionHistory versionHistory;
+
+    private final AWSAppConfigRefresher refresher;
+
+    private final Sanitizer sanitizer = new Sanitizer();
+
+    public AWSAppConfigEndpoint(AWSAppConfigVersionHistory versionHistory, AWSAppConfigRefresher refresher) {
+        this.versionHistory = versionHistory;
+        this.refresher = refresher;
+    }
+
+    @ReadOperation
+    public Map<String, ProfileDescriptor> profiles() {
+        Map<String, ProfileDescriptor> profiles = new TreeMap<>();
+        for (String profile : this.versionHistory.getProfiles()) {
+            profiles.put(profile, describe(profile, false, null));
+        }
+        return profiles;
+    }
+
+    @ReadOperation
+    public ProfileDescriptor profile(@Selector(match = Selector.Match.ALL_REMAINING) String[] profile, @Nullable String prefix) {
+        String name = String.join("/", profile);
+        return this.versionHistory.getProfiles().contains(name) ? describe(name, true, (prefix != null) ? prefix : "") : null;
+    }
+
+    @WriteOperation
+    public VersionDescriptor rollback(@Selector(match = Selector.Match.ALL_REMAINING) String[] profile, long version) {
+        String name = String.join("/", profile);
+        return describe(this.refresher.rollback(name, version), null, this.versionHistory.getRetainedBytes(name));
+    }
+
+    @DeleteOperation
+    public VersionDescriptor unpin(@Selector(match = Selector.Match.ALL_REMAINING) String[] profile) {
+        String name = String.join("/", profile);
+        AWSAppConfigVersionHistory.Version version = this.refresher.unpin(name);
+        return (version != null) ? describe(version, null, this.versionHistory.getRetainedBytes(name)) : null;
+    }
+
+    private ProfileDescriptor describe(String profile, boolean changes, String prefix) {
+        Map<Long, Long> retainedBytes = this.versionHistory.getRetainedBytes(profile);
+        List<VersionDescriptor> versions = new ArrayList<>();
+        AWSAppConfigVersionHistory.Version previous = null;
+        for (AWSAppConfigVersionHistory.Version version : this.versionHistory.getVersions(profile)) {
+            versions.add(describe(version, changes ? getChanges(previous, version) : null, retainedBytes));
+            previous = version;
+        }
+        AWSAppConfigVersionHistory.Version published = this.versionHistory.getPublished(profile);
+        AWSAppConfigVersionHistory.Version pinned = this.versionHistory.getPinned(profile);
+        AWSAppConfigPropertyHashes hashes = (published != null) ? published.getHashes() : null;
+        return new ProfileDescriptor((published != null) ? published.getSequence() : null, (pinned != null) ? pinned.getSequence() : null,
+                this.versionHistory.getSize(), retainedBytes.values().stream().mapToLong(Long::longValue).sum(),
+                (hashes != null) ? hashes.getHash() : null, (hashes != null && prefix != null) ? hashes.getChildren(prefix) : null, versions);
+    }
+
+    private VersionDescriptor describe(AWSAppConfigVersionHistory.Version version, Map<String, AWSAppConfigChangedEvent.Change> changes,
+                                       Map<Long, Long> retainedBytes) {
+        return new VersionDescriptor(version.getSequence(), version.getVersionLabel(), version.getChecksum(), version.getHashes().getHash(),
+                version.getReceivedAt(), version.getPropertyCount(), version.getEstimatedBytes(), retainedBytes.getOrDefault(version.getSequence(), 0L), changes);
+    }
+
+    private Map<String, AWSAppConfigChangedEvent.Change> getChanges(AWSAppConfigVersionHistory.Version previous,
+                                                                    AWSAppConfigVersionHistory.Version version) {
+        if (previous == null) {
+            return null;
+        }
+        Map<String, AWSAppConfigChangedEvent.Change> changes = new LinkedHashMap<>();
+        AWSAppConfigPropertyDiff.diff(new ArrayList<PropertySource<?>>(previous.getPropertySources()),
+                new ArrayList<PropertySource<?>>(version.getPropertySources())).forEach((name, change) -> changes.put(name,
+                new AWSAppConfigChangedEvent.Change(sanitize(name, change.previousValue()), sanitize(name, change.value()))));
+        return changes;
+    }
+
+    private Object sanitize(String name, Object value) {
+        return (value != null) ? this.sanitizer.sanitize(new SanitizableData(null, name, value)) : null;
+    }
+
+    public record ProfileDescriptor(Long published, Long pinned, int maxVersions, long retainedBytes, String hash, Map<String, String> hashes,
+                                    List<VersionDescriptor> versions) {
+    }
+
+    public record VersionDescriptor(long sequence, String versionLabel, String checksum, String hash, Instant receivedAt, int properties,
+                                    long estimatedBytes, long retainedBytes, Map<String, AWSAppConfigChangedEvent.Change> changes) {
+    }
+}
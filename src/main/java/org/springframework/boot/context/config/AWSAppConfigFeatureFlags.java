@@ -0,0 +1,60 @@
+package org.springframework.boot.context.config;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Feature flags read from an AppConfig feature flags profile. Every refresh compiles a new
+ * {@link AWSAppConfigFeatureFlagsSnapshot} that is published with a single volatile write, so evaluations never lock.
+ */
+public class AWSAppConfigFeatureFlags {
+
+    private volatile AWSAppConfigFeatureFlagsSnapshot snapshot;
+
+    public AWSAppConfigFeatureFlags(AWSAppConfigFeatureFlagsSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public boolean isEnabled(String flag) {
+        return this.snapshot.isEnabled(flag);
+    }
+
+    public String getString(String flag, String attribute, String defaultValue) {
+        return this.snapshot.getString(flag, attribute, defaultValue);
+    }
+
+    public long getLong(String flag, String attribute, long defaultValue) {
+        return this.snapshot.getLong(flag, attribute, defaultValue);
+    }
+
+    public double getDouble(String flag, String attribute, double defaultValue) {
+        return this.snapshot.getDouble(flag, attribute, defaultValue);
+    }
+
+    public boolean getBoolean(String flag, String attribute, boolean defaultValue) {
+        return this.snapshot.getBoolean(flag, attribute, defaultValue);
+    }
+
+    public List<?> getList(String flag, String attribute) {
+        return this.snapshot.getList(flag, attribute);
+    }
+
+    public Set<String> getFlagNames() {
+        return this.snapshot.getFlagNames();
+    }
+
+    public String getVersionLabel() {
+        return this.snapshot.getVersionLabel();
+    }
+
+    /**
+     * Return the current snapshot, to evaluate several flags against the same version.
+     */
+    public AWSAppConfigFeatureFlagsSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    void update(AWSAppConfigFeatureFlagsSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+}
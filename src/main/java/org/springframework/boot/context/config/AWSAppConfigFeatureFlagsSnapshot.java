@@ -0,0 +1,198 @@
+package org.springframework.boot.context.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, compiled view of an AppConfig feature flags document. Attributes are kept in sorted arrays with their
+ * numeric and boolean forms precomputed, so that evaluating a flag never allocates.
+ */
+public final class AWSAppConfigFeatureFlagsSnapshot {
+
+    static final AWSAppConfigFeatureFlagsSnapshot EMPTY = new AWSAppConfigFeatureFlagsSnapshot(Collections.emptyMap(), null);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final byte STRING = 0;
+
+    private static final byte BOOLEAN = 1;
+
+    private static final byte LONG = 2;
+
+    private static final byte DOUBLE = 3;
+
+    private static final byte LIST = 4;
+
+    private final Map<String, Flag> flags;
+
+    private final String versionLabel;
+
+    private AWSAppConfigFeatureFlagsSnapshot(Map<String, Flag> flags, String versionLabel) {
+        this.flags = flags;
+        this.versionLabel = versionLabel;
+    }
+
+    public boolean isEnabled(String flag) {
+        Flag compiled = this.flags.get(flag);
+        return compiled != null && compiled.enabled;
+    }
+
+    public boolean contains(String flag) {
+        return this.flags.containsKey(flag);
+    }
+
+    public String getString(String flag, String attribute, String defaultValue) {
+        Flag compiled = this.flags.get(flag);
+        int index = (compiled != null) ? compiled.indexOf(attribute) : -1;
+        return (index >= 0 && compiled.types[index] != LIST) ? (String) compiled.values[index] : defaultValue;
+    }
+
+    public long getLong(String flag, String attribute, long defaultValue) {
+        Flag compiled = this.flags.get(flag);
+        int index = (compiled != null) ? compiled.indexOf(attribute) : -1;
+        return (index >= 0 && (compiled.types[index] == LONG || compiled.types[index] == DOUBLE)) ? compiled.longs[index] : defaultValue;
+    }
+
+    public double getDouble(String flag, String attribute, double defaultValue) {
+        Flag compiled = this.flags.get(flag);
+        int index = (compiled != null) ? compiled.indexOf(attribute) : -1;
+        return (index >= 0 && (compiled.types[index] == LONG || compiled.types[index] == DOUBLE)) ? compiled.doubles[index] : defaultValue;
+    }
+
+    public boolean getBoolean(String flag, String attribute, boolean defaultValue) {
+        Flag compiled = this.flags.get(flag);
+        int index = (compiled != null) ? compiled.indexOf(attribute) : -1;
+        return (index >= 0 && compiled.types[index] == BOOLEAN) ? compiled.longs[index] != 0 : defaultValue;
+    }
+
+    public List<?> getList(String flag, String attribute) {
+        Flag compiled = this.flags.get(flag);
+        int index = (compiled != null) ? compiled.indexOf(attribute) : -1;
+        return (index >= 0 && compiled.types[index] == LIST) ? (List<?>) compiled.values[index] : Collections.emptyList();
+    }
+
+    public Set<String> getFlagNames() {
+        return Collections.unmodifiableSet(this.flags.keySet());
+    }
+
+    public String getVersionLabel() {
+        return this.versionLabel;
+    }
+
+    /**
+     * Compiles both the document returned by GetLatestConfiguration ({@code {"flag": {"enabled": true, ...}}}) and
+     * the hosted configuration format, whose evaluated flags are under {@code values}.
+     */
+    public static AWSAppConfigFeatureFlagsSnapshot compile(InputStream input, String versionLabel) throws IOException {
+        Object document;
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            document = (token != null) ? read(parser, token) : Collections.emptyMap();
+        }
+        if (!(document instanceof Map<?, ?> root)) {
+            throw new IOException("AWS AppConfig feature flags must be a JSON object");
+        }
+        if (root.get("values") instanceof Map<?, ?> values && root.get("flags") instanceof Map) {
+            root = values;
+        }
+        Map<String, Flag> flags = new HashMap<>(root.size() * 2);
+        for (Map.Entry<?, ?> entry : root.entrySet()) {
+            if (!(entry.getValue() instanceof Map<?, ?> attributes)) {
+                throw new IOException("AWS AppConfig feature flag '" + entry.getKey() + "' must be a JSON object");
+            }
+            flags.put((String) entry.getKey(), new Flag(attributes));
+        }
+        return new AWSAppConfigFeatureFlagsSnapshot(flags, versionLabel);
+    }
+
+    private static Object read(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                for (JsonToken field = parser.nextToken(); field != JsonToken.END_OBJECT; field = parser.nextToken()) {
+                    String name = parser.getCurrentName();
+                    object.put(name, read(parser, parser.nextToken()));
+                }
+                return object;
+            case START_ARRAY:
+                List<Object> array = new ArrayList<>();
+                for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+                    array.add(read(parser, element));
+                }
+                return Collections.unmodifiableList(array);
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getBooleanValue();
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new IOException("Unexpected JSON token " + token);
+        }
+    }
+
+    private static final class Flag {
+
+        private final boolean enabled;
+
+        private final String[] names;
+
+        private final byte[] types;
+
+        private final long[] longs;
+
+        private final double[] doubles;
+
+        private final Object[] values;
+
+        Flag(Map<?, ?> attributes) {
+            this.enabled = Boolean.TRUE.equals(attributes.get("enabled"));
+            String[] names = attributes.entrySet().stream().filter((entry) -> entry.getValue() != null)
+                    .map((entry) -> (String) entry.getKey()).sorted().toArray(String[]::new);
+            this.names = names;
+            this.types = new byte[names.length];
+            this.longs = new long[names.length];
+            this.doubles = new double[names.length];
+            this.values = new Object[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Object value = attributes.get(names[i]);
+                if (value instanceof Boolean bool) {
+                    this.types[i] = BOOLEAN;
+                    this.longs[i] = bool ? 1 : 0;
+                } else if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+                    this.types[i] = DOUBLE;
+                    this.doubles[i] = ((Number) value).doubleValue();
+                    this.longs[i] = ((Number) value).longValue();
+                } else if (value instanceof Number number) {
+                    this.types[i] = LONG;
+                    this.longs[i] = number.longValue();
+                    this.doubles[i] = number.doubleValue();
+                } else if (value instanceof List) {
+                    this.types[i] = LIST;
+                }
+                this.values[i] = (value instanceof List) ? value : value.toString();
+            }
+        }
+
+        int indexOf(String attribute) {
+            return Arrays.binarySearch(this.names, attribute);
+        }
+    }
+}
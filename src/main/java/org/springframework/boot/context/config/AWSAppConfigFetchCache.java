@@ -0,0 +1,183 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AWSAppConfigFetchCache {
+
+    private final Log logger;
+
+    private final Map<StartConfigurationSessionRequest, CompletableFuture<AWSAppConfigDataLoader.Fetched>> fetches = new ConcurrentHashMap<>();
+
+    private final Map<DocumentsKey, List<Map<String, Object>>> documents = new ConcurrentHashMap<>();
+
+    private final AtomicInteger fetchCount = new AtomicInteger();
+
+    private final AtomicInteger fetchHitCount = new AtomicInteger();
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    private final AtomicInteger parseHitCount = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    private Semaphore permits;
+
+    public AWSAppConfigFetchCache(Log logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Start fetching the given resources in the background. Resources with an asynchronous transport are composed on
+     * the shared poll threads, the others take one of {@code parallelism} fetch threads each. Failed fetches are not
+     * kept, so that loading the resource fetches it again.
+     */
+    public synchronized void prefetch(ConfigurableBootstrapContext bootstrapContext, AWSAppConfigDataLoader loader,
+                                      List<AWSAppConfigResource> resources, int parallelism) {
+        AWSAppConfigStartupMetrics.get(bootstrapContext);
+        for (AWSAppConfigResource resource : resources) {
+            CompletableFuture<AWSAppConfigDataLoader.Fetched> fetch = this.fetches.computeIfAbsent(resource.getRequest(), (key) -> {
+                this.fetchCount.incrementAndGet();
+                if (resource.getTransport().isAsync()) {
+                    return loader.fetchAsync(bootstrapContext, resource, AWSAppConfigPollScheduler.getShared().getExecutor());
+                }
+                if (this.executor == null) {
+                    this.executor = createExecutor(parallelism);
+                    this.permits = new Semaphore(Math.max(parallelism, 1));
+                    bootstrapContext.addCloseListener((event) -> this.executor.shutdown());
+                }
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        this.permits.acquire();
+                        try {
+                            // startup steps are nested per thread, so parallel fetches only show up in the caller's fetch step
+                            return loader.fetch(bootstrapContext, resource, ApplicationStartup.DEFAULT);
+                        } finally {
+                            this.permits.release();
+                        }
+                    } catch (Exception ex) {
+                        throw new CompletionException(ex);
+                    }
+                }, this.executor);
+            });
+            fetch.whenComplete((fetched, ex) -> {
+                if (ex != null) {
+                    this.fetches.remove(resource.getRequest(), fetch);
+                }
+            });
+        }
+    }
+
+    public AWSAppConfigDataLoader.Fetched fetch(ConfigurableBootstrapContext bootstrapContext, AWSAppConfigDataLoader loader,
+                                                AWSAppConfigResource resource) throws Exception {
+        CompletableFuture<AWSAppConfigDataLoader.Fetched> fetch = new CompletableFuture<>();
+        CompletableFuture<AWSAppConfigDataLoader.Fetched> existing = this.fetches.putIfAbsent(resource.getRequest(), fetch);
+        if (existing != null) {
+            this.fetchHitCount.incrementAndGet();
+            this.logger.debug(LogMessage.format("Reusing AWS AppConfig fetch for %s", resource.getRequest()));
+            try {
+                return get(existing);
+            } catch (Exception ex) {
+                this.logger.debug(LogMessage.format("Fetching AWS AppConfig configuration for %s again after: %s", resource.getRequest(), ex.getMessage()));
+                this.fetches.remove(resource.getRequest(), existing);
+                return fetch(bootstrapContext, loader, resource);
+            }
+        }
+        this.fetchCount.incrementAndGet();
+        try {
+            fetch.complete(loader.fetch(bootstrapContext, resource));
+        } catch (Exception ex) {
+            this.fetches.remove(resource.getRequest(), fetch);
+            fetch.completeExceptionally(ex);
+        }
+        return get(fetch);
+    }
+
+    public List<Map<String, Object>> getDocuments(StartConfigurationSessionRequest request, String checksum, Decoder decoder) throws Exception {
+        DocumentsKey key = new DocumentsKey(request, checksum);
+        List<Map<String, Object>> cached = this.documents.get(key);
+        if (cached != null) {
+            this.parseHitCount.incrementAndGet();
+            this.logger.debug(LogMessage.format("Reusing parsed AWS AppConfig configuration for %s", request));
+            return cached;
+        }
+        this.parseCount.incrementAndGet();
+        List<Map<String, Object>> decoded = decoder.decode();
+        this.documents.put(key, decoded);
+        return decoded;
+    }
+
+    public int getFetchCount() {
+        return this.fetchCount.get();
+    }
+
+    public int getFetchHitCount() {
+        return this.fetchHitCount.get();
+    }
+
+    public int getParseCount() {
+        return this.parseCount.get();
+    }
+
+    public int getParseHitCount() {
+        return this.parseHitCount.get();
+    }
+
+    private static AWSAppConfigDataLoader.Fetched get(CompletableFuture<AWSAppConfigDataLoader.Fetched> fetch) throws Exception {
+        try {
+            return fetch.get();
+        } catch (ExecutionException ex) {
+            throw (ex.getCause() instanceof Exception) ? (Exception) ex.getCause() : ex;
+        }
+    }
+
+    private static ExecutorService createExecutor(int parallelism) {
+        try {
+            Method virtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtualThreadExecutor.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(parallelism, 1), (runnable) -> {
+                Thread thread = new Thread(runnable, "aws-appconfig-fetch-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    static AWSAppConfigFetchCache get(ConfigurableBootstrapContext bootstrapContext, Log logger) {
+        if (!bootstrapContext.isRegistered(AWSAppConfigFetchCache.class)) {
+            AWSAppConfigFetchCache cache = new AWSAppConfigFetchCache(logger);
+            bootstrapContext.register(AWSAppConfigFetchCache.class, BootstrapRegistry.InstanceSupplier.of(cache));
+            bootstrapContext.addCloseListener((event) -> logger.debug(LogMessage.format(
+                    "AWS AppConfig fetch cache: %d fetch(es), %d reused, %d parse(s), %d reused", cache.getFetchCount(),
+                    cache.getFetchHitCount(), cache.getParseCount(), cache.getParseHitCount())));
+        }
+        return bootstrapContext.get(AWSAppConfigFetchCache.class);
+    }
+
+    @FunctionalInterface
+    public interface Decoder {
+
+        List<Map<String, Object>> decode() throws Exception;
+    }
+
+    private record DocumentsKey(StartConfigurationSessionRequest request, String checksum) {
+    }
+}
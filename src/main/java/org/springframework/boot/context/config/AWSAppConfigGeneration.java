@@ -0,0 +1,27 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.ConfigurableBootstrapContext;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter incremented whenever AppConfig property sources are added to or replaced in the environment.
+ */
+public class AWSAppConfigGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public long get() {
+        return this.generation.get();
+    }
+
+    public long increment() {
+        return this.generation.incrementAndGet();
+    }
+
+    static AWSAppConfigGeneration get(ConfigurableBootstrapContext bootstrapContext) {
+        bootstrapContext.registerIfAbsent(AWSAppConfigGeneration.class, BootstrapRegistry.InstanceSupplier.of(new AWSAppConfigGeneration()));
+        return bootstrapContext.get(AWSAppConfigGeneration.class);
+    }
+}
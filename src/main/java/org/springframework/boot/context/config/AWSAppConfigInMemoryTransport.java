@@ -0,0 +1,103 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.BadRequestException;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.ResourceNotFoundException;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link AWSAppConfigTransport} for tests. Configurations are {@link #publish published} per application,
+ * environment and profile, and sessions receive a configuration once per published version, like AppConfig does.
+ * Configuration tokens can only be used once.
+ */
+public class AWSAppConfigInMemoryTransport implements AWSAppConfigTransport {
+
+    private final Map<Key, Configuration> configurations = new ConcurrentHashMap<>();
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private final AtomicLong sessionCount = new AtomicLong();
+
+    private final AtomicLong pollCount = new AtomicLong();
+
+    private volatile int pollIntervalSeconds = 15;
+
+    public void publish(String application, String environment, String profile, String contentType, String content) {
+        publish(application, environment, profile, contentType, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void publish(String application, String environment, String profile, String contentType, byte[] content) {
+        this.configurations.compute(new Key(application, environment, profile), (key, previous) -> new Configuration(
+                (previous != null) ? previous.version() + 1 : 1, contentType, content.clone()));
+    }
+
+    public void setPollIntervalSeconds(int pollIntervalSeconds) {
+        this.pollIntervalSeconds = pollIntervalSeconds;
+    }
+
+    public long getSessionCount() {
+        return this.sessionCount.get();
+    }
+
+    public long getPollCount() {
+        return this.pollCount.get();
+    }
+
+    @Override
+    public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+        Key key = new Key(request.getApplicationIdentifier(), request.getEnvironmentIdentifier(), request.getConfigurationProfileIdentifier());
+        if (!this.configurations.containsKey(key)) {
+            return CompletableFuture.failedFuture(new ResourceNotFoundException("No configuration published for " + key));
+        }
+        this.sessionCount.incrementAndGet();
+        return CompletableFuture.completedFuture(issueToken(new Cursor(key, 0)));
+    }
+
+    @Override
+    public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+        this.pollCount.incrementAndGet();
+        Cursor cursor = (configurationToken != null) ? this.cursors.remove(configurationToken) : null;
+        if (cursor == null) {
+            return CompletableFuture.failedFuture(new BadRequestException("Invalid or already used configuration token"));
+        }
+        Configuration configuration = this.configurations.get(cursor.key());
+        boolean changed = configuration.version() > cursor.version();
+        GetLatestConfigurationResult result = new GetLatestConfigurationResult()
+                .withNextPollConfigurationToken(issueToken(new Cursor(cursor.key(), configuration.version())))
+                .withNextPollIntervalInSeconds(this.pollIntervalSeconds)
+                .withConfiguration(changed ? ByteBuffer.wrap(configuration.content()).asReadOnlyBuffer() : ByteBuffer.allocate(0));
+        if (changed) {
+            result.withContentType(configuration.contentType()).withVersionLabel(String.valueOf(configuration.version()));
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    private String issueToken(Cursor cursor) {
+        String token = "in-memory-" + this.tokens.incrementAndGet();
+        this.cursors.put(token, cursor);
+        return token;
+    }
+
+    private record Key(String application, String environment, String profile) {
+    }
+
+    private record Configuration(int version, String contentType, byte[] content) {
+    }
+
+    private record Cursor(Key key, int version) {
+    }
+}
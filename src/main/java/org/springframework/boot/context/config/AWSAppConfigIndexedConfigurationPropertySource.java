@@ -0,0 +1,89 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.context.properties.source.ConfigurationProperty;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyState;
+import org.springframework.boot.context.properties.source.IterableConfigurationPropertySource;
+import org.springframework.boot.origin.PropertySourceOrigin;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * {@link IterableConfigurationPropertySource} view of an {@link AWSAppConfigIndexedPropertySource}, keeping the
+ * adapted names sorted so that the binder's lookups and descendant checks are binary searches.
+ */
+public class AWSAppConfigIndexedConfigurationPropertySource implements IterableConfigurationPropertySource {
+
+    private final AWSAppConfigIndexedPropertySource propertySource;
+
+    private final ConfigurationPropertyName[] names;
+
+    private final Object[] values;
+
+    private final String[] propertyNames;
+
+    AWSAppConfigIndexedConfigurationPropertySource(AWSAppConfigIndexedPropertySource propertySource, String[] propertyNames, Object[] propertyValues) {
+        this.propertySource = propertySource;
+        Entry[] entries = new Entry[propertyNames.length];
+        int count = 0;
+        for (int i = 0; i < propertyNames.length; i++) {
+            ConfigurationPropertyName name = ConfigurationPropertyName.adapt(propertyNames[i], '.');
+            if (!name.isEmpty()) {
+                entries[count++] = new Entry(name, propertyNames[i], propertyValues[i]);
+            }
+        }
+        Arrays.sort(entries, 0, count, (left, right) -> left.name().compareTo(right.name()));
+        ConfigurationPropertyName[] names = new ConfigurationPropertyName[count];
+        Object[] values = new Object[count];
+        String[] originalNames = new String[count];
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || !names[unique - 1].equals(entries[i].name())) {
+                names[unique] = entries[i].name();
+                values[unique] = entries[i].value();
+                originalNames[unique] = entries[i].propertyName();
+                unique++;
+            }
+        }
+        this.names = Arrays.copyOf(names, unique);
+        this.values = Arrays.copyOf(values, unique);
+        this.propertyNames = Arrays.copyOf(originalNames, unique);
+    }
+
+    @Override
+    public ConfigurationProperty getConfigurationProperty(ConfigurationPropertyName name) {
+        if (name == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(this.names, name);
+        if (index < 0) {
+            return null;
+        }
+        return new ConfigurationProperty(name, this.values[index], PropertySourceOrigin.get(this.propertySource, this.propertyNames[index]));
+    }
+
+    @Override
+    public ConfigurationPropertyState containsDescendantOf(ConfigurationPropertyName name) {
+        if (name.isEmpty()) {
+            return (this.names.length > 0) ? ConfigurationPropertyState.PRESENT : ConfigurationPropertyState.ABSENT;
+        }
+        int index = Arrays.binarySearch(this.names, name);
+        int next = (index >= 0) ? index + 1 : -index - 1;
+        return (next < this.names.length && name.isAncestorOf(this.names[next])) ? ConfigurationPropertyState.PRESENT
+                : ConfigurationPropertyState.ABSENT;
+    }
+
+    @Override
+    public Stream<ConfigurationPropertyName> stream() {
+        return Arrays.stream(this.names);
+    }
+
+    @Override
+    public Object getUnderlyingSource() {
+        return this.propertySource;
+    }
+
+    private record Entry(ConfigurationPropertyName name, String propertyName, Object value) {
+    }
+}
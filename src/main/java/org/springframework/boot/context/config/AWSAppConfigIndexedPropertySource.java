@@ -0,0 +1,129 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.core.env.EnumerablePropertySource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable property source keeping its keys in a sorted array, so that lookups and prefix queries are
+ * binary searches and no map entry is allocated per key. Equal values are shared between keys and the origins of
+ * {@link OriginTrackedValue origin tracked} values are kept alongside them.
+ */
+public class AWSAppConfigIndexedPropertySource extends EnumerablePropertySource<Object> implements OriginLookup<String> {
+
+    private final String[] names;
+
+    private final Object[] values;
+
+    private final Origin[] origins;
+
+    private volatile AWSAppConfigIndexedConfigurationPropertySource configurationPropertySource;
+
+    private volatile AWSAppConfigPropertyHashes hashes;
+
+    public AWSAppConfigIndexedPropertySource(String name, Map<String, Object> properties) {
+        super(name, new Object());
+        String[] names = properties.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        Object[] values = new Object[names.length];
+        Origin[] origins = null;
+        Map<Object, Object> shared = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            Object value = properties.get(names[i]);
+            if (value instanceof OriginTrackedValue originTrackedValue) {
+                if (origins == null) {
+                    origins = new Origin[names.length];
+                }
+                origins[i] = originTrackedValue.getOrigin();
+                value = originTrackedValue.getValue();
+            }
+            values[i] = (value != null) ? shared.computeIfAbsent(value, (key) -> key) : null;
+        }
+        this.names = names;
+        this.values = values;
+        this.origins = origins;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        int index = Arrays.binarySearch(this.names, name);
+        return (index >= 0) ? this.values[index] : null;
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return Arrays.binarySearch(this.names, name) >= 0;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return this.names.clone();
+    }
+
+    public int size() {
+        return this.names.length;
+    }
+
+    public boolean containsDescendantOf(String prefix) {
+        return hasNameStartingWith(prefix + ".") || hasNameStartingWith(prefix + "[");
+    }
+
+    public String[] getPropertyNames(String prefix) {
+        int from = insertionPoint(prefix);
+        int to = from;
+        while (to < this.names.length && this.names[to].startsWith(prefix)) {
+            to++;
+        }
+        return Arrays.copyOfRange(this.names, from, to);
+    }
+
+    private boolean hasNameStartingWith(String prefix) {
+        int index = insertionPoint(prefix);
+        return index < this.names.length && this.names[index].startsWith(prefix);
+    }
+
+    private int insertionPoint(String name) {
+        int index = Arrays.binarySearch(this.names, name);
+        return (index >= 0) ? index : -index - 1;
+    }
+
+    @Override
+    public Origin getOrigin(String name) {
+        if (this.origins == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(this.names, name);
+        return (index >= 0) ? this.origins[index] : null;
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
+    public AWSAppConfigIndexedConfigurationPropertySource asConfigurationPropertySource() {
+        AWSAppConfigIndexedConfigurationPropertySource source = this.configurationPropertySource;
+        if (source == null) {
+            source = new AWSAppConfigIndexedConfigurationPropertySource(this, this.names, this.values);
+            this.configurationPropertySource = source;
+        }
+        return source;
+    }
+
+    /**
+     * Return the hashes of the properties, computed on first use.
+     */
+    public AWSAppConfigPropertyHashes getHashes() {
+        AWSAppConfigPropertyHashes hashes = this.hashes;
+        if (hashes == null) {
+            hashes = AWSAppConfigPropertyHashes.of(this.names, this.values);
+            this.hashes = hashes;
+        }
+        return hashes;
+    }
+}
@@ -0,0 +1,108 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the startup measurements, the polls of the live AppConfig sessions and the statistics of the
+ * {@link AWSAppConfigRepository}, if any. Only registered when Micrometer is on the classpath.
+ */
+public class AWSAppConfigMeterBinder implements MeterBinder {
+
+    private final AWSAppConfigSessions sessions;
+
+    private final AWSAppConfigStartupMetrics startupMetrics;
+
+    private final AWSAppConfigRepository repository;
+
+    public AWSAppConfigMeterBinder(AWSAppConfigSessions sessions, AWSAppConfigStartupMetrics startupMetrics) {
+        this(sessions, startupMetrics, null);
+    }
+
+    public AWSAppConfigMeterBinder(AWSAppConfigSessions sessions, AWSAppConfigStartupMetrics startupMetrics, AWSAppConfigRepository repository) {
+        this.sessions = sessions;
+        this.startupMetrics = startupMetrics;
+        this.repository = repository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<StartConfigurationSessionRequest, AWSAppConfigStartupFetcher.Result> entry : this.startupMetrics.getResults().entrySet()) {
+            Tags tags = getTags(entry.getKey());
+            AWSAppConfigStartupFetcher.Result result = entry.getValue();
+            TimeGauge.builder("aws.appconfig.startup.fetch.time", result, TimeUnit.NANOSECONDS, (value) -> value.getElapsedTime().toNanos())
+                    .description("Time spent fetching the configuration at startup").tags(tags).strongReference(true).register(registry);
+            TimeGauge.builder("aws.appconfig.startup.fetch.wait", result, TimeUnit.NANOSECONDS, (value) -> value.getWaitTime().toNanos())
+                    .description("Time spent waiting between startup polls").tags(tags).strongReference(true).register(registry);
+            Gauge.builder("aws.appconfig.startup.fetch.retries", result, (value) -> value.getAttempts() - 1)
+                    .description("Number of empty polls retried at startup").tags(tags).strongReference(true).register(registry);
+        }
+        for (Map.Entry<StartConfigurationSessionRequest, AWSAppConfigStartupMetrics.Documents> entry : this.startupMetrics.getDocuments().entrySet()) {
+            Tags tags = getTags(entry.getKey());
+            AWSAppConfigStartupMetrics.Documents documents = entry.getValue();
+            Gauge.builder("aws.appconfig.payload.size", documents, AWSAppConfigStartupMetrics.Documents::payloadBytes)
+                    .description("Size of the configuration loaded at startup").baseUnit("bytes").tags(tags).strongReference(true).register(registry);
+            Gauge.builder("aws.appconfig.keys", documents, AWSAppConfigStartupMetrics.Documents::keyCount)
+                    .description("Number of properties loaded at startup").tags(tags).strongReference(true).register(registry);
+        }
+        for (AWSAppConfigSession session : this.sessions.getSessions()) {
+            Tags tags = getTags(session.getResource().getRequest());
+            FunctionTimer.builder("aws.appconfig.poll", session, AWSAppConfigSession::getPollCount, AWSAppConfigSession::getPollTimeNanos, TimeUnit.NANOSECONDS)
+                    .description("Latency of GetLatestConfiguration calls").tags(tags).register(registry);
+            Gauge.builder("aws.appconfig.version", session, AWSAppConfigMeterBinder::getVersion)
+                    .description("Version label of the applied configuration, when numeric").tags(tags).strongReference(true).register(registry);
+            TimeGauge.builder("aws.appconfig.last.refresh.age", session, TimeUnit.MILLISECONDS, AWSAppConfigMeterBinder::getLastRefreshAge)
+                    .description("Time since the configuration was last applied or confirmed unchanged").tags(tags).strongReference(true).register(registry);
+        }
+        if (this.repository != null) {
+            bindRepository(registry, this.repository);
+        }
+    }
+
+    private static void bindRepository(MeterRegistry registry, AWSAppConfigRepository repository) {
+        FunctionCounter.builder("aws.appconfig.repository.requests", repository, AWSAppConfigRepository::getHitCount)
+                .description("Number of repository lookups served from memory").tags("result", "hit").register(registry);
+        FunctionCounter.builder("aws.appconfig.repository.requests", repository, AWSAppConfigRepository::getMissCount)
+                .description("Number of repository lookups that had to load the profile").tags("result", "miss").register(registry);
+        FunctionCounter.builder("aws.appconfig.repository.loads", repository, AWSAppConfigRepository::getLoadSuccessCount)
+                .description("Number of profiles loaded by the repository").tags("result", "success").register(registry);
+        FunctionCounter.builder("aws.appconfig.repository.loads", repository, AWSAppConfigRepository::getLoadFailureCount)
+                .description("Number of profiles the repository failed to load").tags("result", "failure").register(registry);
+        FunctionCounter.builder("aws.appconfig.repository.evictions", repository, AWSAppConfigRepository::getEvictionCount)
+                .description("Number of profiles evicted from the repository").register(registry);
+        FunctionCounter.builder("aws.appconfig.repository.refreshes", repository, AWSAppConfigRepository::getRefreshCount)
+                .description("Number of background polls of the repository's profiles").register(registry);
+        Gauge.builder("aws.appconfig.repository.size", repository, AWSAppConfigRepository::size)
+                .description("Number of profiles held by the repository").register(registry);
+        Gauge.builder("aws.appconfig.repository.weight", repository, AWSAppConfigRepository::getWeight)
+                .description("Number of properties held by the repository").register(registry);
+    }
+
+    private static Tags getTags(StartConfigurationSessionRequest request) {
+        return Tags.of("application", request.getApplicationIdentifier(), "environment", request.getEnvironmentIdentifier(),
+                "profile", request.getConfigurationProfileIdentifier());
+    }
+
+    private static double getVersion(AWSAppConfigSession session) {
+        String versionLabel = session.getVersionLabel();
+        try {
+            return (versionLabel != null) ? Double.parseDouble(versionLabel) : Double.NaN;
+        } catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private static double getLastRefreshAge(AWSAppConfigSession session) {
+        long lastRefreshTime = session.getLastRefreshTime();
+        return (lastRefreshTime != 0) ? System.currentTimeMillis() - lastRefreshTime : Double.NaN;
+    }
+}
@@ -0,0 +1,50 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.origin.Origin;
+
+import java.util.Objects;
+
+/**
+ * {@link Origin} of a property loaded from a document of an AppConfig configuration profile.
+ */
+public class AWSAppConfigOrigin implements Origin {
+
+    private final String request;
+
+    private final int document;
+
+    public AWSAppConfigOrigin(String request, int document) {
+        this.request = request;
+        this.document = document;
+    }
+
+    public String getRequest() {
+        return this.request;
+    }
+
+    public int getDocument() {
+        return this.document;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        AWSAppConfigOrigin other = (AWSAppConfigOrigin) obj;
+        return this.document == other.document && this.request.equals(other.request);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.request, this.document);
+    }
+
+    @Override
+    public String toString() {
+        return "AWS AppConfig " + this.request + " (document #" + this.document + ")";
+    }
+}
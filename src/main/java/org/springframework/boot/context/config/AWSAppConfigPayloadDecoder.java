@@ -0,0 +1,19 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes an AppConfig payload into flattened property maps, one per document.
+ * Implementations are registered in {@code META-INF/spring.factories} and selected by content type.
+ */
+public interface AWSAppConfigPayloadDecoder {
+
+    boolean supports(MimeType contentType);
+
+    List<Map<String, Object>> decode(InputStream input, MimeType contentType) throws IOException;
+}
@@ -0,0 +1,46 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+public class AWSAppConfigPayloadDecoders {
+
+    /**
+     * The content type assumed for payloads without one, AWS AppConfig profiles having been YAML before content types
+     * were supported.
+     */
+    static final String DEFAULT_CONTENT_TYPE = "application/x-yaml";
+
+    private final List<AWSAppConfigPayloadDecoder> decoders;
+
+    public AWSAppConfigPayloadDecoders(List<AWSAppConfigPayloadDecoder> decoders) {
+        this.decoders = decoders;
+    }
+
+    public AWSAppConfigPayloadDecoders(ClassLoader classLoader) {
+        this(SpringFactoriesLoader.loadFactories(AWSAppConfigPayloadDecoder.class, classLoader));
+    }
+
+    public List<Map<String, Object>> decode(String contentType, ByteBuffer payload) throws IOException {
+        if (!StringUtils.hasText(contentType)) {
+            contentType = DEFAULT_CONTENT_TYPE;
+        }
+        MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+        for (AWSAppConfigPayloadDecoder decoder : this.decoders) {
+            if (decoder.supports(mimeType)) {
+                try (InputStream input = new ByteBufferInputStream(payload)) {
+                    return decoder.decode(input, mimeType);
+                }
+            }
+        }
+        throw new IOException("AWS AppConfig content type '" + contentType + "' is not supported");
+    }
+}
@@ -0,0 +1,318 @@
+package org.springframework.boot.context.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.properties.bind.PlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.log.LogMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PlaceholdersResolver} compiling the placeholder-bearing values of the environment once and caching their
+ * resolution. A graph from every key to the keys whose value references it is kept for the AppConfig properties and
+ * the keys they reference, so that circular references are detected when the graph is built and a refresh only
+ * re-resolves the values depending on a changed key. Property sources changed outside this library are not tracked.
+ * Use it with e.g. {@code new Binder(ConfigurationPropertySources.get(environment), placeholders)}.
+ */
+public class AWSAppConfigPlaceholderGraph implements PlaceholdersResolver {
+
+    private static final Log logger = LogFactory.getLog(AWSAppConfigPlaceholderGraph.class);
+
+    private final ConfigurableEnvironment environment;
+
+    private final AWSAppConfigSessions sessions;
+
+    private final Map<String, AWSAppConfigPlaceholderTemplate> templates = new ConcurrentHashMap<>();
+
+    private final Set<String> uncompilable = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    private final Map<String, AWSAppConfigPlaceholderTemplate> keys = new HashMap<>();
+
+    private final Set<String> tracked = new HashSet<>();
+
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    private final Map<String, Set<String>> dependentTexts = new ConcurrentHashMap<>();
+
+    private volatile Set<String> circular = Collections.emptySet();
+
+    private volatile long version;
+
+    private volatile boolean built;
+
+    public AWSAppConfigPlaceholderGraph(ConfigurableEnvironment environment, AWSAppConfigSessions sessions) {
+        this.environment = environment;
+        this.sessions = sessions;
+    }
+
+    @Override
+    public Object resolvePlaceholders(Object value) {
+        if (!(value instanceof String text) || !AWSAppConfigPlaceholderTemplate.hasPlaceholder(text)) {
+            return value;
+        }
+        String cached = this.resolved.get(text);
+        if (cached != null) {
+            return cached;
+        }
+        if (!this.built) {
+            build();
+        }
+        AWSAppConfigPlaceholderTemplate template = this.templates.get(text);
+        if (template == null) {
+            template = (!this.uncompilable.contains(text)) ? AWSAppConfigPlaceholderTemplate.compile(text) : null;
+            if (template == null) {
+                this.uncompilable.add(text);
+                return this.environment.resolvePlaceholders(text);
+            }
+            this.templates.putIfAbsent(text, template);
+        }
+        long version = this.version;
+        String result = template.resolve(this::resolveKey);
+        for (String reference : template.getReferences()) {
+            this.dependentTexts.computeIfAbsent(reference, (key) -> ConcurrentHashMap.newKeySet()).add(text);
+        }
+        this.resolved.put(text, result);
+        if (this.version != version) {
+            this.resolved.remove(text, result);
+        }
+        return result;
+    }
+
+    /**
+     * Return the value of a key, with its placeholders resolved.
+     */
+    public String getProperty(String key) {
+        Object value = resolvePlaceholders(getRawValue(key));
+        return (value != null) ? String.valueOf(value) : null;
+    }
+
+    /**
+     * Return the keys whose resolved value depends on any of the given keys, directly or through other keys, excluding
+     * the given keys.
+     */
+    public synchronized Set<String> getDependents(Collection<String> keys) {
+        build();
+        Set<String> dependents = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(keys);
+        while (!pending.isEmpty()) {
+            for (String dependent : this.dependents.getOrDefault(pending.poll(), Collections.emptySet())) {
+                if (!keys.contains(dependent) && dependents.add(dependent)) {
+                    pending.add(dependent);
+                }
+            }
+        }
+        return dependents;
+    }
+
+    public Set<String> getCircularKeys() {
+        if (!this.built) {
+            build();
+        }
+        return this.circular;
+    }
+
+    /**
+     * Compile the AppConfig properties and the keys they reference, and detect circular references. Called on first
+     * use if needed.
+     */
+    public synchronized void build() {
+        if (this.built) {
+            return;
+        }
+        this.built = true;
+        int count = 0;
+        for (AWSAppConfigSession session : this.sessions.getSessions()) {
+            for (String name : session.getPropertySourceNames()) {
+                if (this.environment.getPropertySources().get(name) instanceof EnumerablePropertySource<?> propertySource) {
+                    for (String key : propertySource.getPropertyNames()) {
+                        track(key);
+                    }
+                    count++;
+                }
+            }
+        }
+        detectCircularReferences(this.keys.keySet());
+        logger.debug(LogMessage.format("Compiled %d placeholder value(s) of %d AWS AppConfig property source(s)", this.keys.size(), count));
+    }
+
+    /**
+     * Update the graph once the values of some keys changed, dropping the cached resolution of every value depending
+     * on them.
+     */
+    public synchronized void update(Collection<String> changedKeys) {
+        if (!this.built) {
+            return;
+        }
+        Set<String> affected = new LinkedHashSet<>(changedKeys);
+        affected.addAll(getDependents(changedKeys));
+        this.version++;
+        for (String key : changedKeys) {
+            untrack(key);
+        }
+        for (String key : changedKeys) {
+            track(key);
+        }
+        for (String key : affected) {
+            Set<String> texts = this.dependentTexts.remove(key);
+            if (texts != null) {
+                texts.forEach(this.resolved::remove);
+            }
+        }
+        Set<String> circular = new HashSet<>(this.circular);
+        circular.removeAll(affected);
+        this.circular = circular;
+        detectCircularReferences(affected);
+    }
+
+    private String resolveKey(String key) {
+        if (this.circular.contains(key)) {
+            throw new IllegalArgumentException("Circular placeholder reference '" + key + "' in property definitions");
+        }
+        Object value = getRawValue(key);
+        if (value instanceof String text && AWSAppConfigPlaceholderTemplate.hasPlaceholder(text)) {
+            synchronized (this) {
+                if (!this.tracked.contains(key)) {
+                    track(key);
+                    detectCircularReferences(Collections.singleton(key));
+                    if (this.circular.contains(key)) {
+                        throw new IllegalArgumentException("Circular placeholder reference '" + key + "' in property definitions");
+                    }
+                }
+            }
+            return (String) resolvePlaceholders(text);
+        }
+        return (value != null) ? String.valueOf(value) : null;
+    }
+
+    private Object getRawValue(String key) {
+        for (PropertySource<?> propertySource : this.environment.getPropertySources()) {
+            if (!ConfigurationPropertySources.isAttachedConfigurationPropertySource(propertySource)) {
+                Object value = propertySource.getProperty(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void track(String key) {
+        if (!this.tracked.add(key)) {
+            return;
+        }
+        if (!(getRawValue(key) instanceof String text)) {
+            return;
+        }
+        AWSAppConfigPlaceholderTemplate template = AWSAppConfigPlaceholderTemplate.compile(text);
+        if (template == null) {
+            return;
+        }
+        this.templates.putIfAbsent(text, template);
+        this.keys.put(key, template);
+        for (String reference : template.getReferences()) {
+            this.dependents.computeIfAbsent(reference, (name) -> new LinkedHashSet<>()).add(key);
+            track(reference);
+        }
+    }
+
+    private void untrack(String key) {
+        this.tracked.remove(key);
+        AWSAppConfigPlaceholderTemplate template = this.keys.remove(key);
+        if (template != null) {
+            this.templates.remove(template.getText());
+            for (String reference : template.getReferences()) {
+                Set<String> dependents = this.dependents.get(reference);
+                if (dependents != null) {
+                    dependents.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the keys taking part in a reference cycle reachable from the given keys, with Tarjan's algorithm.
+     */
+    private void detectCircularReferences(Collection<String> roots) {
+        Map<String, int[]> indexes = new HashMap<>();
+        Deque<String> stack = new ArrayDeque<>();
+        Set<String> onStack = new HashSet<>();
+        Set<String> circular = new LinkedHashSet<>();
+        for (String root : roots) {
+            if (!indexes.containsKey(root)) {
+                strongConnect(root, indexes, stack, onStack, circular);
+            }
+        }
+        if (!circular.isEmpty()) {
+            logger.warn(LogMessage.format("Circular placeholder references between %s", circular));
+            Set<String> merged = new HashSet<>(this.circular);
+            merged.addAll(circular);
+            this.circular = merged;
+        }
+    }
+
+    private void strongConnect(String key, Map<String, int[]> indexes, Deque<String> stack, Set<String> onStack, Set<String> circular) {
+        int[] index = {indexes.size(), indexes.size()};
+        indexes.put(key, index);
+        stack.push(key);
+        onStack.add(key);
+        AWSAppConfigPlaceholderTemplate template = this.keys.get(key);
+        boolean selfReference = false;
+        if (template != null) {
+            for (String reference : template.getReferences()) {
+                int[] referenceIndex = indexes.get(reference);
+                if (referenceIndex == null) {
+                    strongConnect(reference, indexes, stack, onStack, circular);
+                    index[1] = Math.min(index[1], indexes.get(reference)[1]);
+                } else if (onStack.contains(reference)) {
+                    index[1] = Math.min(index[1], referenceIndex[0]);
+                }
+                selfReference |= reference.equals(key);
+            }
+        }
+        if (index[1] == index[0]) {
+            List<String> component = new ArrayList<>();
+            String member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(key));
+            if (component.size() > 1 || selfReference) {
+                circular.addAll(component);
+            }
+        }
+    }
+
+    /**
+     * Resolve the given keys, skipping those that can't be resolved.
+     */
+    Map<String, String> getProperties(Collection<String> keys) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (String key : keys) {
+            try {
+                properties.put(key, getProperty(key));
+            } catch (IllegalArgumentException ex) {
+                logger.debug(LogMessage.format("Unable to resolve placeholders of '%s'", key), ex);
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,147 @@
+package org.springframework.boot.context.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Value containing {@code ${key:default}} placeholders, parsed once into literal and reference parts. Resolution
+ * follows {@link org.springframework.util.PropertyPlaceholderHelper} with unresolvable placeholders left as they are,
+ * like the binder does. Values whose placeholder keys are themselves placeholders are not compiled.
+ */
+final class AWSAppConfigPlaceholderTemplate {
+
+    private static final String PREFIX = "${";
+
+    private static final String SIMPLE_PREFIX = "{";
+
+    private static final String SUFFIX = "}";
+
+    private static final char SEPARATOR = ':';
+
+    private final String text;
+
+    private final Object[] parts;
+
+    private final Set<String> references;
+
+    private AWSAppConfigPlaceholderTemplate(String text, Object[] parts, Set<String> references) {
+        this.text = text;
+        this.parts = parts;
+        this.references = references;
+    }
+
+    /**
+     * Compile a value, returning {@code null} if it has no placeholder or a placeholder that can't be compiled.
+     */
+    static AWSAppConfigPlaceholderTemplate compile(String text) {
+        if (!hasPlaceholder(text)) {
+            return null;
+        }
+        List<Object> parts = new ArrayList<>();
+        Set<String> references = new LinkedHashSet<>();
+        int start = 0;
+        int index = text.indexOf(PREFIX);
+        while (index != -1) {
+            int end = findPlaceholderEnd(text, index);
+            if (end == -1) {
+                break;
+            }
+            String placeholder = text.substring(index + PREFIX.length(), end);
+            int separator = placeholder.indexOf(SEPARATOR);
+            String key = (separator != -1) ? placeholder.substring(0, separator) : placeholder;
+            if (hasPlaceholder(key)) {
+                return null;
+            }
+            Object defaultValue = null;
+            if (separator != -1) {
+                String defaultText = placeholder.substring(separator + 1);
+                AWSAppConfigPlaceholderTemplate defaultTemplate = compile(defaultText);
+                if (defaultTemplate == null && hasPlaceholder(defaultText)) {
+                    return null;
+                }
+                defaultValue = (defaultTemplate != null) ? defaultTemplate : defaultText;
+                if (defaultTemplate != null) {
+                    references.addAll(defaultTemplate.references);
+                }
+            }
+            if (index > start) {
+                parts.add(text.substring(start, index));
+            }
+            parts.add(new Reference(key, defaultValue, text.substring(index, end + SUFFIX.length())));
+            references.add(key);
+            start = end + SUFFIX.length();
+            index = text.indexOf(PREFIX, start);
+        }
+        if (start < text.length()) {
+            parts.add(text.substring(start));
+        }
+        return new AWSAppConfigPlaceholderTemplate(text, parts.toArray(), Collections.unmodifiableSet(references));
+    }
+
+    static boolean hasPlaceholder(String text) {
+        return text.contains(PREFIX);
+    }
+
+    String getText() {
+        return this.text;
+    }
+
+    /**
+     * Return the keys referenced by this value, including those of default values.
+     */
+    Set<String> getReferences() {
+        return this.references;
+    }
+
+    /**
+     * Resolve this value, looking referenced keys up with a function returning their resolved value.
+     */
+    String resolve(Function<String, String> lookup) {
+        if (this.parts.length == 1 && this.parts[0] instanceof Reference reference) {
+            return resolve(reference, lookup);
+        }
+        StringBuilder result = new StringBuilder(this.text.length());
+        for (Object part : this.parts) {
+            result.append((part instanceof Reference reference) ? resolve(reference, lookup) : (String) part);
+        }
+        return result.toString();
+    }
+
+    private static String resolve(Reference reference, Function<String, String> lookup) {
+        String value = lookup.apply(reference.key());
+        if (value != null) {
+            return value;
+        }
+        if (reference.defaultValue() instanceof AWSAppConfigPlaceholderTemplate template) {
+            return template.resolve(lookup);
+        }
+        return (reference.defaultValue() != null) ? (String) reference.defaultValue() : reference.text();
+    }
+
+    private static int findPlaceholderEnd(String text, int start) {
+        int index = start + PREFIX.length();
+        int nested = 0;
+        while (index < text.length()) {
+            if (text.startsWith(SUFFIX, index)) {
+                if (nested == 0) {
+                    return index;
+                }
+                nested--;
+                index += SUFFIX.length();
+            } else if (text.startsWith(SIMPLE_PREFIX, index)) {
+                nested++;
+                index += SIMPLE_PREFIX.length();
+            } else {
+                index++;
+            }
+        }
+        return -1;
+    }
+
+    private record Reference(String key, Object defaultValue, String text) {
+    }
+}
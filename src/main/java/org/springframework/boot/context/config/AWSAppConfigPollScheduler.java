@@ -0,0 +1,278 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.appconfigdata.model.ThrottlingException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogMessage;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the background polls of every AppConfig session of the JVM on a couple of shared threads. Each poll starts at a
+ * random phase and uses a jittered interval so that a fleet started together doesn't poll in lockstep, every poll takes
+ * a token from a bucket shared by all sessions, and a throttled session backs off exponentially.
+ */
+public class AWSAppConfigPollScheduler {
+
+    private static final Log logger = LogFactory.getLog(AWSAppConfigPollScheduler.class);
+
+    private static final int THREADS = 2;
+
+    private static volatile AWSAppConfigPollScheduler shared;
+
+    private final ScheduledExecutorService executor;
+
+    private final TokenBucket tokens;
+
+    public AWSAppConfigPollScheduler(ScheduledExecutorService executor, double permitsPerSecond, int burst) {
+        this(executor, permitsPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * Create a scheduler whose token bucket reads the given clock, in nanoseconds, which must advance with the delays
+     * of the executor.
+     */
+    AWSAppConfigPollScheduler(ScheduledExecutorService executor, double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.executor = executor;
+        this.tokens = new TokenBucket(permitsPerSecond, burst, nanoClock);
+    }
+
+    public static AWSAppConfigPollScheduler getShared(double permitsPerSecond, int burst) {
+        AWSAppConfigPollScheduler scheduler = getShared();
+        scheduler.setRateLimit(permitsPerSecond, burst);
+        return scheduler;
+    }
+
+    /**
+     * Return the shared scheduler, created with the default rate limit if no refresher configured it yet.
+     */
+    public static AWSAppConfigPollScheduler getShared() {
+        AWSAppConfigPollScheduler scheduler = shared;
+        if (scheduler == null) {
+            synchronized (AWSAppConfigPollScheduler.class) {
+                scheduler = shared;
+                if (scheduler == null) {
+                    AWSAppConfigProperties.Refresh defaults = new AWSAppConfigProperties.Refresh();
+                    scheduler = new AWSAppConfigPollScheduler(createExecutor(), defaults.getRateLimit(), defaults.getRateLimitBurst());
+                    shared = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    public void setRateLimit(double permitsPerSecond, int burst) {
+        this.tokens.setRate(permitsPerSecond, burst);
+    }
+
+    public ScheduledExecutorService getExecutor() {
+        return this.executor;
+    }
+
+    public Poll schedule(String name, Duration interval, double jitter, Duration maxBackoff, PollTask task) {
+        return scheduleAsync(name, interval, jitter, maxBackoff, () -> {
+            try {
+                return CompletableFuture.completedFuture(task.poll());
+            } catch (Exception ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        });
+    }
+
+    /**
+     * Schedule a poll whose task completes asynchronously, so that waiting for AppConfig doesn't hold one of the
+     * scheduler's threads. The next poll is scheduled once the returned stage completes.
+     */
+    public Poll scheduleAsync(String name, Duration interval, double jitter, Duration maxBackoff, AsyncPollTask task) {
+        Poll poll = new Poll(name, interval.toNanos(), jitter, maxBackoff.toNanos(), task);
+        poll.schedule(ThreadLocalRandom.current().nextLong(Math.max(interval.toNanos(), 1)));
+        return poll;
+    }
+
+    /**
+     * Run a one-off task, such as an on-demand refresh, once a token of the shared bucket is available.
+     */
+    public void submit(Runnable task) {
+        this.executor.schedule(task, this.tokens.reserve(), TimeUnit.NANOSECONDS);
+    }
+
+    static boolean isThrottling(Throwable ex) {
+        return ex instanceof ThrottlingException
+                || (ex instanceof AmazonServiceException && RetryUtils.isThrottlingException((AmazonServiceException) ex));
+    }
+
+    private static ScheduledExecutorService createExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(THREADS, (runnable) -> {
+            Thread thread = new Thread(runnable, "aws-appconfig-poll-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    @FunctionalInterface
+    public interface PollTask {
+
+        /**
+         * Poll once and return the minimum delay requested by AppConfig before the next poll, or {@code null}.
+         */
+        Duration poll() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface AsyncPollTask {
+
+        /**
+         * Start a poll whose stage completes with the minimum delay requested by AppConfig, or {@code null}.
+         */
+        CompletionStage<Duration> poll();
+    }
+
+    public final class Poll {
+
+        private final String name;
+
+        private final long interval;
+
+        private final double jitter;
+
+        private final long maxBackoff;
+
+        private final AsyncPollTask task;
+
+        private volatile ScheduledFuture<?> future;
+
+        private volatile boolean cancelled;
+
+        private volatile int throttled;
+
+        Poll(String name, long interval, double jitter, long maxBackoff, AsyncPollTask task) {
+            this.name = name;
+            this.interval = interval;
+            this.jitter = jitter;
+            this.maxBackoff = maxBackoff;
+            this.task = task;
+        }
+
+        public void cancel() {
+            this.cancelled = true;
+            ScheduledFuture<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        public int getThrottledCount() {
+            return this.throttled;
+        }
+
+        private void schedule(long delay) {
+            if (!this.cancelled) {
+                this.future = AWSAppConfigPollScheduler.this.executor.schedule(this::acquire, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void acquire() {
+            long wait = AWSAppConfigPollScheduler.this.tokens.reserve();
+            if (wait > 0 && !this.cancelled) {
+                this.future = AWSAppConfigPollScheduler.this.executor.schedule(this::poll, wait, TimeUnit.NANOSECONDS);
+            } else {
+                poll();
+            }
+        }
+
+        private void poll() {
+            if (this.cancelled) {
+                return;
+            }
+            CompletionStage<Duration> poll;
+            try {
+                poll = this.task.poll();
+            } catch (RuntimeException ex) {
+                poll = CompletableFuture.failedFuture(ex);
+            }
+            poll.whenComplete(this::onPolled);
+        }
+
+        private void onPolled(Duration requested, Throwable failure) {
+            long delay;
+            if (failure == null) {
+                this.throttled = 0;
+                delay = jittered(Math.max(this.interval, (requested != null) ? requested.toNanos() : 0));
+            } else {
+                Throwable ex = (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause() : failure;
+                if (isThrottling(ex)) {
+                    this.throttled++;
+                    delay = backoff();
+                    logger.debug(LogMessage.format("AWS AppConfig throttled %s, backing off for %d ms", this.name,
+                            TimeUnit.NANOSECONDS.toMillis(delay)));
+                } else {
+                    logger.warn(LogMessage.format("Unable to poll AWS AppConfig for %s", this.name), ex);
+                    delay = jittered(this.interval);
+                }
+            }
+            schedule(delay);
+        }
+
+        private long jittered(long delay) {
+            double factor = 1 - this.jitter + 2 * this.jitter * ThreadLocalRandom.current().nextDouble();
+            return (long) (delay * factor);
+        }
+
+        private long backoff() {
+            long backoff = this.interval;
+            for (int i = 0; i < this.throttled && backoff < this.maxBackoff; i++) {
+                backoff <<= 1;
+            }
+            backoff = Math.max(Math.min(backoff, this.maxBackoff), this.interval);
+            return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        }
+    }
+
+    /**
+     * Generic cell rate algorithm: a permit is handed out every {@code 1/rate} seconds and up to {@code burst} permits
+     * may be taken ahead of schedule. Callers reserve a slot and are told how long to wait for it, so no thread blocks.
+     */
+    static final class TokenBucket {
+
+        private final LongSupplier nanoClock;
+
+        private long permitInterval;
+
+        private long tolerance;
+
+        private long theoreticalArrival;
+
+        TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            setRate(permitsPerSecond, burst);
+            this.theoreticalArrival = nanoClock.getAsLong();
+        }
+
+        synchronized void setRate(double permitsPerSecond, int burst) {
+            this.permitInterval = (permitsPerSecond > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+            this.tolerance = this.permitInterval * Math.max(burst - 1, 0);
+        }
+
+        synchronized long reserve() {
+            long now = this.nanoClock.getAsLong();
+            long arrival = Math.max(this.theoreticalArrival, now);
+            this.theoreticalArrival = arrival + this.permitInterval;
+            return Math.max(arrival - this.tolerance - now, 0);
+        }
+    }
+}
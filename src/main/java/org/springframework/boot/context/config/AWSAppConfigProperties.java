@@ -0,0 +1,184 @@
+package org.springframework.boot.context.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.bind.Binder;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+public class AWSAppConfigProperties {
+
+    public static final String PREFIX = "aws.appconfig";
+
+    private String location;
+
+    private String application = "Sample Application";
+
+    private String environment = "Sample Environment";
+
+    private String profile = "Sample profile";
+
+    private int indexThreshold = 1000;
+
+    private final Client client = new Client();
+
+    private final Fetch fetch = new Fetch();
+
+    private final Refresh refresh = new Refresh();
+
+    private final Startup startup = new Startup();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final Cache cache = new Cache();
+
+    private final FeatureFlags featureFlags = new FeatureFlags();
+
+    private final Repository repository = new Repository();
+
+    private final History history = new History();
+
+    private final Placeholders placeholders = new Placeholders();
+
+    static AWSAppConfigProperties get(Binder binder) {
+        return binder.bind(PREFIX, AWSAppConfigProperties.class).orElseGet(AWSAppConfigProperties::new);
+    }
+
+    @Getter
+    @Setter
+    public static class Client {
+
+        private String region;
+
+        private String endpoint;
+
+        private String profileName;
+
+        private Transport transport = Transport.SDK_V1;
+
+        private String agentEndpoint = AWSAppConfigAgentTransport.DEFAULT_ENDPOINT;
+    }
+
+    @Getter
+    @Setter
+    public static class Fetch {
+
+        private int parallelism = 8;
+    }
+
+    @Getter
+    @Setter
+    public static class Refresh {
+
+        private boolean enabled = false;
+
+        private Duration interval = Duration.ofSeconds(30);
+
+        private Duration coalesceWindow = Duration.ofMillis(500);
+
+        private double jitter = 0.2;
+
+        private double rateLimit = 10;
+
+        private int rateLimitBurst = 10;
+
+        private Duration maxBackoff = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Startup {
+
+        private Duration timeout = Duration.ofSeconds(30);
+
+        private Duration initialBackoff = Duration.ofMillis(200);
+
+        private Duration maxBackoff = Duration.ofSeconds(5);
+
+        private int backoffRetries = 3;
+
+        private ConfigDataNotFoundAction onTimeout = ConfigDataNotFoundAction.FAIL;
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        private boolean enabled = false;
+
+        private String directory = System.getProperty("java.io.tmpdir") + "/aws-appconfig";
+
+        private SnapshotMode mode = SnapshotMode.FALLBACK;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        private boolean enabled = false;
+
+        private int maxSize = 10000;
+
+        private boolean embeddedValueResolver = true;
+    }
+
+    @Getter
+    @Setter
+    public static class FeatureFlags {
+
+        private String application;
+
+        private String environment;
+
+        private String profile;
+    }
+
+    @Getter
+    @Setter
+    public static class Repository {
+
+        private boolean enabled = false;
+
+        private String application;
+
+        private String environment;
+
+        private int maxSize = 1000;
+
+        private long maxWeight = 1_000_000;
+
+        private Duration refreshAfter = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class History {
+
+        private int size = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Placeholders {
+
+        private boolean enabled;
+    }
+
+    public enum SnapshotMode {
+
+        FALLBACK,
+
+        SNAPSHOT_FIRST
+    }
+
+    public enum Transport {
+
+        SDK_V1,
+
+        SDK_V2_ASYNC,
+
+        AGENT
+    }
+}
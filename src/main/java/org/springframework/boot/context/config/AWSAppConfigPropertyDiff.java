@@ -0,0 +1,57 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+final class AWSAppConfigPropertyDiff {
+
+    private AWSAppConfigPropertyDiff() {
+    }
+
+    static Map<String, AWSAppConfigChangedEvent.Change> diff(List<PropertySource<?>> previous, List<PropertySource<?>> current) {
+        if (previous.size() == 1 && current.size() == 1 && previous.get(0) instanceof AWSAppConfigIndexedPropertySource previousSource
+                && current.get(0) instanceof AWSAppConfigIndexedPropertySource currentSource) {
+            return AWSAppConfigPropertyHashes.diff(previousSource.getHashes(), currentSource.getHashes());
+        }
+        Map<String, Object> previousValues = flatten(previous);
+        Map<String, Object> currentValues = flatten(current);
+        Map<String, AWSAppConfigChangedEvent.Change> changes = new LinkedHashMap<>();
+        currentValues.forEach((name, value) -> {
+            Object previousValue = previousValues.remove(name);
+            if (!Objects.equals(previousValue, value)) {
+                changes.put(name, new AWSAppConfigChangedEvent.Change(previousValue, value));
+            }
+        });
+        previousValues.forEach((name, previousValue) -> changes.put(name, new AWSAppConfigChangedEvent.Change(previousValue, null)));
+        return changes;
+    }
+
+    static void merge(Map<String, AWSAppConfigChangedEvent.Change> pending, Map<String, AWSAppConfigChangedEvent.Change> changes) {
+        changes.forEach((name, change) -> {
+            AWSAppConfigChangedEvent.Change earlier = pending.get(name);
+            Object previousValue = (earlier != null) ? earlier.previousValue() : change.previousValue();
+            if (Objects.equals(previousValue, change.value())) {
+                pending.remove(name);
+            } else {
+                pending.put(name, new AWSAppConfigChangedEvent.Change(previousValue, change.value()));
+            }
+        });
+    }
+
+    private static Map<String, Object> flatten(List<PropertySource<?>> propertySources) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (PropertySource<?> propertySource : propertySources) {
+            if (propertySource instanceof EnumerablePropertySource<?> enumerable) {
+                for (String name : enumerable.getPropertyNames()) {
+                    values.putIfAbsent(name, enumerable.getProperty(name));
+                }
+            }
+        }
+        return values;
+    }
+}
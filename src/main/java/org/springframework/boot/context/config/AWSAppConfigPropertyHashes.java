@@ -0,0 +1,354 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Merkle-style 64-bit hashes over the key hierarchy of a set of properties: every prefix ending before a {@code .}
+ * has a hash of the names and values below it. Two sets of properties can be compared by their root hash and diffed
+ * by descending only into the prefixes whose hashes differ. Keys are kept in hierarchical order, where {@code .}
+ * sorts before any other character, so that the keys of a prefix are contiguous. Hashes only depend on the
+ * properties, so they can be compared across instances.
+ */
+public final class AWSAppConfigPropertyHashes {
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long VALUE = 0x9E3779B97F4A7C15L;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final String[] names;
+
+    private final Object[] values;
+
+    private final Map<String, Node> nodes = new HashMap<>();
+
+    private final long hash;
+
+    private AWSAppConfigPropertyHashes(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+        this.hash = build();
+    }
+
+    /**
+     * Hash the properties of the given property sources, the first one defining a key taking precedence.
+     */
+    public static AWSAppConfigPropertyHashes of(List<? extends PropertySource<?>> propertySources) {
+        if (propertySources.size() == 1 && propertySources.get(0) instanceof AWSAppConfigIndexedPropertySource indexed) {
+            return indexed.getHashes();
+        }
+        Map<String, Object> properties = new HashMap<>();
+        for (PropertySource<?> propertySource : propertySources) {
+            if (propertySource instanceof EnumerablePropertySource<?> enumerable) {
+                for (String name : enumerable.getPropertyNames()) {
+                    properties.putIfAbsent(name, enumerable.getProperty(name));
+                }
+            }
+        }
+        String[] names = properties.keySet().toArray(new String[0]);
+        Arrays.sort(names, AWSAppConfigPropertyHashes::compare);
+        Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = properties.get(names[i]);
+        }
+        return new AWSAppConfigPropertyHashes(names, values);
+    }
+
+    /**
+     * Hash properties given as parallel arrays of names and values, which are shared if the names are already in
+     * hierarchical order.
+     */
+    static AWSAppConfigPropertyHashes of(String[] names, Object[] values) {
+        for (int i = 1; i < names.length; i++) {
+            if (compare(names[i - 1], names[i]) > 0) {
+                Integer[] order = new Integer[names.length];
+                Arrays.setAll(order, (index) -> index);
+                Arrays.sort(order, (left, right) -> compare(names[left], names[right]));
+                String[] sortedNames = new String[names.length];
+                Object[] sortedValues = new Object[names.length];
+                for (int j = 0; j < order.length; j++) {
+                    sortedNames[j] = names[order[j]];
+                    sortedValues[j] = values[order[j]];
+                }
+                return new AWSAppConfigPropertyHashes(sortedNames, sortedValues);
+            }
+        }
+        return new AWSAppConfigPropertyHashes(names, values);
+    }
+
+    /**
+     * Return the hash of all the properties.
+     */
+    public String getHash() {
+        return HEX.toHexDigits(this.hash);
+    }
+
+    /**
+     * Return the hash of a key and its descendants, or {@code null} if there is no such key.
+     */
+    public String getHash(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return getHash();
+        }
+        Node node = this.nodes.get(prefix);
+        if (node != null) {
+            return HEX.toHexDigits(node.hash());
+        }
+        int index = Arrays.binarySearch(this.names, prefix, AWSAppConfigPropertyHashes::compare);
+        return (index >= 0) ? HEX.toHexDigits(hashLeaf(this.names[index], lastSegment(prefix), this.values[index])) : null;
+    }
+
+    /**
+     * Return the hashes of the keys directly below a prefix, or below the root if the prefix is empty.
+     */
+    public Map<String, String> getChildren(String prefix) {
+        Map<String, String> children = new LinkedHashMap<>();
+        int start = 0;
+        int end = this.names.length;
+        int length = 0;
+        if (prefix != null && !prefix.isEmpty()) {
+            Node node = this.nodes.get(prefix);
+            if (node == null) {
+                return children;
+            }
+            start = node.start();
+            end = node.end();
+            length = prefix.length() + 1;
+        }
+        int index = start;
+        while (index < end) {
+            String name = this.names[index];
+            if (name.length() < length) {
+                index++;
+                continue;
+            }
+            String child = child(name, length);
+            Node node = this.nodes.get(child);
+            if (node != null) {
+                children.put(child, HEX.toHexDigits(node.hash()));
+                index = node.end();
+            } else {
+                children.put(child, HEX.toHexDigits(hashLeaf(name, lastSegment(child), this.values[index])));
+                index++;
+            }
+        }
+        return children;
+    }
+
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * Return the properties that differ between two sets of properties, visiting only the prefixes whose hashes
+     * differ.
+     */
+    static Map<String, AWSAppConfigChangedEvent.Change> diff(AWSAppConfigPropertyHashes previous, AWSAppConfigPropertyHashes current) {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = new LinkedHashMap<>();
+        if (previous.hash != current.hash) {
+            diff(previous, 0, previous.names.length, current, 0, current.names.length, 0, changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Diff the keys of a prefix of the given length, held by the given ranges. The key equal to the prefix, if any,
+     * comes first in each range and is followed by the children of the prefix.
+     */
+    private static void diff(AWSAppConfigPropertyHashes previous, int previousIndex, int previousEnd, AWSAppConfigPropertyHashes current,
+                             int currentIndex, int currentEnd, int length, Map<String, AWSAppConfigChangedEvent.Change> changes) {
+        int childLength = (length > 0) ? length + 1 : 0;
+        boolean previousOwn = previousIndex < previousEnd && previous.names[previousIndex].length() == length;
+        boolean currentOwn = currentIndex < currentEnd && current.names[currentIndex].length() == length;
+        if (previousOwn || currentOwn) {
+            Object previousValue = previousOwn ? previous.values[previousIndex++] : null;
+            Object value = currentOwn ? current.values[currentIndex++] : null;
+            if (!Objects.equals(previousValue, value)) {
+                changes.put(currentOwn ? current.names[currentIndex - 1] : previous.names[previousIndex - 1],
+                        new AWSAppConfigChangedEvent.Change(previousValue, value));
+            }
+        }
+        while (previousIndex < previousEnd || currentIndex < currentEnd) {
+            String previousChild = (previousIndex < previousEnd) ? child(previous.names[previousIndex], childLength) : null;
+            String currentChild = (currentIndex < currentEnd) ? child(current.names[currentIndex], childLength) : null;
+            int order = (previousChild == null) ? 1 : (currentChild == null) ? -1 : compare(previousChild, currentChild);
+            int previousChildEnd = (order <= 0) ? previous.end(previousChild, previousIndex) : previousIndex;
+            int currentChildEnd = (order >= 0) ? current.end(currentChild, currentIndex) : currentIndex;
+            if (order < 0) {
+                for (int i = previousIndex; i < previousChildEnd; i++) {
+                    changes.put(previous.names[i], new AWSAppConfigChangedEvent.Change(previous.values[i], null));
+                }
+            } else if (order > 0) {
+                for (int i = currentIndex; i < currentChildEnd; i++) {
+                    changes.put(current.names[i], new AWSAppConfigChangedEvent.Change(null, current.values[i]));
+                }
+            } else {
+                Node previousNode = previous.nodes.get(previousChild);
+                Node currentNode = current.nodes.get(currentChild);
+                if (previousNode == null || currentNode == null || previousNode.hash() != currentNode.hash()) {
+                    diff(previous, previousIndex, previousChildEnd, current, currentIndex, currentChildEnd, currentChild.length(), changes);
+                }
+            }
+            previousIndex = previousChildEnd;
+            currentIndex = currentChildEnd;
+        }
+    }
+
+    /**
+     * Return the end of the range of a child prefix starting at the given index.
+     */
+    private int end(String child, int index) {
+        Node node = this.nodes.get(child);
+        return (node != null) ? node.end() : index + 1;
+    }
+
+    /**
+     * Hash every prefix in a single pass over the keys, keeping a frame per open prefix.
+     */
+    private long build() {
+        Deque<Frame> stack = new ArrayDeque<>();
+        Frame root = new Frame("", 0, hash("", 0, 0));
+        stack.push(root);
+        for (int i = 0; i < this.names.length; i++) {
+            String name = this.names[i];
+            while (stack.size() > 1 && !isAncestorOrSelf(stack.peek().prefix, name)) {
+                pop(stack, i);
+            }
+            Frame top = stack.peek();
+            int from = top.prefix.isEmpty() ? 0 : top.prefix.length() + 1;
+            int dot = name.indexOf('.', from);
+            while (dot != -1) {
+                top = new Frame(name.substring(0, dot), i, hash(name, from, dot));
+                stack.push(top);
+                from = dot + 1;
+                dot = name.indexOf('.', from);
+            }
+            if (top.prefix.equals(name)) {
+                top.hash = combine(top.hash, combine(VALUE, hashValue(this.values[i])));
+            } else if (i + 1 < this.names.length && isAncestorOrSelf(name, this.names[i + 1])) {
+                top = new Frame(name, i, hash(name, from, name.length()));
+                top.hash = combine(top.hash, combine(VALUE, hashValue(this.values[i])));
+                stack.push(top);
+            } else {
+                top.hash = combine(top.hash, hashLeaf(name, from, this.values[i]));
+                top.children++;
+            }
+        }
+        while (stack.size() > 1) {
+            pop(stack, this.names.length);
+        }
+        return mix(root.hash);
+    }
+
+    private void pop(Deque<Frame> stack, int end) {
+        Frame frame = stack.pop();
+        long hash = mix(frame.hash);
+        if (frame.children > 0) {
+            this.nodes.put(frame.prefix, new Node(hash, frame.start, end));
+        }
+        Frame parent = stack.peek();
+        parent.hash = combine(parent.hash, hash);
+        parent.children++;
+    }
+
+    private static long hashLeaf(String name, int from, Object value) {
+        return mix(combine(combine(SEED, hash(name, from, name.length())), combine(VALUE, hashValue(value))));
+    }
+
+    private static int lastSegment(String name) {
+        return name.lastIndexOf('.') + 1;
+    }
+
+    private static long hashValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        String text = (value instanceof String string) ? string : value.toString();
+        String type = value.getClass().getName();
+        return combine(hash(type, 0, type.length()), hash(text, 0, text.length()));
+    }
+
+    /**
+     * FNV-1a over the characters of a range of a string.
+     */
+    private static long hash(String text, int from, int to) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long combine(long hash, long value) {
+        return mix(hash * VALUE + value);
+    }
+
+    /**
+     * Finalization step of MurmurHash3.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static String child(String name, int from) {
+        int dot = name.indexOf('.', from);
+        return (dot != -1) ? name.substring(0, dot) : name;
+    }
+
+    private static boolean isAncestorOrSelf(String prefix, String name) {
+        return prefix.isEmpty() || (name.startsWith(prefix) && (name.length() == prefix.length() || name.charAt(prefix.length()) == '.'));
+    }
+
+    /**
+     * Compare names character by character with {@code .} sorting first.
+     */
+    static int compare(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        for (int i = 0; i < length; i++) {
+            char leftChar = left.charAt(i);
+            char rightChar = right.charAt(i);
+            if (leftChar != rightChar) {
+                return ((leftChar == '.') ? -1 : leftChar) - ((rightChar == '.') ? -1 : rightChar);
+            }
+        }
+        return left.length() - right.length();
+    }
+
+    private record Node(long hash, int start, int end) {
+    }
+
+    private static final class Frame {
+
+        private final String prefix;
+
+        private final int start;
+
+        private long hash;
+
+        private int children;
+
+        private Frame(String prefix, int start, long segmentHash) {
+            this.prefix = prefix;
+            this.start = start;
+            this.hash = combine(SEED, segmentHash);
+        }
+    }
+}
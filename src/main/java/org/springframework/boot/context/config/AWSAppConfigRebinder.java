@@ -0,0 +1,128 @@
+package org.springframework.boot.context.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBean;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebinds the {@code @ConfigurationProperties} beans whose prefix overlaps a changed AppConfig property. Beans bound
+ * through their constructor are immutable and only reported. Runs before any other listener of the event.
+ * <p>
+ * Each bean is bound into a fresh instance whose writable JavaBean properties are then copied to the existing one, so
+ * that removed properties fall back to their defaults and a failed binding leaves the bean untouched. Other state of
+ * the bean, like injected collaborators or fields set by its init methods, is kept. Nested properties that only have
+ * a getter are bound in place afterwards. Beans that cannot be instantiated through a default constructor, or that
+ * are proxied, are bound in place instead.
+ */
+public class AWSAppConfigRebinder implements ApplicationListener<AWSAppConfigChangedEvent>, Ordered {
+
+    private static final Log logger = LogFactory.getLog(AWSAppConfigRebinder.class);
+
+    private final ApplicationContext applicationContext;
+
+    public AWSAppConfigRebinder(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void onApplicationEvent(AWSAppConfigChangedEvent event) {
+        List<ConfigurationPropertyName> changedNames = new ArrayList<>(event.getChangedKeys().size());
+        for (String key : event.getChangedKeys()) {
+            ConfigurationPropertyName name = ConfigurationPropertyName.adapt(key, '.');
+            if (!name.isEmpty()) {
+                changedNames.add(name);
+            }
+        }
+        BeanPostProcessor binder = null;
+        for (ConfigurationPropertiesBean bean : ConfigurationPropertiesBean.getAll(this.applicationContext).values()) {
+            if (!isAffected(bean, changedNames)) {
+                continue;
+            }
+            if (bean.getBindMethod() == ConfigurationPropertiesBean.BindMethod.VALUE_OBJECT) {
+                logger.warn(LogMessage.format("Not rebinding constructor bound @ConfigurationProperties bean '%s'", bean.getName()));
+                continue;
+            }
+            if (binder == null) {
+                binder = this.applicationContext.getBean(ConfigurationPropertiesBindingPostProcessor.BEAN_NAME, BeanPostProcessor.class);
+            }
+            try {
+                rebind(binder, bean);
+                logger.debug(LogMessage.format("Rebound @ConfigurationProperties bean '%s'", bean.getName()));
+            }
+            catch (RuntimeException ex) {
+                logger.warn(LogMessage.format("Failed to rebind @ConfigurationProperties bean '%s', keeping its previous values", bean.getName()), ex);
+            }
+        }
+    }
+
+    private static void rebind(BeanPostProcessor binder, ConfigurationPropertiesBean bean) {
+        Object instance = bean.getInstance();
+        Object fresh = instantiate(instance);
+        if (fresh == null) {
+            binder.postProcessBeforeInitialization(instance, bean.getName());
+            return;
+        }
+        binder.postProcessBeforeInitialization(fresh, bean.getName());
+        BeanWrapper source = new BeanWrapperImpl(fresh);
+        BeanWrapper target = new BeanWrapperImpl(instance);
+        boolean readOnlyProperties = false;
+        for (PropertyDescriptor property : target.getPropertyDescriptors()) {
+            if (property.getReadMethod() == null || "class".equals(property.getName())) {
+                continue;
+            }
+            if (property.getWriteMethod() != null) {
+                target.setPropertyValue(property.getName(), source.getPropertyValue(property.getName()));
+            }
+            else if (!BeanUtils.isSimpleProperty(property.getPropertyType())) {
+                readOnlyProperties = true;
+            }
+        }
+        if (readOnlyProperties) {
+            binder.postProcessBeforeInitialization(instance, bean.getName());
+        }
+    }
+
+    private static Object instantiate(Object instance) {
+        Class<?> type = instance.getClass();
+        if (type != ClassUtils.getUserClass(type)) {
+            return null;
+        }
+        try {
+            return BeanUtils.instantiateClass(type.getDeclaredConstructor());
+        }
+        catch (NoSuchMethodException | BeanInstantiationException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isAffected(ConfigurationPropertiesBean bean, List<ConfigurationPropertyName> changedNames) {
+        ConfigurationPropertyName prefix = ConfigurationPropertyName.of(bean.getAnnotation().prefix());
+        for (ConfigurationPropertyName name : changedNames) {
+            if (prefix.equals(name) || prefix.isAncestorOf(name) || name.isAncestorOf(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
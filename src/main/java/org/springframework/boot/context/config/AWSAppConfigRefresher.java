@@ -0,0 +1,434 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.log.LogMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+public class AWSAppConfigRefresher implements SmartLifecycle {
+
+    private static final Log logger = LogFactory.getLog(AWSAppConfigRefresher.class);
+
+    private final ConfigurableEnvironment environment;
+
+    private final AWSAppConfigSessions sessions;
+
+    private final AWSAppConfigDataLoader loader;
+
+    private final AWSAppConfigGeneration generation;
+
+    private final AWSAppConfigProperties.Refresh properties;
+
+    private final Map<String, AWSAppConfigChangedEvent.Change> pendingChanges = new LinkedHashMap<>();
+
+    private final List<AWSAppConfigPollScheduler.Poll> polls = new ArrayList<>();
+
+    private volatile AWSAppConfigPollScheduler scheduler;
+
+    private volatile ApplicationEventPublisher eventPublisher;
+
+    private volatile AWSAppConfigVersionHistory versionHistory;
+
+    private volatile AWSAppConfigPlaceholderGraph placeholders;
+
+    private volatile AWSAppConfigContributorProcessor contributorProcessor;
+
+    private boolean publishScheduled;
+
+    public AWSAppConfigRefresher(ConfigurableEnvironment environment, AWSAppConfigSessions sessions, AWSAppConfigDataLoader loader,
+                                 AWSAppConfigGeneration generation, AWSAppConfigProperties.Refresh properties) {
+        this.environment = environment;
+        this.sessions = sessions;
+        this.loader = loader;
+        this.generation = generation;
+        this.properties = properties;
+    }
+
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void setVersionHistory(AWSAppConfigVersionHistory versionHistory) {
+        this.versionHistory = versionHistory;
+    }
+
+    public AWSAppConfigVersionHistory getVersionHistory() {
+        return this.versionHistory;
+    }
+
+    public void setPlaceholders(AWSAppConfigPlaceholderGraph placeholders) {
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Bind refreshed property sources like at startup, so that documents only active for other profiles are dropped.
+     */
+    void setContributorProcessor(AWSAppConfigContributorProcessor contributorProcessor) {
+        this.contributorProcessor = contributorProcessor;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.scheduler != null) {
+            return;
+        }
+        AWSAppConfigPollScheduler scheduler = AWSAppConfigPollScheduler.getShared(this.properties.getRateLimit(), this.properties.getRateLimitBurst());
+        this.scheduler = scheduler;
+        recordInitialVersions();
+        scheduler.getExecutor().execute(this::revalidate);
+        if (this.properties.isEnabled()) {
+            for (AWSAppConfigSession session : this.sessions.getSessions()) {
+                String name = session.getResource().getRequest().toString();
+                if (session.getResource().getTransport().isAsync()) {
+                    this.polls.add(scheduler.scheduleAsync(name, this.properties.getInterval(), this.properties.getJitter(),
+                            this.properties.getMaxBackoff(), () -> refreshAsync(session).thenApply((refreshed) -> session.getNextPollInterval())));
+                } else {
+                    this.polls.add(scheduler.schedule(name, this.properties.getInterval(), this.properties.getJitter(),
+                            this.properties.getMaxBackoff(), () -> {
+                                refresh(session);
+                                return session.getNextPollInterval();
+                            }));
+                }
+            }
+            logger.info(LogMessage.format("Polling AWS AppConfig every %s for %d configuration session(s)", this.properties.getInterval(), this.polls.size()));
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (this.scheduler != null) {
+            this.polls.forEach(AWSAppConfigPollScheduler.Poll::cancel);
+            this.polls.clear();
+            this.scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.scheduler != null;
+    }
+
+    private void recordInitialVersions() {
+        AWSAppConfigVersionHistory versionHistory = this.versionHistory;
+        if (versionHistory == null) {
+            return;
+        }
+        for (AWSAppConfigSession session : this.sessions.getSessions()) {
+            synchronized (session) {
+                String profile = AWSAppConfigVersionHistory.getName(session.getResource().getRequest());
+                List<PropertySource<?>> propertySources = getPropertySources(session.getPropertySourceNames());
+                if (session.getConfigurationHandler() == null && !propertySources.isEmpty() && versionHistory.getLatest(profile) == null) {
+                    versionHistory.record(session, propertySources);
+                }
+            }
+        }
+    }
+
+    void revalidate() {
+        for (AWSAppConfigSession session : this.sessions.getSessions()) {
+            if (session.isRevalidate()) {
+                revalidate(session, 0);
+            }
+        }
+    }
+
+    /**
+     * Poll a session served from a snapshot until AppConfig answers. Failed attempts are retried with an exponential
+     * backoff when refresh is disabled, since no background poll would notice a snapshot going stale otherwise.
+     */
+    private void revalidate(AWSAppConfigSession session, int attempt) {
+        refreshAsync(session).whenComplete((refreshed, ex) -> {
+            if (ex == null) {
+                session.setRevalidate(false);
+                return;
+            }
+            Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+            AWSAppConfigPollScheduler scheduler = this.scheduler;
+            if (this.properties.isEnabled() || scheduler == null) {
+                logger.warn(LogMessage.format("Unable to revalidate AWS AppConfig snapshot for %s", session.getResource().getRequest()), cause);
+                return;
+            }
+            long delay = getRevalidationBackoff(attempt).toMillis();
+            logger.warn(LogMessage.format("Unable to revalidate AWS AppConfig snapshot for %s, retrying in %d ms",
+                    session.getResource().getRequest(), delay), cause);
+            scheduler.getExecutor().schedule(() -> {
+                if (this.scheduler == scheduler) {
+                    revalidate(session, attempt + 1);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    Duration getRevalidationBackoff(int attempt) {
+        Duration maxBackoff = this.properties.getMaxBackoff();
+        Duration backoff = this.properties.getInterval();
+        for (int i = 0; i < attempt && backoff.compareTo(maxBackoff) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return (backoff.compareTo(maxBackoff) < 0) ? backoff : maxBackoff;
+    }
+
+    boolean refresh(AWSAppConfigSession session) throws Exception {
+        synchronized (session) {
+            boolean refreshed = apply(session, session.poll());
+            session.setLastRefreshTime(System.currentTimeMillis());
+            return refreshed;
+        }
+    }
+
+    /**
+     * Refresh a session without holding its lock while waiting for AppConfig, applying the configuration on the thread
+     * completing the poll. Used for asynchronous transports, whose polls complete on the scheduler's threads.
+     */
+    CompletableFuture<Boolean> refreshAsync(AWSAppConfigSession session) {
+        return session.pollAsync().thenApply((configurationResult) -> {
+            synchronized (session) {
+                try {
+                    boolean refreshed = apply(session, configurationResult);
+                    session.setLastRefreshTime(System.currentTimeMillis());
+                    return refreshed;
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }
+        });
+    }
+
+    private boolean apply(AWSAppConfigSession session, GetLatestConfigurationResult configurationResult) throws Exception {
+        if (!AWSAppConfigSession.hasConfiguration(configurationResult)) {
+            return false;
+        }
+        this.loader.saveSnapshot(session.getResource(), configurationResult);
+        String checksum = AWSAppConfigSnapshotStore.checksum(configurationResult.getConfiguration());
+        if (checksum.equals(session.getChecksum())) {
+            return false;
+        }
+        AWSAppConfigSession.ConfigurationHandler configurationHandler = session.getConfigurationHandler();
+        if (configurationHandler != null) {
+            configurationHandler.apply(configurationResult);
+            session.setChecksum(checksum);
+            session.setVersionLabel(configurationResult.getVersionLabel());
+            logger.info(LogMessage.format("Refreshed AWS AppConfig configuration for %s", session.getResource().getRequest()));
+            return true;
+        }
+        List<PropertySource<?>> propertySources = this.loader.getPropertySources(session.getResource(), configurationResult);
+        AWSAppConfigContributorProcessor contributorProcessor = this.contributorProcessor;
+        if (contributorProcessor != null) {
+            propertySources = contributorProcessor.reapply(session.getResource(), propertySources);
+        }
+        session.setChecksum(checksum);
+        session.setVersionLabel(configurationResult.getVersionLabel());
+        if (propertySources.isEmpty()) {
+            logger.info(LogMessage.format("Skipping refresh of %s, none of its documents is active", session.getResource().getRequest()));
+            return false;
+        }
+        AWSAppConfigPropertyHashes hashes = AWSAppConfigPropertyHashes.of(propertySources);
+        AWSAppConfigVersionHistory versionHistory = this.versionHistory;
+        if (versionHistory != null) {
+            AWSAppConfigVersionHistory.Version version = versionHistory.record(session, propertySources, hashes);
+            String profile = AWSAppConfigVersionHistory.getName(session.getResource().getRequest());
+            AWSAppConfigVersionHistory.Version pinned = versionHistory.getPinned(profile);
+            if (pinned != null) {
+                logger.info(LogMessage.format("Recorded version %d of AWS AppConfig properties for %s, keeping version %d pinned",
+                        version.getSequence(), profile, pinned.getSequence()));
+                return false;
+            }
+        }
+        AWSAppConfigPropertyHashes published = getPublishedHashes(session);
+        if (published != null && published.getHash().equals(hashes.getHash())) {
+            logger.debug(LogMessage.format("Skipping refresh of %s, version %s has the same properties", session.getResource().getRequest(),
+                    configurationResult.getVersionLabel()));
+            return false;
+        }
+        if (!publish(session, propertySources)) {
+            return false;
+        }
+        session.setPropertyHashes(hashes);
+        logger.info(LogMessage.format("Refreshed AWS AppConfig properties for %s", session.getResource().getRequest()));
+        return true;
+    }
+
+    /**
+     * Republish a version retained by the {@link AWSAppConfigVersionHistory version history} without calling AppConfig,
+     * and keep it until {@link #unpin unpinned}, whatever the versions received in the meantime.
+     */
+    public AWSAppConfigVersionHistory.Version rollback(String profile, long sequence) {
+        AWSAppConfigVersionHistory versionHistory = getRequiredVersionHistory();
+        AWSAppConfigSession session = getSession(profile);
+        AWSAppConfigVersionHistory.Version version = versionHistory.getVersion(profile, sequence);
+        if (version == null) {
+            throw new IllegalArgumentException("Version " + sequence + " of " + profile + " is not retained");
+        }
+        synchronized (session) {
+            if (!publish(session, new ArrayList<>(version.getPropertySources()))) {
+                throw new IllegalStateException("AWS AppConfig properties for " + profile + " are not active");
+            }
+            versionHistory.pin(profile, version);
+        }
+        logger.warn(LogMessage.format("Rolled back AWS AppConfig properties for %s to version %d (%s), pinned until unpinned",
+                profile, sequence, version.getVersionLabel()));
+        return version;
+    }
+
+    /**
+     * Release the version pinned by {@link #rollback} and republish the latest version received from AppConfig.
+     */
+    public AWSAppConfigVersionHistory.Version unpin(String profile) {
+        AWSAppConfigVersionHistory versionHistory = getRequiredVersionHistory();
+        AWSAppConfigSession session = getSession(profile);
+        synchronized (session) {
+            if (versionHistory.getPinned(profile) == null) {
+                return null;
+            }
+            AWSAppConfigVersionHistory.Version version = versionHistory.unpin(profile);
+            publish(session, new ArrayList<>(version.getPropertySources()));
+            logger.info(LogMessage.format("Unpinned AWS AppConfig properties for %s, republished version %d (%s)",
+                    profile, version.getSequence(), version.getVersionLabel()));
+            return version;
+        }
+    }
+
+    private AWSAppConfigVersionHistory getRequiredVersionHistory() {
+        AWSAppConfigVersionHistory versionHistory = this.versionHistory;
+        if (versionHistory == null) {
+            throw new IllegalStateException("AWS AppConfig version history is disabled");
+        }
+        return versionHistory;
+    }
+
+    private AWSAppConfigSession getSession(String profile) {
+        for (AWSAppConfigSession session : this.sessions.getSessions()) {
+            if (session.getConfigurationHandler() == null && AWSAppConfigVersionHistory.getName(session.getResource().getRequest()).equals(profile)) {
+                return session;
+            }
+        }
+        throw new IllegalArgumentException("No AWS AppConfig properties loaded for " + profile);
+    }
+
+    /**
+     * Swap the property sources of a session and publish the changed properties, including the properties whose
+     * placeholders reference a changed one.
+     */
+    private boolean publish(AWSAppConfigSession session, List<PropertySource<?>> propertySources) {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = AWSAppConfigPropertyDiff.diff(getPropertySources(session.getPropertySourceNames()),
+                propertySources);
+        AWSAppConfigPlaceholderGraph placeholders = this.placeholders;
+        Map<String, String> previousDependents = (placeholders != null && !changes.isEmpty())
+                ? placeholders.getProperties(placeholders.getDependents(changes.keySet())) : Collections.emptyMap();
+        if (!swap(session, propertySources)) {
+            return false;
+        }
+        if (placeholders != null) {
+            placeholders.update(changes.keySet());
+            placeholders.getProperties(previousDependents.keySet()).forEach((key, value) -> {
+                String previousValue = previousDependents.get(key);
+                if (!Objects.equals(previousValue, value)) {
+                    changes.put(key, new AWSAppConfigChangedEvent.Change(previousValue, value));
+                }
+            });
+        }
+        onChange(changes);
+        return true;
+    }
+
+    /**
+     * Return the hashes of the property sources published for a session, computed once per published version.
+     */
+    private AWSAppConfigPropertyHashes getPublishedHashes(AWSAppConfigSession session) {
+        AWSAppConfigPropertyHashes hashes = session.getPropertyHashes();
+        if (hashes == null) {
+            List<PropertySource<?>> published = getPropertySources(session.getPropertySourceNames());
+            if (published.isEmpty()) {
+                return null;
+            }
+            hashes = AWSAppConfigPropertyHashes.of(published);
+            session.setPropertyHashes(hashes);
+        }
+        return hashes;
+    }
+
+    private List<PropertySource<?>> getPropertySources(List<String> names) {
+        List<PropertySource<?>> propertySources = new ArrayList<>(names.size());
+        for (String name : names) {
+            PropertySource<?> propertySource = this.environment.getPropertySources().get(name);
+            if (propertySource != null) {
+                propertySources.add(propertySource);
+            }
+        }
+        return propertySources;
+    }
+
+    /**
+     * Swap the property sources of a session with a single replacement of its entry in the environment, so that
+     * concurrent readers see either all or none of the documents of a version. Several documents are published as one
+     * {@link AWSAppConfigCompositePropertySource composite} entry; the separate entries added at startup for them are
+     * replaced by a composite on the first refresh.
+     */
+    private boolean swap(AWSAppConfigSession session, List<PropertySource<?>> propertySources) {
+        MutablePropertySources environmentSources = this.environment.getPropertySources();
+        List<String> previousNames = session.getPropertySourceNames();
+        if (previousNames.isEmpty() || !environmentSources.contains(previousNames.get(0))) {
+            logger.debug(LogMessage.format("Skipping refresh of inactive AWS AppConfig property source for %s", session.getResource().getRequest()));
+            return false;
+        }
+        PropertySource<?> published = (propertySources.size() == 1 && previousNames.size() == 1) ? propertySources.get(0)
+                : new AWSAppConfigCompositePropertySource(AWSAppConfigDataLoader.getPropertySourceName(session.getResource(), 0), propertySources);
+        environmentSources.replace(previousNames.get(0), published);
+        for (String previousName : previousNames.subList(1, previousNames.size())) {
+            environmentSources.remove(previousName);
+        }
+        session.setPropertySourceNames(Collections.singletonList(published.getName()));
+        session.setPropertyHashes(null);
+        this.generation.increment();
+        return true;
+    }
+
+    private void onChange(Map<String, AWSAppConfigChangedEvent.Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        AWSAppConfigPollScheduler scheduler = this.scheduler;
+        Duration coalesceWindow = this.properties.getCoalesceWindow();
+        boolean publish = (scheduler == null || coalesceWindow.isZero());
+        synchronized (this.pendingChanges) {
+            AWSAppConfigPropertyDiff.merge(this.pendingChanges, changes);
+            if (!publish && !this.publishScheduled) {
+                this.publishScheduled = true;
+                scheduler.getExecutor().schedule(this::publishChanges, coalesceWindow.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (publish) {
+            publishChanges();
+        }
+    }
+
+    void publishChanges() {
+        Map<String, AWSAppConfigChangedEvent.Change> changes;
+        synchronized (this.pendingChanges) {
+            changes = new LinkedHashMap<>(this.pendingChanges);
+            this.pendingChanges.clear();
+            this.publishScheduled = false;
+        }
+        ApplicationEventPublisher eventPublisher = this.eventPublisher;
+        if (!changes.isEmpty() && eventPublisher != null) {
+            logger.debug(LogMessage.format("Publishing %d changed AWS AppConfig propert(ies)", changes.size()));
+            eventPublisher.publishEvent(new AWSAppConfigChangedEvent(this, changes));
+        }
+    }
+}
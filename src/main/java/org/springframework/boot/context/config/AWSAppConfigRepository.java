@@ -0,0 +1,369 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime repository of configuration profiles that are too many to be loaded at startup, such as one profile per
+ * tenant. A profile is fetched, decoded and merged by the {@link AWSAppConfigDataLoader} on first access and concurrent
+ * first accesses share a single load. Reads don't lock: once the number of profiles or their total number of keys
+ * exceeds its bound, the least recently used profiles are evicted, and a profile older than the refresh interval keeps
+ * being served while it is polled in the background on the shared {@link AWSAppConfigPollScheduler}.
+ */
+public class AWSAppConfigRepository {
+
+    private static final Log logger = LogFactory.getLog(AWSAppConfigRepository.class);
+
+    private final AWSAppConfigDataLoader loader;
+
+    private final AWSAppConfigProperties properties;
+
+    private final AWSAppConfigClientRegistry clientRegistry;
+
+    private final List<String> acceptedProfiles;
+
+    private final AWSAppConfigPollScheduler scheduler;
+
+    private final ConcurrentHashMap<StartConfigurationSessionRequest, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<StartConfigurationSessionRequest, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+
+    private final Object evictionLock = new Object();
+
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loadSuccesses = new LongAdder();
+
+    private final LongAdder loadFailures = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder refreshes = new LongAdder();
+
+    public AWSAppConfigRepository(AWSAppConfigDataLoader loader, AWSAppConfigProperties properties, AWSAppConfigClientRegistry clientRegistry,
+                                  List<String> acceptedProfiles, AWSAppConfigPollScheduler scheduler) {
+        this.loader = loader;
+        this.properties = properties;
+        this.clientRegistry = clientRegistry;
+        this.acceptedProfiles = acceptedProfiles;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Return the properties of a configuration profile of the repository's application and environment.
+     */
+    public PropertySource<?> get(String profile) {
+        return get(getApplication(), getEnvironment(), profile);
+    }
+
+    public PropertySource<?> get(String application, String environment, String profile) {
+        StartConfigurationSessionRequest request = AWSAppConfigDataLocationResolver.createConfigurationRequest(application, environment, profile);
+        Entry entry = this.entries.get(request);
+        if (entry != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+            entry = load(request);
+        }
+        PropertySource<?> propertySource = entry.propertySource;
+        entry.lastAccess = System.nanoTime();
+        refreshIfStale(entry);
+        return propertySource;
+    }
+
+    /**
+     * Return a {@link Binder} over the properties of a configuration profile, e.g. to bind a tenant's settings.
+     */
+    public Binder getBinder(String profile) {
+        PropertySource<?> propertySource = get(profile);
+        if (propertySource instanceof AWSAppConfigIndexedPropertySource indexedPropertySource) {
+            return new Binder(indexedPropertySource.asConfigurationPropertySource());
+        }
+        return new Binder(ConfigurationPropertySource.from(propertySource));
+    }
+
+    public void invalidate(String profile) {
+        StartConfigurationSessionRequest request = AWSAppConfigDataLocationResolver.createConfigurationRequest(getApplication(), getEnvironment(), profile);
+        Entry entry = this.entries.get(request);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    public void invalidateAll() {
+        this.entries.values().forEach(this::remove);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Return the total number of keys of the profiles held by the repository.
+     */
+    public long getWeight() {
+        synchronized (this.evictionLock) {
+            return this.weight;
+        }
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public long getLoadSuccessCount() {
+        return this.loadSuccesses.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return this.loadFailures.sum();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    public long getRefreshCount() {
+        return this.refreshes.sum();
+    }
+
+    private String getApplication() {
+        String application = this.properties.getRepository().getApplication();
+        return StringUtils.hasText(application) ? application : this.properties.getApplication();
+    }
+
+    private String getEnvironment() {
+        String environment = this.properties.getRepository().getEnvironment();
+        return StringUtils.hasText(environment) ? environment : this.properties.getEnvironment();
+    }
+
+    private Entry load(StartConfigurationSessionRequest request) {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> inFlight = this.loading.putIfAbsent(request, future);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            Entry entry = this.entries.get(request);
+            if (entry == null) {
+                entry = fetch(request);
+                synchronized (this.evictionLock) {
+                    this.entries.put(request, entry);
+                    this.weight += entry.weight;
+                    evict(entry);
+                }
+            }
+            future.complete(entry);
+            return entry;
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            this.loading.remove(request, future);
+        }
+    }
+
+    private static Entry join(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw (ex.getCause() instanceof RuntimeException cause) ? cause : ex;
+        }
+    }
+
+    private Entry fetch(StartConfigurationSessionRequest request) {
+        AWSAppConfigResource resource = new AWSAppConfigResource(request, this.properties, this.clientRegistry);
+        resource.setAcceptedProfiles(this.acceptedProfiles);
+        try {
+            AWSAppConfigDataLoader.Fetched fetched = this.loader.fetch(resource);
+            GetLatestConfigurationResult configurationResult = fetched.configurationResult();
+            if (configurationResult == null) {
+                throw new IllegalStateException("AWS AppConfig returned no configuration within " + this.properties.getStartup().getTimeout());
+            }
+            AWSAppConfigSession session = fetched.session();
+            Entry entry = new Entry(request, session, createPropertySource(resource, configurationResult));
+            session.setChecksum(AWSAppConfigSnapshotStore.checksum(configurationResult.getConfiguration()));
+            session.setVersionLabel(configurationResult.getVersionLabel());
+            if (session.isRevalidate()) {
+                entry.loadTime -= getRefreshAfter(entry);
+            }
+            this.loadSuccesses.increment();
+            logger.debug(LogMessage.format("Loaded %d AWS AppConfig propert(ies) for %s", entry.weight, request));
+            return entry;
+        } catch (Exception ex) {
+            this.loadFailures.increment();
+            throw new IllegalStateException("Unable to load AWS AppConfig configuration for " + request, ex);
+        }
+    }
+
+    private PropertySource<?> createPropertySource(AWSAppConfigResource resource, GetLatestConfigurationResult configurationResult) throws Exception {
+        List<PropertySource<?>> propertySources = this.loader.getPropertySources(resource, configurationResult);
+        if (propertySources.size() == 1) {
+            return propertySources.get(0);
+        }
+        CompositePropertySource composite = new CompositePropertySource(resource.getRequest().toString());
+        for (int i = propertySources.size() - 1; i >= 0; i--) {
+            composite.addPropertySource(propertySources.get(i));
+        }
+        return composite;
+    }
+
+    private void refreshIfStale(Entry entry) {
+        if (System.nanoTime() - entry.loadTime >= getRefreshAfter(entry) && entry.refreshing.compareAndSet(false, true)) {
+            this.scheduler.submit(() -> refresh(entry));
+        }
+    }
+
+    private long getRefreshAfter(Entry entry) {
+        Duration nextPollInterval = entry.session.getNextPollInterval();
+        long refreshAfter = this.properties.getRepository().getRefreshAfter().toNanos();
+        return (nextPollInterval != null) ? Math.max(refreshAfter, nextPollInterval.toNanos()) : refreshAfter;
+    }
+
+    private void refresh(Entry entry) {
+        if (this.entries.get(entry.request) != entry) {
+            entry.refreshing.set(false);
+            return;
+        }
+        AWSAppConfigSession session = entry.session;
+        session.pollAsync().whenComplete((configurationResult, ex) -> {
+            try {
+                if (ex != null) {
+                    onRefreshFailure(entry, session, (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex);
+                } else {
+                    this.refreshes.increment();
+                    apply(entry, session, configurationResult);
+                }
+            } catch (Exception failure) {
+                onRefreshFailure(entry, session, failure);
+            } finally {
+                entry.loadTime = System.nanoTime();
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    private void apply(Entry entry, AWSAppConfigSession session, GetLatestConfigurationResult configurationResult) throws Exception {
+        if (!AWSAppConfigSession.hasConfiguration(configurationResult)) {
+            return;
+        }
+        this.loader.saveSnapshot(session.getResource(), configurationResult);
+        String checksum = AWSAppConfigSnapshotStore.checksum(configurationResult.getConfiguration());
+        if (checksum.equals(session.getChecksum())) {
+            return;
+        }
+        PropertySource<?> propertySource = createPropertySource(session.getResource(), configurationResult);
+        int weight = getWeight(propertySource);
+        synchronized (this.evictionLock) {
+            if (this.entries.get(entry.request) == entry) {
+                this.weight += weight - entry.weight;
+            }
+            entry.weight = weight;
+            entry.propertySource = propertySource;
+            evict(entry);
+        }
+        session.setChecksum(checksum);
+        session.setVersionLabel(configurationResult.getVersionLabel());
+        logger.debug(LogMessage.format("Refreshed AWS AppConfig configuration for %s", entry.request));
+    }
+
+    private void onRefreshFailure(Entry entry, AWSAppConfigSession session, Throwable ex) {
+        if (AWSAppConfigPollScheduler.isThrottling(ex)) {
+            logger.debug(LogMessage.format("AWS AppConfig throttled the refresh of %s", entry.request));
+            return;
+        }
+        logger.warn(LogMessage.format("Unable to refresh AWS AppConfig configuration for %s", entry.request), ex);
+        AWSAppConfigSession restarted = new AWSAppConfigSession(session.getResource());
+        restarted.setChecksum(session.getChecksum());
+        restarted.setVersionLabel(session.getVersionLabel());
+        entry.session = restarted;
+    }
+
+    /**
+     * Evict the least recently used entries other than the one just added or refreshed until the repository is within
+     * its bounds. Only called on loads and refreshes, which already wait for AppConfig, so a linear scan is cheaper than
+     * maintaining an access order on every read.
+     */
+    private void evict(Entry retained) {
+        AWSAppConfigProperties.Repository repository = this.properties.getRepository();
+        while (this.entries.size() > repository.getMaxSize() || this.weight > repository.getMaxWeight()) {
+            Entry eldest = null;
+            for (Entry entry : this.entries.values()) {
+                if (entry != retained && (eldest == null || entry.lastAccess - eldest.lastAccess < 0)) {
+                    eldest = entry;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (this.entries.remove(eldest.request, eldest)) {
+                this.weight -= eldest.weight;
+                this.evictions.increment();
+                logger.debug(LogMessage.format("Evicted AWS AppConfig configuration for %s", eldest.request));
+            }
+        }
+    }
+
+    private void remove(Entry entry) {
+        synchronized (this.evictionLock) {
+            if (this.entries.remove(entry.request, entry)) {
+                this.weight -= entry.weight;
+            }
+        }
+    }
+
+    private static int getWeight(PropertySource<?> propertySource) {
+        return (propertySource instanceof EnumerablePropertySource<?> enumerable) ? enumerable.getPropertyNames().length : 1;
+    }
+
+    private static final class Entry {
+
+        private final StartConfigurationSessionRequest request;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private volatile AWSAppConfigSession session;
+
+        private volatile PropertySource<?> propertySource;
+
+        private volatile int weight;
+
+        private volatile long loadTime;
+
+        private volatile long lastAccess;
+
+        Entry(StartConfigurationSessionRequest request, AWSAppConfigSession session, PropertySource<?> propertySource) {
+            this.request = request;
+            this.session = session;
+            this.propertySource = propertySource;
+            this.weight = getWeight(propertySource);
+            this.loadTime = System.nanoTime();
+            this.lastAccess = this.loadTime;
+        }
+    }
+}
@@ -1,25 +1,55 @@
 package org.springframework.boot.context.config;
 
 
-import com.amazonaws.services.appconfigdata.AWSAppConfigDataClient;
+import com.amazonaws.services.appconfigdata.AWSAppConfigData;
 import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class AWSAppConfigResource extends ConfigDataResource {
 
-    private AWSAppConfigDataClient appConfig;
+    private AWSAppConfigTransport transport;
+    private AWSAppConfigProperties.Transport transportType;
     private StartConfigurationSessionRequest request;
+    private AWSAppConfigProperties properties;
+    private AWSAppConfigClientRegistry clientRegistry;
+    private List<String> acceptedProfiles = Collections.singletonList("default");
+
+    public AWSAppConfigResource(AWSAppConfigData appConfig, StartConfigurationSessionRequest request) {
+        this(new AWSAppConfigSdkV1Transport(appConfig), request);
+    }
+
+    public AWSAppConfigResource(AWSAppConfigTransport transport, StartConfigurationSessionRequest request) {
+        this.transport = transport;
+        this.request = request;
+        this.properties = new AWSAppConfigProperties();
+    }
 
     public AWSAppConfigResource(StartConfigurationSessionRequest configurationRequest) {
-        this.appConfig = (AWSAppConfigDataClient) AWSAppConfigDataClient.builder().build();
+        this(configurationRequest, new AWSAppConfigProperties(), new AWSAppConfigClientRegistry());
+    }
+
+    public AWSAppConfigResource(StartConfigurationSessionRequest configurationRequest, AWSAppConfigProperties properties,
+                                AWSAppConfigClientRegistry clientRegistry) {
         this.request = configurationRequest;
+        this.properties = properties;
+        this.clientRegistry = clientRegistry;
+    }
+
+    public AWSAppConfigTransport getTransport() {
+        if (this.transport == null) {
+            this.transport = (this.transportType != null) ? this.clientRegistry.getTransport(this.properties.getClient(), this.transportType)
+                    : this.clientRegistry.getTransport(this.properties.getClient());
+        }
+        return this.transport;
     }
 
     @Override
@@ -31,11 +61,11 @@ public class AWSAppConfigResource extends ConfigDataResource {
             return false;
         }
         AWSAppConfigResource other = (AWSAppConfigResource) obj;
-        return this.request.equals(other.request);
+        return this.request.equals(other.request) && this.transportType == other.transportType;
     }
 
     @Override
     public int hashCode() {
-        return this.request.hashCode();
+        return Objects.hash(this.request, this.transportType);
     }
-}
\ No newline at end of file
+}
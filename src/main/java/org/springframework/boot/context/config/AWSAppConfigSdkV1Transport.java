@@ -0,0 +1,49 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.AWSAppConfigData;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationRequest;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AWSAppConfigTransport} calling a synchronous SDK v1 {@link AWSAppConfigData} client on the caller's thread.
+ */
+public class AWSAppConfigSdkV1Transport implements AWSAppConfigTransport {
+
+    private final AWSAppConfigData client;
+
+    public AWSAppConfigSdkV1Transport(AWSAppConfigData client) {
+        this.client = client;
+    }
+
+    public AWSAppConfigData getClient() {
+        return this.client;
+    }
+
+    @Override
+    public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+        try {
+            return CompletableFuture.completedFuture(this.client.startConfigurationSession(request).getInitialConfigurationToken());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    @Override
+    public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+        GetLatestConfigurationRequest configurationRequest = new GetLatestConfigurationRequest();
+        configurationRequest.setConfigurationToken(configurationToken);
+        try {
+            return CompletableFuture.completedFuture(this.client.getLatestConfiguration(configurationRequest));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.client.shutdown();
+    }
+}
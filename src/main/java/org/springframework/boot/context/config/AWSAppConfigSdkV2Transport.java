@@ -0,0 +1,124 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.amazonaws.services.appconfigdata.model.ThrottlingException;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.appconfigdata.AppConfigDataAsyncClient;
+import software.amazon.awssdk.services.appconfigdata.AppConfigDataAsyncClientBuilder;
+import software.amazon.awssdk.services.appconfigdata.model.GetLatestConfigurationResponse;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking {@link AWSAppConfigTransport} backed by an SDK v2 {@link AppConfigDataAsyncClient}. Requests run on a
+ * two-thread Netty event loop and their futures complete on the given executor, so any number of sessions share a
+ * handful of threads. Requires {@code software.amazon.awssdk:appconfigdata} on the classpath.
+ */
+public class AWSAppConfigSdkV2Transport implements AWSAppConfigTransport {
+
+    private static final int EVENT_LOOP_THREADS = 2;
+
+    private static final String VERSION_LABEL_HEADER = "Version-Label";
+
+    private final AppConfigDataAsyncClient client;
+
+    public AWSAppConfigSdkV2Transport(AppConfigDataAsyncClient client) {
+        this.client = client;
+    }
+
+    static AWSAppConfigTransport create(AWSAppConfigClientRegistry.ClientKey key, Executor completionExecutor) {
+        AppConfigDataAsyncClientBuilder builder = AppConfigDataAsyncClient.builder()
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().eventLoopGroupBuilder(SdkEventLoopGroup.builder().numberOfThreads(EVENT_LOOP_THREADS)))
+                .asyncConfiguration(ClientAsyncConfiguration.builder()
+                        .advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR, completionExecutor).build());
+        if (StringUtils.hasText(key.endpoint())) {
+            builder.endpointOverride(URI.create(key.endpoint()));
+        }
+        if (StringUtils.hasText(key.region())) {
+            builder.region(Region.of(key.region()));
+        }
+        if (StringUtils.hasText(key.profileName())) {
+            builder.credentialsProvider(ProfileCredentialsProvider.create(key.profileName()));
+        }
+        return new AWSAppConfigSdkV2Transport(builder.build());
+    }
+
+    @Override
+    public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+        return translate(this.client.startConfigurationSession((builder) -> builder
+                .applicationIdentifier(request.getApplicationIdentifier())
+                .environmentIdentifier(request.getEnvironmentIdentifier())
+                .configurationProfileIdentifier(request.getConfigurationProfileIdentifier())
+                .requiredMinimumPollIntervalInSeconds(request.getRequiredMinimumPollIntervalInSeconds()))
+                .thenApply((response) -> response.initialConfigurationToken()));
+    }
+
+    @Override
+    public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+        return translate(this.client.getLatestConfiguration((builder) -> builder.configurationToken(configurationToken))
+                .thenApply(AWSAppConfigSdkV2Transport::toConfigurationResult));
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        this.client.close();
+    }
+
+    private static GetLatestConfigurationResult toConfigurationResult(GetLatestConfigurationResponse response) {
+        return new GetLatestConfigurationResult()
+                .withConfiguration((response.configuration() != null) ? response.configuration().asByteBuffer() : null)
+                .withContentType(response.contentType())
+                .withNextPollConfigurationToken(response.nextPollConfigurationToken())
+                .withNextPollIntervalInSeconds(response.nextPollIntervalInSeconds())
+                .withVersionLabel(response.sdkHttpResponse().firstMatchingHeader(VERSION_LABEL_HEADER).orElse(null));
+    }
+
+    private static <T> CompletableFuture<T> translate(CompletableFuture<T> future) {
+        CompletableFuture<T> translated = new CompletableFuture<>();
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                translated.completeExceptionally(translate(ex));
+            } else {
+                translated.complete(result);
+            }
+        });
+        return translated;
+    }
+
+    /**
+     * Translate SDK v2 service exceptions to their SDK v1 equivalent, so that throttling and error handling don't
+     * depend on the transport.
+     */
+    private static Throwable translate(Throwable ex) {
+        Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        if (!(cause instanceof AwsServiceException serviceException)) {
+            return cause;
+        }
+        AmazonServiceException translated = serviceException.isThrottlingException() ? new ThrottlingException(serviceException.getMessage())
+                : new AmazonServiceException(serviceException.getMessage(), serviceException);
+        translated.setStatusCode(serviceException.statusCode());
+        translated.setRequestId(serviceException.requestId());
+        translated.setServiceName("AWSAppConfigData");
+        if (serviceException.awsErrorDetails() != null) {
+            translated.setErrorCode(serviceException.awsErrorDetails().errorCode());
+        }
+        return translated;
+    }
+}
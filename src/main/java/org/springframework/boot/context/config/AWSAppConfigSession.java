@@ -0,0 +1,207 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AWSAppConfigSession {
+
+    private final AWSAppConfigResource resource;
+
+    private volatile String configurationToken;
+
+    private volatile List<String> propertySourceNames = Collections.emptyList();
+
+    private volatile String checksum;
+
+    private volatile boolean revalidate;
+
+    private volatile String versionLabel;
+
+    private volatile AWSAppConfigPropertyHashes propertyHashes;
+
+    private volatile ConfigurationHandler configurationHandler;
+
+    private volatile long lastPollTime;
+
+    private volatile long lastRefreshTime;
+
+    private volatile Duration nextPollInterval;
+
+    private final AtomicLong pollCount = new AtomicLong();
+
+    private final AtomicLong pollTime = new AtomicLong();
+
+    private CompletableFuture<GetLatestConfigurationResult> lastPoll = CompletableFuture.completedFuture(null);
+
+    public AWSAppConfigSession(AWSAppConfigResource resource) {
+        this.resource = resource;
+    }
+
+    public AWSAppConfigResource getResource() {
+        return this.resource;
+    }
+
+    public boolean isStarted() {
+        return this.configurationToken != null;
+    }
+
+    public void start() {
+        join(startAsync());
+    }
+
+    public CompletableFuture<Void> startAsync() {
+        return this.resource.getTransport().startConfigurationSession(this.resource.getRequest())
+                .thenAccept((configurationToken) -> this.configurationToken = configurationToken);
+    }
+
+    public GetLatestConfigurationResult poll() {
+        return join(pollAsync());
+    }
+
+    /**
+     * Poll once the previous poll of the session, if any, completed, since a configuration token can only be used
+     * once. The session is started first if needed, including after a failed poll, whose token may have been used or
+     * have expired.
+     */
+    public synchronized CompletableFuture<GetLatestConfigurationResult> pollAsync() {
+        CompletableFuture<GetLatestConfigurationResult> poll = this.lastPoll.handle((result, ex) -> null).thenCompose((previous) -> {
+            CompletableFuture<Void> started = isStarted() ? CompletableFuture.completedFuture(null) : startAsync();
+            return started.thenCompose((ignored) -> getLatestConfiguration());
+        });
+        this.lastPoll = poll;
+        return poll;
+    }
+
+    private CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration() {
+        long start = System.nanoTime();
+        String configurationToken = this.configurationToken;
+        return this.resource.getTransport().getLatestConfiguration(configurationToken).whenComplete((configurationResult, ex) -> {
+            Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+            if (cause != null && !AWSAppConfigPollScheduler.isThrottling(cause) && Objects.equals(configurationToken, this.configurationToken)) {
+                this.configurationToken = null;
+            }
+        }).thenApply((configurationResult) -> {
+            this.pollTime.addAndGet(System.nanoTime() - start);
+            this.pollCount.incrementAndGet();
+            this.lastPollTime = System.currentTimeMillis();
+            this.configurationToken = configurationResult.getNextPollConfigurationToken();
+            Integer nextPollInterval = configurationResult.getNextPollIntervalInSeconds();
+            this.nextPollInterval = (nextPollInterval != null) ? Duration.ofSeconds(nextPollInterval) : null;
+            return configurationResult;
+        });
+    }
+
+    public List<String> getPropertySourceNames() {
+        return this.propertySourceNames;
+    }
+
+    void setPropertySourceNames(List<String> propertySourceNames) {
+        this.propertySourceNames = Collections.unmodifiableList(propertySourceNames);
+    }
+
+    public String getChecksum() {
+        return this.checksum;
+    }
+
+    void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public boolean isRevalidate() {
+        return this.revalidate;
+    }
+
+    void setRevalidate(boolean revalidate) {
+        this.revalidate = revalidate;
+    }
+
+    public String getVersionLabel() {
+        return this.versionLabel;
+    }
+
+    void setVersionLabel(String versionLabel) {
+        this.versionLabel = versionLabel;
+    }
+
+    /**
+     * Return the hashes of the published property sources, or {@code null} if not computed since they were swapped.
+     */
+    AWSAppConfigPropertyHashes getPropertyHashes() {
+        return this.propertyHashes;
+    }
+
+    void setPropertyHashes(AWSAppConfigPropertyHashes propertyHashes) {
+        this.propertyHashes = propertyHashes;
+    }
+
+    public ConfigurationHandler getConfigurationHandler() {
+        return this.configurationHandler;
+    }
+
+    void setConfigurationHandler(ConfigurationHandler configurationHandler) {
+        this.configurationHandler = configurationHandler;
+    }
+
+    public long getPollCount() {
+        return this.pollCount.get();
+    }
+
+    public long getPollTimeNanos() {
+        return this.pollTime.get();
+    }
+
+    public long getLastPollTime() {
+        return this.lastPollTime;
+    }
+
+    /**
+     * Return when the configuration was last confirmed current, i.e. when a configuration received from AppConfig was
+     * last applied, or found unchanged, without failing.
+     */
+    public long getLastRefreshTime() {
+        return this.lastRefreshTime;
+    }
+
+    void setLastRefreshTime(long lastRefreshTime) {
+        this.lastRefreshTime = lastRefreshTime;
+    }
+
+    public Duration getNextPollInterval() {
+        return this.nextPollInterval;
+    }
+
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    static int getPayloadBytes(GetLatestConfigurationResult configurationResult) {
+        return (configurationResult.getConfiguration() != null) ? configurationResult.getConfiguration().remaining() : 0;
+    }
+
+    static boolean hasConfiguration(GetLatestConfigurationResult configurationResult) {
+        return configurationResult.getConfiguration() != null && configurationResult.getConfiguration().remaining() > 0;
+    }
+
+    /**
+     * Applies a new configuration for sessions that are not backed by property sources.
+     */
+    @FunctionalInterface
+    public interface ConfigurationHandler {
+
+        void apply(GetLatestConfigurationResult configurationResult) throws Exception;
+    }
+}
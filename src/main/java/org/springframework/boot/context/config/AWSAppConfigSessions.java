@@ -0,0 +1,31 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.ConfigurableBootstrapContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AWSAppConfigSessions {
+
+    private final Map<AWSAppConfigResource, AWSAppConfigSession> sessions = new LinkedHashMap<>();
+
+    public synchronized void register(AWSAppConfigSession session) {
+        this.sessions.put(session.getResource(), session);
+    }
+
+    public synchronized List<AWSAppConfigSession> getSessions() {
+        return new ArrayList<>(this.sessions.values());
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.sessions.isEmpty();
+    }
+
+    static AWSAppConfigSessions get(ConfigurableBootstrapContext bootstrapContext) {
+        bootstrapContext.registerIfAbsent(AWSAppConfigSessions.class, BootstrapRegistry.InstanceSupplier.of(new AWSAppConfigSessions()));
+        return bootstrapContext.get(AWSAppConfigSessions.class);
+    }
+}
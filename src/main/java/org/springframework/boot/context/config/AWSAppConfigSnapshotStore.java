@@ -0,0 +1,166 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+
+public class AWSAppConfigSnapshotStore {
+
+    private static final int MAGIC = 0x41435331;
+
+    private final Path directory;
+
+    public AWSAppConfigSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getPath(StartConfigurationSessionRequest request) {
+        String key = request.getApplicationIdentifier() + "/" + request.getEnvironmentIdentifier() + "/" + request.getConfigurationProfileIdentifier();
+        byte[] digest = sha256(ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8)));
+        return this.directory.resolve(HexFormat.of().formatHex(digest, 0, 16) + ".snapshot");
+    }
+
+    public void write(StartConfigurationSessionRequest request, GetLatestConfigurationResult configurationResult) throws IOException {
+        ByteBuffer payload = configurationResult.getConfiguration().duplicate();
+        byte[] contentType = bytes(configurationResult.getContentType());
+        byte[] versionLabel = bytes(configurationResult.getVersionLabel());
+        ByteBuffer header = ByteBuffer.allocate(4 + 4 + contentType.length + 4 + versionLabel.length + 32 + 4);
+        header.putInt(MAGIC);
+        header.putInt(contentType.length).put(contentType);
+        header.putInt(versionLabel.length).put(versionLabel);
+        header.put(sha256(payload));
+        header.putInt(payload.remaining());
+        header.flip();
+        Files.createDirectories(this.directory);
+        Path target = getPath(request);
+        Path temp = Files.createTempFile(this.directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining() || payload.hasRemaining()) {
+                    channel.write(new ByteBuffer[] {header, payload});
+                }
+                channel.force(true);
+            }
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Optional<Snapshot> read(StartConfigurationSessionRequest request) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(getPath(request), StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        }
+        try {
+            if (mapped.getInt() != MAGIC) {
+                return Optional.empty();
+            }
+            String contentType = string(mapped);
+            String versionLabel = string(mapped);
+            byte[] checksum = new byte[32];
+            mapped.get(checksum);
+            int length = mapped.getInt();
+            ByteBuffer payload = mapped.slice(mapped.position(), length).asReadOnlyBuffer();
+            if (!Arrays.equals(checksum, sha256(payload))) {
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(contentType, versionLabel, HexFormat.of().formatHex(checksum), payload));
+        } catch (RuntimeException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return (value != null) ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return (bytes.length > 0) ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    static String checksum(ByteBuffer buffer) {
+        return HexFormat.of().formatHex(sha256(buffer));
+    }
+
+    private static byte[] sha256(ByteBuffer buffer) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static class Snapshot {
+
+        private final String contentType;
+
+        private final String versionLabel;
+
+        private final String checksum;
+
+        private final ByteBuffer payload;
+
+        Snapshot(String contentType, String versionLabel, String checksum, ByteBuffer payload) {
+            this.contentType = contentType;
+            this.versionLabel = versionLabel;
+            this.checksum = checksum;
+            this.payload = payload;
+        }
+
+        public String getContentType() {
+            return this.contentType;
+        }
+
+        public String getVersionLabel() {
+            return this.versionLabel;
+        }
+
+        public String getChecksum() {
+            return this.checksum;
+        }
+
+        public ByteBuffer getPayload() {
+            return this.payload.duplicate();
+        }
+
+        GetLatestConfigurationResult toConfigurationResult() {
+            return new GetLatestConfigurationResult().withContentType(this.contentType).withVersionLabel(this.versionLabel)
+                    .withConfiguration(getPayload());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class AWSAppConfigStartupFetcher {
+
+    private final AWSAppConfigProperties.Startup properties;
+
+    private final ApplicationStartup applicationStartup;
+
+    public AWSAppConfigStartupFetcher(AWSAppConfigProperties.Startup properties) {
+        this(properties, ApplicationStartup.DEFAULT);
+    }
+
+    public AWSAppConfigStartupFetcher(AWSAppConfigProperties.Startup properties, ApplicationStartup applicationStartup) {
+        this.properties = properties;
+        this.applicationStartup = applicationStartup;
+    }
+
+    public Result fetch(AWSAppConfigSession session) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + this.properties.getTimeout().toNanos();
+        long waited = 0;
+        int attempts = 0;
+        if (!session.isStarted()) {
+            StartupStep step = this.applicationStartup.start("aws.appconfig.session.start");
+            try {
+                session.start();
+            } finally {
+                step.end();
+            }
+        }
+        while (true) {
+            attempts++;
+            GetLatestConfigurationResult configurationResult = poll(session, attempts);
+            if (AWSAppConfigSession.hasConfiguration(configurationResult)) {
+                return new Result(configurationResult, attempts, waited, System.nanoTime() - start);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return new Result(null, attempts, waited, System.nanoTime() - start);
+            }
+            long wait = Math.min(getWait(attempts, configurationResult), remaining);
+            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            waited += wait;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetch(AWSAppConfigSession)} for asynchronous transports: the waits between
+     * polls are scheduled on the given executor instead of sleeping. Startup steps are not recorded.
+     */
+    public CompletableFuture<Result> fetchAsync(AWSAppConfigSession session, ScheduledExecutorService executor) {
+        long start = System.nanoTime();
+        return poll(session, executor, start, start + this.properties.getTimeout().toNanos(), 1, 0);
+    }
+
+    private CompletableFuture<Result> poll(AWSAppConfigSession session, ScheduledExecutorService executor, long start, long deadline,
+                                           int attempts, long waited) {
+        return session.pollAsync().thenCompose((configurationResult) -> {
+            if (AWSAppConfigSession.hasConfiguration(configurationResult)) {
+                return CompletableFuture.completedFuture(new Result(configurationResult, attempts, waited, System.nanoTime() - start));
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return CompletableFuture.completedFuture(new Result(null, attempts, waited, System.nanoTime() - start));
+            }
+            long wait = Math.min(getWait(attempts, configurationResult), remaining);
+            CompletableFuture<Void> delay = new CompletableFuture<>();
+            executor.schedule(() -> delay.complete(null), wait, TimeUnit.NANOSECONDS);
+            return delay.thenCompose((ignored) -> poll(session, executor, start, deadline, attempts + 1, waited + wait));
+        });
+    }
+
+    private GetLatestConfigurationResult poll(AWSAppConfigSession session, int attempts) {
+        StartupStep step = this.applicationStartup.start("aws.appconfig.poll");
+        step.tag("retry.count", String.valueOf(attempts - 1));
+        try {
+            GetLatestConfigurationResult configurationResult = session.poll();
+            step.tag("payload.bytes", String.valueOf(AWSAppConfigSession.getPayloadBytes(configurationResult)));
+            return configurationResult;
+        } finally {
+            step.end();
+        }
+    }
+
+    private long getWait(int attempts, GetLatestConfigurationResult configurationResult) {
+        if (attempts <= this.properties.getBackoffRetries()) {
+            long backoff = Math.min(this.properties.getInitialBackoff().toNanos() << (attempts - 1),
+                    this.properties.getMaxBackoff().toNanos());
+            return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        }
+        Integer nextPollInterval = configurationResult.getNextPollIntervalInSeconds();
+        if (nextPollInterval != null && nextPollInterval > 0) {
+            return Duration.ofSeconds(nextPollInterval).toNanos();
+        }
+        return this.properties.getMaxBackoff().toNanos();
+    }
+
+    public static class Result {
+
+        private final GetLatestConfigurationResult configurationResult;
+
+        private final int attempts;
+
+        private final long waitNanos;
+
+        private final long elapsedNanos;
+
+        Result(GetLatestConfigurationResult configurationResult, int attempts, long waitNanos, long elapsedNanos) {
+            this.configurationResult = configurationResult;
+            this.attempts = attempts;
+            this.waitNanos = waitNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public GetLatestConfigurationResult getConfigurationResult() {
+            return this.configurationResult;
+        }
+
+        public boolean isTimedOut() {
+            return this.configurationResult == null;
+        }
+
+        public int getAttempts() {
+            return this.attempts;
+        }
+
+        public Duration getWaitTime() {
+            return Duration.ofNanos(this.waitNanos);
+        }
+
+        public Duration getElapsedTime() {
+            return Duration.ofNanos(this.elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.ConfigurableBootstrapContext;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AWSAppConfigStartupMetrics {
+
+    private final Map<StartConfigurationSessionRequest, AWSAppConfigStartupFetcher.Result> results = new LinkedHashMap<>();
+
+    private final Map<StartConfigurationSessionRequest, Documents> documents = new LinkedHashMap<>();
+
+    public synchronized void record(StartConfigurationSessionRequest request, AWSAppConfigStartupFetcher.Result result) {
+        this.results.put(request, result);
+    }
+
+    public synchronized void recordDocuments(StartConfigurationSessionRequest request, int payloadBytes, int keyCount) {
+        this.documents.put(request, new Documents(payloadBytes, keyCount));
+    }
+
+    public synchronized AWSAppConfigStartupFetcher.Result getResult(StartConfigurationSessionRequest request) {
+        return this.results.get(request);
+    }
+
+    public synchronized Map<StartConfigurationSessionRequest, AWSAppConfigStartupFetcher.Result> getResults() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.results));
+    }
+
+    public synchronized Duration getTotalElapsedTime() {
+        return this.results.values().stream().map(AWSAppConfigStartupFetcher.Result::getElapsedTime).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    public synchronized Duration getTotalWaitTime() {
+        return this.results.values().stream().map(AWSAppConfigStartupFetcher.Result::getWaitTime).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    public synchronized Map<StartConfigurationSessionRequest, Documents> getDocuments() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.documents));
+    }
+
+    public synchronized long getTotalPayloadBytes() {
+        return this.documents.values().stream().mapToLong(Documents::payloadBytes).sum();
+    }
+
+    public synchronized long getTotalKeyCount() {
+        return this.documents.values().stream().mapToLong(Documents::keyCount).sum();
+    }
+
+    public synchronized int getTotalRetries() {
+        return this.results.values().stream().mapToInt((result) -> result.getAttempts() - 1).sum();
+    }
+
+    static AWSAppConfigStartupMetrics get(ConfigurableBootstrapContext bootstrapContext) {
+        bootstrapContext.registerIfAbsent(AWSAppConfigStartupMetrics.class, BootstrapRegistry.InstanceSupplier.of(new AWSAppConfigStartupMetrics()));
+        return bootstrapContext.get(AWSAppConfigStartupMetrics.class);
+    }
+
+    public record Documents(int payloadBytes, int keyCount) {
+    }
+}
@@ -0,0 +1,32 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport used by {@link AWSAppConfigSession sessions} to call the AppConfigData API. The requests and results of
+ * the SDK v1 model are used whatever the client, so that sessions, snapshots and refreshes don't depend on it.
+ * Failures complete the returned futures exceptionally with the SDK v1 service exceptions.
+ */
+public interface AWSAppConfigTransport {
+
+    /**
+     * Start a configuration session and return its initial configuration token.
+     */
+    CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request);
+
+    CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken);
+
+    /**
+     * Return whether calls return without waiting for AppConfig, in which case fetches and polls are composed on a
+     * couple of shared threads rather than taking a thread each.
+     */
+    default boolean isAsync() {
+        return false;
+    }
+
+    default void close() {
+    }
+}
@@ -0,0 +1,296 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last versions of the properties of every refreshed configuration profile, so that a previous version can
+ * be republished without calling AppConfig. Versions are held as {@link AWSAppConfigIndexedPropertySource indexed}
+ * copies sharing their names and unchanged values with the previous version.
+ */
+public class AWSAppConfigVersionHistory {
+
+    private static final int OBJECT_HEADER = 16;
+
+    private static final int REFERENCE = 4;
+
+    private final int size;
+
+    private final Map<String, Versions> versions = new ConcurrentHashMap<>();
+
+    public AWSAppConfigVersionHistory(int size) {
+        this.size = size;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Record the properties received for a session and return the new version, which becomes the published one unless
+     * the profile is pinned. Properties identical to the latest version, such as those of a payload that only differs
+     * by its formatting, are not recorded again and the latest version is returned.
+     */
+    Version record(AWSAppConfigSession session, List<PropertySource<?>> propertySources) {
+        return record(session, propertySources, AWSAppConfigPropertyHashes.of(propertySources));
+    }
+
+    Version record(AWSAppConfigSession session, List<PropertySource<?>> propertySources, AWSAppConfigPropertyHashes hashes) {
+        Versions versions = this.versions.computeIfAbsent(getName(session.getResource().getRequest()), (name) -> new Versions());
+        synchronized (versions) {
+            Version latest = versions.entries.peekLast();
+            if (latest != null && latest.getHashes().getHash().equals(hashes.getHash())) {
+                return latest;
+            }
+            Version version = new Version(++versions.sequence, session.getVersionLabel(), session.getChecksum(), Instant.now(),
+                    compact(propertySources, latest));
+            version.hashes = hashes;
+            versions.entries.addLast(version);
+            while (versions.entries.size() > this.size) {
+                versions.entries.removeFirst();
+            }
+            if (versions.pinned == null) {
+                versions.published = version;
+            }
+            return version;
+        }
+    }
+
+    public Set<String> getProfiles() {
+        return Collections.unmodifiableSet(this.versions.keySet());
+    }
+
+    /**
+     * Return the retained versions of a configuration profile, oldest first.
+     */
+    public List<Version> getVersions(String profile) {
+        Versions versions = this.versions.get(profile);
+        if (versions == null) {
+            return Collections.emptyList();
+        }
+        synchronized (versions) {
+            return new ArrayList<>(versions.entries);
+        }
+    }
+
+    public Version getVersion(String profile, long sequence) {
+        for (Version version : getVersions(profile)) {
+            if (version.getSequence() == sequence) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    public Version getLatest(String profile) {
+        List<Version> versions = getVersions(profile);
+        return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+    }
+
+    public Version getPublished(String profile) {
+        Versions versions = this.versions.get(profile);
+        return (versions != null) ? versions.published : null;
+    }
+
+    public Version getPinned(String profile) {
+        Versions versions = this.versions.get(profile);
+        return (versions != null) ? versions.pinned : null;
+    }
+
+    void pin(String profile, Version version) {
+        Versions versions = this.versions.get(profile);
+        synchronized (versions) {
+            versions.pinned = version;
+            versions.published = version;
+        }
+    }
+
+    Version unpin(String profile) {
+        Versions versions = this.versions.get(profile);
+        synchronized (versions) {
+            versions.pinned = null;
+            versions.published = versions.entries.peekLast();
+            return versions.published;
+        }
+    }
+
+    /**
+     * Return the estimated heap retained by each version of a profile, counting the names and values shared with
+     * older versions only once.
+     */
+    public Map<Long, Long> getRetainedBytes(String profile) {
+        Map<Long, Long> retained = new LinkedHashMap<>();
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Version version : getVersions(profile)) {
+            retained.put(version.getSequence(), estimateBytes(version, seen));
+        }
+        return retained;
+    }
+
+    static String getName(StartConfigurationSessionRequest request) {
+        return request.getApplicationIdentifier() + "/" + request.getEnvironmentIdentifier() + "/" + request.getConfigurationProfileIdentifier();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AWSAppConfigIndexedPropertySource> compact(List<PropertySource<?>> propertySources, Version previous) {
+        Map<Object, Object> shared = new HashMap<>();
+        if (previous != null) {
+            for (AWSAppConfigIndexedPropertySource propertySource : previous.getPropertySources()) {
+                for (String name : propertySource.getPropertyNames()) {
+                    shared.putIfAbsent(name, name);
+                    Object value = propertySource.getProperty(name);
+                    if (value != null) {
+                        shared.putIfAbsent(value, value);
+                    }
+                }
+            }
+        }
+        List<AWSAppConfigIndexedPropertySource> compacted = new ArrayList<>(propertySources.size());
+        for (PropertySource<?> propertySource : propertySources) {
+            if (!(propertySource instanceof EnumerablePropertySource<?> enumerable)) {
+                continue;
+            }
+            Map<String, Object> properties = new HashMap<>();
+            for (String name : enumerable.getPropertyNames()) {
+                Object value = enumerable.getProperty(name);
+                Origin origin = (enumerable instanceof OriginLookup<?>) ? ((OriginLookup<String>) enumerable).getOrigin(name) : null;
+                if (value instanceof OriginTrackedValue originTrackedValue) {
+                    origin = originTrackedValue.getOrigin();
+                    value = originTrackedValue.getValue();
+                }
+                value = (value != null) ? shared.computeIfAbsent(value, (key) -> key) : null;
+                properties.put((String) shared.computeIfAbsent(name, (key) -> key), (origin != null) ? OriginTrackedValue.of(value, origin) : value);
+            }
+            compacted.add(new AWSAppConfigIndexedPropertySource(propertySource.getName(), properties));
+        }
+        return Collections.unmodifiableList(compacted);
+    }
+
+    private static long estimateBytes(Version version, Set<Object> seen) {
+        long bytes = 0;
+        for (AWSAppConfigIndexedPropertySource propertySource : version.getPropertySources()) {
+            int size = propertySource.size();
+            bytes += OBJECT_HEADER * 4 + align(OBJECT_HEADER + (long) REFERENCE * size) * 3;
+            for (String name : propertySource.getPropertyNames()) {
+                bytes += estimateBytes(name, seen) + estimateBytes(propertySource.getProperty(name), seen)
+                        + estimateBytes(propertySource.getOrigin(name), seen);
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(Object value, Set<Object> seen) {
+        if (value == null || value instanceof Boolean || !seen.add(value)) {
+            return 0;
+        }
+        if (value instanceof CharSequence chars) {
+            return align(OBJECT_HEADER + 8) + align(OBJECT_HEADER + chars.length());
+        }
+        if (value instanceof Integer || value instanceof Float || value instanceof Short || value instanceof Character) {
+            return align(OBJECT_HEADER);
+        }
+        return align(OBJECT_HEADER + 8);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    private static final class Versions {
+
+        private final Deque<Version> entries = new ArrayDeque<>();
+
+        private long sequence;
+
+        private volatile Version published;
+
+        private volatile Version pinned;
+    }
+
+    /**
+     * Immutable version of the properties of a configuration profile.
+     */
+    public static final class Version {
+
+        private final long sequence;
+
+        private final String versionLabel;
+
+        private final String checksum;
+
+        private final Instant receivedAt;
+
+        private final List<AWSAppConfigIndexedPropertySource> propertySources;
+
+        private volatile AWSAppConfigPropertyHashes hashes;
+
+        private Version(long sequence, String versionLabel, String checksum, Instant receivedAt,
+                        List<AWSAppConfigIndexedPropertySource> propertySources) {
+            this.sequence = sequence;
+            this.versionLabel = versionLabel;
+            this.checksum = checksum;
+            this.receivedAt = receivedAt;
+            this.propertySources = propertySources;
+        }
+
+        public long getSequence() {
+            return this.sequence;
+        }
+
+        public String getVersionLabel() {
+            return this.versionLabel;
+        }
+
+        public String getChecksum() {
+            return this.checksum;
+        }
+
+        public Instant getReceivedAt() {
+            return this.receivedAt;
+        }
+
+        public List<AWSAppConfigIndexedPropertySource> getPropertySources() {
+            return this.propertySources;
+        }
+
+        /**
+         * Return the hashes of the properties of this version, computed on first use.
+         */
+        public AWSAppConfigPropertyHashes getHashes() {
+            AWSAppConfigPropertyHashes hashes = this.hashes;
+            if (hashes == null) {
+                hashes = AWSAppConfigPropertyHashes.of(this.propertySources);
+                this.hashes = hashes;
+            }
+            return hashes;
+        }
+
+        public int getPropertyCount() {
+            return this.propertySources.stream().mapToInt(AWSAppConfigIndexedPropertySource::size).sum();
+        }
+
+        /**
+         * Return the estimated heap used by this version alone.
+         */
+        public long getEstimatedBytes() {
+            return estimateBytes(this, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.util.MimeType;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+final class FlattenedPaths {
+
+    static final String DOCUMENT = "document";
+
+    private FlattenedPaths() {
+    }
+
+    static String key(String path, String key) {
+        if (path.isEmpty()) {
+            return key;
+        }
+        return key.startsWith("[") ? path + key : path + "." + key;
+    }
+
+    static String index(String path, int index) {
+        return path + "[" + index + "]";
+    }
+
+    static String join(String path, String relative) {
+        if (path.isEmpty() && relative.startsWith(".")) {
+            return relative.substring(1);
+        }
+        return path + relative;
+    }
+
+    static Charset charset(MimeType contentType) {
+        return (contentType.getCharset() != null) ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+}
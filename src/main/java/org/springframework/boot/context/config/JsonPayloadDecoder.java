@@ -0,0 +1,85 @@
+package org.springframework.boot.context.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattens JSON with the Jackson streaming parser, without building a tree model.
+ */
+public class JsonPayloadDecoder implements AWSAppConfigPayloadDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public boolean supports(MimeType contentType) {
+        return "application".equals(contentType.getType())
+                && ("json".equals(contentType.getSubtype()) || contentType.getSubtype().endsWith("+json"));
+    }
+
+    @Override
+    public List<Map<String, Object>> decode(InputStream input, MimeType contentType) throws IOException {
+        try (JsonParser parser = createParser(input, contentType)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return Collections.emptyList();
+            }
+            Map<String, Object> document = new LinkedHashMap<>();
+            value(parser, token, token.isStructStart() ? "" : FlattenedPaths.DOCUMENT, document);
+            return Collections.singletonList(document);
+        }
+    }
+
+    private static JsonParser createParser(InputStream input, MimeType contentType) throws IOException {
+        if (contentType.getCharset() == null || StandardCharsets.UTF_8.equals(contentType.getCharset())) {
+            return JSON_FACTORY.createParser(input);
+        }
+        return JSON_FACTORY.createParser(new InputStreamReader(input, contentType.getCharset()));
+    }
+
+    static void value(JsonParser parser, JsonToken token, String path, Map<String, Object> document) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                for (JsonToken field = parser.nextToken(); field != JsonToken.END_OBJECT; field = parser.nextToken()) {
+                    String name = parser.getCurrentName();
+                    value(parser, parser.nextToken(), FlattenedPaths.key(path, name), document);
+                }
+                break;
+            case START_ARRAY:
+                int index = 0;
+                for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+                    value(parser, element, FlattenedPaths.index(path, index++), document);
+                }
+                if (index == 0) {
+                    document.put(path, "");
+                }
+                break;
+            case VALUE_STRING:
+                document.put(path, parser.getText());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                document.put(path, parser.getNumberValue());
+                break;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                document.put(path, parser.getBooleanValue());
+                break;
+            case VALUE_NULL:
+                document.put(path, "");
+                break;
+            default:
+                throw new IOException("Unexpected JSON token " + token + " at '" + path + "'");
+        }
+    }
+}
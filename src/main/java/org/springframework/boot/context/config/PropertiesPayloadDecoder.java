@@ -0,0 +1,40 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads {@code .properties} payloads, keeping the order in which keys are declared.
+ */
+public class PropertiesPayloadDecoder implements AWSAppConfigPayloadDecoder {
+
+    private static final List<MimeType> CONTENT_TYPES = List.of(new MimeType("text", "x-java-properties"),
+            new MimeType("text", "x-properties"), new MimeType("text", "plain"));
+
+    @Override
+    public boolean supports(MimeType contentType) {
+        return CONTENT_TYPES.stream().anyMatch(contentType::equalsTypeAndSubtype);
+    }
+
+    @Override
+    public List<Map<String, Object>> decode(InputStream input, MimeType contentType) throws IOException {
+        Map<String, Object> document = new LinkedHashMap<>();
+        Properties properties = new Properties() {
+
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                return document.put((String) key, value);
+            }
+        };
+        properties.load(new InputStreamReader(input, FlattenedPaths.charset(contentType)));
+        return document.isEmpty() ? Collections.emptyList() : Collections.singletonList(document);
+    }
+}
@@ -0,0 +1,333 @@
+package org.springframework.boot.context.config;
+
+import org.springframework.util.MimeType;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Construct;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Flattens YAML straight from the SnakeYAML event stream, without building the intermediate object tree.
+ * Anchors, aliases and merge keys are supported by replaying the flattened entries recorded for the anchored node.
+ * Scalars are resolved and converted like {@link SafeConstructor} does, and duplicate keys are rejected.
+ * <p>
+ * As replaying flattens the anchored node again for every alias, aliases of collections are limited to
+ * {@link LoaderOptions#getMaxAliasesForCollections()} like SnakeYAML's composer does, and the entries they replay to
+ * that many times the entries of the payload itself, so that nested aliases cannot expand exponentially.
+ */
+public class YamlPayloadDecoder implements AWSAppConfigPayloadDecoder {
+
+    private static final List<MimeType> CONTENT_TYPES = List.of(new MimeType("application", "x-yaml"),
+            new MimeType("application", "yaml"), new MimeType("text", "yaml"), new MimeType("text", "x-yaml"));
+
+    private static final Resolver RESOLVER = new Resolver();
+
+    private static final String MERGE_KEY = "<<";
+
+    @Override
+    public boolean supports(MimeType contentType) {
+        return CONTENT_TYPES.stream().anyMatch(contentType::equalsTypeAndSubtype);
+    }
+
+    @Override
+    public List<Map<String, Object>> decode(InputStream input, MimeType contentType) throws IOException {
+        LoaderOptions options = new LoaderOptions();
+        Iterable<Event> events = new Yaml(options).parse(new InputStreamReader(input, FlattenedPaths.charset(contentType)));
+        try {
+            return new Flattener(events.iterator(), options.getMaxAliasesForCollections()).documents();
+        } catch (RuntimeException ex) {
+            throw new IOException("Unable to parse AWS AppConfig YAML payload: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static final class Flattener {
+
+        private final Iterator<Event> events;
+
+        private final ScalarConstructor constructor = new ScalarConstructor();
+
+        private final int maxAliasesForCollections;
+
+        private final Map<String, List<Object[]>> anchors = new HashMap<>();
+
+        private final Set<String> collectionAnchors = new HashSet<>();
+
+        private int collectionAliases;
+
+        private long entries;
+
+        private long replayedEntries;
+
+        private Deque<Recording> recordings = new ArrayDeque<>();
+
+        private Map<String, Object> target;
+
+        Flattener(Iterator<Event> events, int maxAliasesForCollections) {
+            this.events = events;
+            this.maxAliasesForCollections = maxAliasesForCollections;
+        }
+
+        List<Map<String, Object>> documents() {
+            List<Map<String, Object>> documents = new ArrayList<>();
+            while (this.events.hasNext()) {
+                if (this.events.next() instanceof DocumentStartEvent) {
+                    this.target = new LinkedHashMap<>();
+                    this.anchors.clear();
+                    this.collectionAnchors.clear();
+                    Event root = this.events.next();
+                    if (root instanceof DocumentEndEvent || (root instanceof ScalarEvent && "".equals(value((ScalarEvent) root)))) {
+                        continue;
+                    }
+                    node(root, (root instanceof MappingStartEvent) ? "" : FlattenedPaths.DOCUMENT);
+                    documents.add(this.target);
+                }
+            }
+            return documents;
+        }
+
+        private void node(Event event, String path) {
+            if (event instanceof AliasEvent) {
+                replay(((AliasEvent) event).getAnchor(), path);
+                return;
+            }
+            String anchor = ((NodeEvent) event).getAnchor();
+            if (anchor != null) {
+                this.recordings.push(new Recording(anchor, path));
+            }
+            if (event instanceof ScalarEvent) {
+                this.entries++;
+                put(path, value((ScalarEvent) event));
+            } else if (event instanceof SequenceStartEvent) {
+                sequence(path);
+            } else if (event instanceof MappingStartEvent) {
+                mapping(path);
+            } else {
+                throw new IllegalStateException("Unexpected YAML event " + event);
+            }
+            if (anchor != null) {
+                Recording recording = this.recordings.pop();
+                this.anchors.put(recording.anchor, recording.entries);
+                if (!(event instanceof ScalarEvent)) {
+                    this.collectionAnchors.add(recording.anchor);
+                }
+            }
+        }
+
+        private void sequence(String path) {
+            int index = 0;
+            for (Event event = this.events.next(); !event.is(Event.ID.SequenceEnd); event = this.events.next()) {
+                node(event, FlattenedPaths.index(path, index++));
+            }
+            if (index == 0) {
+                this.entries++;
+                put(path, "");
+            }
+        }
+
+        /**
+         * Flatten a mapping, the mappings of its merge keys being applied once all of its own keys are known, since a
+         * key defined by the mapping replaces the merged value as a whole wherever it is declared.
+         */
+        private void mapping(String path) {
+            Set<String> keys = new HashSet<>();
+            List<Map<String, Object>> merged = null;
+            for (Event event = this.events.next(); !event.is(Event.ID.MappingEnd); event = this.events.next()) {
+                if (!(event instanceof ScalarEvent)) {
+                    throw new IllegalStateException("Only scalar keys are supported, found " + event);
+                }
+                ScalarEvent key = (ScalarEvent) event;
+                Event value = this.events.next();
+                if (MERGE_KEY.equals(key.getValue()) && isPlain(key)) {
+                    merged = (merged != null) ? merged : new ArrayList<>();
+                    collectMerged(value, merged);
+                } else {
+                    String name = key(key);
+                    if (!keys.add(name)) {
+                        throw new IllegalStateException("Found duplicate key '" + key.getValue() + "' at " + key.getStartMark());
+                    }
+                    node(value, FlattenedPaths.key(path, name));
+                }
+            }
+            if (merged != null) {
+                merge(path, keys, merged);
+            }
+        }
+
+        private void collectMerged(Event value, List<Map<String, Object>> merged) {
+            if (value instanceof SequenceStartEvent) {
+                for (Event event = this.events.next(); !event.is(Event.ID.SequenceEnd); event = this.events.next()) {
+                    merged.add(capture(event));
+                }
+            } else {
+                merged.add(capture(value));
+            }
+        }
+
+        /**
+         * Flatten a merged mapping relative to the mapping it is merged into, without adding it to the document or to
+         * the anchors being recorded.
+         */
+        private Map<String, Object> capture(Event event) {
+            if (!(event instanceof MappingStartEvent) && !(event instanceof AliasEvent)) {
+                throw new IllegalStateException("Expected a mapping or a sequence of mappings to merge, found " + event);
+            }
+            Map<String, Object> target = this.target;
+            Deque<Recording> recordings = this.recordings;
+            this.target = new LinkedHashMap<>();
+            this.recordings = new ArrayDeque<>();
+            try {
+                node(event, "");
+                return this.target;
+            } finally {
+                this.target = target;
+                this.recordings = recordings;
+            }
+        }
+
+        /**
+         * Apply merged mappings, the first mapping defining a key taking precedence over the next ones.
+         */
+        private void merge(String path, Set<String> keys, List<Map<String, Object>> merged) {
+            Set<String> mergedKeys = new HashSet<>();
+            for (Map<String, Object> entries : merged) {
+                Set<String> entryKeys = new HashSet<>();
+                entries.forEach((relative, value) -> {
+                    String key = topLevelKey(relative);
+                    String entryPath = FlattenedPaths.key(path, relative);
+                    if (!keys.contains(key) && !mergedKeys.contains(key) && !this.target.containsKey(entryPath)) {
+                        put(entryPath, value);
+                    }
+                    entryKeys.add(key);
+                });
+                mergedKeys.addAll(entryKeys);
+            }
+        }
+
+        private void replay(String anchor, String path) {
+            List<Object[]> entries = this.anchors.get(anchor);
+            if (entries == null) {
+                throw new IllegalStateException("Found undefined alias '" + anchor + "'");
+            }
+            if (this.collectionAnchors.contains(anchor)) {
+                if (++this.collectionAliases > this.maxAliasesForCollections) {
+                    throw new IllegalStateException("Number of aliases for non-scalar nodes exceeds the specified max="
+                            + this.maxAliasesForCollections);
+                }
+                this.replayedEntries += entries.size();
+                if (this.replayedEntries > this.entries * this.maxAliasesForCollections) {
+                    throw new IllegalStateException("Aliases expand to more than " + this.maxAliasesForCollections
+                            + " times the entries of the payload");
+                }
+            }
+            for (Object[] entry : entries) {
+                put(FlattenedPaths.join(path, (String) entry[0]), entry[1]);
+            }
+        }
+
+        private void put(String path, Object value) {
+            this.target.put(path, value);
+            for (Recording recording : this.recordings) {
+                String relative = path.substring(recording.path.length());
+                if (recording.path.isEmpty() && !relative.isEmpty() && !relative.startsWith("[")) {
+                    relative = "." + relative;
+                }
+                recording.entries.add(new Object[] {relative, value});
+            }
+        }
+
+        /**
+         * Return the flattened key of a mapping key, keys that are not strings once resolved being enclosed in brackets
+         * like {@link org.springframework.beans.factory.config.YamlProcessor} does.
+         */
+        private String key(ScalarEvent key) {
+            Object value = this.constructor.construct(key);
+            return (value == null || value instanceof CharSequence) ? key.getValue() : "[" + value + "]";
+        }
+
+        private Object value(ScalarEvent scalar) {
+            Object value = this.constructor.construct(scalar);
+            return (value != null) ? value : "";
+        }
+
+        private static String topLevelKey(String relative) {
+            if (relative.startsWith("[")) {
+                return relative.substring(0, relative.indexOf(']') + 1);
+            }
+            for (int i = 0; i < relative.length(); i++) {
+                char c = relative.charAt(i);
+                if (c == '.' || c == '[') {
+                    return relative.substring(0, i);
+                }
+            }
+            return relative;
+        }
+
+        private static boolean isPlain(ScalarEvent scalar) {
+            return scalar.getScalarStyle() == DumperOptions.ScalarStyle.PLAIN;
+        }
+    }
+
+    /**
+     * Constructs scalars with the standard tags of {@link SafeConstructor}, resolving their tag like the composer does.
+     * Not thread-safe, as the timestamp constructor keeps state.
+     */
+    private static final class ScalarConstructor extends SafeConstructor {
+
+        ScalarConstructor() {
+            super(new LoaderOptions());
+        }
+
+        Object construct(ScalarEvent scalar) {
+            String explicitTag = scalar.getTag();
+            Tag tag = (explicitTag == null || explicitTag.equals("!"))
+                    ? RESOLVER.resolve(NodeId.scalar, scalar.getValue(), scalar.getImplicit().canOmitTagInPlainScalar())
+                    : new Tag(explicitTag);
+            Construct construct = this.yamlConstructors.get(tag);
+            if (construct == null) {
+                return scalar.getValue();
+            }
+            return construct.construct(new ScalarNode(tag, scalar.getValue(), scalar.getStartMark(), scalar.getEndMark(), scalar.getScalarStyle()));
+        }
+    }
+
+    private static final class Recording {
+
+        private final String anchor;
+
+        private final String path;
+
+        private final List<Object[]> entries = new ArrayList<>();
+
+        Recording(String anchor, String path) {
+            this.anchor = anchor;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.springframework.boot.context.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for an AWS AppConfig Agent, for tests and benchmarks of the {@link AWSAppConfigAgentTransport}.
+ * Configurations are {@link #publish published} per application, environment and profile and served on
+ * {@code /applications/{application}/environments/{environment}/configurations/{profile}} with their version as
+ * {@code Configuration-Version} and {@code ETag}, answering {@code 304} to a matching {@code If-None-Match}.
+ */
+public class AWSAppConfigAgentStub implements AutoCloseable {
+
+    private static final String PATH = "/applications/";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final Map<String, Configuration> configurations = new ConcurrentHashMap<>();
+
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong notModifiedCount = new AtomicLong();
+
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    private volatile Duration latency = Duration.ZERO;
+
+    private volatile boolean conditionalRequests = true;
+
+    private AWSAppConfigAgentStub(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Start a stub listening on an ephemeral port of the loopback interface.
+     */
+    public static AWSAppConfigAgentStub start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            ExecutorService executor = Executors.newCachedThreadPool();
+            AWSAppConfigAgentStub stub = new AWSAppConfigAgentStub(server, executor);
+            server.setExecutor(executor);
+            server.createContext(PATH, stub::handle);
+            server.start();
+            return stub;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public String getEndpoint() {
+        return "http://localhost:" + this.server.getAddress().getPort();
+    }
+
+    public void publish(String application, String environment, String profile, String contentType, String content) {
+        publish(application, environment, profile, contentType, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void publish(String application, String environment, String profile, String contentType, byte[] content) {
+        this.configurations.compute(application + "/" + environment + "/" + profile, (key, previous) -> new Configuration(
+                (previous != null) ? previous.version() + 1 : 1, contentType, content.clone()));
+    }
+
+    /**
+     * Set the delay before every response.
+     */
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Set whether {@code If-None-Match} is honored, so that agents always sending the configuration can be emulated.
+     */
+    public void setConditionalRequests(boolean conditionalRequests) {
+        this.conditionalRequests = conditionalRequests;
+    }
+
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    /**
+     * Return the number of distinct client connections the stub served.
+     */
+    public int getConnectionCount() {
+        return this.connections.size();
+    }
+
+    public long getNotModifiedCount() {
+        return this.notModifiedCount.get();
+    }
+
+    public long getBytesSent() {
+        return this.bytesSent.get();
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        this.requestCount.incrementAndGet();
+        this.connections.add(exchange.getRemoteAddress());
+        // the server only keeps the connection open after a bodiless response if the request was read, and if the
+        // response body isn't opened
+        exchange.getRequestBody().readAllBytes();
+        pause();
+        String[] segments = exchange.getRequestURI().getRawPath().substring(1).split("/");
+        if (segments.length != 6 || !segments[2].equals("environments") || !segments[4].equals("configurations")) {
+            respond(exchange, 400, "Invalid path".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        Configuration configuration = this.configurations.get(decode(segments[1]) + "/" + decode(segments[3]) + "/" + decode(segments[5]));
+        if (configuration == null) {
+            respond(exchange, 404, "Configuration not found".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        String etag = "\"" + configuration.version() + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.getResponseHeaders().add("Configuration-Version", String.valueOf(configuration.version()));
+        if (this.conditionalRequests && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            this.notModifiedCount.incrementAndGet();
+            // the JDK client doesn't reliably reuse connections after a 304 without a length
+            exchange.getResponseHeaders().add("Content-Length", "0");
+            respond(exchange, 304, new byte[0]);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", configuration.contentType());
+        respond(exchange, 200, configuration.content());
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        // counted first, the client may read the response before the stream is closed
+        this.bytesSent.addAndGet(body.length);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private void pause() {
+        long nanos = this.latency.toNanos();
+        if (nanos > 0) {
+            try {
+                Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String decode(String segment) {
+        return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    private record Configuration(int version, String contentType, byte[] content) {
+    }
+}
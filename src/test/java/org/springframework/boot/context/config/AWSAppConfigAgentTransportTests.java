@@ -0,0 +1,131 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.ResourceNotFoundException;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.core.env.PropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Polls an in-process AppConfig Agent stub through the agent transport.
+ */
+class AWSAppConfigAgentTransportTests {
+
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2);
+
+    private final AWSAppConfigAgentStub agent = AWSAppConfigAgentStub.start();
+
+    private final AWSAppConfigTransport transport = AWSAppConfigAgentTransport.create(
+            new AWSAppConfigClientRegistry.ClientKey(null, this.agent.getEndpoint(), null, AWSAppConfigProperties.Transport.AGENT), this.executor);
+
+    @AfterEach
+    void shutdown() {
+        this.transport.close();
+        this.agent.close();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void unchangedConfigurationIsNotModified() {
+        this.agent.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        AWSAppConfigSession session = createSession("profile");
+        GetLatestConfigurationResult first = session.poll();
+        assertThat(StandardCharsets.UTF_8.decode(first.getConfiguration()).toString()).isEqualTo("{\"key\":\"value\"}");
+        assertThat(first.getContentType()).isEqualTo("application/json");
+        assertThat(first.getVersionLabel()).isEqualTo("1");
+        long bytesSent = this.agent.getBytesSent();
+        for (int i = 0; i < 5; i++) {
+            assertThat(AWSAppConfigSession.hasConfiguration(session.poll())).isFalse();
+        }
+        assertThat(this.agent.getNotModifiedCount()).isEqualTo(5);
+        assertThat(this.agent.getBytesSent()).isEqualTo(bytesSent);
+        assertThat(this.agent.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void publishedVersionIsReturnedOnce() {
+        this.agent.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        AWSAppConfigSession session = createSession("profile");
+        session.poll();
+        this.agent.publish("app", "env", "profile", "application/json", "{\"key\":\"changed\"}");
+        GetLatestConfigurationResult changed = session.poll();
+        assertThat(StandardCharsets.UTF_8.decode(changed.getConfiguration()).toString()).isEqualTo("{\"key\":\"changed\"}");
+        assertThat(changed.getVersionLabel()).isEqualTo("2");
+        assertThat(AWSAppConfigSession.hasConfiguration(session.poll())).isFalse();
+    }
+
+    @Test
+    void sameVersionIsNotReadWhenConditionalRequestsAreIgnored() {
+        this.agent.setConditionalRequests(false);
+        this.agent.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        AWSAppConfigSession session = createSession("profile");
+        assertThat(AWSAppConfigSession.hasConfiguration(session.poll())).isTrue();
+        assertThat(AWSAppConfigSession.hasConfiguration(session.poll())).isFalse();
+        assertThat(this.agent.getNotModifiedCount()).isZero();
+    }
+
+    @Test
+    void sessionsOfSeveralProfilesShareConnections() {
+        for (int i = 0; i < 20; i++) {
+            this.agent.publish("app", "env", "profile-" + i, "application/json", "{\"index\":" + i + "}");
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20; i++) {
+                createSession("profile-" + i).poll();
+            }
+        }
+        assertThat(this.agent.getRequestCount()).isEqualTo(60);
+        assertThat(this.agent.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownProfileFailsAndSessionStartsOver() {
+        AWSAppConfigSession session = createSession("profile");
+        for (int i = 0; i < 3; i++) {
+            assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(session::poll)
+                    .satisfies((ex) -> assertThat(ex.getStatusCode()).isEqualTo(404));
+            assertThat(((AWSAppConfigAgentTransport) this.transport).getTokenCount()).isZero();
+        }
+        this.agent.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        assertThat(AWSAppConfigSession.hasConfiguration(session.poll())).isTrue();
+        assertThat(((AWSAppConfigAgentTransport) this.transport).getTokenCount()).isOne();
+    }
+
+    @Test
+    void unreachableAgentFailsWithClientException() {
+        String endpoint = this.agent.getEndpoint();
+        this.agent.close();
+        AWSAppConfigTransport transport = AWSAppConfigAgentTransport.create(
+                new AWSAppConfigClientRegistry.ClientKey(null, endpoint, null, AWSAppConfigProperties.Transport.AGENT), this.executor);
+        AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(transport, request("profile")));
+        assertThatExceptionOfType(SdkClientException.class).isThrownBy(session::poll);
+    }
+
+    @Test
+    void loaderReadsPropertiesFromAgent() {
+        this.agent.publish("app", "env", "profile", "application/x-yaml", "server:\n  port: 8081\n");
+        AWSAppConfigResource resource = new AWSAppConfigResource(this.transport, request("profile"));
+        DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+        ConfigData configData = new AWSAppConfigDataLoader().load(() -> bootstrapContext, resource);
+        PropertySource<?> propertySource = configData.getPropertySources().get(0);
+        assertThat(propertySource.getProperty("server.port")).hasToString("8081");
+    }
+
+    private AWSAppConfigSession createSession(String profile) {
+        return new AWSAppConfigSession(new AWSAppConfigResource(this.transport, request(profile)));
+    }
+
+    private static StartConfigurationSessionRequest request(String profile) {
+        return new StartConfigurationSessionRequest().withApplicationIdentifier("app").withEnvironmentIdentifier("env")
+                .withConfigurationProfileIdentifier(profile);
+    }
+}
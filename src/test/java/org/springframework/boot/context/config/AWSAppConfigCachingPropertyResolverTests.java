@@ -0,0 +1,94 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookups memoized by an {@link AWSAppConfigCachingPropertyResolver}, including its eviction.
+ */
+class AWSAppConfigCachingPropertyResolverTests {
+
+    private final StandardEnvironment environment = new StandardEnvironment();
+
+    private final CountingPropertySource propertySource = new CountingPropertySource();
+
+    private final AWSAppConfigGeneration generation = new AWSAppConfigGeneration();
+
+    private final AWSAppConfigCachingPropertyResolver resolver = new AWSAppConfigCachingPropertyResolver(this.environment, this.generation, 10);
+
+    AWSAppConfigCachingPropertyResolverTests() {
+        this.environment.getPropertySources().addFirst(this.propertySource);
+    }
+
+    @Test
+    void lookupsAreMemoizedUntilGenerationChanges() {
+        this.propertySource.values.put("key", "value");
+        assertThat(this.resolver.getProperty("key")).isEqualTo("value");
+        assertThat(this.resolver.resolvePlaceholders("${key}-${missing:default}")).isEqualTo("value-default");
+        this.propertySource.values.put("key", "changed");
+        assertThat(this.resolver.getProperty("key")).isEqualTo("value");
+        assertThat(this.resolver.getProperty("missing")).isNull();
+        assertThat(this.resolver.getProperty("missing")).isNull();
+        assertThat(this.propertySource.lookups("missing")).isEqualTo(2);
+        this.generation.increment();
+        assertThat(this.resolver.getProperty("key")).isEqualTo("changed");
+        assertThat(this.resolver.resolvePlaceholders("${key}-${missing:default}")).isEqualTo("changed-default");
+    }
+
+    @Test
+    void recentlyReadLookupsSurviveEviction() {
+        this.propertySource.values.put("hot", "value");
+        for (int i = 0; i < 100; i++) {
+            this.resolver.getProperty("cold" + i);
+            assertThat(this.resolver.getProperty("hot")).isEqualTo("value");
+            assertThat(this.resolver.size()).isLessThanOrEqualTo(10);
+        }
+        assertThat(this.propertySource.lookups("hot")).isEqualTo(1);
+        assertThat(this.resolver.size()).isGreaterThanOrEqualTo(9);
+    }
+
+    @Test
+    void lookupsOfPreviousGenerationsAreEvictedFirst() {
+        for (int i = 0; i < 9; i++) {
+            this.resolver.getProperty("stale" + i);
+        }
+        this.generation.increment();
+        this.resolver.getProperty("current");
+        this.resolver.getProperty("next");
+        this.resolver.getProperty("current");
+        assertThat(this.propertySource.lookups("current")).isEqualTo(1);
+        assertThat(this.resolver.size()).isEqualTo(10);
+    }
+
+    /**
+     * Property source counting the lookups reaching it.
+     */
+    private static class CountingPropertySource extends PropertySource<Object> {
+
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+        private final Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+
+        CountingPropertySource() {
+            super("counting", new Object());
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            this.lookups.computeIfAbsent(name, (key) -> new AtomicInteger()).incrementAndGet();
+            return this.values.get(name);
+        }
+
+        int lookups(String name) {
+            AtomicInteger lookups = this.lookups.get(name);
+            return (lookups != null) ? lookups.get() : 0;
+        }
+    }
+}
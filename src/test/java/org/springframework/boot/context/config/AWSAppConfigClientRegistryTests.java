@@ -0,0 +1,139 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transports shared by an {@link AWSAppConfigClientRegistry} between resources, and their disposal.
+ */
+class AWSAppConfigClientRegistryTests {
+
+    private final AWSAppConfigClientRegistry registry = new AWSAppConfigClientRegistry();
+
+    @AfterEach
+    void close() {
+        this.registry.close();
+    }
+
+    @Test
+    void resourcesWithTheSameClientPropertiesShareATransport() {
+        AWSAppConfigResource first = resource("a", properties("eu-west-1", null, null));
+        AWSAppConfigResource second = resource("b", properties("eu-west-1", null, null));
+        assertThat(first.getTransport()).isInstanceOf(AWSAppConfigSdkV1Transport.class).isSameAs(second.getTransport());
+        assertThat(this.registry.getTransport(new AWSAppConfigClientRegistry.ClientKey("eu-west-1", null, null))).isSameAs(first.getTransport());
+        AWSAppConfigResource endpoint = resource("a", properties("eu-west-1", "http://localhost:4566", "test"));
+        assertThat(endpoint.getTransport()).isSameAs(resource("b", properties("eu-west-1", "http://localhost:4566", "test")).getTransport());
+        assertThat(new AWSAppConfigClientRegistry.ClientKey("eu-west-1", null, null))
+                .isEqualTo(new AWSAppConfigClientRegistry.ClientKey("eu-west-1", null, null, AWSAppConfigProperties.Transport.SDK_V1));
+    }
+
+    @Test
+    void differentClientPropertiesGetSeparateTransports() {
+        AWSAppConfigTransport transport = resource("a", properties("eu-west-1", null, null)).getTransport();
+        assertThat(resource("a", properties("us-east-1", null, null)).getTransport()).isNotSameAs(transport);
+        assertThat(resource("a", properties("eu-west-1", "http://localhost:4566", null)).getTransport()).isNotSameAs(transport);
+        assertThat(resource("a", properties("eu-west-1", null, "test")).getTransport()).isNotSameAs(transport);
+        AWSAppConfigProperties agent = properties("eu-west-1", null, null);
+        agent.getClient().setTransport(AWSAppConfigProperties.Transport.AGENT);
+        assertThat(resource("a", agent).getTransport()).isInstanceOf(AWSAppConfigAgentTransport.class).isNotSameAs(transport);
+    }
+
+    @Test
+    void agentTransportIsSharedAcrossClientProperties() {
+        AWSAppConfigTransport agent = this.registry.getTransport(properties("eu-west-1", null, "test").getClient(),
+                AWSAppConfigProperties.Transport.AGENT);
+        assertThat(this.registry.getTransport(properties("us-east-1", "http://localhost:4566", null).getClient(),
+                AWSAppConfigProperties.Transport.AGENT)).isSameAs(agent);
+        assertThat(this.registry.getTransport(new AWSAppConfigClientRegistry.ClientKey(null, AWSAppConfigAgentTransport.DEFAULT_ENDPOINT, null,
+                AWSAppConfigProperties.Transport.AGENT))).isSameAs(agent);
+        AWSAppConfigProperties otherAgent = properties(null, null, null);
+        otherAgent.getClient().setAgentEndpoint("http://localhost:2773");
+        assertThat(this.registry.getTransport(otherAgent.getClient(), AWSAppConfigProperties.Transport.AGENT)).isNotSameAs(agent);
+    }
+
+    @Test
+    void closeClosesEveryTransport() {
+        RecordingTransport first = new RecordingTransport(false);
+        RecordingTransport failing = new RecordingTransport(true);
+        RecordingTransport last = new RecordingTransport(false);
+        AWSAppConfigClientRegistry.ClientKey key = new AWSAppConfigClientRegistry.ClientKey("eu-west-1", null, null);
+        this.registry.register(key, first);
+        this.registry.register(new AWSAppConfigClientRegistry.ClientKey("us-east-1", null, null), failing);
+        this.registry.register(new AWSAppConfigClientRegistry.ClientKey("eu-central-1", null, null), last);
+        this.registry.close();
+        assertThat(first.closed).isTrue();
+        assertThat(failing.closed).isTrue();
+        assertThat(last.closed).isTrue();
+        assertThat(this.registry.getTransport(key)).isNotSameAs(first);
+    }
+
+    @Test
+    void registryIsDisposedWithTheApplicationContext() {
+        DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+        AWSAppConfigClientRegistry registry = AWSAppConfigClientRegistry.get(bootstrapContext);
+        assertThat(AWSAppConfigClientRegistry.get(bootstrapContext)).isSameAs(registry);
+        RecordingTransport transport = new RecordingTransport(false);
+        registry.register(new AWSAppConfigClientRegistry.ClientKey(null, null, null), transport);
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        bootstrapContext.close(applicationContext);
+        applicationContext.refresh();
+        assertThat(applicationContext.getBean(AWSAppConfigClientRegistry.class)).isSameAs(registry);
+        assertThat(transport.closed).isFalse();
+        applicationContext.close();
+        assertThat(transport.closed).isTrue();
+    }
+
+    private AWSAppConfigResource resource(String profile, AWSAppConfigProperties properties) {
+        StartConfigurationSessionRequest request = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+                .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier(profile);
+        return new AWSAppConfigResource(request, properties, this.registry);
+    }
+
+    private static AWSAppConfigProperties properties(String region, String endpoint, String profileName) {
+        AWSAppConfigProperties properties = new AWSAppConfigProperties();
+        properties.getClient().setRegion(region);
+        properties.getClient().setEndpoint(endpoint);
+        properties.getClient().setProfileName(profileName);
+        return properties;
+    }
+
+    /**
+     * Transport recording that it was closed, optionally failing to close.
+     */
+    private static class RecordingTransport implements AWSAppConfigTransport {
+
+        private final boolean failOnClose;
+
+        private boolean closed;
+
+        RecordingTransport(boolean failOnClose) {
+            this.failOnClose = failOnClose;
+        }
+
+        @Override
+        public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+            return CompletableFuture.completedFuture("token");
+        }
+
+        @Override
+        public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+            return CompletableFuture.completedFuture(new GetLatestConfigurationResult());
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            if (this.failOnClose) {
+                throw new IllegalStateException("Already closed");
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.springframework.boot.context.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.context.config.ConfigDataEnvironmentContributor.ImportPhase;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Processes a tree of multi-level, profile-specific and conditional imports with an
+ * {@link AWSAppConfigContributorProcessor}, comparing every phase with
+ * {@link ConfigDataEnvironmentContributors#withProcessedImports}.
+ */
+class AWSAppConfigContributorProcessorTests {
+
+    private static final Log logger = LogFactory.getLog(AWSAppConfigContributorProcessorTests.class);
+
+    private static final DeferredLogFactory LOG_FACTORY = Supplier::get;
+
+    private static final List<String> KEYS = List.of("a", "b", "c", "d", "e", "f", "g", "h", "i");
+
+    private final DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+
+    private final StandardEnvironment environment = new StandardEnvironment();
+
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    private AWSAppConfigContributorProcessor processor;
+
+    @TempDir
+    Path directory;
+
+    AWSAppConfigContributorProcessorTests() {
+        this.environment.getPropertySources().addFirst(new MapPropertySource("test", this.properties));
+        this.properties.put("import.name", "placeholder");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "dev", "extra", "dev,extra" })
+    void importsAreProcessedLikeSpringBoot(String activeProfiles) throws IOException {
+        writeFiles();
+        this.properties.put("spring.profiles.active", activeProfiles);
+        ConfigDataEnvironmentContributors expected = createContributors();
+        ConfigDataImporter expectedImporter = createImporter();
+        AWSAppConfigContributorProcessor processor = new AWSAppConfigContributorProcessor(logger, this.bootstrapContext, createImporter(),
+                expected);
+        expected = expected.withProcessedImports(expectedImporter, null);
+        processor.process(null);
+        assertSameTree(processor, expected, null);
+        ConfigDataActivationContext activationContext = new ConfigDataActivationContext(this.environment, expected.getBinder(null));
+        expected = expected.withProcessedImports(expectedImporter, activationContext);
+        processor.process(activationContext);
+        assertSameTree(processor, expected, activationContext);
+        Binder binder = expected.getBinder(activationContext,
+                (contributor) -> !contributor.hasConfigDataOption(ConfigData.Option.IGNORE_PROFILES));
+        activationContext = activationContext.withProfiles(new Profiles(this.environment, binder, Collections.emptyList()));
+        expected = expected.withProcessedImports(expectedImporter, activationContext);
+        processor.process(activationContext);
+        assertSameTree(processor, expected, activationContext);
+        ConfigDataEnvironmentContributors actual = asContributors(processor);
+        for (String key : KEYS) {
+            assertThat(bind(actual, activationContext, key)).as(key).isEqualTo(bind(expected, activationContext, key));
+        }
+    }
+
+    @Test
+    void profileSpecificFilesOfNestedImportsAreActivated() throws IOException {
+        writeFiles();
+        this.properties.put("spring.profiles.active", "dev");
+        ConfigDataActivationContext activationContext = processAll(createProcessor());
+        assertThat(activationContext.getProfiles().getActive()).containsExactly("dev");
+        ConfigDataEnvironmentContributors contributors = asContributors(this.processor);
+        assertThat(bind(contributors, activationContext, "e")).isEqualTo("dev-import");
+        assertThat(bind(contributors, activationContext, "g")).isEqualTo("dev-only");
+        assertThat(bind(contributors, activationContext, "h")).isEqualTo("nested-dev");
+        assertThat(bind(contributors, activationContext, "i")).isEqualTo("placeholder");
+    }
+
+    @Test
+    void reapplyReplacesTheContributorsOfAResource() throws IOException {
+        writeFiles();
+        this.properties.put("spring.profiles.active", "dev");
+        ConfigDataActivationContext activationContext = processAll(createProcessor());
+        this.processor.release();
+        ConfigDataEnvironmentContributor second = find(asContributors(this.processor), "second.yml");
+        assertThat(bind(asContributors(this.processor), activationContext, "c")).isEqualTo("second");
+        PropertySource<?> refreshed = new MapPropertySource("refreshed", Map.of("c", "refreshed"));
+        PropertySource<?> inactive = new MapPropertySource("inactive",
+                Map.of("spring.config.activate.on-profile", "other", "c", "inactive"));
+        List<PropertySource<?>> active = this.processor.reapply(second.getResource(), List.of(refreshed, inactive));
+        assertThat(active).containsExactly(refreshed);
+        ConfigDataEnvironmentContributors contributors = asContributors(this.processor);
+        assertThat(bind(contributors, activationContext, "c")).isEqualTo("refreshed");
+        assertThat(bind(contributors, activationContext, "d")).isNull();
+        assertThat(names(contributors)).contains("refreshed", "inactive").noneMatch((name) -> name.contains("second.yml"));
+    }
+
+    @Test
+    void releasedProcessorDoesNotProcessImports() throws IOException {
+        writeFiles();
+        AWSAppConfigContributorProcessor processor = createProcessor();
+        processor.process(null);
+        processor.release();
+        assertThatIllegalStateException().isThrownBy(() -> processor.process(null));
+    }
+
+    private AWSAppConfigContributorProcessor createProcessor() {
+        this.processor = new AWSAppConfigContributorProcessor(logger, this.bootstrapContext, createImporter(), createContributors());
+        return this.processor;
+    }
+
+    private ConfigDataActivationContext processAll(AWSAppConfigContributorProcessor processor) {
+        processor.process(null);
+        ConfigDataActivationContext activationContext = new ConfigDataActivationContext(this.environment,
+                asContributors(processor).getBinder(null));
+        processor.process(activationContext);
+        activationContext = activationContext.withProfiles(new Profiles(this.environment, asContributors(processor).getBinder(activationContext),
+                Collections.emptyList()));
+        processor.process(activationContext);
+        return activationContext;
+    }
+
+    private void writeFiles() throws IOException {
+        write("application.yml", "spring.config.import: first.yml, nested/, ${import.name}.yml", "a: application", "b: application",
+                "---", "spring.config.activate.on-profile: dev", "spring.config.import: dev-only.yml", "a: application-dev-document",
+                "---", "spring.config.activate.on-cloud-platform: kubernetes", "spring.config.import: cloud.yml");
+        write("application-dev.yml", "spring.config.import: dev-import.yml", "e: application-dev");
+        write("application-extra.yml", "b: application-extra");
+        write("first.yml", "spring.config.import: second.yml", "b: first", "c: ${a}");
+        write("second.yml", "c: second", "d: second", "---", "spring.config.activate.on-profile: extra", "d: second-extra");
+        write("dev-import.yml", "e: dev-import", "f: ${b}");
+        write("dev-only.yml", "g: dev-only");
+        write("cloud.yml", "g: cloud");
+        write("placeholder.yml", "i: placeholder");
+        write("nested/application.yml", "h: nested");
+        write("nested/application-dev.yml", "h: nested-dev");
+    }
+
+    private void write(String name, String... lines) throws IOException {
+        Path file = this.directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, List.of(lines));
+    }
+
+    private ConfigDataEnvironmentContributors createContributors() {
+        List<ConfigDataEnvironmentContributor> contributors = new ArrayList<>();
+        for (PropertySource<?> propertySource : this.environment.getPropertySources()) {
+            contributors.add(ConfigDataEnvironmentContributor.ofExisting(propertySource));
+        }
+        contributors.add(ConfigDataEnvironmentContributor.ofInitialImport(ConfigDataLocation.of("optional:file:" + this.directory + "/")));
+        return new ConfigDataEnvironmentContributors(LOG_FACTORY, this.bootstrapContext, contributors);
+    }
+
+    private ConfigDataImporter createImporter() {
+        ConfigDataLocationResolvers resolvers = new ConfigDataLocationResolvers(LOG_FACTORY, this.bootstrapContext, Binder.get(this.environment),
+                new DefaultResourceLoader());
+        ConfigDataLoaders loaders = new ConfigDataLoaders(LOG_FACTORY, this.bootstrapContext, getClass().getClassLoader());
+        return new ConfigDataImporter(LOG_FACTORY, ConfigDataNotFoundAction.FAIL, resolvers, loaders);
+    }
+
+    private ConfigDataEnvironmentContributors asContributors(AWSAppConfigContributorProcessor processor) {
+        return new ConfigDataEnvironmentContributors(LOG_FACTORY, this.bootstrapContext, processor.getContributors());
+    }
+
+    private void assertSameTree(AWSAppConfigContributorProcessor processor, ConfigDataEnvironmentContributors expected,
+                                ConfigDataActivationContext activationContext) {
+        StringBuilder actualTree = new StringBuilder();
+        describe(asContributors(processor).getRoot(), activationContext, "", actualTree);
+        StringBuilder expectedTree = new StringBuilder();
+        describe(expected.getRoot(), activationContext, "", expectedTree);
+        assertThat(actualTree).hasToString(expectedTree.toString());
+    }
+
+    private static void describe(ConfigDataEnvironmentContributor contributor, ConfigDataActivationContext activationContext, String indent,
+                                 StringBuilder tree) {
+        PropertySource<?> propertySource = contributor.getPropertySource();
+        tree.append(indent).append(contributor.getKind()).append(' ').append(contributor.getLocation()).append(' ')
+                .append((propertySource != null) ? propertySource.getName() : null)
+                .append(" active=").append(contributor.isActive(activationContext))
+                .append(" profileSpecific=").append(contributor.isFromProfileSpecificImport())
+                .append(" option=").append(contributor.hasConfigDataOption(ConfigData.Option.PROFILE_SPECIFIC))
+                .append(" imports=").append(contributor.getImports()).append('\n');
+        for (ImportPhase phase : ImportPhase.values()) {
+            tree.append(indent).append(' ').append(phase).append(" unprocessed=").append(contributor.hasUnprocessedImports(phase)).append('\n');
+            for (ConfigDataEnvironmentContributor child : contributor.getChildren(phase)) {
+                describe(child, activationContext, indent + "  ", tree);
+            }
+        }
+    }
+
+    private static String bind(ConfigDataEnvironmentContributors contributors, ConfigDataActivationContext activationContext, String key) {
+        return contributors.getBinder(activationContext).bind(key, String.class).orElse(null);
+    }
+
+    private static ConfigDataEnvironmentContributor find(ConfigDataEnvironmentContributors contributors, String file) {
+        for (ConfigDataEnvironmentContributor contributor : contributors) {
+            if (contributor.getPropertySource() != null && contributor.getPropertySource().getName().contains(file)) {
+                return contributor;
+            }
+        }
+        throw new IllegalStateException("No contributor for " + file);
+    }
+
+    private static List<String> names(ConfigDataEnvironmentContributors contributors) {
+        List<String> names = new ArrayList<>();
+        for (ConfigDataEnvironmentContributor contributor : contributors) {
+            if (contributor.getPropertySource() != null) {
+                names.add(contributor.getPropertySource().getName());
+            }
+        }
+        return names;
+    }
+}
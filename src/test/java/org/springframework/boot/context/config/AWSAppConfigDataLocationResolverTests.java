@@ -0,0 +1,181 @@
+package org.springframework.boot.context.config;
+
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Resolves {@code aws-app-config} and {@code aws-app-config-agent} locations with an {@link AWSAppConfigDataLocationResolver}.
+ */
+class AWSAppConfigDataLocationResolverTests {
+
+    private static final DeferredLogFactory LOG_FACTORY = Supplier::get;
+
+    private final AWSAppConfigDataLocationResolver resolver = new AWSAppConfigDataLocationResolver();
+
+    private final StandardEnvironment environment = new StandardEnvironment();
+
+    private final AWSAppConfigInMemoryTransport appConfig = new AWSAppConfigInMemoryTransport();
+
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    private final DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+
+    private final ConfigDataLocationResolverContext context;
+
+    AWSAppConfigDataLocationResolverTests() {
+        this.environment.getPropertySources().addFirst(new MapPropertySource("test", this.properties));
+        this.properties.put("aws.appconfig.application", "app");
+        this.properties.put("aws.appconfig.environment", "env");
+        this.properties.put("aws.appconfig.profile", "profile");
+        this.context = new TestResolverContext(Binder.get(this.environment), this.bootstrapContext);
+        AWSAppConfigClientRegistry clientRegistry = new AWSAppConfigClientRegistry();
+        clientRegistry.register(new AWSAppConfigClientRegistry.ClientKey(null, null, null), this.appConfig);
+        clientRegistry.register(new AWSAppConfigClientRegistry.ClientKey(null, AWSAppConfigAgentTransport.DEFAULT_ENDPOINT, null,
+                AWSAppConfigProperties.Transport.AGENT), this.appConfig);
+        this.bootstrapContext.register(AWSAppConfigClientRegistry.class, BootstrapRegistry.InstanceSupplier.of(clientRegistry));
+    }
+
+    @Test
+    void bothPrefixesAreResolvable() {
+        assertThat(this.resolver.isResolvable(this.context, ConfigDataLocation.of("aws-app-config"))).isTrue();
+        assertThat(this.resolver.isResolvable(this.context, ConfigDataLocation.of("aws-app-config:app/env/profile"))).isTrue();
+        assertThat(this.resolver.isResolvable(this.context, ConfigDataLocation.of("aws-app-config-agent"))).isTrue();
+        assertThat(this.resolver.isResolvable(this.context, ConfigDataLocation.of("aws-app-config-agent:app/env/profile"))).isTrue();
+        assertThat(this.resolver.isResolvable(this.context, ConfigDataLocation.of("aws-app-configuration"))).isFalse();
+    }
+
+    @Test
+    void sameProfileThroughBothPrefixesResolvesToDistinctResources() {
+        AWSAppConfigResource client = resolveOne("aws-app-config:app/env/profile");
+        AWSAppConfigResource agent = resolveOne("aws-app-config-agent:app/env/profile");
+        assertThat(client.getRequest()).isEqualTo(agent.getRequest());
+        assertThat(client.getTransportType()).isNull();
+        assertThat(agent.getTransportType()).isEqualTo(AWSAppConfigProperties.Transport.AGENT);
+        assertThat(client).isNotEqualTo(agent);
+        assertThat(client).isEqualTo(resolveOne("aws-app-config:app/env/profile")).hasSameHashCodeAs(resolveOne("aws-app-config"));
+        assertThat(agent).isEqualTo(resolveOne("aws-app-config-agent:app/env/profile")).hasSameHashCodeAs(resolveOne("aws-app-config-agent"));
+        Set<AWSAppConfigResource> loaded = new HashSet<>(List.of(client, agent));
+        assertThat(loaded).hasSize(2);
+    }
+
+    @Test
+    void triplesAreResolvedInOrder() {
+        publish("a", "b", "c");
+        List<AWSAppConfigResource> resources = this.resolver.resolveProfileSpecific(this.context,
+                ConfigDataLocation.of("aws-app-config:app/env/a; app/env/b;app/env/c;"), null);
+        assertThat(resources).extracting((resource) -> resource.getRequest().getConfigurationProfileIdentifier()).containsExactly("a", "b", "c");
+        assertThat(resources).allSatisfy((resource) -> {
+            assertThat(resource.getRequest().getApplicationIdentifier()).isEqualTo("app");
+            assertThat(resource.getRequest().getEnvironmentIdentifier()).isEqualTo("env");
+            assertThat(resource.getTransportType()).isNull();
+        });
+        assertThat(AWSAppConfigFetchCache.get(this.bootstrapContext, LogFactory.getLog(getClass())).getFetchCount()).isEqualTo(3);
+        assertThat(this.resolver.resolveProfileSpecific(this.context, ConfigDataLocation.of("aws-app-config-agent:app/env/a;app/env/b"), null))
+                .extracting(AWSAppConfigResource::getTransportType).containsOnly(AWSAppConfigProperties.Transport.AGENT);
+    }
+
+    @Test
+    void laterTriplesTakePrecedence() {
+        publish("a", "b", "c");
+        ConfigDataEnvironmentContributors contributors = processImports("aws-app-config:app/env/a;app/env/b;app/env/c");
+        List<String> profiles = new ArrayList<>();
+        for (ConfigDataEnvironmentContributor contributor : contributors) {
+            PropertySource<?> propertySource = contributor.getPropertySource();
+            if (propertySource != null && propertySource.containsProperty("key")) {
+                profiles.add((String) propertySource.getProperty("key"));
+            }
+        }
+        assertThat(profiles).containsExactly("c", "b", "a");
+        Binder binder = contributors.getBinder(null);
+        assertThat(binder.bind("key", String.class).get()).isEqualTo("c");
+        assertThat(binder.bind("only-a", String.class).get()).isEqualTo("a");
+        assertThat(binder.bind("only-b", String.class).get()).isEqualTo("b");
+    }
+
+    @Test
+    void malformedTriplesAreRejected() {
+        for (String location : List.of("aws-app-config:app/env", "aws-app-config:app/env/profile/extra", "aws-app-config:app//profile",
+                "aws-app-config:app/env/a;app/env", "aws-app-config-agent:app")) {
+            assertThatIllegalArgumentException().as(location)
+                    .isThrownBy(() -> this.resolver.resolveProfileSpecific(this.context, ConfigDataLocation.of(location), null))
+                    .withMessageContaining("Invalid AWS AppConfig location").withMessageContaining(location);
+        }
+        assertThat(AWSAppConfigFetchCache.get(this.bootstrapContext, LogFactory.getLog(getClass())).getFetchCount()).isZero();
+    }
+
+    private void publish(String... profiles) {
+        for (String profile : profiles) {
+            this.appConfig.publish("app", "env", profile, "application/json", "{\"key\":\"" + profile + "\",\"only-" + profile + "\":\"" + profile + "\"}");
+        }
+    }
+
+    private ConfigDataEnvironmentContributors processImports(String location) {
+        List<ConfigDataEnvironmentContributor> contributors = new ArrayList<>();
+        for (PropertySource<?> propertySource : this.environment.getPropertySources()) {
+            contributors.add(ConfigDataEnvironmentContributor.ofExisting(propertySource));
+        }
+        contributors.add(ConfigDataEnvironmentContributor.ofInitialImport(ConfigDataLocation.of(location)));
+        Binder binder = Binder.get(this.environment);
+        ConfigDataLocationResolvers resolvers = new ConfigDataLocationResolvers(LOG_FACTORY, this.bootstrapContext, binder, new DefaultResourceLoader());
+        ConfigDataLoaders loaders = new ConfigDataLoaders(LOG_FACTORY, this.bootstrapContext, getClass().getClassLoader());
+        ConfigDataImporter importer = new ConfigDataImporter(LOG_FACTORY, ConfigDataNotFoundAction.FAIL, resolvers, loaders);
+        ConfigDataActivationContext activationContext = new ConfigDataActivationContext(this.environment, binder)
+                .withProfiles(new Profiles(this.environment, binder, Collections.emptyList()));
+        return new ConfigDataEnvironmentContributors(LOG_FACTORY, this.bootstrapContext, contributors).withProcessedImports(importer,
+                activationContext);
+    }
+
+    private AWSAppConfigResource resolveOne(String location) {
+        List<AWSAppConfigResource> resources = this.resolver.resolveProfileSpecific(this.context, ConfigDataLocation.of(location), null);
+        assertThat(resources).hasSize(1);
+        return resources.get(0);
+    }
+
+    private static final class TestResolverContext implements ConfigDataLocationResolverContext {
+
+        private final Binder binder;
+
+        private final ConfigurableBootstrapContext bootstrapContext;
+
+        TestResolverContext(Binder binder, ConfigurableBootstrapContext bootstrapContext) {
+            this.binder = binder;
+            this.bootstrapContext = bootstrapContext;
+        }
+
+        @Override
+        public Binder getBinder() {
+            return this.binder;
+        }
+
+        @Override
+        public ConfigDataResource getParent() {
+            return null;
+        }
+
+        @Override
+        public ConfigurableBootstrapContext getBootstrapContext() {
+            return this.bootstrapContext;
+        }
+    }
+}
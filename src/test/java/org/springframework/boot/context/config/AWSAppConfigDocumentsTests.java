@@ -0,0 +1,122 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.origin.OriginTrackedValue;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Activation and merging of the documents of a configuration profile by {@link AWSAppConfigDocuments}.
+ */
+class AWSAppConfigDocumentsTests {
+
+    @Test
+    void laterDocumentsTakePrecedence() {
+        Map<String, Object> merged = merge(List.of("default"), List.of(document("a", 1, "b", 2), document("b", 3, "c", 4)));
+        assertThat(merged).containsExactly(entry("a", 1), entry("b", 3), entry("c", 4));
+    }
+
+    @Test
+    void valuesRememberTheirDocument() {
+        Map<String, Object> merged = AWSAppConfigDocuments.merge("request", List.of(document("a", 1), document("b", 2)), List.of("default"));
+        assertThat(((OriginTrackedValue) merged.get("a")).getOrigin()).hasToString(new AWSAppConfigOrigin("request", 0).toString());
+        assertThat(((OriginTrackedValue) merged.get("b")).getOrigin()).hasToString(new AWSAppConfigOrigin("request", 1).toString());
+    }
+
+    @Test
+    void redefinedListReplacesEarlierList() {
+        Map<String, Object> merged = merge(List.of("default"), List.of(document("hosts[0]", "a", "hosts[1]", "b", "hosts[2]", "c"),
+                document("hosts[0]", "x")));
+        assertThat(merged).containsExactly(entry("hosts[0]", "x"));
+    }
+
+    @Test
+    void redefinedListOfObjectsReplacesEarlierList() {
+        Map<String, Object> merged = merge(List.of("default"),
+                List.of(document("servers[0].host", "a", "servers[0].port", 80, "servers[1].host", "b"), document("servers[0].host", "x")));
+        assertThat(merged).containsExactly(entry("servers[0].host", "x"));
+    }
+
+    @Test
+    void numericMapKeysAreMerged() {
+        Map<String, Object> merged = merge(List.of("default"), List.of(document("codes[404]", "nf", "codes[500]", "ise"),
+                document("codes[404]", "not-found")));
+        assertThat(merged).containsOnly(entry("codes[404]", "not-found"), entry("codes[500]", "ise"));
+    }
+
+    @Test
+    void mapKeysWithGapsAreMerged() {
+        Map<String, Object> merged = merge(List.of("default"), List.of(document("ids[0]", "a", "ids[2]", "c"),
+                document("ids[1]", "b", "ids[3]", "d")));
+        assertThat(merged).containsOnlyKeys("ids[0]", "ids[1]", "ids[2]", "ids[3]");
+    }
+
+    @Test
+    void listUnderMapKeyIsReplaced() {
+        Map<String, Object> merged = merge(List.of("default"),
+                List.of(document("routes[404].targets[0]", "a", "routes[404].targets[1]", "b", "routes[500].targets[0]", "c"),
+                document("routes[404].targets[0]", "x")));
+        assertThat(merged).containsOnly(entry("routes[404].targets[0]", "x"), entry("routes[500].targets[0]", "c"));
+    }
+
+    @Test
+    void documentsAreActivatedOnProfile() {
+        Map<String, Object> base = document("a", 1);
+        Map<String, Object> dev = document("spring.config.activate.on-profile", "dev", "a", 2);
+        Map<String, Object> prod = document("spring.config.activate.on-profile", "prod", "a", 3);
+        assertThat(merge(List.of("default"), List.of(base, dev, prod))).containsExactly(entry("a", 1));
+        assertThat(merge(List.of("dev"), List.of(base, dev, prod))).containsExactly(entry("a", 2));
+        assertThat(merge(List.of("dev", "prod"), List.of(base, dev, prod))).containsExactly(entry("a", 3));
+    }
+
+    @Test
+    void profileExpressionsAndListsAreEvaluated() {
+        Map<String, Object> expression = document("spring.config.activate.on-profile", "dev & !cloud");
+        assertThat(AWSAppConfigDocuments.isActive(expression, List.of("dev"))).isTrue();
+        assertThat(AWSAppConfigDocuments.isActive(expression, List.of("dev", "cloud"))).isFalse();
+        Map<String, Object> list = document("spring.config.activate.on-profile[0]", "dev", "spring.config.activate.on-profile[1]", "test");
+        assertThat(AWSAppConfigDocuments.isActive(list, List.of("test"))).isTrue();
+        assertThat(AWSAppConfigDocuments.isActive(list, List.of("prod"))).isFalse();
+        Map<String, Object> commaSeparated = document("spring.config.activate.on-profile", "dev, test");
+        assertThat(AWSAppConfigDocuments.isActive(commaSeparated, List.of("test"))).isTrue();
+        assertThat(AWSAppConfigDocuments.isActive(document("a", 1), List.of())).isTrue();
+    }
+
+    @Test
+    void inactiveDocumentDoesNotReplaceLists() {
+        Map<String, Object> merged = merge(List.of("default"), List.of(document("hosts[0]", "a", "hosts[1]", "b"),
+                document("spring.config.activate.on-profile", "dev", "hosts[0]", "x")));
+        assertThat(merged).containsExactly(entry("hosts[0]", "a"), entry("hosts[1]", "b"));
+    }
+
+    @Test
+    void cloudPlatformConditionIsLeftToSpringBoot() {
+        assertThat(merge(List.of("default"),
+                List.of(document("a", 1), document("spring.config.activate.on-cloud-platform", "kubernetes", "a", 2))))
+                .isNull();
+    }
+
+    private static Map<String, Object> merge(Collection<String> acceptedProfiles, List<Map<String, Object>> documents) {
+        Map<String, Object> merged = AWSAppConfigDocuments.merge("request", documents, acceptedProfiles);
+        if (merged == null) {
+            return null;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        merged.forEach((name, value) -> values.put(name, ((OriginTrackedValue) value).getValue()));
+        return values;
+    }
+
+    private static Map<String, Object> document(Object... entries) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            document.put((String) entries[i], entries[i + 1]);
+        }
+        return document;
+    }
+}
@@ -0,0 +1,90 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Compiles AppConfig feature flags documents into {@link AWSAppConfigFeatureFlagsSnapshot snapshots}.
+ */
+class AWSAppConfigFeatureFlagsSnapshotTests {
+
+    private static final String FLAGS = "{\"checkout\":{\"enabled\":true,\"variant\":\"blue\",\"limit\":25,\"ratio\":0.75,"
+            + "\"beta\":false,\"regions\":[\"eu\",\"us\"],\"unset\":null},\"legacy\":{\"enabled\":false}}";
+
+    @Test
+    void evaluatedFlagsAreCompiled() throws IOException {
+        AWSAppConfigFeatureFlagsSnapshot snapshot = compile(FLAGS, "3");
+        assertThat(snapshot.getFlagNames()).containsExactlyInAnyOrder("checkout", "legacy");
+        assertThat(snapshot.isEnabled("checkout")).isTrue();
+        assertThat(snapshot.isEnabled("legacy")).isFalse();
+        assertThat(snapshot.contains("legacy")).isTrue();
+        assertThat(snapshot.isEnabled("missing")).isFalse();
+        assertThat(snapshot.contains("missing")).isFalse();
+        assertThat(snapshot.getVersionLabel()).isEqualTo("3");
+    }
+
+    @Test
+    void hostedConfigurationIsCompiledFromItsValues() throws IOException {
+        String hosted = "{\"flags\":{\"checkout\":{\"name\":\"Checkout\",\"attributes\":{\"limit\":{\"constraints\":{\"type\":\"number\"}}}}},"
+                + "\"values\":{\"checkout\":{\"enabled\":true,\"limit\":10}},\"version\":\"1\"}";
+        AWSAppConfigFeatureFlagsSnapshot snapshot = compile(hosted, "1");
+        assertThat(snapshot.getFlagNames()).containsExactly("checkout");
+        assertThat(snapshot.isEnabled("checkout")).isTrue();
+        assertThat(snapshot.getLong("checkout", "limit", 0)).isEqualTo(10);
+    }
+
+    @Test
+    void flagNamedValuesIsNotMistakenForHostedConfiguration() throws IOException {
+        AWSAppConfigFeatureFlagsSnapshot snapshot = compile("{\"values\":{\"enabled\":true}}", null);
+        assertThat(snapshot.getFlagNames()).containsExactly("values");
+        assertThat(snapshot.isEnabled("values")).isTrue();
+    }
+
+    @Test
+    void attributesAreReadByType() throws IOException {
+        AWSAppConfigFeatureFlagsSnapshot snapshot = compile(FLAGS, "3");
+        assertThat(snapshot.getString("checkout", "variant", "red")).isEqualTo("blue");
+        assertThat(snapshot.getString("checkout", "limit", null)).isEqualTo("25");
+        assertThat(snapshot.getLong("checkout", "limit", 0)).isEqualTo(25);
+        assertThat(snapshot.getDouble("checkout", "limit", 0)).isEqualTo(25.0);
+        assertThat(snapshot.getDouble("checkout", "ratio", 0)).isEqualTo(0.75);
+        assertThat(snapshot.getLong("checkout", "ratio", -1)).isZero();
+        assertThat(snapshot.getBoolean("checkout", "beta", true)).isFalse();
+        assertThat(snapshot.getList("checkout", "regions")).isEqualTo(List.of("eu", "us"));
+    }
+
+    @Test
+    void mismatchedOrMissingAttributesUseDefaults() throws IOException {
+        AWSAppConfigFeatureFlagsSnapshot snapshot = compile(FLAGS, "3");
+        assertThat(snapshot.getLong("checkout", "variant", 7)).isEqualTo(7);
+        assertThat(snapshot.getBoolean("checkout", "variant", true)).isTrue();
+        assertThat(snapshot.getString("checkout", "regions", "none")).isEqualTo("none");
+        assertThat(snapshot.getList("checkout", "variant")).isEmpty();
+        assertThat(snapshot.getString("checkout", "unset", "default")).isEqualTo("default");
+        assertThat(snapshot.getString("missing", "variant", "default")).isEqualTo("default");
+        assertThat(snapshot.getDouble("legacy", "ratio", 0.5)).isEqualTo(0.5);
+    }
+
+    @Test
+    void emptyDocumentHasNoFlags() throws IOException {
+        assertThat(compile("", null).getFlagNames()).isEmpty();
+        assertThat(compile("{}", null).getFlagNames()).isEmpty();
+    }
+
+    @Test
+    void invalidDocumentsAreRejected() {
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> compile("[]", null));
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> compile("{\"checkout\":true}", null));
+    }
+
+    private static AWSAppConfigFeatureFlagsSnapshot compile(String json, String versionLabel) throws IOException {
+        return AWSAppConfigFeatureFlagsSnapshot.compile(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), versionLabel);
+    }
+}
@@ -0,0 +1,115 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feature flags loaded by the {@link AWSAppConfigDataLoader} and swapped on refresh.
+ */
+class AWSAppConfigFeatureFlagsTests {
+
+    private static final StartConfigurationSessionRequest REQUEST = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+            .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("flags");
+
+    private final DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+
+    private final AWSAppConfigInMemoryTransport appConfig = new AWSAppConfigInMemoryTransport();
+
+    private final AWSAppConfigDataLoader loader = new AWSAppConfigDataLoader();
+
+    @Test
+    void updateSwapsSnapshot() throws IOException {
+        AWSAppConfigFeatureFlags featureFlags = new AWSAppConfigFeatureFlags(compile("{\"checkout\":{\"enabled\":false,\"limit\":1}}", "1"));
+        AWSAppConfigFeatureFlagsSnapshot previous = featureFlags.getSnapshot();
+        featureFlags.update(compile("{\"checkout\":{\"enabled\":true,\"limit\":2}}", "2"));
+        assertThat(featureFlags.isEnabled("checkout")).isTrue();
+        assertThat(featureFlags.getLong("checkout", "limit", 0)).isEqualTo(2);
+        assertThat(featureFlags.getVersionLabel()).isEqualTo("2");
+        assertThat(previous.isEnabled("checkout")).isFalse();
+        assertThat(previous.getLong("checkout", "limit", 0)).isEqualTo(1);
+    }
+
+    @Test
+    void refreshUpdatesFlags() throws Exception {
+        this.appConfig.publish("app", "env", "flags", "application/json", "{\"checkout\":{\"enabled\":false}}");
+        AWSAppConfigResource resource = createResource(this.appConfig);
+        AWSAppConfigFeatureFlags featureFlags = this.loader.loadFeatureFlags(this.bootstrapContext, resource);
+        assertThat(featureFlags.isEnabled("checkout")).isFalse();
+        this.appConfig.publish("app", "env", "flags", "application/json", "{\"checkout\":{\"enabled\":true}}");
+        assertThat(refresh()).isTrue();
+        assertThat(featureFlags.isEnabled("checkout")).isTrue();
+        assertThat(featureFlags.getVersionLabel()).isEqualTo("2");
+    }
+
+    @Test
+    void flagsMissingAtStartupAreFilledByRefresh() throws Exception {
+        this.appConfig.publish("app", "env", "flags", "application/json", "{\"checkout\":{\"enabled\":true}}");
+        UndeployedTransport transport = new UndeployedTransport(this.appConfig);
+        AWSAppConfigResource resource = createResource(transport);
+        resource.getProperties().getStartup().setTimeout(Duration.ofMillis(50));
+        resource.getProperties().getStartup().setOnTimeout(ConfigDataNotFoundAction.IGNORE);
+        AWSAppConfigFeatureFlags featureFlags = this.loader.loadFeatureFlags(this.bootstrapContext, resource);
+        assertThat(featureFlags.getFlagNames()).isEmpty();
+        transport.deployed = true;
+        assertThat(refresh()).isTrue();
+        assertThat(featureFlags.isEnabled("checkout")).isTrue();
+    }
+
+    private AWSAppConfigResource createResource(AWSAppConfigTransport transport) {
+        AWSAppConfigResource resource = new AWSAppConfigResource(transport, REQUEST);
+        resource.getProperties().getRefresh().setEnabled(true);
+        return resource;
+    }
+
+    private boolean refresh() throws Exception {
+        AWSAppConfigSessions sessions = AWSAppConfigSessions.get(this.bootstrapContext);
+        assertThat(sessions.getSessions()).hasSize(1);
+        AWSAppConfigRefresher refresher = new AWSAppConfigRefresher(new StandardEnvironment(), sessions, this.loader, new AWSAppConfigGeneration(),
+                new AWSAppConfigProperties.Refresh());
+        return refresher.refresh(sessions.getSessions().get(0));
+    }
+
+    private static AWSAppConfigFeatureFlagsSnapshot compile(String json, String versionLabel) throws IOException {
+        return AWSAppConfigFeatureFlagsSnapshot.compile(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), versionLabel);
+    }
+
+    /**
+     * Transport answering without configuration until the profile is deployed.
+     */
+    private static class UndeployedTransport implements AWSAppConfigTransport {
+
+        private final AWSAppConfigTransport delegate;
+
+        private volatile boolean deployed;
+
+        UndeployedTransport(AWSAppConfigTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+            return this.delegate.startConfigurationSession(request);
+        }
+
+        @Override
+        public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+            if (!this.deployed) {
+                return CompletableFuture.completedFuture(new GetLatestConfigurationResult().withNextPollConfigurationToken(configurationToken)
+                        .withNextPollIntervalInSeconds(1).withConfiguration(ByteBuffer.allocate(0)));
+            }
+            return this.delegate.getLatestConfiguration(configurationToken);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.ResourceNotFoundException;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultBootstrapContext;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Fetches shared through an {@link AWSAppConfigFetchCache}.
+ */
+class AWSAppConfigFetchCacheTests {
+
+    private final DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+
+    private final AWSAppConfigInMemoryTransport appConfig = new AWSAppConfigInMemoryTransport();
+
+    private final AWSAppConfigDataLoader loader = new AWSAppConfigDataLoader();
+
+    private final AWSAppConfigFetchCache cache = new AWSAppConfigFetchCache(LogFactory.getLog(AWSAppConfigFetchCacheTests.class));
+
+    private final AWSAppConfigResource resource = new AWSAppConfigResource(this.appConfig, new StartConfigurationSessionRequest()
+            .withApplicationIdentifier("app").withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("profile"));
+
+    @Test
+    void prefetchedConfigurationIsReused() throws Exception {
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        this.cache.prefetch(this.bootstrapContext, this.loader, Collections.singletonList(this.resource), 1);
+        AWSAppConfigDataLoader.Fetched fetched = this.cache.fetch(this.bootstrapContext, this.loader, this.resource);
+        assertThat(fetched.configurationResult().getVersionLabel()).isEqualTo("1");
+        assertThat(this.cache.getFetchCount()).isEqualTo(1);
+        assertThat(this.cache.getFetchHitCount()).isEqualTo(1);
+        assertThat(this.appConfig.getSessionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failedPrefetchIsFetchedAgain() throws Exception {
+        this.cache.prefetch(this.bootstrapContext, this.loader, Collections.singletonList(this.resource), 1);
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        AWSAppConfigDataLoader.Fetched fetched = this.cache.fetch(this.bootstrapContext, this.loader, this.resource);
+        assertThat(fetched.configurationResult().getVersionLabel()).isEqualTo("1");
+        assertThat(this.cache.getFetchCount()).isEqualTo(2);
+    }
+
+    @Test
+    void failedFetchIsNotCached() throws Exception {
+        assertThatExceptionOfType(ResourceNotFoundException.class)
+                .isThrownBy(() -> this.cache.fetch(this.bootstrapContext, this.loader, this.resource));
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        assertThat(this.cache.fetch(this.bootstrapContext, this.loader, this.resource).configurationResult()).isNotNull();
+        assertThat(this.cache.getFetchCount()).isEqualTo(2);
+    }
+}
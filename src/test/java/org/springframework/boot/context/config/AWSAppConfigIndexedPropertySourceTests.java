@@ -0,0 +1,164 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationProperty;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.IterableConfigurationPropertySource;
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.boot.origin.PropertySourceOrigin;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.core.env.PropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookups of an {@link AWSAppConfigIndexedPropertySource} and its {@link AWSAppConfigIndexedConfigurationPropertySource}
+ * binder view, comparing them with an {@link OriginTrackedMapPropertySource} over the same properties.
+ */
+class AWSAppConfigIndexedPropertySourceTests {
+
+    private static final List<String> NAMES = List.of("", "a", "a.b", "a.bc", "a.b.c", "a[0]", "a[1]", "a[2]", "b", "server", "server.port",
+            "server.hosts", "server.hosts[0]", "server.hosts[1]", "my-app", "my-app.name", "my-app.tags", "my-app.tags.env", "missing",
+            "missing.key");
+
+    private final Origin origin = new TextResourceOrigin(null, new TextResourceOrigin.Location(3, 7));
+
+    private final Map<String, Object> properties = createProperties();
+
+    private final AWSAppConfigIndexedPropertySource indexed = new AWSAppConfigIndexedPropertySource("indexed", this.properties);
+
+    private final OriginTrackedMapPropertySource map = new OriginTrackedMapPropertySource("map", this.properties, true);
+
+    @Test
+    void propertiesAreLookedUpByName() {
+        assertThat(this.indexed.size()).isEqualTo(this.properties.size());
+        assertThat(this.indexed.getPropertyNames()).containsExactlyInAnyOrderElementsOf(this.properties.keySet()).isSorted();
+        for (String name : NAMES) {
+            assertThat(this.indexed.containsProperty(name)).as(name).isEqualTo(this.map.containsProperty(name));
+            assertThat(this.indexed.getProperty(name)).as(name).isEqualTo(this.map.getProperty(name));
+        }
+        assertThat(this.indexed.getProperty("server.port")).isEqualTo(8080);
+        assertThat(this.indexed.getProperty("a.b.c")).isEqualTo("tracked");
+    }
+
+    @Test
+    void originsOfTrackedValuesAreKept() {
+        assertThat(this.indexed.getOrigin("a.b.c")).isSameAs(this.origin);
+        assertThat(this.indexed.getOrigin("server.port")).isNull();
+        assertThat(this.indexed.getOrigin("missing")).isNull();
+        assertThat(new AWSAppConfigIndexedPropertySource("untracked", Map.of("a", "1")).getOrigin("a")).isNull();
+    }
+
+    @Test
+    void equalValuesAreShared() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("a", new String("value"));
+        properties.put("b", new String("value"));
+        AWSAppConfigIndexedPropertySource indexed = new AWSAppConfigIndexedPropertySource("shared", properties);
+        assertThat(indexed.getProperty("a")).isSameAs(indexed.getProperty("b"));
+    }
+
+    @Test
+    void descendantsAreFoundByPrefix() {
+        assertThat(this.indexed.containsDescendantOf("a")).isTrue();
+        assertThat(this.indexed.containsDescendantOf("a.b")).isTrue();
+        assertThat(this.indexed.containsDescendantOf("a.bc")).isFalse();
+        assertThat(this.indexed.containsDescendantOf("server.hosts")).isTrue();
+        assertThat(this.indexed.containsDescendantOf("server.port")).isFalse();
+        assertThat(this.indexed.containsDescendantOf("missing")).isFalse();
+        assertThat(this.indexed.getPropertyNames("a.b")).containsExactly("a.b", "a.b.c", "a.bc");
+        assertThat(this.indexed.getPropertyNames("server.hosts[")).containsExactly("server.hosts[0]", "server.hosts[1]");
+        assertThat(this.indexed.getPropertyNames("z")).isEmpty();
+    }
+
+    @Test
+    void binderViewMatchesTheAdaptedMap() {
+        IterableConfigurationPropertySource actual = this.indexed.asConfigurationPropertySource();
+        IterableConfigurationPropertySource expected = (IterableConfigurationPropertySource) ConfigurationPropertySource.from(this.map);
+        assertThat(this.indexed.asConfigurationPropertySource()).isSameAs(actual);
+        assertThat(actual.getUnderlyingSource()).isSameAs(this.indexed);
+        assertThat(actual.stream().collect(Collectors.toList())).containsExactlyInAnyOrderElementsOf(expected.stream().collect(Collectors.toList()));
+        for (String name : NAMES) {
+            ConfigurationPropertyName propertyName = ConfigurationPropertyName.of(name);
+            assertThat(actual.containsDescendantOf(propertyName)).as(name).isEqualTo(expected.containsDescendantOf(propertyName));
+            ConfigurationProperty actualProperty = actual.getConfigurationProperty(propertyName);
+            ConfigurationProperty expectedProperty = expected.getConfigurationProperty(propertyName);
+            assertThat(value(actualProperty)).as(name).isEqualTo(value(expectedProperty));
+            assertThat(describe(origin(actualProperty), this.indexed)).as(name).isEqualTo(describe(origin(expectedProperty), this.map));
+        }
+        assertThat(actual.getConfigurationProperty(ConfigurationPropertyName.of("a.b.c")).getOrigin()).isSameAs(this.origin);
+        assertThat(actual.getConfigurationProperty(null)).isNull();
+    }
+
+    @Test
+    void relaxedNamesAreBoundLikeTheAdaptedMap() {
+        Binder actual = new Binder(this.indexed.asConfigurationPropertySource());
+        Binder expected = new Binder(ConfigurationPropertySource.from(this.map));
+        for (String name : List.of("a", "server", "my-app")) {
+            assertThat(actual.bind(name, Bindable.mapOf(String.class, Object.class)).orElse(null)).as(name)
+                    .isEqualTo(expected.bind(name, Bindable.mapOf(String.class, Object.class)).orElse(null));
+        }
+        assertThat(actual.bind("server.hosts", Bindable.listOf(String.class)).get()).containsExactly("one", "two")
+                .isEqualTo(expected.bind("server.hosts", Bindable.listOf(String.class)).get());
+        assertThat(actual.bind("a", Bindable.listOf(String.class)).get()).isEqualTo(expected.bind("a", Bindable.listOf(String.class)).get());
+        assertThat(actual.bind("my-app.name", String.class).get()).isEqualTo("relaxed");
+    }
+
+    @Test
+    void propertiesAreIndexedFromTheThreshold() {
+        Map<String, Object> properties = Map.of("a", "1", "b", "2");
+        assertThat(AWSAppConfigDataLoader.createPropertySource("below", properties, 3)).isInstanceOf(OriginTrackedMapPropertySource.class);
+        assertThat(AWSAppConfigDataLoader.createPropertySource("at", properties, 2)).isInstanceOf(AWSAppConfigIndexedPropertySource.class);
+        assertThat(AWSAppConfigDataLoader.createPropertySource("always", properties, 0)).isInstanceOf(AWSAppConfigIndexedPropertySource.class);
+        assertThat(AWSAppConfigDataLoader.createPropertySource("never", properties, -1)).isInstanceOf(OriginTrackedMapPropertySource.class);
+        PropertySource<?> propertySource = AWSAppConfigDataLoader.createPropertySource("at", properties, 2);
+        assertThat(propertySource.getName()).isEqualTo("at");
+        assertThat(propertySource.getProperty("b")).isEqualTo("2");
+    }
+
+    private Map<String, Object> createProperties() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("a.b", "ab");
+        properties.put("a.bc", "abc");
+        properties.put("a.b.c", OriginTrackedValue.of("tracked", this.origin));
+        properties.put("a[0]", "first");
+        properties.put("a[1]", "second");
+        properties.put("server.port", 8080);
+        properties.put("server.hosts[0]", "one");
+        properties.put("server.hosts[1]", "two");
+        properties.put("myApp.name", "relaxed");
+        properties.put("my-app.tags.env", "dev");
+        properties.put("b", "");
+        return properties;
+    }
+
+    private static Object value(ConfigurationProperty property) {
+        return (property != null) ? property.getValue() : null;
+    }
+
+    private static Origin origin(ConfigurationProperty property) {
+        return (property != null) ? property.getOrigin() : null;
+    }
+
+    /**
+     * Describe an origin regardless of the property source it was looked up in, as {@link PropertySourceOrigin} has
+     * no equality.
+     */
+    private static String describe(Origin origin, PropertySource<?> propertySource) {
+        if (origin instanceof PropertySourceOrigin propertySourceOrigin) {
+            assertThat(propertySourceOrigin.getPropertySource()).isSameAs(propertySource);
+            return "property " + propertySourceOrigin.getPropertyName();
+        }
+        return String.valueOf(origin);
+    }
+}
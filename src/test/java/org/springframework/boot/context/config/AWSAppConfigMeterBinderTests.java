@@ -0,0 +1,191 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.BootstrapRegistry;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Meters bound by an {@link AWSAppConfigMeterBinder} to a {@link SimpleMeterRegistry}, and the startup steps recorded
+ * while loading the configuration they are taken from.
+ */
+class AWSAppConfigMeterBinderTests {
+
+    private static final String PAYLOAD = "{\"server\":{\"port\":8080,\"hosts\":[\"one\",\"two\"]},\"name\":\"app\"}";
+
+    private final AWSAppConfigInMemoryTransport appConfig = new AWSAppConfigInMemoryTransport();
+
+    private final AWSAppConfigSessions sessions = new AWSAppConfigSessions();
+
+    private final AWSAppConfigStartupMetrics startupMetrics = new AWSAppConfigStartupMetrics();
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AWSAppConfigPollSchedulerTests.VirtualTimeExecutor executor = new AWSAppConfigPollSchedulerTests.VirtualTimeExecutor();
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void startupMeasurementsAreBoundPerProfile() {
+        StartConfigurationSessionRequest request = request("profile");
+        this.startupMetrics.record(request, new AWSAppConfigStartupFetcher.Result(new GetLatestConfigurationResult(), 3,
+                TimeUnit.MILLISECONDS.toNanos(40), TimeUnit.MILLISECONDS.toNanos(125)));
+        this.startupMetrics.recordDocuments(request, 512, 12);
+        new AWSAppConfigMeterBinder(this.sessions, this.startupMetrics).bindTo(this.registry);
+        assertThat(this.registry.get("aws.appconfig.startup.fetch.time").tags(tags("profile")).timeGauge().value(TimeUnit.MILLISECONDS))
+                .isEqualTo(125);
+        assertThat(this.registry.get("aws.appconfig.startup.fetch.wait").tags(tags("profile")).timeGauge().value(TimeUnit.MILLISECONDS))
+                .isEqualTo(40);
+        assertThat(this.registry.get("aws.appconfig.startup.fetch.retries").tags(tags("profile")).gauge().value()).isEqualTo(2);
+        assertThat(this.registry.get("aws.appconfig.payload.size").tags(tags("profile")).gauge().value()).isEqualTo(512);
+        assertThat(this.registry.get("aws.appconfig.payload.size").gauge().getId().getBaseUnit()).isEqualTo("bytes");
+        assertThat(this.registry.get("aws.appconfig.keys").tags(tags("profile")).gauge().value()).isEqualTo(12);
+        assertThat(meterNames()).doesNotContain("aws.appconfig.poll", "aws.appconfig.repository.requests");
+    }
+
+    @Test
+    void sessionPollsAreBoundPerProfile() {
+        this.appConfig.publish("app", "env", "profile", "application/json", PAYLOAD);
+        this.appConfig.publish("app", "env", "flags", "application/json", PAYLOAD);
+        AWSAppConfigSession session = session("profile");
+        session.start();
+        session.poll();
+        session.poll();
+        session.setVersionLabel("7");
+        session.setLastRefreshTime(System.currentTimeMillis() - 60_000);
+        AWSAppConfigSession unrefreshed = session("flags");
+        unrefreshed.setVersionLabel("v2");
+        new AWSAppConfigMeterBinder(this.sessions, this.startupMetrics).bindTo(this.registry);
+        FunctionTimer poll = this.registry.get("aws.appconfig.poll").tags(tags("profile")).functionTimer();
+        assertThat(poll.count()).isEqualTo(2);
+        assertThat(poll.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(session.getPollTimeNanos()).isPositive();
+        assertThat(this.registry.get("aws.appconfig.version").tags(tags("profile")).gauge().value()).isEqualTo(7);
+        assertThat(this.registry.get("aws.appconfig.last.refresh.age").tags(tags("profile")).timeGauge().value(TimeUnit.SECONDS))
+                .isCloseTo(60, within(5.0));
+        assertThat(this.registry.get("aws.appconfig.poll").tags(tags("flags")).functionTimer().count()).isZero();
+        assertThat(this.registry.get("aws.appconfig.version").tags(tags("flags")).gauge().value()).isNaN();
+        assertThat(this.registry.get("aws.appconfig.last.refresh.age").tags(tags("flags")).timeGauge().value()).isNaN();
+        session.poll();
+        assertThat(poll.count()).isEqualTo(3);
+    }
+
+    @Test
+    void repositoryStatisticsAreBound() {
+        this.appConfig.publish("app", "env", "tenant", "application/json", PAYLOAD);
+        AWSAppConfigProperties properties = new AWSAppConfigProperties();
+        properties.setApplication("app");
+        properties.setEnvironment("env");
+        AWSAppConfigClientRegistry clientRegistry = new AWSAppConfigClientRegistry();
+        clientRegistry.register(new AWSAppConfigClientRegistry.ClientKey(null, null, null), this.appConfig);
+        AWSAppConfigRepository repository = new AWSAppConfigRepository(new AWSAppConfigDataLoader(), properties, clientRegistry,
+                List.of("default"), new AWSAppConfigPollScheduler(this.executor, 0, 0, this.executor::nanoTime));
+        new AWSAppConfigMeterBinder(this.sessions, this.startupMetrics, repository).bindTo(this.registry);
+        repository.get("tenant");
+        repository.get("tenant");
+        assertThat(this.registry.get("aws.appconfig.repository.requests").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(this.registry.get("aws.appconfig.repository.requests").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(this.registry.get("aws.appconfig.repository.loads").tag("result", "success").functionCounter().count()).isEqualTo(1);
+        assertThat(this.registry.get("aws.appconfig.repository.loads").tag("result", "failure").functionCounter().count()).isZero();
+        assertThat(this.registry.get("aws.appconfig.repository.evictions").functionCounter().count()).isZero();
+        assertThat(this.registry.get("aws.appconfig.repository.size").gauge().value()).isEqualTo(1);
+        assertThat(this.registry.get("aws.appconfig.repository.weight").gauge().value()).isEqualTo(repository.getWeight()).isPositive();
+    }
+
+    @Test
+    void configDataPhasesAreRecordedAsStartupSteps() {
+        this.appConfig.publish("app", "env", "profile", "application/json", PAYLOAD);
+        DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+        AWSAppConfigClientRegistry clientRegistry = new AWSAppConfigClientRegistry();
+        clientRegistry.register(new AWSAppConfigClientRegistry.ClientKey(null, null, null), this.appConfig);
+        bootstrapContext.register(AWSAppConfigClientRegistry.class, BootstrapRegistry.InstanceSupplier.of(clientRegistry));
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(100);
+        bootstrapContext.register(ApplicationStartup.class, BootstrapRegistry.InstanceSupplier.of(applicationStartup));
+        StandardEnvironment environment = new StandardEnvironment();
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "test");
+        properties.put("aws.appconfig.application", "app");
+        properties.put("aws.appconfig.environment", "env");
+        properties.put("aws.appconfig.profile", "profile");
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        DeferredLogFactory logFactory = Supplier::get;
+        new AWSAppConfigDataEnvironment(logFactory, bootstrapContext, environment, new DefaultResourceLoader(), Collections.emptyList(), null)
+                .processAndApply();
+        assertThat(environment.getProperty("server.port")).isEqualTo("8080");
+        int payloadBytes = PAYLOAD.getBytes(StandardCharsets.UTF_8).length;
+        Map<String, Map<String, String>> steps = applicationStartup.getBufferedTimeline().getEvents().stream()
+                .map(StartupTimeline.TimelineEvent::getStartupStep).collect(Collectors.toMap(StartupStep::getName,
+                        AWSAppConfigMeterBinderTests::tags, (first, second) -> second, LinkedHashMap::new));
+        assertThat(steps).containsKeys("aws.appconfig.config-data.process-initial", "aws.appconfig.config-data.process-without-profiles",
+                "aws.appconfig.config-data.with-profiles", "aws.appconfig.config-data.process-with-profiles", "aws.appconfig.config-data.apply",
+                "aws.appconfig.fetch", "aws.appconfig.decode", "aws.appconfig.property-sources");
+        steps.forEach((name, tags) -> {
+            if (name.startsWith("aws.appconfig.config-data.")) {
+                assertThat(tags).as(name).containsOnlyKeys("payload.bytes", "key.count", "retry.count").containsEntry("retry.count", "0");
+            }
+        });
+        assertThat(steps.get("aws.appconfig.config-data.process-with-profiles")).containsEntry("payload.bytes", String.valueOf(payloadBytes))
+                .containsEntry("key.count", "4");
+        assertThat(steps.get("aws.appconfig.config-data.apply")).containsEntry("payload.bytes", "0").containsEntry("key.count", "0");
+        assertThat(steps.get("aws.appconfig.decode")).containsEntry("payload.bytes", String.valueOf(payloadBytes)).containsEntry("key.count", "4");
+        AWSAppConfigMeterBinder binder = new AWSAppConfigMeterBinder(AWSAppConfigSessions.get(bootstrapContext),
+                AWSAppConfigStartupMetrics.get(bootstrapContext));
+        binder.bindTo(this.registry);
+        assertThat(this.registry.get("aws.appconfig.payload.size").tags(tags("profile")).gauge().value()).isEqualTo(payloadBytes);
+        assertThat(this.registry.get("aws.appconfig.keys").tags(tags("profile")).gauge().value()).isEqualTo(4);
+        assertThat(this.registry.get("aws.appconfig.startup.fetch.retries").tags(tags("profile")).gauge().value()).isZero();
+    }
+
+    private AWSAppConfigSession session(String profile) {
+        AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(this.appConfig, request(profile)));
+        this.sessions.register(session);
+        return session;
+    }
+
+    private List<String> meterNames() {
+        return this.registry.getMeters().stream().map(Meter::getId).map(Meter.Id::getName).collect(Collectors.toList());
+    }
+
+    private static StartConfigurationSessionRequest request(String profile) {
+        return new StartConfigurationSessionRequest().withApplicationIdentifier("app").withEnvironmentIdentifier("env")
+                .withConfigurationProfileIdentifier(profile);
+    }
+
+    private static String[] tags(String profile) {
+        return new String[] {"application", "app", "environment", "env", "profile", profile};
+    }
+
+    private static Map<String, String> tags(StartupStep step) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        step.getTags().forEach((tag) -> tags.put(tag.getKey(), tag.getValue()));
+        return tags;
+    }
+}
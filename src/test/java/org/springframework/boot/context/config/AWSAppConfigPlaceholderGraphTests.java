@@ -0,0 +1,162 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Resolves the placeholders of AppConfig properties through an {@link AWSAppConfigPlaceholderGraph}, comparing it
+ * with the environment's own resolution.
+ */
+class AWSAppConfigPlaceholderGraphTests {
+
+    private final StandardEnvironment environment = new StandardEnvironment();
+
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    private final AWSAppConfigSessions sessions = new AWSAppConfigSessions();
+
+    private final AWSAppConfigPlaceholderGraph graph = new AWSAppConfigPlaceholderGraph(this.environment, this.sessions);
+
+    AWSAppConfigPlaceholderGraphTests() {
+        this.environment.getPropertySources().addFirst(new MapPropertySource("appconfig", this.properties));
+        AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(new AWSAppConfigInMemoryTransport(),
+                new StartConfigurationSessionRequest().withApplicationIdentifier("app").withEnvironmentIdentifier("env")
+                        .withConfigurationProfileIdentifier("profile")));
+        session.setPropertySourceNames(Collections.singletonList("appconfig"));
+        this.sessions.register(session);
+    }
+
+    @Test
+    void resolvesLikeEnvironment() {
+        this.properties.put("host", "localhost");
+        this.properties.put("port", "8080");
+        this.properties.put("url", "http://${host}:${port}");
+        this.properties.put("endpoint", "${url}/api");
+        this.properties.put("fallback", "${missing:${endpoint}}");
+        this.properties.put("colon", "${missing:http://${host}:9090}");
+        this.properties.put("nested", "${missing:${other:${port}}}");
+        this.properties.put("unresolvable", "pre-${missing}-post");
+        this.properties.put("partly", "${missing:${other}}");
+        this.properties.put("indirect", "${host.${port}:x}");
+        for (String key : this.properties.keySet()) {
+            assertThat(this.graph.getProperty(key)).as(key).isEqualTo(this.environment.resolvePlaceholders("${" + key + "}"));
+        }
+        assertThat(this.graph.resolvePlaceholders("${endpoint}?q=${missing:1}")).isEqualTo(this.environment.resolvePlaceholders("${endpoint}?q=${missing:1}"));
+        assertThat(this.graph.getCircularKeys()).isEmpty();
+    }
+
+    @Test
+    void referencesOutsideAppConfigAreResolved() {
+        System.setProperty("appconfig.graph.test", "system");
+        try {
+            this.properties.put("value", "${appconfig.graph.test}");
+            assertThat(this.graph.getProperty("value")).isEqualTo("system");
+        } finally {
+            System.clearProperty("appconfig.graph.test");
+        }
+    }
+
+    @Test
+    void cyclesAreDetected() {
+        this.properties.put("a", "${b}");
+        this.properties.put("b", "${c}");
+        this.properties.put("c", "x-${a}");
+        this.properties.put("self", "${self:default}");
+        this.properties.put("dependent", "${a}");
+        this.properties.put("independent", "${d}");
+        this.properties.put("d", "value");
+        this.graph.build();
+        assertThat(this.graph.getCircularKeys()).containsExactlyInAnyOrder("a", "b", "c", "self");
+        for (String key : List.of("a", "b", "c", "self", "dependent")) {
+            assertThatIllegalArgumentException().isThrownBy(() -> this.graph.getProperty(key)).withMessageContaining("Circular placeholder reference");
+            assertThatIllegalArgumentException().isThrownBy(() -> this.environment.resolvePlaceholders("${" + key + "}"));
+        }
+        assertThat(this.graph.getProperty("independent")).isEqualTo("value");
+        assertThat(this.graph.getProperties(List.of("a", "independent"))).containsOnlyKeys("independent");
+    }
+
+    @Test
+    void graphIsBuiltOnFirstUse() {
+        this.properties.put("a", "${b}");
+        this.properties.put("b", "${a}");
+        assertThat(this.graph.getCircularKeys()).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void cycleThroughKeyOutsideAppConfigIsDetected() {
+        System.setProperty("appconfig.graph.cycle", "${looped}");
+        try {
+            this.properties.put("looped", "${appconfig.graph.cycle}");
+            assertThatIllegalArgumentException().isThrownBy(() -> this.graph.getProperty("looped"));
+            assertThat(this.graph.getCircularKeys()).containsExactlyInAnyOrder("looped", "appconfig.graph.cycle");
+        } finally {
+            System.clearProperty("appconfig.graph.cycle");
+        }
+    }
+
+    @Test
+    void dependentsAreTransitive() {
+        this.properties.put("host", "localhost");
+        this.properties.put("url", "http://${host}");
+        this.properties.put("endpoint", "${url}/api");
+        this.properties.put("other", "${port:80}");
+        assertThat(this.graph.getDependents(List.of("host"))).containsExactlyInAnyOrder("url", "endpoint");
+        assertThat(this.graph.getDependents(List.of("port"))).containsExactly("other");
+    }
+
+    @Test
+    void updateInvalidatesDependentResolutions() {
+        this.properties.put("host", "localhost");
+        this.properties.put("url", "http://${host}");
+        this.properties.put("endpoint", "${url}/api");
+        this.properties.put("other", "${unrelated}");
+        this.properties.put("unrelated", "same");
+        assertThat(this.graph.getProperty("endpoint")).isEqualTo("http://localhost/api");
+        assertThat(this.graph.getProperty("other")).isEqualTo("same");
+        this.properties.put("host", "example.com");
+        this.properties.put("unrelated", "changed");
+        assertThat(this.graph.getProperty("endpoint")).isEqualTo("http://localhost/api");
+        this.graph.update(List.of("host"));
+        assertThat(this.graph.getProperty("endpoint")).isEqualTo("http://example.com/api");
+        assertThat(this.graph.resolvePlaceholders("${url}")).isEqualTo("http://example.com");
+        assertThat(this.graph.getProperty("other")).isEqualTo("same");
+    }
+
+    @Test
+    void updateRecompilesChangedTemplates() {
+        this.properties.put("host", "localhost");
+        this.properties.put("backup", "backup.local");
+        this.properties.put("url", "http://${host}");
+        assertThat(this.graph.getProperty("url")).isEqualTo("http://localhost");
+        this.properties.put("url", "http://${backup}");
+        this.graph.update(List.of("url"));
+        assertThat(this.graph.getProperty("url")).isEqualTo("http://backup.local");
+        assertThat(this.graph.getDependents(List.of("backup"))).containsExactly("url");
+        assertThat(this.graph.getDependents(List.of("host"))).isEmpty();
+    }
+
+    @Test
+    void updateIntroducingAndBreakingCycle() {
+        this.properties.put("a", "${b}");
+        this.properties.put("b", "value");
+        assertThat(this.graph.getProperty("a")).isEqualTo("value");
+        this.properties.put("b", "${a}");
+        this.graph.update(List.of("b"));
+        assertThat(this.graph.getCircularKeys()).containsExactlyInAnyOrder("a", "b");
+        assertThatIllegalArgumentException().isThrownBy(() -> this.graph.getProperty("a"));
+        this.properties.put("b", "fixed");
+        this.graph.update(List.of("b"));
+        assertThat(this.graph.getCircularKeys()).isEmpty();
+        assertThat(this.graph.getProperty("a")).isEqualTo("fixed");
+    }
+}
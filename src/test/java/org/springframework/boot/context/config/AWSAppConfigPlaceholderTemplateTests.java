@@ -0,0 +1,49 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compiles and resolves {@link AWSAppConfigPlaceholderTemplate templates}, comparing them with the
+ * {@link PropertyPlaceholderHelper} used by the environment.
+ */
+class AWSAppConfigPlaceholderTemplateTests {
+
+    private static final Map<String, String> PROPERTIES = Map.of("host", "localhost", "port", "8080", "empty", "", "url", "http://a:1");
+
+    private final PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}", ":", true);
+
+    @ParameterizedTest
+    @ValueSource(strings = { "${host}", "http://${host}:${port}/path", "${missing:fallback}", "${missing:}", "${empty:fallback}",
+            "${missing:${host}}", "${missing:${other:${port}}}", "${missing:${other:last}}-${port}", "${missing:http://host:8080}",
+            "${missing:a:b:c}", "${url:none}", "${missing:{json}}", "${missing:{a:{b}}}", "${missing}", "pre-${missing}-post",
+            "${missing:${other}}", "${host", "${host}${", "$host", "{host}", "${host}}" })
+    void resolvesLikePropertyPlaceholderHelper(String text) {
+        AWSAppConfigPlaceholderTemplate template = AWSAppConfigPlaceholderTemplate.compile(text);
+        String expected = this.helper.replacePlaceholders(text, PROPERTIES::get);
+        assertThat((template != null) ? template.resolve(PROPERTIES::get) : text).isEqualTo(expected);
+    }
+
+    @Test
+    void referencesIncludeKeysOfDefaults() {
+        AWSAppConfigPlaceholderTemplate template = AWSAppConfigPlaceholderTemplate.compile("${a:${b:${c}}}-${d}");
+        assertThat(template.getReferences()).containsExactlyInAnyOrder("a", "b", "c", "d");
+    }
+
+    @Test
+    void valueWithoutPlaceholderIsNotCompiled() {
+        assertThat(AWSAppConfigPlaceholderTemplate.compile("plain {value}")).isNull();
+    }
+
+    @Test
+    void placeholderInKeyIsNotCompiled() {
+        assertThat(AWSAppConfigPlaceholderTemplate.compile("${${name}}")).isNull();
+        assertThat(AWSAppConfigPlaceholderTemplate.compile("${prefix.${name}:default}")).isNull();
+    }
+}
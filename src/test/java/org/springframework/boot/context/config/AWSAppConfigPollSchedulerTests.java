@@ -0,0 +1,282 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.AbstractAWSAppConfigData;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationRequest;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionResult;
+import com.amazonaws.services.appconfigdata.model.ThrottlingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulates 1,000 clients started at the same instant polling a local fake AppConfigData service. The scheduler runs
+ * on a virtual clock advanced by the test, so the simulated seconds take no time and no assertion depends on timing.
+ */
+class AWSAppConfigPollSchedulerTests {
+
+    private static final int CLIENTS = 1000;
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final VirtualTimeExecutor executor = new VirtualTimeExecutor();
+
+    private final List<AWSAppConfigPollScheduler.Poll> polls = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        this.polls.forEach(AWSAppConfigPollScheduler.Poll::cancel);
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void phaseJitterSpreadsClientsStartedTogether() {
+        FakeService service = new FakeService(this.executor, false);
+        AWSAppConfigPollScheduler scheduler = new AWSAppConfigPollScheduler(this.executor, 0, 0, this.executor::nanoTime);
+        startClients(scheduler, service, Duration.ofSeconds(1));
+        this.executor.advance(Duration.ofMillis(2500));
+        int[] windows = service.countPerWindow();
+        // in lockstep all 1,000 clients would hit the service within the first window of every interval
+        assertThat(max(windows)).isLessThan(250);
+        // every client polls at a random phase within the first second, then every 800ms to 1.2s
+        assertThat(service.requests.size()).isBetween(2000, 3000);
+    }
+
+    @Test
+    void tokenBucketCapsTheRequestRateOfTheJvm() {
+        FakeService service = new FakeService(this.executor, false);
+        AWSAppConfigPollScheduler scheduler = new AWSAppConfigPollScheduler(this.executor, 200, 20, this.executor::nanoTime);
+        startClients(scheduler, service, Duration.ofSeconds(1));
+        this.executor.advance(Duration.ofMillis(2500));
+        int[] windows = service.countPerWindow();
+        // 1,000 clients polling every second ask for 1,000 requests/s, the bucket lets one through every 5ms from the
+        // first poll and 19 more ahead of schedule
+        assertThat(max(windows)).isLessThanOrEqualTo(39);
+        assertThat(service.requests.size()).isBetween(515, 520);
+    }
+
+    @Test
+    void tokenBucketHandsOutBurstThenSpacesPermits() {
+        long[] now = { 0 };
+        AWSAppConfigPollScheduler.TokenBucket tokens = new AWSAppConfigPollScheduler.TokenBucket(10, 3, () -> now[0]);
+        long interval = TimeUnit.MILLISECONDS.toNanos(100);
+        assertThat(tokens.reserve()).isZero();
+        assertThat(tokens.reserve()).isZero();
+        assertThat(tokens.reserve()).isZero();
+        assertThat(tokens.reserve()).isEqualTo(interval);
+        assertThat(tokens.reserve()).isEqualTo(2 * interval);
+        now[0] = 10 * interval;
+        assertThat(tokens.reserve()).isZero();
+        assertThat(tokens.reserve()).isZero();
+    }
+
+    @Test
+    void throttledClientsBackOff() {
+        FakeService service = new FakeService(this.executor, true);
+        AWSAppConfigPollScheduler scheduler = new AWSAppConfigPollScheduler(this.executor, 0, 0, this.executor::nanoTime);
+        startClients(scheduler, service, Duration.ofMillis(100));
+        this.executor.advance(Duration.ofMillis(2500));
+        // without backoff every client would poll about 25 times, doubling from 100ms it can't exceed 5 polls
+        assertThat(service.requests.size()).isBetween(CLIENTS * 3, CLIENTS * 5);
+        assertThat(this.polls).allSatisfy((poll) -> assertThat(poll.getThrottledCount()).isGreaterThan(2));
+    }
+
+    private void startClients(AWSAppConfigPollScheduler scheduler, FakeService service, Duration interval) {
+        for (int i = 0; i < CLIENTS; i++) {
+            StartConfigurationSessionRequest request = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+                    .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("client-" + i);
+            AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(service, request));
+            this.polls.add(scheduler.schedule(request.toString(), interval, 0.2, Duration.ofSeconds(10), () -> {
+                session.poll();
+                return null;
+            }));
+        }
+    }
+
+    private static int max(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    static class FakeService extends AbstractAWSAppConfigData {
+
+        private final List<Long> requests = new ArrayList<>();
+
+        private final VirtualTimeExecutor clock;
+
+        private final boolean throttle;
+
+        FakeService(VirtualTimeExecutor clock, boolean throttle) {
+            this.clock = clock;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public StartConfigurationSessionResult startConfigurationSession(StartConfigurationSessionRequest request) {
+            return new StartConfigurationSessionResult().withInitialConfigurationToken("initial");
+        }
+
+        @Override
+        public GetLatestConfigurationResult getLatestConfiguration(GetLatestConfigurationRequest request) {
+            this.requests.add(this.clock.nanoTime());
+            if (this.throttle) {
+                throw new ThrottlingException("Rate exceeded");
+            }
+            return new GetLatestConfigurationResult().withNextPollConfigurationToken("next").withConfiguration(ByteBuffer.allocate(0));
+        }
+
+        int[] countPerWindow() {
+            int[] windows = new int[64];
+            for (long request : this.requests) {
+                int window = (int) (request / WINDOW);
+                if (window < windows.length) {
+                    windows[window]++;
+                }
+            }
+            return windows;
+        }
+    }
+
+    /**
+     * {@link ScheduledExecutorService} running its tasks on the calling thread when the test advances its clock, in
+     * the order of their scheduled time.
+     */
+    static class VirtualTimeExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+        private final PriorityQueue<Task<?>> queue = new PriorityQueue<>();
+
+        private long nanoTime;
+
+        private long sequence;
+
+        private boolean shutdown;
+
+        long nanoTime() {
+            return this.nanoTime;
+        }
+
+        void advance(Duration duration) {
+            long until = this.nanoTime + duration.toNanos();
+            Task<?> task;
+            while ((task = this.queue.peek()) != null && task.time <= until) {
+                this.queue.poll();
+                this.nanoTime = task.time;
+                task.run();
+            }
+            this.nanoTime = until;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return schedule(Executors.callable(command), delay, unit);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            Task<V> task = new Task<>(callable, this.nanoTime + Math.max(unit.toNanos(delay), 0), this.sequence++);
+            if (!this.shutdown) {
+                this.queue.add(task);
+            }
+            return task;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            schedule(command, 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void shutdown() {
+            this.shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            this.shutdown = true;
+            this.queue.clear();
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return this.shutdown && this.queue.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return isTerminated();
+        }
+
+        private final class Task<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+            private final long time;
+
+            private final long sequence;
+
+            Task(Callable<V> callable, long time, long sequence) {
+                super(callable);
+                this.time = time;
+                this.sequence = sequence;
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                VirtualTimeExecutor.this.queue.remove(this);
+                return super.cancel(mayInterruptIfRunning);
+            }
+
+            @Override
+            public boolean isPeriodic() {
+                return false;
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit) {
+                return unit.convert(this.time - VirtualTimeExecutor.this.nanoTime, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public int compareTo(Delayed other) {
+                Task<?> task = (Task<?>) other;
+                int compared = Long.compare(this.time, task.time);
+                return (compared != 0) ? compared : Long.compare(this.sequence, task.sequence);
+            }
+        }
+    }
+}
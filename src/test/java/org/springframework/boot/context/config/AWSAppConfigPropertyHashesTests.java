@@ -0,0 +1,209 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hashing and diffing of the key hierarchy of properties by {@link AWSAppConfigPropertyHashes} and
+ * {@link AWSAppConfigPropertyDiff}, comparing the diffs with those of the flattened properties.
+ */
+class AWSAppConfigPropertyHashesTests {
+
+    @Test
+    void equalPropertiesHaveEqualHashes() {
+        Map<String, Object> properties = properties("a.b", "1", "a.c", "2", "d", "3");
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(properties.keySet());
+        Collections.reverse(names);
+        names.forEach((name) -> reversed.put(name, properties.get(name)));
+        AWSAppConfigPropertyHashes hashes = hashes(properties);
+        assertThat(hashes(reversed).getHash()).isEqualTo(hashes.getHash());
+        assertThat(AWSAppConfigPropertyHashes.of(List.of(new MapPropertySource("first", properties("a.b", "1", "d", "3")),
+                new MapPropertySource("second", properties("a.c", "2", "d", "other")))).getHash()).isEqualTo(hashes.getHash());
+        assertThat(hashes.getChildren("")).isEqualTo(hashes(reversed).getChildren(""));
+    }
+
+    @Test
+    void changedValueOnlyChangesItsAncestors() {
+        AWSAppConfigPropertyHashes previous = hashes(properties("a.b.c", "1", "a.b.d", "2", "a.e", "3", "f", "4"));
+        AWSAppConfigPropertyHashes current = hashes(properties("a.b.c", "changed", "a.b.d", "2", "a.e", "3", "f", "4"));
+        assertThat(current.getHash()).isNotEqualTo(previous.getHash());
+        assertThat(current.getHash("a")).isNotEqualTo(previous.getHash("a"));
+        assertThat(current.getHash("a.b")).isNotEqualTo(previous.getHash("a.b"));
+        assertThat(current.getHash("a.b.c")).isNotEqualTo(previous.getHash("a.b.c"));
+        assertThat(current.getHash("a.b.d")).isEqualTo(previous.getHash("a.b.d"));
+        assertThat(current.getHash("a.e")).isEqualTo(previous.getHash("a.e"));
+        assertThat(current.getHash("f")).isEqualTo(previous.getHash("f"));
+        assertThat(current.getHash("missing")).isNull();
+    }
+
+    @Test
+    void valuesOfDifferentTypesHaveDifferentHashes() {
+        assertThat(hashes(properties("a", 1)).getHash()).isNotEqualTo(hashes(properties("a", "1")).getHash());
+        assertThat(hashes(properties("a", "1")).getHash()).isNotEqualTo(hashes(properties("b", "1")).getHash());
+    }
+
+    @Test
+    void keysSharingAPrefixAreDistinct() {
+        AWSAppConfigPropertyHashes hashes = hashes(properties("a.b", "1", "a.bc", "2", "a.b.c", "3", "a[0]", "4", "a", "5"));
+        assertThat(hashes.getChildren("")).containsOnlyKeys("a", "a[0]");
+        assertThat(hashes.getChildren("a")).containsOnlyKeys("a.b", "a.bc");
+        assertThat(hashes.getChildren("a.b")).containsOnlyKeys("a.b.c");
+        AWSAppConfigPropertyHashes moved = hashes(properties("a.b", "1", "a.bc", "2", "a.b.c", "3", "a[0]", "4", "a", "5", "ab", "6"));
+        assertThat(moved.getHash("a")).isEqualTo(hashes.getHash("a"));
+        assertThat(hashes(properties("a.b", "1", "a.b.c", "2")).getHash())
+                .isNotEqualTo(hashes(properties("a.b", "1", "a.bc", "2")).getHash());
+        assertThat(hashes(properties("a.b", "12")).getHash()).isNotEqualTo(hashes(properties("a.b1", "2")).getHash());
+    }
+
+    @Test
+    void compareSortsDotFirst() {
+        List<String> names = new ArrayList<>(List.of("a.bc", "a[0]", "a.b.c", "a.b", "a", "ab", "a-b"));
+        names.sort(AWSAppConfigPropertyHashes::compare);
+        assertThat(names).containsExactly("a", "a.b", "a.b.c", "a.bc", "a-b", "a[0]", "ab");
+    }
+
+    @Test
+    void diffReportsChangedLeaves() {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = diff(properties("a.b", "1", "a.c", "2", "d", "3"),
+                properties("a.b", "1", "a.c", "changed", "d", "3"));
+        assertThat(changes).containsOnlyKeys("a.c");
+        assertThat(changes.get("a.c")).isEqualTo(new AWSAppConfigChangedEvent.Change("2", "changed"));
+    }
+
+    @Test
+    void diffReportsAddedAndRemovedLeaves() {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = diff(properties("a.b", "1", "a.c", "2"), properties("a.b", "1", "a.d", "3"));
+        assertThat(changes).containsOnlyKeys("a.c", "a.d");
+        assertThat(changes.get("a.c")).isEqualTo(new AWSAppConfigChangedEvent.Change("2", null));
+        assertThat(changes.get("a.d")).isEqualTo(new AWSAppConfigChangedEvent.Change(null, "3"));
+    }
+
+    @Test
+    void diffReportsAddedAndRemovedSubtrees() {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = diff(properties("a.b.c", "1", "a.b.d", "2", "e", "3"),
+                properties("e", "3", "f.g", "4", "f.h.i", "5"));
+        assertThat(changes).containsOnlyKeys("a.b.c", "a.b.d", "f.g", "f.h.i");
+        assertThat(changes.get("a.b.d")).isEqualTo(new AWSAppConfigChangedEvent.Change("2", null));
+        assertThat(changes.get("f.h.i")).isEqualTo(new AWSAppConfigChangedEvent.Change(null, "5"));
+    }
+
+    @Test
+    void diffOfKeyBeingAlsoAPrefix() {
+        assertThat(diff(properties("a", "1", "a.b", "2"), properties("a.b", "2"))).containsOnlyKeys("a");
+        assertThat(diff(properties("a.b", "2"), properties("a", "1", "a.b", "2"))).containsOnlyKeys("a");
+        assertThat(diff(properties("a", "1"), properties("a", "1", "a.b", "2"))).containsOnlyKeys("a.b");
+        assertThat(diff(properties("a.b", "1", "a.bc", "2"), properties("a.b", "1", "a.bc", "3", "a.b.c", "4")))
+                .containsOnlyKeys("a.bc", "a.b.c");
+    }
+
+    @Test
+    void diffOfEqualPropertiesIsEmpty() {
+        assertThat(diff(properties("a.b", "1", "c", "2"), properties("c", "2", "a.b", "1"))).isEmpty();
+    }
+
+    @Test
+    void diffMatchesTheDiffOfFlattenedProperties() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Map<String, Object> previous = randomProperties(random);
+            Map<String, Object> current = new LinkedHashMap<>(previous);
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                String name = randomName(random);
+                if (random.nextBoolean()) {
+                    current.put(name, String.valueOf(random.nextInt(3)));
+                } else {
+                    current.remove(name);
+                }
+            }
+            assertThat(diff(previous, current)).as("round %d", round).isEqualTo(flatDiff(previous, current));
+            assertThat(hashes(previous).getHash().equals(hashes(current).getHash())).isEqualTo(previous.equals(current));
+        }
+    }
+
+    @Test
+    void indexedSourcesAreDiffedThroughTheirHashes() {
+        AWSAppConfigIndexedPropertySource previous = new AWSAppConfigIndexedPropertySource("previous", properties("a.b", "1", "a.c", "2"));
+        AWSAppConfigIndexedPropertySource current = new AWSAppConfigIndexedPropertySource("current", properties("a.b", "1", "a.c", "3"));
+        AWSAppConfigPropertyHashes hashes = current.getHashes();
+        assertThat(current.getHashes()).isSameAs(hashes);
+        assertThat(AWSAppConfigPropertyHashes.of(List.of(current))).isSameAs(hashes);
+        assertThat(hashes.getHash()).isEqualTo(hashes(properties("a.b", "1", "a.c", "3")).getHash());
+        assertThat(AWSAppConfigPropertyDiff.diff(List.of(previous), List.of(current)))
+                .isEqualTo(Map.of("a.c", new AWSAppConfigChangedEvent.Change("2", "3")));
+    }
+
+    @Test
+    void otherSourcesAreDiffedFlattened() {
+        PropertySource<?> indexed = new AWSAppConfigIndexedPropertySource("indexed", properties("a", "1", "b", "2"));
+        PropertySource<?> first = new MapPropertySource("first", properties("a", "changed"));
+        PropertySource<?> second = new MapPropertySource("second", properties("a", "1", "c", "3"));
+        Map<String, AWSAppConfigChangedEvent.Change> changes = AWSAppConfigPropertyDiff.diff(List.of(indexed), List.of(first, second));
+        assertThat(changes).containsOnlyKeys("a", "b", "c");
+        assertThat(changes.get("a")).isEqualTo(new AWSAppConfigChangedEvent.Change("1", "changed"));
+        assertThat(changes.get("b")).isEqualTo(new AWSAppConfigChangedEvent.Change("2", null));
+        assertThat(AWSAppConfigPropertyDiff.diff(List.of(first, second), List.of(indexed))).containsOnlyKeys("a", "b", "c");
+    }
+
+    private static Map<String, AWSAppConfigChangedEvent.Change> diff(Map<String, Object> previous, Map<String, Object> current) {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = AWSAppConfigPropertyHashes.diff(hashes(previous), hashes(current));
+        assertThat(AWSAppConfigPropertyDiff.diff(List.of(new AWSAppConfigIndexedPropertySource("previous", previous)),
+                List.of(new AWSAppConfigIndexedPropertySource("current", current)))).isEqualTo(changes);
+        return changes;
+    }
+
+    private static Map<String, AWSAppConfigChangedEvent.Change> flatDiff(Map<String, Object> previous, Map<String, Object> current) {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = new LinkedHashMap<>();
+        current.forEach((name, value) -> {
+            if (!Objects.equals(previous.get(name), value)) {
+                changes.put(name, new AWSAppConfigChangedEvent.Change(previous.get(name), value));
+            }
+        });
+        previous.forEach((name, value) -> {
+            if (!current.containsKey(name)) {
+                changes.put(name, new AWSAppConfigChangedEvent.Change(value, null));
+            }
+        });
+        return changes;
+    }
+
+    private static Map<String, Object> randomProperties(Random random) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = random.nextInt(20); i >= 0; i--) {
+            properties.put(randomName(random), String.valueOf(random.nextInt(3)));
+        }
+        return properties;
+    }
+
+    private static String randomName(Random random) {
+        String[] segments = { "a", "b", "ab", "a[0]", "a[1]", "b-c" };
+        StringBuilder name = new StringBuilder(segments[random.nextInt(segments.length)]);
+        for (int depth = random.nextInt(3); depth > 0; depth--) {
+            name.append('.').append(segments[random.nextInt(segments.length)]);
+        }
+        return name.toString();
+    }
+
+    private static AWSAppConfigPropertyHashes hashes(Map<String, Object> properties) {
+        return AWSAppConfigPropertyHashes.of(List.of(new MapPropertySource("test", properties)));
+    }
+
+    private static Map<String, Object> properties(Object... entries) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            properties.put((String) entries[i], entries[i + 1]);
+        }
+        return properties;
+    }
+}
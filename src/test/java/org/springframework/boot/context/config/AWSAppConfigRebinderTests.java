@@ -0,0 +1,221 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rebinding of {@code @ConfigurationProperties} beans by an {@link AWSAppConfigRebinder}.
+ */
+class AWSAppConfigRebinderTests {
+
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+
+    @AfterEach
+    void close() {
+        this.context.close();
+    }
+
+    @Test
+    void changedPropertiesAreRebound() {
+        this.properties.put("sample.name", "initial");
+        start();
+        SampleProperties bean = this.context.getBean(SampleProperties.class);
+        this.properties.put("sample.name", "changed");
+        this.properties.put("sample.hosts[0]", "a");
+        publish("sample.name", "sample.hosts[0]");
+        assertThat(bean.getName()).isEqualTo("changed");
+        assertThat(bean.getHosts()).containsExactly("a");
+    }
+
+    @Test
+    void removedPropertiesFallBackToDefaults() {
+        this.properties.put("sample.name", "initial");
+        this.properties.put("sample.count", "5");
+        this.properties.put("sample.hosts[0]", "a");
+        this.properties.put("sample.hosts[1]", "b");
+        start();
+        SampleProperties bean = this.context.getBean(SampleProperties.class);
+        this.properties.remove("sample.count");
+        this.properties.remove("sample.hosts[1]");
+        publish("sample.count", "sample.hosts[1]");
+        assertThat(bean.getName()).isEqualTo("initial");
+        assertThat(bean.getCount()).isEqualTo(1);
+        assertThat(bean.getHosts()).containsExactly("a");
+    }
+
+    @Test
+    void injectedAndInitializedStateSurvivesRebinding() {
+        this.properties.put("sample.name", "initial");
+        this.properties.put("sample.nested.value", "initial");
+        start();
+        SampleProperties bean = this.context.getBean(SampleProperties.class);
+        Collaborator collaborator = this.context.getBean(Collaborator.class);
+        assertThat(bean.getCollaborator()).isSameAs(collaborator);
+        assertThat(bean.getInitializations()).isOne();
+        this.properties.put("sample.name", "changed");
+        this.properties.put("sample.nested.value", "changed");
+        publish("sample.name", "sample.nested.value");
+        assertThat(bean.getName()).isEqualTo("changed");
+        assertThat(bean.getNested().getValue()).isEqualTo("changed");
+        assertThat(bean.getCollaborator()).isSameAs(collaborator);
+        assertThat(bean.getInitializations()).isOne();
+    }
+
+    @Test
+    void failedBindingLeavesBeanUntouched() {
+        this.properties.put("sample.name", "initial");
+        this.properties.put("sample.count", "5");
+        start();
+        SampleProperties bean = this.context.getBean(SampleProperties.class);
+        this.properties.put("sample.name", "changed");
+        this.properties.put("sample.count", "many");
+        publish("sample.name", "sample.count");
+        assertThat(bean.getName()).isEqualTo("initial");
+        assertThat(bean.getCount()).isEqualTo(5);
+    }
+
+    @Test
+    void unrelatedAndConstructorBoundBeansAreNotRebound() {
+        this.properties.put("sample.name", "initial");
+        this.properties.put("immutable.name", "initial");
+        start();
+        SampleProperties bean = this.context.getBean(SampleProperties.class);
+        this.properties.put("sample.name", "changed");
+        this.properties.put("immutable.name", "changed");
+        publish("other.name", "immutable.name");
+        assertThat(bean.getName()).isEqualTo("initial");
+        assertThat(this.context.getBean(ImmutableProperties.class).getName()).isEqualTo("initial");
+    }
+
+    private void start() {
+        this.context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("appconfig", this.properties));
+        this.context.register(SampleConfiguration.class);
+        this.context.addApplicationListener(new AWSAppConfigRebinder(this.context));
+        this.context.refresh();
+    }
+
+    private void publish(String... keys) {
+        Map<String, AWSAppConfigChangedEvent.Change> changes = new LinkedHashMap<>();
+        for (String key : keys) {
+            changes.put(key, new AWSAppConfigChangedEvent.Change(null, this.properties.get(key)));
+        }
+        this.context.publishEvent(new AWSAppConfigChangedEvent(this, changes));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties({ SampleProperties.class, ImmutableProperties.class })
+    static class SampleConfiguration {
+
+        @Bean
+        Collaborator collaborator() {
+            return new Collaborator();
+        }
+    }
+
+    static class Collaborator {
+    }
+
+    @ConfigurationProperties("sample")
+    static class SampleProperties {
+
+        private String name;
+
+        private int count = 1;
+
+        private List<String> hosts = new ArrayList<>();
+
+        private final Nested nested = new Nested();
+
+        @Autowired
+        private Collaborator collaborator;
+
+        private int initializations;
+
+        @PostConstruct
+        void initialize() {
+            this.initializations++;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return this.count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public List<String> getHosts() {
+            return this.hosts;
+        }
+
+        public void setHosts(List<String> hosts) {
+            this.hosts = hosts;
+        }
+
+        public Nested getNested() {
+            return this.nested;
+        }
+
+        Collaborator getCollaborator() {
+            return this.collaborator;
+        }
+
+        int getInitializations() {
+            return this.initializations;
+        }
+
+        static class Nested {
+
+            private String value;
+
+            public String getValue() {
+                return this.value;
+            }
+
+            public void setValue(String value) {
+                this.value = value;
+            }
+        }
+    }
+
+    @ConfigurationProperties("immutable")
+    @ConstructorBinding
+    static class ImmutableProperties {
+
+        private final String name;
+
+        ImmutableProperties(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+    }
+}
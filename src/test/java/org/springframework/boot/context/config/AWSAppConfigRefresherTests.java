@@ -0,0 +1,276 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.InternalServerException;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.cloud.CloudPlatform;
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Refreshes of the property sources of {@link AWSAppConfigSession sessions} by an {@link AWSAppConfigRefresher}.
+ */
+class AWSAppConfigRefresherTests {
+
+    private static final StartConfigurationSessionRequest REQUEST = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+            .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("profile");
+
+    private final StandardEnvironment environment = new StandardEnvironment();
+
+    private final AWSAppConfigInMemoryTransport appConfig = new AWSAppConfigInMemoryTransport();
+
+    private final AWSAppConfigSessions sessions = new AWSAppConfigSessions();
+
+    private final AWSAppConfigProperties.Refresh properties = new AWSAppConfigProperties.Refresh();
+
+    private AWSAppConfigRefresher refresher;
+
+    @AfterEach
+    void stop() {
+        if (this.refresher != null) {
+            this.refresher.stop();
+        }
+    }
+
+    @Test
+    void revalidationIsRetriedUntilAppConfigAnswers() throws InterruptedException {
+        this.properties.setInterval(Duration.ofMillis(10));
+        this.properties.setMaxBackoff(Duration.ofMillis(40));
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"fresh\"}");
+        FailingTransport transport = new FailingTransport(this.appConfig, 3);
+        AWSAppConfigSession session = createSession(transport, "snapshot");
+        session.setRevalidate(true);
+        this.refresher = createRefresher();
+        this.refresher.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (session.isRevalidate() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(session.isRevalidate()).isFalse();
+        assertThat(transport.attempts).hasValue(4);
+        assertThat(this.environment.getProperty("key")).isEqualTo("fresh");
+    }
+
+    @Test
+    void revalidationBackoffIsBounded() {
+        this.properties.setInterval(Duration.ofSeconds(30));
+        this.properties.setMaxBackoff(Duration.ofMinutes(5));
+        this.refresher = createRefresher();
+        assertThat(this.refresher.getRevalidationBackoff(0)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(this.refresher.getRevalidationBackoff(2)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(this.refresher.getRevalidationBackoff(4)).isEqualTo(Duration.ofMinutes(5));
+        assertThat(this.refresher.getRevalidationBackoff(Integer.MAX_VALUE)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void lastRefreshTimeIsOnlyUpdatedWhenConfigurationIsApplied() throws Exception {
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"fresh\"}");
+        AWSAppConfigSession session = createSession(this.appConfig, "initial");
+        this.refresher = createRefresher();
+        assertThat(this.refresher.refresh(session)).isTrue();
+        long lastRefreshTime = session.getLastRefreshTime();
+        assertThat(lastRefreshTime).isPositive();
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":");
+        Thread.sleep(5);
+        assertThatExceptionOfType(Exception.class).isThrownBy(() -> this.refresher.refresh(session));
+        assertThat(session.getLastRefreshTime()).isEqualTo(lastRefreshTime);
+        assertThat(session.getLastPollTime()).isGreaterThan(lastRefreshTime);
+        assertThat(this.environment.getProperty("key")).isEqualTo("fresh");
+    }
+
+    @Test
+    void versionWithSamePropertiesIsNotRecorded() throws Exception {
+        AWSAppConfigVersionHistory versionHistory = new AWSAppConfigVersionHistory(5);
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"fresh\"}");
+        AWSAppConfigSession session = createSession(this.appConfig, "initial");
+        this.refresher = createRefresher();
+        this.refresher.setVersionHistory(versionHistory);
+        assertThat(this.refresher.refresh(session)).isTrue();
+        AWSAppConfigPropertyHashes hashes = session.getPropertyHashes();
+        assertThat(hashes).isNotNull();
+        this.appConfig.publish("app", "env", "profile", "application/json", "{ \"key\" : \"fresh\" }");
+        assertThat(this.refresher.refresh(session)).isFalse();
+        assertThat(session.getPropertyHashes()).isSameAs(hashes);
+        String profile = AWSAppConfigVersionHistory.getName(REQUEST);
+        assertThat(versionHistory.getVersions(profile)).hasSize(1);
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"changed\"}");
+        assertThat(this.refresher.refresh(session)).isTrue();
+        assertThat(session.getPropertyHashes().getHash()).isNotEqualTo(hashes.getHash())
+                .isEqualTo(AWSAppConfigPropertyHashes.of(Collections.singletonList(this.environment.getPropertySources().get(REQUEST.toString()))).getHash());
+        assertThat(versionHistory.getVersions(profile)).hasSize(2);
+        assertThat(versionHistory.getPublished(profile).getSequence()).isEqualTo(2);
+    }
+
+    @Test
+    void documentsInactiveForTheStartupActivationContextAreDropped() throws Exception {
+        this.appConfig.publish("app", "env", "profile", "application/x-yaml",
+                "key: fresh\n---\nspring.config.activate.on-cloud-platform: kubernetes\nkey: cloud\n");
+        AWSAppConfigSession session = createSession(this.appConfig, "initial");
+        this.refresher = createRefresher();
+        AWSAppConfigContributorProcessor processor = new AWSAppConfigContributorProcessor(LogFactory.getLog(getClass()),
+                new DefaultBootstrapContext(), new ConfigDataImporter(Supplier::get, ConfigDataNotFoundAction.FAIL, null, null),
+                new ConfigDataEnvironmentContributors(Supplier::get, new DefaultBootstrapContext(), Collections.emptyList()));
+        processor.process(new ConfigDataActivationContext(CloudPlatform.HEROKU, null));
+        processor.release();
+        this.refresher.setContributorProcessor(processor);
+        assertThat(this.refresher.refresh(session)).isTrue();
+        assertThat(this.environment.getProperty("key")).isEqualTo("fresh");
+        assertThat(session.getPropertySourceNames()).containsExactly(REQUEST.toString());
+        this.appConfig.publish("app", "env", "profile", "application/x-yaml",
+                "spring.config.activate.on-cloud-platform: kubernetes\nkey: changed\n");
+        assertThat(this.refresher.refresh(session)).isFalse();
+        assertThat(this.environment.getProperty("key")).isEqualTo("fresh");
+    }
+
+    @Test
+    void documentsAreSwappedAsOneEntry() throws Exception {
+        this.appConfig.publish("app", "env", "profile", "application/x-yaml", documents("v1"));
+        AWSAppConfigSession session = createSession(this.appConfig, "initial");
+        String name = REQUEST.toString();
+        this.environment.getPropertySources().addAfter(name, new MapPropertySource(name + " (document #1)", Collections.singletonMap("second", "initial")));
+        session.setPropertySourceNames(List.of(name, name + " (document #1)"));
+        int size = this.environment.getPropertySources().size();
+        this.refresher = createRefresher();
+        assertThat(this.refresher.refresh(session)).isTrue();
+        assertThat(session.getPropertySourceNames()).containsExactly(name);
+        PropertySource<?> published = this.environment.getPropertySources().get(name);
+        assertThat(published).isInstanceOf(AWSAppConfigCompositePropertySource.class);
+        assertThat(this.environment.getPropertySources()).hasSize(size - 1);
+        assertThat(this.environment.getProperty("key")).isEqualTo("v1-first");
+        assertThat(this.environment.getProperty("second")).isEqualTo("v1");
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"single\"}");
+        assertThat(this.refresher.refresh(session)).isTrue();
+        assertThat(this.environment.getPropertySources().get(name)).isNotInstanceOf(AWSAppConfigCompositePropertySource.class);
+        assertThat(this.environment.getPropertySources()).hasSize(size - 1);
+        assertThat(this.environment.getProperty("key")).isEqualTo("single");
+        assertThat(this.environment.getProperty("second")).isNull();
+    }
+
+    @Test
+    void compositeKeepsPrecedenceAndOriginsOfItsDocuments() {
+        Origin first = new TextResourceOrigin(null, null);
+        Origin second = new TextResourceOrigin(null, new TextResourceOrigin.Location(1, 0));
+        AWSAppConfigCompositePropertySource composite = new AWSAppConfigCompositePropertySource("composite", List.of(
+                new OriginTrackedMapPropertySource("first", Map.of("key", OriginTrackedValue.of("first", first)), true),
+                new OriginTrackedMapPropertySource("second", Map.of("key", OriginTrackedValue.of("second", second),
+                        "other", OriginTrackedValue.of("other", second)), true),
+                new MapPropertySource("untracked", Map.of("untracked", "value"))));
+        assertThat(composite.getProperty("key")).isEqualTo("first");
+        assertThat(composite.getOrigin("key")).isSameAs(first);
+        assertThat(composite.getOrigin("other")).isSameAs(second);
+        assertThat(composite.getOrigin("untracked")).isNull();
+        assertThat(composite.getOrigin("missing")).isNull();
+        assertThat(composite.isImmutable()).isTrue();
+    }
+
+    @Test
+    void readersNeverSeeDocumentsOfDifferentVersions() throws Exception {
+        this.appConfig.publish("app", "env", "profile", "application/x-yaml", documents("v0"));
+        AWSAppConfigSession session = createSession(this.appConfig, "initial");
+        this.refresher = createRefresher();
+        assertThat(this.refresher.refresh(session)).isTrue();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> mixed = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && mixed.get() == null) {
+                Object first = null;
+                Object second = null;
+                for (PropertySource<?> propertySource : this.environment.getPropertySources()) {
+                    first = (first != null) ? first : propertySource.getProperty("key");
+                    second = (second != null) ? second : propertySource.getProperty("second");
+                }
+                if (first != null && second != null && !first.equals(second + "-first")) {
+                    mixed.set(first + " with " + second);
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int version = 1; version <= 500 && mixed.get() == null; version++) {
+                this.appConfig.publish("app", "env", "profile", "application/x-yaml", documents("v" + version));
+                assertThat(this.refresher.refresh(session)).isTrue();
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        assertThat(mixed.get()).isNull();
+    }
+
+    private static String documents(String version) {
+        return "key: " + version + "-first\n---\nspring.config.activate.on-cloud-platform: kubernetes\nsecond: " + version + "\n";
+    }
+
+    private AWSAppConfigSession createSession(AWSAppConfigTransport transport, String value) {
+        AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(transport, REQUEST));
+        String name = REQUEST.toString();
+        this.environment.getPropertySources().addFirst(new MapPropertySource(name, Collections.singletonMap("key", value)));
+        session.setPropertySourceNames(Collections.singletonList(name));
+        session.setChecksum(AWSAppConfigSnapshotStore.checksum(ByteBuffer.wrap(("{\"key\":\"" + value + "\"}").getBytes(StandardCharsets.UTF_8))));
+        this.sessions.register(session);
+        return session;
+    }
+
+    private AWSAppConfigRefresher createRefresher() {
+        return new AWSAppConfigRefresher(this.environment, this.sessions, new AWSAppConfigDataLoader(), new AWSAppConfigGeneration(), this.properties);
+    }
+
+    /**
+     * Transport failing the first polls, like AppConfig being unreachable.
+     */
+    private static class FailingTransport implements AWSAppConfigTransport {
+
+        private final AWSAppConfigTransport delegate;
+
+        private final int failures;
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        FailingTransport(AWSAppConfigTransport delegate, int failures) {
+            this.delegate = delegate;
+            this.failures = failures;
+        }
+
+        @Override
+        public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+            return this.delegate.startConfigurationSession(request);
+        }
+
+        @Override
+        public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+            if (this.attempts.incrementAndGet() <= this.failures) {
+                return CompletableFuture.failedFuture(new InternalServerException("Unavailable"));
+            }
+            return this.delegate.getLatestConfiguration(configurationToken);
+        }
+
+        @Override
+        public boolean isAsync() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.PropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Profiles loaded on demand by an {@link AWSAppConfigRepository}, polled in the background on a virtual clock.
+ */
+class AWSAppConfigRepositoryTests {
+
+    private final AWSAppConfigInMemoryTransport appConfig = new AWSAppConfigInMemoryTransport();
+
+    private final AWSAppConfigProperties properties = new AWSAppConfigProperties();
+
+    private final AWSAppConfigClientRegistry clientRegistry = new AWSAppConfigClientRegistry();
+
+    private final AWSAppConfigPollSchedulerTests.VirtualTimeExecutor executor = new AWSAppConfigPollSchedulerTests.VirtualTimeExecutor();
+
+    private final AWSAppConfigRepository repository = new AWSAppConfigRepository(new AWSAppConfigDataLoader(), this.properties,
+            this.clientRegistry, List.of("default"), new AWSAppConfigPollScheduler(this.executor, 0, 0, this.executor::nanoTime));
+
+    AWSAppConfigRepositoryTests() {
+        this.properties.setApplication("app");
+        this.properties.setEnvironment("env");
+        this.appConfig.setPollIntervalSeconds(0);
+        register(this.appConfig);
+    }
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentFirstAccessesShareOneLoad() throws Exception {
+        publish("tenant", "{\"key\":\"value\"}");
+        GatedTransport transport = new GatedTransport(this.appConfig);
+        register(transport);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<PropertySource<?>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(threads.submit(() -> this.repository.get("tenant")));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (this.repository.getMissCount() < 8 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            transport.gate.countDown();
+            PropertySource<?> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<PropertySource<?>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        assertThat(this.repository.getMissCount()).isEqualTo(8);
+        assertThat(this.repository.getLoadSuccessCount()).isEqualTo(1);
+        assertThat(this.appConfig.getSessionCount()).isEqualTo(1);
+        assertThat(this.repository.get("tenant").getProperty("key")).isEqualTo("value");
+        assertThat(this.repository.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedProfileIsEvictedBySize() throws InterruptedException {
+        this.properties.getRepository().setMaxSize(2);
+        publish("a", "{\"key\":\"a\"}");
+        publish("b", "{\"key\":\"b\"}");
+        publish("c", "{\"key\":\"c\"}");
+        this.repository.get("a");
+        this.repository.get("b");
+        Thread.sleep(1);
+        this.repository.get("a");
+        this.repository.get("c");
+        assertThat(this.repository.size()).isEqualTo(2);
+        assertThat(this.repository.getEvictionCount()).isEqualTo(1);
+        this.repository.get("a");
+        this.repository.get("c");
+        assertThat(this.appConfig.getSessionCount()).isEqualTo(3);
+        this.repository.get("b");
+        assertThat(this.appConfig.getSessionCount()).isEqualTo(4);
+    }
+
+    @Test
+    void profilesAreEvictedByWeight() {
+        this.properties.getRepository().setMaxWeight(3);
+        publish("a", "{\"one\":1,\"two\":2}");
+        publish("b", "{\"one\":1,\"two\":2}");
+        this.repository.get("a");
+        assertThat(this.repository.getWeight()).isEqualTo(2);
+        this.repository.get("b");
+        assertThat(this.repository.size()).isEqualTo(1);
+        assertThat(this.repository.getWeight()).isEqualTo(2);
+        assertThat(this.repository.getEvictionCount()).isEqualTo(1);
+        assertThat(this.repository.get("b").getProperty("one")).isEqualTo(1);
+        this.repository.invalidate("b");
+        assertThat(this.repository.getWeight()).isZero();
+    }
+
+    @Test
+    void staleProfileIsServedWhileRefreshing() {
+        this.properties.getRepository().setRefreshAfter(Duration.ZERO);
+        publish("tenant", "{\"key\":\"value\"}");
+        assertThat(this.repository.get("tenant").getProperty("key")).isEqualTo("value");
+        publish("tenant", "{\"key\":\"changed\"}");
+        long polls = this.appConfig.getPollCount();
+        assertThat(this.repository.get("tenant").getProperty("key")).isEqualTo("value");
+        assertThat(this.repository.get("tenant").getProperty("key")).isEqualTo("value");
+        assertThat(this.appConfig.getPollCount()).isEqualTo(polls);
+        this.executor.advance(Duration.ZERO);
+        assertThat(this.appConfig.getPollCount()).isEqualTo(polls + 1);
+        assertThat(this.repository.getRefreshCount()).isEqualTo(1);
+        assertThat(this.repository.get("tenant").getProperty("key")).isEqualTo("changed");
+        assertThat(this.repository.getLoadSuccessCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        assertThatIllegalStateException().isThrownBy(() -> this.repository.get("tenant"));
+        assertThat(this.repository.getLoadFailureCount()).isEqualTo(1);
+        assertThat(this.repository.size()).isZero();
+        publish("tenant", "{\"key\":\"value\"}");
+        assertThat(this.repository.get("tenant").getProperty("key")).isEqualTo("value");
+        assertThat(this.repository.getLoadSuccessCount()).isEqualTo(1);
+    }
+
+    private void publish(String profile, String content) {
+        this.appConfig.publish("app", "env", profile, "application/json", content);
+    }
+
+    private void register(AWSAppConfigTransport transport) {
+        AWSAppConfigProperties.Client client = this.properties.getClient();
+        this.clientRegistry.register(new AWSAppConfigClientRegistry.ClientKey(client.getRegion(), client.getEndpoint(), client.getProfileName(),
+                client.getTransport()), transport);
+    }
+
+    /**
+     * Transport holding the start of sessions until the test opens its gate.
+     */
+    private static class GatedTransport implements AWSAppConfigTransport {
+
+        private final AWSAppConfigTransport delegate;
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        GatedTransport(AWSAppConfigTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+            try {
+                this.gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return this.delegate.startConfigurationSession(request);
+        }
+
+        @Override
+        public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+            return this.delegate.getLatestConfiguration(configurationToken);
+        }
+    }
+}
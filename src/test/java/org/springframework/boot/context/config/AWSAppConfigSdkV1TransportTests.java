@@ -0,0 +1,141 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.appconfigdata.AbstractAWSAppConfigData;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationRequest;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionResult;
+import com.amazonaws.services.appconfigdata.model.ThrottlingException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Calls of an {@link AWSAppConfigSdkV1Transport} to a stubbed SDK v1 client, directly and through the sessions and
+ * refresher.
+ */
+class AWSAppConfigSdkV1TransportTests {
+
+    private static final StartConfigurationSessionRequest REQUEST = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+            .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("profile").withRequiredMinimumPollIntervalInSeconds(30);
+
+    private final StubClient client = new StubClient();
+
+    private final AWSAppConfigSdkV1Transport transport = new AWSAppConfigSdkV1Transport(this.client);
+
+    @Test
+    void callsAreMadeOnTheCallersThread() throws Exception {
+        assertThat(this.transport.isAsync()).isFalse();
+        this.client.configuration = "{\"key\":\"value\"}";
+        assertThat(this.transport.startConfigurationSession(REQUEST).get()).isEqualTo("token-0");
+        assertThat(this.client.sessionRequests).containsExactly(REQUEST);
+        CompletableFuture<GetLatestConfigurationResult> result = this.transport.getLatestConfiguration("token-0");
+        assertThat(result).isDone();
+        assertThat(result.get().getNextPollConfigurationToken()).isEqualTo("token-1");
+        assertThat(result.get().getVersionLabel()).isEqualTo("1");
+        assertThat(this.client.tokens).containsExactly("token-0");
+        assertThat(this.client.threads).containsOnly(Thread.currentThread());
+    }
+
+    @Test
+    void failuresCompleteTheFuturesExceptionally() {
+        ThrottlingException throttling = new ThrottlingException("Slow down");
+        this.client.failure = throttling;
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> this.transport.startConfigurationSession(REQUEST).get())
+                .havingCause().isSameAs(throttling);
+        SdkClientException unreachable = new SdkClientException("Unable to execute HTTP request");
+        this.client.failure = unreachable;
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> this.transport.getLatestConfiguration("token").get())
+                .havingCause().isSameAs(unreachable);
+    }
+
+    @Test
+    void sessionIsRefreshedSynchronously() throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource(REQUEST.toString(), Collections.singletonMap("key", "initial")));
+        AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(this.transport, REQUEST));
+        session.setPropertySourceNames(Collections.singletonList(REQUEST.toString()));
+        AWSAppConfigSessions sessions = new AWSAppConfigSessions();
+        sessions.register(session);
+        AWSAppConfigRefresher refresher = new AWSAppConfigRefresher(environment, sessions, new AWSAppConfigDataLoader(), new AWSAppConfigGeneration(),
+                new AWSAppConfigProperties.Refresh());
+        this.client.configuration = "{\"key\":\"refreshed\"}";
+        assertThat(refresher.refresh(session)).isTrue();
+        assertThat(environment.getProperty("key")).isEqualTo("refreshed");
+        this.client.configuration = null;
+        assertThat(refresher.refresh(session)).isFalse();
+        assertThat(this.client.tokens).containsExactly("token-0", "token-1");
+        this.client.failure = new ThrottlingException("Slow down");
+        assertThatExceptionOfType(ThrottlingException.class).isThrownBy(() -> refresher.refresh(session));
+        assertThat(environment.getProperty("key")).isEqualTo("refreshed");
+    }
+
+    @Test
+    void closeShutsTheClientDown() {
+        this.transport.close();
+        assertThat(this.client.shutdown).isTrue();
+    }
+
+    /**
+     * Client answering with the configured payload, or failing, and recording the calls made to it.
+     */
+    private static class StubClient extends AbstractAWSAppConfigData {
+
+        private final List<StartConfigurationSessionRequest> sessionRequests = new ArrayList<>();
+
+        private final List<String> tokens = new ArrayList<>();
+
+        private final List<Thread> threads = new ArrayList<>();
+
+        private String configuration;
+
+        private RuntimeException failure;
+
+        private boolean shutdown;
+
+        @Override
+        public StartConfigurationSessionResult startConfigurationSession(StartConfigurationSessionRequest request) {
+            this.threads.add(Thread.currentThread());
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            this.sessionRequests.add(request);
+            return new StartConfigurationSessionResult().withInitialConfigurationToken("token-0");
+        }
+
+        @Override
+        public GetLatestConfigurationResult getLatestConfiguration(GetLatestConfigurationRequest request) {
+            this.threads.add(Thread.currentThread());
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            this.tokens.add(request.getConfigurationToken());
+            GetLatestConfigurationResult result = new GetLatestConfigurationResult()
+                    .withNextPollConfigurationToken("token-" + this.tokens.size()).withNextPollIntervalInSeconds(30);
+            if (this.configuration == null) {
+                return result.withConfiguration(ByteBuffer.allocate(0));
+            }
+            String configuration = this.configuration;
+            this.configuration = null;
+            return result.withConfiguration(ByteBuffer.wrap(configuration.getBytes(StandardCharsets.UTF_8))).withContentType("application/json")
+                    .withVersionLabel(String.valueOf(this.tokens.size()));
+        }
+
+        @Override
+        public void shutdown() {
+            this.shutdown = true;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.amazonaws.services.appconfigdata.model.ThrottlingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.appconfigdata.AppConfigDataAsyncClient;
+import software.amazon.awssdk.services.appconfigdata.model.BadRequestException;
+import software.amazon.awssdk.services.appconfigdata.model.GetLatestConfigurationRequest;
+import software.amazon.awssdk.services.appconfigdata.model.GetLatestConfigurationResponse;
+import software.amazon.awssdk.services.appconfigdata.model.StartConfigurationSessionResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Calls of an {@link AWSAppConfigSdkV2Transport} to a stubbed SDK v2 client completing on another thread, directly
+ * and through the sessions and refresher, and the translation of its failures to SDK v1 exceptions.
+ */
+class AWSAppConfigSdkV2TransportTests {
+
+    private static final StartConfigurationSessionRequest REQUEST = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+            .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("profile").withRequiredMinimumPollIntervalInSeconds(30);
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private final StubClient client = new StubClient(this.executor);
+
+    private final AWSAppConfigSdkV2Transport transport = new AWSAppConfigSdkV2Transport(this.client);
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void requestsAndResponsesAreMapped() throws Exception {
+        assertThat(this.transport.isAsync()).isTrue();
+        assertThat(this.transport.startConfigurationSession(REQUEST).get(5, TimeUnit.SECONDS)).isEqualTo("token-0");
+        software.amazon.awssdk.services.appconfigdata.model.StartConfigurationSessionRequest sessionRequest = this.client.sessionRequests.get(0);
+        assertThat(sessionRequest.applicationIdentifier()).isEqualTo("app");
+        assertThat(sessionRequest.environmentIdentifier()).isEqualTo("env");
+        assertThat(sessionRequest.configurationProfileIdentifier()).isEqualTo("profile");
+        assertThat(sessionRequest.requiredMinimumPollIntervalInSeconds()).isEqualTo(30);
+        this.client.configuration = "{\"key\":\"value\"}";
+        GetLatestConfigurationResult result = this.transport.getLatestConfiguration("token-0").get(5, TimeUnit.SECONDS);
+        assertThat(this.client.tokens).containsExactly("token-0");
+        assertThat(StandardCharsets.UTF_8.decode(result.getConfiguration()).toString()).isEqualTo("{\"key\":\"value\"}");
+        assertThat(result.getContentType()).isEqualTo("application/json");
+        assertThat(result.getNextPollConfigurationToken()).isEqualTo("token-1");
+        assertThat(result.getNextPollIntervalInSeconds()).isEqualTo(30);
+        assertThat(result.getVersionLabel()).isEqualTo("1");
+        GetLatestConfigurationResult empty = this.transport.getLatestConfiguration("token-1").get(5, TimeUnit.SECONDS);
+        assertThat(AWSAppConfigSession.hasConfiguration(empty)).isFalse();
+        assertThat(empty.getVersionLabel()).isNull();
+    }
+
+    @Test
+    void throttlingIsTranslated() {
+        this.client.failure = AwsServiceException.builder().message("Rate exceeded").statusCode(429).requestId("request")
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("ThrottlingException").build()).build();
+        Throwable translated = failure(this.transport.getLatestConfiguration("token"));
+        assertThat(translated).isInstanceOf(ThrottlingException.class);
+        assertThat(AWSAppConfigPollScheduler.isThrottling(translated)).isTrue();
+        AmazonServiceException serviceException = (AmazonServiceException) translated;
+        assertThat(serviceException.getStatusCode()).isEqualTo(429);
+        assertThat(serviceException.getRequestId()).isEqualTo("request");
+        assertThat(serviceException.getErrorCode()).isEqualTo("ThrottlingException");
+        assertThat(serviceException.getServiceName()).isEqualTo("AWSAppConfigData");
+    }
+
+    @Test
+    void serviceExceptionsAreTranslated() {
+        BadRequestException badRequest = BadRequestException.builder().message("Invalid token").statusCode(400).requestId("request")
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("BadRequestException").build()).build();
+        this.client.failure = badRequest;
+        Throwable translated = failure(this.transport.startConfigurationSession(REQUEST));
+        assertThat(translated).isExactlyInstanceOf(AmazonServiceException.class).hasCause(badRequest);
+        assertThat(AWSAppConfigPollScheduler.isThrottling(translated)).isFalse();
+        AmazonServiceException serviceException = (AmazonServiceException) translated;
+        assertThat(serviceException.getStatusCode()).isEqualTo(400);
+        assertThat(serviceException.getErrorCode()).isEqualTo("BadRequestException");
+    }
+
+    @Test
+    void clientExceptionsAreUnwrapped() {
+        SdkClientException unreachable = SdkClientException.create("Unable to execute HTTP request");
+        this.client.failure = new CompletionException(unreachable);
+        assertThat(failure(this.transport.getLatestConfiguration("token"))).isSameAs(unreachable);
+    }
+
+    @Test
+    void sessionIsRefreshedAsynchronously() throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource(REQUEST.toString(), Collections.singletonMap("key", "initial")));
+        AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(this.transport, REQUEST));
+        session.setPropertySourceNames(Collections.singletonList(REQUEST.toString()));
+        AWSAppConfigSessions sessions = new AWSAppConfigSessions();
+        sessions.register(session);
+        AWSAppConfigRefresher refresher = new AWSAppConfigRefresher(environment, sessions, new AWSAppConfigDataLoader(), new AWSAppConfigGeneration(),
+                new AWSAppConfigProperties.Refresh());
+        this.client.configuration = "{\"key\":\"refreshed\"}";
+        CompletableFuture<Boolean> refreshed = refresher.refreshAsync(session);
+        assertThat(refreshed.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(environment.getProperty("key")).isEqualTo("refreshed");
+        assertThat(this.client.completionThreads).isNotEmpty().doesNotContain(Thread.currentThread());
+        this.client.failure = AwsServiceException.builder().statusCode(429)
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode("ThrottlingException").build()).build();
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> refresher.refreshAsync(session).get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(ThrottlingException.class);
+        assertThat(session.isStarted()).isTrue();
+        assertThat(environment.getProperty("key")).isEqualTo("refreshed");
+    }
+
+    @Test
+    void closeClosesTheClient() {
+        this.transport.close();
+        assertThat(this.client.closed).isTrue();
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            return ex.getCause();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        throw new AssertionError("Expected a failure");
+    }
+
+    /**
+     * Client completing its futures on an executor with the configured payload or failure, like the SDK completes them
+     * on its completion executor.
+     */
+    private static class StubClient implements AppConfigDataAsyncClient {
+
+        private final ScheduledExecutorService executor;
+
+        private final List<software.amazon.awssdk.services.appconfigdata.model.StartConfigurationSessionRequest> sessionRequests = new ArrayList<>();
+
+        private final List<String> tokens = new ArrayList<>();
+
+        private final List<Thread> completionThreads = new ArrayList<>();
+
+        private volatile String configuration;
+
+        private volatile Throwable failure;
+
+        private volatile boolean closed;
+
+        StubClient(ScheduledExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public CompletableFuture<StartConfigurationSessionResponse> startConfigurationSession(
+                software.amazon.awssdk.services.appconfigdata.model.StartConfigurationSessionRequest request) {
+            return complete(() -> {
+                this.sessionRequests.add(request);
+                return StartConfigurationSessionResponse.builder().initialConfigurationToken("token-0").build();
+            });
+        }
+
+        @Override
+        public CompletableFuture<GetLatestConfigurationResponse> getLatestConfiguration(GetLatestConfigurationRequest request) {
+            return complete(() -> {
+                this.tokens.add(request.configurationToken());
+                GetLatestConfigurationResponse.Builder response = GetLatestConfigurationResponse.builder()
+                        .nextPollConfigurationToken("token-" + this.tokens.size()).nextPollIntervalInSeconds(30);
+                String configuration = this.configuration;
+                this.configuration = null;
+                SdkHttpResponse.Builder httpResponse = SdkHttpResponse.builder().statusCode(200);
+                if (configuration == null) {
+                    response.configuration(SdkBytes.fromByteArray(new byte[0]));
+                } else {
+                    response.configuration(SdkBytes.fromUtf8String(configuration)).contentType("application/json");
+                    httpResponse.putHeader("Version-Label", String.valueOf(this.tokens.size()));
+                }
+                response.sdkHttpResponse(httpResponse.build());
+                return response.build();
+            });
+        }
+
+        private <T> CompletableFuture<T> complete(Supplier<T> response) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            this.executor.execute(() -> {
+                this.completionThreads.add(Thread.currentThread());
+                Throwable failure = this.failure;
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(response.get());
+                }
+            });
+            return future;
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+}
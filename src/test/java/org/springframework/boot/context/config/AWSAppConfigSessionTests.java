@@ -0,0 +1,94 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.appconfigdata.model.BadRequestException;
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import com.amazonaws.services.appconfigdata.model.ThrottlingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Polls of an {@link AWSAppConfigSession} against a transport whose configuration tokens can only be used once.
+ */
+class AWSAppConfigSessionTests {
+
+    private final AWSAppConfigInMemoryTransport appConfig = new AWSAppConfigInMemoryTransport();
+
+    private final LossyTransport transport = new LossyTransport(this.appConfig);
+
+    private final AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(this.transport,
+            new StartConfigurationSessionRequest().withApplicationIdentifier("app").withEnvironmentIdentifier("env")
+                    .withConfigurationProfileIdentifier("profile")));
+
+    @Test
+    void sessionIsRestartedAfterLostResponse() {
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        this.session.poll();
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"changed\"}");
+        this.transport.failure = new SdkClientException("Connection reset");
+        assertThatExceptionOfType(SdkClientException.class).isThrownBy(this.session::poll);
+        this.transport.failure = null;
+        GetLatestConfigurationResult configurationResult = this.session.poll();
+        assertThat(configurationResult.getVersionLabel()).isEqualTo("2");
+        assertThat(this.appConfig.getSessionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void sessionIsRestartedAfterRejectedToken() {
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        this.session.poll();
+        this.transport.failure = new BadRequestException("Expired token");
+        assertThatExceptionOfType(BadRequestException.class).isThrownBy(this.session::poll);
+        this.transport.failure = null;
+        assertThat(AWSAppConfigSession.hasConfiguration(this.session.poll())).isTrue();
+        assertThat(AWSAppConfigSession.hasConfiguration(this.session.poll())).isFalse();
+        assertThat(this.appConfig.getSessionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void tokenIsKeptWhenThrottled() {
+        this.appConfig.publish("app", "env", "profile", "application/json", "{\"key\":\"value\"}");
+        this.session.poll();
+        this.transport.throttle = true;
+        assertThatExceptionOfType(ThrottlingException.class).isThrownBy(this.session::poll);
+        this.transport.throttle = false;
+        assertThat(AWSAppConfigSession.hasConfiguration(this.session.poll())).isFalse();
+        assertThat(this.appConfig.getSessionCount()).isEqualTo(1);
+    }
+
+    /**
+     * Transport using the token of a poll before failing, like a poll whose response was lost.
+     */
+    private static class LossyTransport implements AWSAppConfigTransport {
+
+        private final AWSAppConfigTransport delegate;
+
+        private volatile RuntimeException failure;
+
+        private volatile boolean throttle;
+
+        LossyTransport(AWSAppConfigTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+            return this.delegate.startConfigurationSession(request);
+        }
+
+        @Override
+        public CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+            if (this.throttle) {
+                return CompletableFuture.failedFuture(new ThrottlingException("Rate exceeded"));
+            }
+            CompletableFuture<GetLatestConfigurationResult> result = this.delegate.getLatestConfiguration(configurationToken);
+            RuntimeException failure = this.failure;
+            return (failure != null) ? result.thenCompose((ignored) -> CompletableFuture.failedFuture(failure)) : result;
+        }
+    }
+}
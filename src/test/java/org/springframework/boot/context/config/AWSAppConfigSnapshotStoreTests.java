@@ -0,0 +1,131 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes and reads {@link AWSAppConfigSnapshotStore} files, including damaged ones.
+ */
+class AWSAppConfigSnapshotStoreTests {
+
+    private static final StartConfigurationSessionRequest REQUEST = new StartConfigurationSessionRequest().withApplicationIdentifier("app")
+            .withEnvironmentIdentifier("env").withConfigurationProfileIdentifier("profile");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotRoundTrips() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory);
+        ByteBuffer payload = ByteBuffer.wrap("server:\n  port: 8081\n".getBytes(StandardCharsets.UTF_8));
+        store.write(REQUEST, new GetLatestConfigurationResult().withConfiguration(payload).withContentType("application/x-yaml").withVersionLabel("3"));
+        assertThat(payload.position()).isZero();
+        AWSAppConfigSnapshotStore.Snapshot snapshot = store.read(REQUEST).orElseThrow();
+        assertThat(snapshot.getContentType()).isEqualTo("application/x-yaml");
+        assertThat(snapshot.getVersionLabel()).isEqualTo("3");
+        assertThat(snapshot.getChecksum()).isEqualTo(AWSAppConfigSnapshotStore.checksum(payload));
+        assertThat(StandardCharsets.UTF_8.decode(snapshot.getPayload()).toString()).isEqualTo("server:\n  port: 8081\n");
+        GetLatestConfigurationResult configurationResult = snapshot.toConfigurationResult();
+        assertThat(configurationResult.getContentType()).isEqualTo("application/x-yaml");
+        assertThat(configurationResult.getConfiguration().remaining()).isEqualTo(payload.remaining());
+    }
+
+    @Test
+    void snapshotWithoutContentTypeOrVersionRoundTrips() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory.resolve("nested"));
+        store.write(REQUEST, new GetLatestConfigurationResult().withConfiguration(ByteBuffer.wrap(new byte[] {1, 2, 3})));
+        AWSAppConfigSnapshotStore.Snapshot snapshot = store.read(REQUEST).orElseThrow();
+        assertThat(snapshot.getContentType()).isNull();
+        assertThat(snapshot.getVersionLabel()).isNull();
+        assertThat(snapshot.getPayload().remaining()).isEqualTo(3);
+    }
+
+    @Test
+    void rewriteReplacesSnapshot() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory);
+        store.write(REQUEST, result("{\"key\":\"value\"}", "1"));
+        store.write(REQUEST, result("{\"key\":\"changed\"}", "2"));
+        AWSAppConfigSnapshotStore.Snapshot snapshot = store.read(REQUEST).orElseThrow();
+        assertThat(snapshot.getVersionLabel()).isEqualTo("2");
+        assertThat(StandardCharsets.UTF_8.decode(snapshot.getPayload()).toString()).isEqualTo("{\"key\":\"changed\"}");
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertThat(files).containsExactly(store.getPath(REQUEST));
+        }
+    }
+
+    @Test
+    void missingSnapshotIsEmpty() throws IOException {
+        assertThat(new AWSAppConfigSnapshotStore(this.directory).read(REQUEST)).isEmpty();
+    }
+
+    @Test
+    void snapshotsOfProfilesAreDistinct() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory);
+        StartConfigurationSessionRequest other = REQUEST.clone().withConfigurationProfileIdentifier("other");
+        store.write(REQUEST, result("{\"key\":\"value\"}", "1"));
+        assertThat(store.getPath(other)).isNotEqualTo(store.getPath(REQUEST));
+        assertThat(store.read(other)).isEmpty();
+    }
+
+    @Test
+    void snapshotWithCorruptHeaderIsIgnored() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory);
+        store.write(REQUEST, result("{\"key\":\"value\"}", "1"));
+        Path path = store.getPath(REQUEST);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[0] ^= 0xFF;
+        Files.write(path, bytes);
+        assertThat(store.read(REQUEST)).isEmpty();
+    }
+
+    @Test
+    void snapshotWithOverlongLengthIsIgnored() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory);
+        store.write(REQUEST, result("{\"key\":\"value\"}", "1"));
+        Path path = store.getPath(REQUEST);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        bytes.putInt(4, Integer.MAX_VALUE);
+        Files.write(path, bytes.array());
+        assertThat(store.read(REQUEST)).isEmpty();
+    }
+
+    @Test
+    void truncatedSnapshotIsIgnored() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory);
+        store.write(REQUEST, result("{\"key\":\"value\"}", "1"));
+        Path path = store.getPath(REQUEST);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThat(store.read(REQUEST)).isEmpty();
+    }
+
+    @Test
+    void snapshotWithChecksumMismatchIsIgnored() throws IOException {
+        AWSAppConfigSnapshotStore store = new AWSAppConfigSnapshotStore(this.directory);
+        store.write(REQUEST, result("{\"key\":\"value\"}", "1"));
+        Path path = store.getPath(REQUEST);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 2] ^= 0x01;
+        Files.write(path, bytes);
+        Optional<AWSAppConfigSnapshotStore.Snapshot> snapshot = store.read(REQUEST);
+        assertThat(snapshot).isEmpty();
+    }
+
+    private static GetLatestConfigurationResult result(String content, String versionLabel) {
+        return new GetLatestConfigurationResult().withConfiguration(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)))
+                .withContentType("application/json").withVersionLabel(versionLabel);
+    }
+}
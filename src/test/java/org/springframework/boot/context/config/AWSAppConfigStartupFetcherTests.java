@@ -0,0 +1,188 @@
+package org.springframework.boot.context.config;
+
+import com.amazonaws.services.appconfigdata.model.GetLatestConfigurationResult;
+import com.amazonaws.services.appconfigdata.model.InternalServerException;
+import com.amazonaws.services.appconfigdata.model.StartConfigurationSessionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Startup fetches by an {@link AWSAppConfigStartupFetcher} against a transport answering polls from a script.
+ */
+class AWSAppConfigStartupFetcherTests {
+
+    private final AWSAppConfigProperties.Startup properties = new AWSAppConfigProperties.Startup();
+
+    private final ScriptedTransport transport = new ScriptedTransport();
+
+    private final AWSAppConfigSession session = new AWSAppConfigSession(new AWSAppConfigResource(this.transport,
+            new StartConfigurationSessionRequest().withApplicationIdentifier("app").withEnvironmentIdentifier("env")
+                    .withConfigurationProfileIdentifier("profile")));
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void configurationOfFirstPollIsReturned() throws Exception {
+        this.transport.answer(configuration("{}"));
+        AWSAppConfigStartupFetcher.Result result = new AWSAppConfigStartupFetcher(this.properties).fetch(this.session);
+        assertThat(result.isTimedOut()).isFalse();
+        assertThat(result.getConfigurationResult().getVersionLabel()).isEqualTo("1");
+        assertThat(result.getAttempts()).isEqualTo(1);
+        assertThat(result.getWaitTime()).isZero();
+        assertThat(this.transport.sessions).isEqualTo(1);
+    }
+
+    @Test
+    void emptyPollsAreRetriedWithBoundedBackoff() throws Exception {
+        configureBackoff(3);
+        this.transport.answer(empty(null), empty(null), empty(null), configuration("{}"));
+        AWSAppConfigStartupFetcher.Result result = new AWSAppConfigStartupFetcher(this.properties).fetch(this.session);
+        assertThat(result.getAttempts()).isEqualTo(4);
+        assertThat(result.getWaitTime()).isBetween(Duration.ofMillis(10 + 20 + 40), Duration.ofMillis(20 + 40 + 80));
+        assertThat(result.getElapsedTime()).isGreaterThanOrEqualTo(result.getWaitTime());
+    }
+
+    @Test
+    void nextPollIntervalIsUsedOnceBackoffRetriesAreExhausted() throws Exception {
+        configureBackoff(1);
+        this.transport.answer(empty(1), empty(1), configuration("{}"));
+        AWSAppConfigStartupFetcher.Result result = new AWSAppConfigStartupFetcher(this.properties).fetch(this.session);
+        assertThat(result.getAttempts()).isEqualTo(3);
+        assertThat(result.getWaitTime()).isBetween(Duration.ofMillis(1010), Duration.ofMillis(1020));
+    }
+
+    @Test
+    void maxBackoffIsUsedWithoutNextPollInterval() throws Exception {
+        configureBackoff(0);
+        this.transport.answer(empty(null), empty(0), configuration("{}"));
+        AWSAppConfigStartupFetcher.Result result = new AWSAppConfigStartupFetcher(this.properties).fetch(this.session);
+        assertThat(result.getAttempts()).isEqualTo(3);
+        assertThat(result.getWaitTime()).isEqualTo(Duration.ofMillis(80 + 80));
+    }
+
+    @Test
+    void fetchTimesOutAtTheDeadline() throws Exception {
+        configureBackoff(0);
+        this.properties.setTimeout(Duration.ofMillis(100));
+        this.transport.answer(empty(10), empty(10), empty(10));
+        long start = System.nanoTime();
+        AWSAppConfigStartupFetcher.Result result = new AWSAppConfigStartupFetcher(this.properties).fetch(this.session);
+        assertThat(result.isTimedOut()).isTrue();
+        assertThat(result.getConfigurationResult()).isNull();
+        assertThat(result.getAttempts()).isEqualTo(2);
+        assertThat(result.getWaitTime()).isLessThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void failedPollIsNotRetried() {
+        configureBackoff(3);
+        this.transport.answer(empty(null), new InternalServerException("Unavailable"), configuration("{}"));
+        assertThatExceptionOfType(InternalServerException.class)
+                .isThrownBy(() -> new AWSAppConfigStartupFetcher(this.properties).fetch(this.session));
+        assertThat(this.transport.polls).isEqualTo(2);
+    }
+
+    @Test
+    void asynchronousFetchRetriesOnTheExecutor() throws Exception {
+        configureBackoff(1);
+        this.transport.answer(empty(null), empty(null), configuration("{}"));
+        AWSAppConfigStartupFetcher.Result result = new AWSAppConfigStartupFetcher(this.properties).fetchAsync(this.session, this.executor)
+                .get(5, TimeUnit.SECONDS);
+        assertThat(result.getAttempts()).isEqualTo(3);
+        assertThat(result.getWaitTime()).isBetween(Duration.ofMillis(10 + 80), Duration.ofMillis(20 + 80));
+        assertThat(result.getConfigurationResult().getVersionLabel()).isEqualTo("1");
+    }
+
+    @Test
+    void asynchronousFetchTimesOutAtTheDeadline() throws Exception {
+        configureBackoff(0);
+        this.properties.setTimeout(Duration.ofMillis(100));
+        this.transport.answer(empty(10), empty(10), empty(10));
+        AWSAppConfigStartupFetcher.Result result = new AWSAppConfigStartupFetcher(this.properties).fetchAsync(this.session, this.executor)
+                .get(5, TimeUnit.SECONDS);
+        assertThat(result.isTimedOut()).isTrue();
+        assertThat(result.getAttempts()).isEqualTo(2);
+        assertThat(result.getWaitTime()).isLessThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void asynchronousFetchFailsWithTheFailedPoll() {
+        configureBackoff(3);
+        this.transport.answer(new InternalServerException("Unavailable"), configuration("{}"));
+        CompletableFuture<AWSAppConfigStartupFetcher.Result> result = new AWSAppConfigStartupFetcher(this.properties)
+                .fetchAsync(this.session, this.executor);
+        assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(InternalServerException.class);
+        assertThat(this.transport.polls).isEqualTo(1);
+    }
+
+    private void configureBackoff(int retries) {
+        this.properties.setInitialBackoff(Duration.ofMillis(20));
+        this.properties.setMaxBackoff(Duration.ofMillis(80));
+        this.properties.setBackoffRetries(retries);
+        this.properties.setTimeout(Duration.ofSeconds(5));
+    }
+
+    private static GetLatestConfigurationResult empty(Integer nextPollInterval) {
+        return new GetLatestConfigurationResult().withConfiguration(ByteBuffer.allocate(0)).withNextPollIntervalInSeconds(nextPollInterval);
+    }
+
+    private static GetLatestConfigurationResult configuration(String json) {
+        return new GetLatestConfigurationResult().withConfiguration(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)))
+                .withContentType("application/json").withVersionLabel("1");
+    }
+
+    /**
+     * Transport answering polls with the scripted results or failures, in order.
+     */
+    private static class ScriptedTransport implements AWSAppConfigTransport {
+
+        private final Deque<Object> answers = new ArrayDeque<>();
+
+        private volatile int sessions;
+
+        private volatile int polls;
+
+        void answer(Object... answers) {
+            this.answers.addAll(List.of(answers));
+        }
+
+        @Override
+        public CompletableFuture<String> startConfigurationSession(StartConfigurationSessionRequest request) {
+            this.sessions++;
+            return CompletableFuture.completedFuture("token-0");
+        }
+
+        @Override
+        public synchronized CompletableFuture<GetLatestConfigurationResult> getLatestConfiguration(String configurationToken) {
+            this.polls++;
+            Object answer = this.answers.poll();
+            if (answer instanceof RuntimeException failure) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            GetLatestConfigurationResult configurationResult = (answer != null) ? (GetLatestConfigurationResult) answer : empty(null);
+            return CompletableFuture.completedFuture(configurationResult.withNextPollConfigurationToken("token-" + this.polls));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MimeType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Decodes JSON payloads with the {@link JsonPayloadDecoder}.
+ */
+class JsonPayloadDecoderTests {
+
+    private final JsonPayloadDecoder decoder = new JsonPayloadDecoder();
+
+    @Test
+    void supportsJsonContentTypes() {
+        assertThat(this.decoder.supports(MimeType.valueOf("application/json"))).isTrue();
+        assertThat(this.decoder.supports(MimeType.valueOf("application/vnd.config+json; charset=UTF-8"))).isTrue();
+        assertThat(this.decoder.supports(MimeType.valueOf("application/x-yaml"))).isFalse();
+    }
+
+    @Test
+    void nestedObjectsAndArraysAreFlattened() throws IOException {
+        String json = "{\"server\":{\"port\":8081,\"ratio\":0.5,\"secure\":true,\"hosts\":[\"a\",\"b\"]},\"empty\":[],"
+                + "\"nothing\":null,\"objects\":[{\"name\":\"x\"},[1,2]],\"codes\":{\"404\":\"nf\"}}";
+        Map<String, Object> document = decode(json, "application/json").get(0);
+        assertThat(document).containsExactly(entry("server.port", 8081), entry("server.ratio", 0.5), entry("server.secure", true),
+                entry("server.hosts[0]", "a"), entry("server.hosts[1]", "b"), entry("empty", ""), entry("nothing", ""),
+                entry("objects[0].name", "x"), entry("objects[1][0]", 1), entry("objects[1][1]", 2), entry("codes.404", "nf"));
+    }
+
+    @Test
+    void topLevelArrayIsIndexed() throws IOException {
+        assertThat(decode("[1,{\"a\":2}]", "application/json")).containsExactly(Map.of("[0]", 1, "[1].a", 2));
+    }
+
+    @Test
+    void topLevelScalarIsKeyedAsDocument() throws IOException {
+        assertThat(decode("\"text\"", "application/json")).containsExactly(Map.of("document", "text"));
+    }
+
+    @Test
+    void emptyPayloadHasNoDocument() throws IOException {
+        assertThat(decode("  ", "application/json")).isEmpty();
+    }
+
+    @Test
+    void declaredCharsetIsUsed() throws IOException {
+        MimeType contentType = MimeType.valueOf("application/json;charset=ISO-8859-1");
+        byte[] payload = "{\"name\":\"café\"}".getBytes(Charset.forName("ISO-8859-1"));
+        assertThat(this.decoder.decode(new ByteArrayInputStream(payload), contentType)).containsExactly(Map.of("name", "café"));
+    }
+
+    @Test
+    void malformedJsonIsRejected() {
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode("{\"a\":", "application/json"));
+    }
+
+    private List<Map<String, Object>> decode(String json, String contentType) throws IOException {
+        return this.decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), MimeType.valueOf(contentType));
+    }
+}
@@ -0,0 +1,49 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MimeType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Decodes {@code .properties} payloads with the {@link PropertiesPayloadDecoder}.
+ */
+class PropertiesPayloadDecoderTests {
+
+    private final PropertiesPayloadDecoder decoder = new PropertiesPayloadDecoder();
+
+    @Test
+    void supportsPropertiesContentTypes() {
+        assertThat(this.decoder.supports(MimeType.valueOf("text/x-java-properties"))).isTrue();
+        assertThat(this.decoder.supports(MimeType.valueOf("text/plain;charset=UTF-8"))).isTrue();
+        assertThat(this.decoder.supports(MimeType.valueOf("application/json"))).isFalse();
+    }
+
+    @Test
+    void keysKeepTheirDeclarationOrder() throws IOException {
+        String properties = "z=1\n# comment\na = two\nm: three\\\n  continued\nunicode=caf\\u00e9\n";
+        assertThat(decode(properties).get(0)).containsExactly(entry("z", "1"), entry("a", "two"), entry("m", "threecontinued"),
+                entry("unicode", "café"));
+    }
+
+    @Test
+    void lastDuplicateKeyWins() throws IOException {
+        assertThat(decode("k=1\nk=2\n")).containsExactly(Map.of("k", "2"));
+    }
+
+    @Test
+    void emptyPayloadHasNoDocument() throws IOException {
+        assertThat(decode("# nothing\n")).isEmpty();
+    }
+
+    private List<Map<String, Object>> decode(String properties) throws IOException {
+        return this.decoder.decode(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)), MimeType.valueOf("text/x-java-properties"));
+    }
+}
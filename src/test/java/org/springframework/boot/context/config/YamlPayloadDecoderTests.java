@@ -0,0 +1,200 @@
+package org.springframework.boot.context.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.util.MimeType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Decodes YAML payloads with the {@link YamlPayloadDecoder}, comparing them with the {@link YamlLoader} built on
+ * SnakeYAML's object tree.
+ */
+class YamlPayloadDecoderTests {
+
+    private static final MimeType YAML = new MimeType("application", "x-yaml");
+
+    private final YamlPayloadDecoder decoder = new YamlPayloadDecoder();
+
+    @Test
+    void nestedMappingsAndSequencesAreFlattened() throws IOException {
+        String yaml = "server:\n  port: 8081\n  hosts:\n    - a\n    - b\nempty: []\nnothing:\nobjects:\n  - name: x\n    size: 1\n";
+        assertThat(decode(yaml)).containsExactly(Map.of("server.port", 8081, "server.hosts[0]", "a", "server.hosts[1]", "b",
+                "empty", "", "nothing", "", "objects[0].name", "x", "objects[0].size", 1));
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void scalarsAreConvertedLikeSafeConstructor() throws IOException {
+        String yaml = "octal: 012\nhex: 0x1F\nunderscore: 1_000\nlong: 3000000000\nbig: 100000000000000000000\nfloat: 1.5e3\n"
+                + "sexagesimal: 1:30\nyes: yes\noff: off\nnull-value: ~\nquoted: \"012\"\nsingle: 'true'\ntagged: !!str 12\n"
+                + "tagged-int: !!int \"12\"\ndate: 2023-03-01\ntimestamp: 2023-03-01T10:15:30Z\nnegative: -7\n";
+        Map<String, Object> document = decode(yaml).get(0);
+        assertThat(document).contains(entry("octal", 10), entry("hex", 31), entry("underscore", 1000), entry("long", 3000000000L),
+                entry("float", 1500.0), entry("sexagesimal", 90), entry("[true]", true), entry("[false]", false),
+                entry("null-value", ""), entry("quoted", "012"), entry("single", "true"), entry("tagged", "12"),
+                entry("tagged-int", 12), entry("negative", -7));
+        assertThat(document.get("big")).hasToString("100000000000000000000");
+        assertThat(document.get("date")).isInstanceOf(Date.class);
+        assertThat(document.get("timestamp")).isEqualTo(Date.from(Instant.parse("2023-03-01T10:15:30Z")));
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void nonStringKeysAreBracketed() throws IOException {
+        String yaml = "codes:\n  404: not-found\n  0x1F4: server-error\n  1.5: ratio\n  true: flag\n  \"500\": quoted\n";
+        assertThat(decode(yaml).get(0)).containsOnlyKeys("codes[404]", "codes[500]", "codes[1.5]", "codes[true]", "codes.500");
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void aliasesReplayAnchoredNodes() throws IOException {
+        String yaml = "base: &base\n  host: localhost\n  ports: [80, 443]\ncopy: *base\nname: &name app\nalias: *name\n"
+                + "list:\n  - &item {a: 1}\n  - *item\n";
+        assertThat(decode(yaml).get(0)).contains(entry("copy.host", "localhost"), entry("copy.ports[1]", 443), entry("alias", "app"),
+                entry("list[1].a", 1));
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void mergedMappingIsReplacedByExplicitKeyAfterMerge() throws IOException {
+        String yaml = "base: &b\n  n:\n    p: 1\n    q: 2\n  r: 3\nchild:\n  <<: *b\n  n:\n    p: 3\n";
+        Map<String, Object> document = decode(yaml).get(0);
+        assertThat(document).contains(entry("child.n.p", 3), entry("child.r", 3)).doesNotContainKey("child.n.q");
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void mergedMappingIsReplacedByExplicitKeyBeforeMerge() throws IOException {
+        String yaml = "base: &b\n  n:\n    p: 1\n    q: 2\n  r: 3\nchild:\n  n:\n    p: 3\n  <<: *b\n";
+        Map<String, Object> document = decode(yaml).get(0);
+        assertThat(document).contains(entry("child.n.p", 3), entry("child.r", 3)).doesNotContainKey("child.n.q");
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void firstMergedMappingTakesPrecedence() throws IOException {
+        String yaml = "a: &a\n  n: {p: 1}\n  x: a\nb: &b\n  n: {q: 2}\n  x: b\n  y: b\nchild:\n  <<: [*a, *b]\n  z: c\n";
+        Map<String, Object> document = decode(yaml).get(0);
+        assertThat(document).contains(entry("child.n.p", 1), entry("child.x", "a"), entry("child.y", "b"), entry("child.z", "c"))
+                .doesNotContainKey("child.n.q");
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void inlineMergedMappingCanBeAnchored() throws IOException {
+        String yaml = "child:\n  <<: &defaults {timeout: 5, retries: 3}\n  retries: 1\nother: *defaults\nnested:\n  inner:\n    <<: *defaults\n";
+        Map<String, Object> document = decode(yaml).get(0);
+        assertThat(document).contains(entry("child.timeout", 5), entry("child.retries", 1), entry("other.retries", 3),
+                entry("nested.inner.timeout", 5));
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void anchoredMappingIncludesItsMergedKeys() throws IOException {
+        String yaml = "base: &base {a: 1}\nmiddle: &middle\n  <<: *base\n  b: 2\nleaf:\n  <<: *middle\n  c: 3\n";
+        assertThat(decode(yaml).get(0)).contains(entry("leaf.a", 1), entry("leaf.b", 2), entry("leaf.c", 3));
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void duplicateKeysAreRejected() {
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode("k: 1\nk: 2\n")).withMessageContaining("duplicate key 'k'");
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode("a:\n  k: 1\n  k: 2\n"));
+    }
+
+    @Test
+    void keysMayRepeatAcrossMappings() throws IOException {
+        assertThat(decode("a:\n  k: 1\nb:\n  k: 2\n")).containsExactly(Map.of("a.k", 1, "b.k", 2));
+    }
+
+    @Test
+    void mergingScalarIsRejected() {
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode("a:\n  <<: 1\n"));
+    }
+
+    @Test
+    void undefinedAliasIsRejected() {
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode("a: *missing\n"));
+    }
+
+    @Test
+    void multiDocumentPayloadsAreSplit() throws IOException {
+        String yaml = "a: 1\n---\nspring.config.activate.on-profile: dev\na: 2\n---\n---\n# only a comment\n---\nb: &x 3\n---\nc: 4\n";
+        List<Map<String, Object>> documents = decode(yaml);
+        assertThat(documents).containsExactly(Map.of("a", 1), Map.of("spring.config.activate.on-profile", "dev", "a", 2),
+                Map.of("b", 3), Map.of("c", 4));
+        assertMatchesYamlLoader(yaml);
+    }
+
+    @Test
+    void anchorsDoNotSpanDocuments() {
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode("a: &x 1\n---\nb: *x\n"));
+    }
+
+    @Test
+    void scalarDocumentIsKeyedAsDocument() throws IOException {
+        assertThat(decode("just text\n")).containsExactly(Map.of("document", "just text"));
+        assertMatchesYamlLoader("just text\n");
+    }
+
+    @Test
+    void aliasesForCollectionsAreLimited() throws IOException {
+        StringBuilder yaml = new StringBuilder("base: &base {a: 1, b: 2}\n");
+        for (int i = 0; i < 50; i++) {
+            yaml.append("copy").append(i).append(": *base\n");
+        }
+        assertThat(decode(yaml.toString()).get(0)).hasSize(102);
+        assertMatchesYamlLoader(yaml.toString());
+        yaml.append("copy50: *base\n");
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode(yaml.toString()))
+                .withMessageContaining("Number of aliases for non-scalar nodes exceeds the specified max=50");
+    }
+
+    @Test
+    void aliasesForScalarsAreNotLimited() throws IOException {
+        StringBuilder yaml = new StringBuilder("base: &base 1\n");
+        for (int i = 0; i < 100; i++) {
+            yaml.append("copy").append(i).append(": *base\n");
+        }
+        assertThat(decode(yaml.toString()).get(0)).hasSize(101);
+    }
+
+    @Test
+    void nestedAliasesCannotExpandExponentially() {
+        StringBuilder yaml = new StringBuilder("l0: &l0 [lol, lol]\n");
+        for (int i = 1; i <= 20; i++) {
+            yaml.append('l').append(i).append(": &l").append(i).append(" [*l").append(i - 1).append(", *l").append(i - 1).append("]\n");
+        }
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> decode(yaml.toString()))
+                .withMessageContaining("Aliases expand to more than 50 times the entries of the payload");
+    }
+
+    @Test
+    void payloadWithoutContentTypeIsDecodedAsYaml() throws IOException {
+        AWSAppConfigPayloadDecoders decoders = new AWSAppConfigPayloadDecoders(List.of(new JsonPayloadDecoder(), this.decoder));
+        ByteBuffer payload = ByteBuffer.wrap("a:\n  b: 1\n".getBytes(StandardCharsets.UTF_8));
+        assertThat(decoders.decode(null, payload.duplicate())).containsExactly(Map.of("a.b", 1));
+        assertThat(decoders.decode(" ", payload.duplicate())).containsExactly(Map.of("a.b", 1));
+    }
+
+    private List<Map<String, Object>> decode(String yaml) throws IOException {
+        return this.decoder.decode(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)), YAML);
+    }
+
+    private void assertMatchesYamlLoader(String yaml) throws IOException {
+        List<Map<String, Object>> expected = new YamlLoader(new ByteArrayResource(yaml.getBytes(StandardCharsets.UTF_8))).load();
+        assertThat(decode(yaml)).isEqualTo(expected);
+    }
+}